@@ -26,6 +26,16 @@ import com.datastax.oss.driver.api.core.type.reflect.GenericType;
 import com.datastax.oss.driver.api.querybuilder.insert.Insert;
 import com.datastax.oss.driver.api.querybuilder.select.Select;
 import com.exactpro.cradle.*;
+import com.exactpro.cradle.cassandra.cache.CachedTimeMessageOperator;
+import com.exactpro.cradle.cassandra.cache.CompressedContentCache;
+import com.exactpro.cradle.cassandra.cache.CompressedContentCache.CachedContent;
+import com.exactpro.cradle.cassandra.cache.MessageBatchCache;
+import com.exactpro.cradle.cassandra.cache.MessageIndexTracker;
+import com.exactpro.cradle.cassandra.cache.MessageLinksFilterCache;
+import com.exactpro.cradle.cassandra.cache.TestEventBatchMetadataCache;
+import com.exactpro.cradle.cassandra.cache.TestEventCache;
+import com.exactpro.cradle.cassandra.cache.TimeIndex;
+import com.exactpro.cradle.cassandra.cache.TimeIndexCache;
 import com.exactpro.cradle.cassandra.connection.CassandraConnection;
 import com.exactpro.cradle.cassandra.connection.CassandraConnectionSettings;
 import com.exactpro.cradle.cassandra.dao.AsyncOperator;
@@ -35,26 +45,44 @@ import com.exactpro.cradle.cassandra.dao.CassandraOperators;
 import com.exactpro.cradle.cassandra.dao.intervals.CassandraIntervalsWorker;
 import com.exactpro.cradle.cassandra.dao.intervals.IntervalSupplies;
 import com.exactpro.cradle.cassandra.dao.messages.*;
+import com.exactpro.cradle.cassandra.dao.messages.converters.InstanceStreamConverter;
+import com.exactpro.cradle.cassandra.dao.messages.converters.MessageLinksFilterConverter;
 import com.exactpro.cradle.cassandra.dao.messages.converters.TimeMessageConverter;
+import com.exactpro.cradle.cassandra.dao.registries.RegistryBackfillEntity;
 import com.exactpro.cradle.cassandra.dao.testevents.*;
+import com.exactpro.cradle.cassandra.dao.testevents.converters.InstanceRootTestEventDateConverter;
 import com.exactpro.cradle.cassandra.dao.testevents.converters.RootTestEventsDatesConverter;
 import com.exactpro.cradle.cassandra.dao.testevents.converters.TestEventChildDatesConverter;
+import com.exactpro.cradle.cassandra.dao.testevents.converters.RootTestEventConverter;
+import com.exactpro.cradle.cassandra.dao.testevents.converters.TestEventChildConverter;
+import com.exactpro.cradle.cassandra.dao.testevents.converters.TimeTestEventConverter;
 import com.exactpro.cradle.cassandra.iterators.*;
 import com.exactpro.cradle.cassandra.linkers.CassandraTestEventsMessagesLinker;
 import com.exactpro.cradle.cassandra.linkers.LinkerSupplies;
 import com.exactpro.cradle.cassandra.retries.*;
+import com.exactpro.cradle.cassandra.utils.BackfilledRegistry;
 import com.exactpro.cradle.cassandra.utils.CassandraMessageUtils;
+import com.exactpro.cradle.cassandra.utils.MessageIdsRange;
+import com.exactpro.cradle.cassandra.utils.MessageStatisticsCollector;
 import com.exactpro.cradle.cassandra.utils.QueryExecutor;
+import com.exactpro.cradle.cassandra.utils.WriteOnceRegistry;
 import com.exactpro.cradle.intervals.IntervalsWorker;
+import com.exactpro.cradle.messages.MultiStreamMessageFilter;
 import com.exactpro.cradle.messages.StoredMessage;
 import com.exactpro.cradle.messages.StoredMessageBatch;
+import com.exactpro.cradle.messages.StoredMessageBatchId;
+import com.exactpro.cradle.messages.StoredMessageBatchInfo;
 import com.exactpro.cradle.messages.StoredMessageFilter;
+import com.exactpro.cradle.messages.StoredMessageFilterBuilder;
 import com.exactpro.cradle.messages.StoredMessageId;
+import com.exactpro.cradle.messages.StreamStatistics;
 import com.exactpro.cradle.testevents.StoredTestEventWrapper;
+import com.exactpro.cradle.testevents.TestEventTreeNode;
 import com.exactpro.cradle.testevents.StoredTestEvent;
 import com.exactpro.cradle.testevents.StoredTestEventId;
 import com.exactpro.cradle.testevents.StoredTestEventMetadata;
 import com.exactpro.cradle.testevents.TestEventsMessagesLinker;
+import com.exactpro.cradle.utils.CradleIdException;
 import com.exactpro.cradle.utils.CradleStorageException;
 import com.exactpro.cradle.utils.MessageUtils;
 
@@ -66,12 +94,22 @@ import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.time.*;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.*;
 import static com.exactpro.cradle.cassandra.CassandraStorageSettings.*;
@@ -82,6 +120,12 @@ public class CassandraCradleStorage extends CradleStorage
 	public static final long EMPTY_MESSAGE_INDEX = -1L;
 	private Logger logger = LoggerFactory.getLogger(CassandraCradleStorage.class);
 	public static final ZoneOffset TIMEZONE_OFFSET = ZoneOffset.UTC;
+	/**
+	 * Max difference between indices of messages requested by IDs to read their batches by one query
+	 */
+	private static final long MESSAGE_IDS_MAX_GAP = 1000;
+	private static final String STREAMS_REGISTRY = "streams",
+			ROOT_EVENT_DATES_REGISTRY = "root_event_dates";
 
 	private final CassandraConnection connection;
 	private final CassandraStorageSettings settings;
@@ -95,12 +139,38 @@ public class CassandraCradleStorage extends CradleStorage
 			readAttrs,
 			strictReadAttrs;
 	private int resultPageSize;
+	private final int decodingThreads,
+			decodingLookahead,
+			maxParallelDailyQueries,
+			maxParallelEventPointReads,
+			maxParallelEventTreeQueries,
+			maxBufferedEventTreeNodes;
 	private SelectExecutionPolicy multiRowResultExecPolicy, singleRowResultExecPolicy;
 	
 	private QueryExecutor exec;
 	private SelectQueryExecutor selectExecutor;
 	private CompleteEventsGetter completeEventsGetter;
 	private PagingSupplies pagingSupplies;
+	private ExecutorService decodingExecutor;
+	private ExecutorService submittingExecutor;
+	private final MessageBatchCache messageBatchCache;
+	private final CompressedContentCache contentCache;
+	private final TestEventCache testEventCache;
+	private final TestEventBatchMetadataCache testEventBatchMetadataCache;
+	private final TimeIndexCache timeIndexCache;
+	private final MessageLinksFilterCache messageLinksFilterCache;
+	private TimeMessageOperator timeMessageOperator;
+	private final MessageIndexTracker indexTracker;
+	private final long indexRefreshInterval;
+	private ScheduledExecutorService indexRefresher;
+	private final WriteOnceRegistry<String> registeredStreams = new WriteOnceRegistry<>();
+	private final WriteOnceRegistry<LocalDate> registeredRootEventDates = new WriteOnceRegistry<>();
+	private final BackfilledRegistry<String> streamsRegistry = new BackfilledRegistry<>(STREAMS_REGISTRY, 
+			this::readRegisteredStreams, this::getStreamsFromMessages, this::registerStream, 
+			() -> isRegistryBackfilled(STREAMS_REGISTRY), () -> markRegistryBackfilled(STREAMS_REGISTRY));
+	private final BackfilledRegistry<LocalDate> rootEventDatesRegistry = new BackfilledRegistry<>(ROOT_EVENT_DATES_REGISTRY, 
+			this::readRegisteredRootEventDates, this::getRootTestEventsDatesFromEvents, this::registerRootEventDate, 
+			() -> isRegistryBackfilled(ROOT_EVENT_DATES_REGISTRY), () -> markRegistryBackfilled(ROOT_EVENT_DATES_REGISTRY));
 
 	private TestEventsMessagesLinker testEventsMessagesLinker;
 	private IntervalsWorker intervalsWorker;
@@ -114,6 +184,26 @@ public class CassandraCradleStorage extends CradleStorage
 		this.semaphore = new CassandraSemaphore(conSettings.getMaxParallelQueries());
 		this.objectsFactory = new CradleObjectsFactory(settings.getMaxMessageBatchSize(), settings.getMaxTestEventBatchSize());
 		this.resultPageSize = conSettings.getResultPageSize();
+		this.decodingThreads = conSettings.getMessageBatchDecodingThreads();
+		this.decodingLookahead = conSettings.getMessageBatchDecodingLookahead();
+		this.maxParallelDailyQueries = conSettings.getMaxParallelDailyQueries();
+		this.maxParallelEventPointReads = conSettings.getMaxParallelEventPointReads();
+		this.maxParallelEventTreeQueries = conSettings.getMaxParallelEventTreeQueries();
+		this.maxBufferedEventTreeNodes = conSettings.getMaxBufferedEventTreeNodes();
+		this.messageBatchCache = conSettings.getMessageBatchCacheSize() > 0 ? new MessageBatchCache(conSettings.getMessageBatchCacheSize()) : null;
+		this.contentCache = conSettings.getCompressedContentCacheSize() > 0 ? new CompressedContentCache(conSettings.getCompressedContentCacheSize()) : null;
+		this.testEventCache = conSettings.getTestEventCacheSize() > 0 
+				? new TestEventCache(conSettings.getTestEventCacheSize(), conSettings.getTestEventCacheTtl()) : null;
+		this.testEventBatchMetadataCache = conSettings.getTestEventBatchMetadataCacheSize() > 0 
+				? new TestEventBatchMetadataCache(conSettings.getTestEventBatchMetadataCacheSize()) : null;
+		this.timeIndexCache = conSettings.getTimeIndexCacheSize() > 0 
+				? new TimeIndexCache(conSettings.getTimeIndexCacheSize(), conSettings.getTimeIndexCacheTtl(), this::loadTimeIndex) : null;
+		this.messageLinksFilterCache = conSettings.getMessageLinksFilterCacheSize() > 0 
+				? new MessageLinksFilterCache(conSettings.getMessageLinksFilterCacheSize(), conSettings.getMessageLinksFilterCacheTtl(), 
+						conSettings.getMessageLinksFilterBucketSize(), conSettings.getMessageLinksFilterBits(), 
+						this::loadMessageLinksFilters, this::writeMessageLinksFilterBits, this::writeMessageLinksCoverage) : null;
+		this.indexTracker = conSettings.isTrackMessageIndices() ? new MessageIndexTracker(this::loadMessageIndex) : null;
+		this.indexRefreshInterval = conSettings.getMessageIndexRefreshInterval();
 		
 		this.multiRowResultExecPolicy = conSettings.getSelectExecutionPolicy();
 		if (this.multiRowResultExecPolicy == null)
@@ -129,6 +219,69 @@ public class CassandraCradleStorage extends CradleStorage
 	{
 		return instanceUuid;
 	}
+	
+	/**
+	 * @return cache of decoded message batches, which also provides hit/miss statistics. 
+	 * Null if cache is disabled by {@link CassandraConnectionSettings#setMessageBatchCacheSize(long)}
+	 */
+	public MessageBatchCache getMessageBatchCache()
+	{
+		return messageBatchCache;
+	}
+	
+	/**
+	 * @return off-heap cache of message batches and test events content as it is stored in Cassandra, except for status of test events. 
+	 * Null if cache is disabled by {@link CassandraConnectionSettings#setCompressedContentCacheSize(long)}
+	 */
+	public CompressedContentCache getContentCache()
+	{
+		return contentCache;
+	}
+	
+	/**
+	 * @return cache of test events, which also provides hit/miss statistics. 
+	 * Null if cache is disabled by {@link CassandraConnectionSettings#setTestEventCacheSize(int)}
+	 */
+	public TestEventCache getTestEventCache()
+	{
+		return testEventCache;
+	}
+	
+	/**
+	 * @return cache of decoded metadata of test event batches, which also provides hit/miss statistics. 
+	 * Null if cache is disabled by {@link CassandraConnectionSettings#setTestEventBatchMetadataCacheSize(int)}
+	 */
+	public TestEventBatchMetadataCache getTestEventBatchMetadataCache()
+	{
+		return testEventBatchMetadataCache;
+	}
+	
+	/**
+	 * @return cache of message time indices, which also provides hit/miss statistics. 
+	 * Null if cache is disabled by {@link CassandraConnectionSettings#setTimeIndexCacheSize(long)}
+	 */
+	public TimeIndexCache getTimeIndexCache()
+	{
+		return timeIndexCache;
+	}
+	
+	/**
+	 * @return cache of Bloom filters of messages with linked test events, which also provides hit/miss statistics. 
+	 * Null if filters are disabled by {@link CassandraConnectionSettings#setMessageLinksFilterCacheSize(int)}
+	 */
+	public MessageLinksFilterCache getMessageLinksFilterCache()
+	{
+		return messageLinksFilterCache;
+	}
+	
+	/**
+	 * @return tracker of first and last message indices, which also provides hit statistics. 
+	 * Null if tracking is disabled by {@link CassandraConnectionSettings#setTrackMessageIndices(boolean)}
+	 */
+	public MessageIndexTracker getMessageIndexTracker()
+	{
+		return indexTracker;
+	}
 
 
 	@Override
@@ -151,6 +304,33 @@ public class CassandraCradleStorage extends CradleStorage
 					settings.getTimeout(), settings.getWriteConsistencyLevel(), settings.getReadConsistencyLevel());
 			selectExecutor = new SelectQueryExecutor(session, semaphore, multiRowResultExecPolicy, singleRowResultExecPolicy);
 			pagingSupplies = new PagingSupplies(session, multiRowResultExecPolicy);
+			if (decodingThreads > 0)
+			{
+				logger.info("Message batches will be decoded by {} thread(s) with lookahead of {} batch(es)", decodingThreads, decodingLookahead);
+				AtomicInteger decoderNumber = new AtomicInteger();
+				decodingExecutor = Executors.newFixedThreadPool(decodingThreads, r -> {
+					Thread t = new Thread(r, "cradle-batch-decoder-"+decoderNumber.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+			}
+			//Threads of this executor submit queries that may wait for free query slot. 
+			//Threads that complete queries shouldn't wait for it, so they pass such submissions to this executor
+			AtomicInteger submitterNumber = new AtomicInteger();
+			submittingExecutor = Executors.newCachedThreadPool(r -> {
+				Thread t = new Thread(r, "cradle-query-submitter-"+submitterNumber.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+			if (indexTracker != null && indexRefreshInterval > 0)
+			{
+				indexRefresher = Executors.newSingleThreadScheduledExecutor(r -> {
+					Thread t = new Thread(r, "cradle-index-refresher");
+					t.setDaemon(true);
+					return t;
+				});
+				indexRefresher.scheduleWithFixedDelay(indexTracker::refresh, indexRefreshInterval, indexRefreshInterval, TimeUnit.MILLISECONDS);
+			}
 			
 			if (prepareStorage)
 			{
@@ -164,6 +344,8 @@ public class CassandraCradleStorage extends CradleStorage
 			instanceUuid = getInstanceId(instanceName);
 			CassandraDataMapper dataMapper = new CassandraDataMapperBuilder(session).build();
 			ops = createOperators(dataMapper, settings);
+			timeMessageOperator = timeIndexCache != null 
+					? new CachedTimeMessageOperator(ops.getTimeMessageOperator(), timeIndexCache) : ops.getTimeMessageOperator();
 			Duration timeout = Duration.ofMillis(settings.getTimeout());
 			writeAttrs = builder -> builder.setConsistencyLevel(settings.getWriteConsistencyLevel())
 					.setTimeout(timeout);
@@ -176,13 +358,15 @@ public class CassandraCradleStorage extends CradleStorage
 			
 			LinkerSupplies supplies = new LinkerSupplies(ops.getTestEventMessagesOperator(), ops.getMessageTestEventOperator(),
 					ops.getTestEventMessagesConverter(), ops.getMessageTestEventConverter());
-			testEventsMessagesLinker = new CassandraTestEventsMessagesLinker(supplies, instanceUuid, readAttrs, semaphore,
-					selectExecutor, pagingSupplies);
+			testEventsMessagesLinker = new CassandraTestEventsMessagesLinker(supplies, instanceUuid, readAttrs,
+					selectExecutor, pagingSupplies, messageLinksFilterCache, submittingExecutor);
 			completeEventsGetter = new CompleteEventsGetter(instanceUuid, readAttrs, multiRowResultExecPolicy, objectsFactory,
-					ops.getTestEventOperator(), ops.getTestEventConverter(), pagingSupplies);
+					ops.getTestEventOperator(), ops.getTestEventConverter(), pagingSupplies, 
+					this::doGetTestEventAsync, maxParallelEventPointReads, submittingExecutor);
 			
 			IntervalSupplies intervalSupplies = new IntervalSupplies(ops.getIntervalOperator(), ops.getIntervalConverter(), pagingSupplies);
-			intervalsWorker = new CassandraIntervalsWorker(semaphore, instanceUuid, writeAttrs, readAttrs, intervalSupplies);
+			intervalsWorker = new CassandraIntervalsWorker(semaphore, instanceUuid, writeAttrs, readAttrs, intervalSupplies, 
+					maxParallelDailyQueries);
 			return instanceUuid.toString();
 		}
 		catch (IOException e)
@@ -194,6 +378,15 @@ public class CassandraCradleStorage extends CradleStorage
 	@Override
 	protected void doDispose() throws CradleStorageException
 	{
+		if (decodingExecutor != null)
+			decodingExecutor.shutdownNow();
+		if (indexRefresher != null)
+			indexRefresher.shutdownNow();
+		if (submittingExecutor != null)
+			submittingExecutor.shutdownNow();
+		if (contentCache != null)
+			contentCache.dispose();
+		
 		logger.info("Disconnecting from Cassandra...");
 		try
 		{
@@ -246,7 +439,7 @@ public class CassandraCradleStorage extends CradleStorage
 					TimeMessageEntity timeEntity = new TimeMessageEntity(message, instanceUuid);
 
 					logger.trace("Executing time/message storing query for message {}", message.getId());
-					return ops.getTimeMessageOperator().writeMessage(timeEntity, writeAttrs);
+					return timeMessageOperator.writeMessage(timeEntity, writeAttrs);
 				});
 		return future.thenAccept(e -> {});
 	}
@@ -296,7 +489,14 @@ public class CassandraCradleStorage extends CradleStorage
 			futures.add(storeEventDateInParent(event).thenAccept(r -> {}));
 		}
 		else
+		{
 			futures.add(storeRootEvent(event).thenAccept(r -> {}));
+			//Event is stored even if its date couldn't be registered, next root event of the date will try to register it again
+			futures.add(storeRootEventDate(event).exceptionally(error -> {
+				logger.warn("Could not register date of root event {}", event.getId(), error);
+				return null;
+			}));
+		}
 
 		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
 	}
@@ -382,6 +582,9 @@ public class CassandraCradleStorage extends CradleStorage
 	@Override
 	protected CompletableFuture<Collection<StoredMessage>> doGetMessageBatchAsync(StoredMessageId id)
 	{
+		if (messageBatchCache != null || contentCache != null)
+			return readCachedMessageBatch(id, true).thenApply(batch -> batch != null ? new ArrayList<>(batch) : null);
+		
 		CompletableFuture<DetailedMessageBatchEntity> entityFuture = readMessageBatchEntity(id, true);
 		return entityFuture.thenApplyAsync(entity -> {
 			if (entity == null)
@@ -398,6 +601,32 @@ public class CassandraCradleStorage extends CradleStorage
 		});
 	}
 
+	@Override
+	protected List<StoredMessage> doGetMessages(Collection<StoredMessageId> ids) throws IOException
+	{
+		try
+		{
+			return doGetMessagesAsync(ids).get();
+		}
+		catch (Exception e)
+		{
+			throw new IOException("Error while getting "+ids.size()+" message(s) by IDs", e);
+		}
+	}
+
+	@Override
+	protected CompletableFuture<List<StoredMessage>> doGetMessagesAsync(Collection<StoredMessageId> ids)
+	{
+		Set<StoredMessageId> requested = new HashSet<>(ids);
+		Map<StoredMessageId, StoredMessage> found = new ConcurrentHashMap<>();
+		Collection<StoredMessageId> toRead = messageBatchCache != null ? findCachedMessages(requested, found) : requested;
+		CompletableFuture<?>[] futures = MessageIdsRange.split(toRead, MESSAGE_IDS_MAX_GAP).stream()
+				.map(range -> readMessagesRange(range, requested, found))
+				.toArray(CompletableFuture[]::new);
+		return CompletableFuture.allOf(futures)
+				.thenApply(r -> ids.stream().map(found::get).collect(toList()));
+	}
+
 	@Override
 	protected StoredMessage doGetProcessedMessage(StoredMessageId id) throws IOException
 	{
@@ -420,24 +649,32 @@ public class CassandraCradleStorage extends CradleStorage
 	@Override
 	protected long doGetFirstMessageIndex(String streamName, Direction direction) throws IOException
 	{
+		if (indexTracker != null)
+			return indexTracker.getFirstIndex(settings.getMessagesTableName(), streamName, direction);
 		return getFirstIndex(ops.getMessageBatchOperator(), streamName, direction);
 	}
 	
 	@Override
 	protected long doGetLastMessageIndex(String streamName, Direction direction) throws IOException
 	{
+		if (indexTracker != null)
+			return indexTracker.getLastIndex(settings.getMessagesTableName(), streamName, direction);
 		return getLastIndex(ops.getMessageBatchOperator(), streamName, direction);
 	}
 
 	@Override
 	protected long doGetFirstProcessedMessageIndex(String streamName, Direction direction) throws IOException
 	{
+		if (indexTracker != null)
+			return indexTracker.getFirstIndex(settings.getProcessedMessagesTableName(), streamName, direction);
 		return getFirstIndex(ops.getProcessedMessageBatchOperator(), streamName, direction);
 	}
 
 	@Override
 	protected long doGetLastProcessedMessageIndex(String streamName, Direction direction) throws IOException
 	{
+		if (indexTracker != null)
+			return indexTracker.getLastIndex(settings.getProcessedMessagesTableName(), streamName, direction);
 		return getLastIndex(ops.getProcessedMessageBatchOperator(), streamName, direction);
 	}
 
@@ -473,9 +710,10 @@ public class CassandraCradleStorage extends CradleStorage
 			Instant timestamp, TimeRelation timeRelation)
 	{
 		LocalDateTime messageDateTime = LocalDateTime.ofInstant(timestamp, TIMEZONE_OFFSET);
-		TimeMessageOperator tmOperator = ops.getTimeMessageOperator();
+		TimeMessageOperator tmOperator = timeMessageOperator;
 		TimeMessageConverter converter = ops.getTimeMessageConverter();
-		CompletableFuture<TimeMessageEntity> result = timeRelation == TimeRelation.BEFORE
+		CompletableFuture<TimeMessageEntity> result = afterTimeIndicesLoaded(streamName, direction, 
+				Collections.singletonList(timestamp), () -> timeRelation == TimeRelation.BEFORE
 				? selectExecutor.executeSingleRowResultQuery(
 						() -> tmOperator.getNearestMessageBefore(instanceUuid, streamName, messageDateTime.toLocalDate(),
 								direction.getLabel(), messageDateTime.toLocalTime(), readAttrs),
@@ -484,7 +722,7 @@ public class CassandraCradleStorage extends CradleStorage
 				: selectExecutor.executeSingleRowResultQuery(
 						() -> tmOperator.getNearestMessageAfter(instanceUuid, streamName, messageDateTime.toLocalDate(),
 								direction.getLabel(), messageDateTime.toLocalTime(), readAttrs),
-						converter, "getting nearest message time after " + timestamp);
+						converter, "getting nearest message time after " + timestamp));
 
 		return result;
 	}
@@ -505,21 +743,85 @@ public class CassandraCradleStorage extends CradleStorage
 	@Override
 	protected CompletableFuture<StoredTestEventWrapper> doGetTestEventAsync(StoredTestEventId id)
 	{
+		if (testEventCache != null)
+		{
+			StoredTestEventWrapper cached = testEventCache.get(id);
+			if (cached != null)
+				return CompletableFuture.completedFuture(cached);
+		}
+		
+		//Stamp is obtained before reading, so that test event is not cached if its status is updated while it is being read
+		long stamp = testEventCache != null ? testEventCache.getStamp() : 0;
 		String queryInfo = format("getting test event by id '%s'", id);
-		return selectExecutor.executeSingleRowResultQuery(
-						() -> ops.getTestEventOperator().get(instanceUuid, id.toString(), readAttrs),
-						ops.getTestEventConverter(), queryInfo)
-				.thenApply(e ->
+		CompletableFuture<TestEventEntity> entityFuture = null;
+		if (contentCache != null)
+		{
+			try
+			{
+				TestEventEntity cached = contentCache.getTestEvent(settings.getTestEventsTableName(), id.toString());
+				if (cached != null)
 				{
-					try
-					{
-						return e != null ? e.toStoredTestEventWrapper(objectsFactory) : null;
-					}
-					catch (Exception error)
-					{
-						throw new CompletionException("Could not get test event", error);
-					}
-				});
+					//Status can be updated, so it is not cached and is always read from Cassandra
+					cached.setInstanceId(instanceUuid);
+					entityFuture = selectExecutor.executeSingleRowResultQuery(
+							() -> ops.getTestEventOperator().getStatus(instanceUuid, id.toString(), readAttrs),
+							r -> r, format("getting status of test event '%s'", id))
+							.thenApply(row -> {
+								if (row == null)
+									return null;
+								cached.setSuccess(row.getBoolean(SUCCESS));
+								return cached;
+							});
+				}
+			}
+			catch (IOException e)
+			{
+				logger.warn("Could not restore test event '"+id+"' from cache", e);
+			}
+		}
+		
+		if (entityFuture == null)
+		{
+			entityFuture = selectExecutor.executeSingleRowResultQuery(
+					() -> ops.getTestEventOperator().get(instanceUuid, id.toString(), readAttrs),
+					ops.getTestEventConverter(), queryInfo);
+			if (contentCache != null)
+				entityFuture = entityFuture.thenApply(e -> cacheTestEvent(e));
+		}
+		
+		CompletableFuture<StoredTestEventWrapper> result = entityFuture.thenApply(e -> {
+			try
+			{
+				return e != null ? e.toStoredTestEventWrapper(objectsFactory) : null;
+			}
+			catch (Exception error)
+			{
+				throw new CompletionException("Could not get test event", error);
+			}
+		});
+		if (testEventCache != null)
+			result = result.thenApply(event -> {
+				if (event != null)
+					testEventCache.put(event, stamp);
+				return event;
+			});
+		return result;
+	}
+	
+	private TestEventEntity cacheTestEvent(TestEventEntity entity)
+	{
+		if (entity == null)
+			return null;
+		
+		try
+		{
+			contentCache.putTestEvent(settings.getTestEventsTableName(), entity);
+		}
+		catch (IOException e)
+		{
+			logger.warn("Could not put test event '"+entity.getId()+"' to cache", e);
+		}
+		return entity;
 	}
 
 	@Override
@@ -538,6 +840,9 @@ public class CassandraCradleStorage extends CradleStorage
 	@Override
 	protected CompletableFuture<Iterable<StoredTestEventWrapper>> doGetCompleteTestEventsAsync(Set<StoredTestEventId> ids)
 	{
+		//Each point read acquires the semaphore by itself, so not wrapping them to avoid holding extra permit
+		if (completeEventsGetter.isPointReads())
+			return completeEventsGetter.get(ids, "get test events "+ids);
 		return new AsyncOperator<Iterable<StoredTestEventWrapper>>(semaphore)
 						.getFuture(() -> completeEventsGetter.get(ids, "get test events "+ids));
 	}
@@ -570,7 +875,36 @@ public class CassandraCradleStorage extends CradleStorage
 	{
 		String queryInfo = "getting messages filtered by "+filter;
 		return doGetDetailedMessageBatchEntities(filter, queryInfo)
-				.thenApply(it -> new MessagesIteratorAdapter(filter, it, pagingSupplies, ops.getMessageBatchConverter(), queryInfo));
+				.thenApply(it -> new MessagesIteratorAdapter(filter, it, pagingSupplies, ops.getMessageBatchConverter(), queryInfo,
+						decodingExecutor, decodingLookahead));
+	}
+
+
+	@Override
+	protected Iterable<StoredMessage> doGetMessages(MultiStreamMessageFilter filter) throws IOException
+	{
+		try
+		{
+			return doGetMessagesAsync(filter).get();
+		}
+		catch (Exception e)
+		{
+			throw new IOException("Error while getting messages filtered by "+filter, e);
+		}
+	}
+
+	@Override
+	protected CompletableFuture<Iterable<StoredMessage>> doGetMessagesAsync(MultiStreamMessageFilter filter)
+	{
+		String queryInfo = "getting messages of several streams filtered by "+filter;
+		List<StoredMessageFilter> streamFilters = filter.toStreamFilters();
+		List<CompletableFuture<MappedAsyncPagingIterable<DetailedMessageBatchEntity>>> futures = streamFilters.stream()
+				.map(f -> doGetDetailedMessageBatchEntities(f, queryInfo))
+				.collect(toList());
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+				.thenApply(r -> new MultiStreamMessagesIteratorAdapter(filter, streamFilters,
+						futures.stream().map(CompletableFuture::join).collect(toList()),
+						pagingSupplies, ops.getMessageBatchConverter(), queryInfo));
 	}
 
 
@@ -593,17 +927,164 @@ public class CassandraCradleStorage extends CradleStorage
 		String queryInfo = "getting message batches filtered by "+filter;
 		return doGetDetailedMessageBatchEntities(filter, queryInfo)
 				.thenApply(it -> new StoredMessageBatchAdapter(it, pagingSupplies, ops.getMessageBatchConverter(), queryInfo,
-						objectsFactory, filter == null ? 0 : filter.getLimit()));
+						objectsFactory, filter == null ? 0 : filter.getLimit(), decodingExecutor, decodingLookahead));
+	}
+
+	@Override
+	protected Iterable<StoredMessageBatchInfo> doGetMessagesBatchesInfo(StoredMessageFilter filter) throws IOException
+	{
+		try
+		{
+			return doGetMessagesBatchesInfoAsync(filter).get();
+		}
+		catch (Exception e)
+		{
+			throw new IOException("Error while getting message batches info filtered by "+filter, e);
+		}
+	}
+	
+	@Override
+	protected CompletableFuture<Iterable<StoredMessageBatchInfo>> doGetMessagesBatchesInfoAsync(StoredMessageFilter filter)
+	{
+		String queryInfo = "getting message batches info filtered by "+filter;
+		MessageBatchOperator mbOp = ops.getMessageBatchOperator();
+		TimeMessageOperator tmOp = timeMessageOperator;
+		return afterTimeIndicesLoaded(filter, () -> selectExecutor.executeMultiRowResultQuery(
+						() -> mbOp.filterMessageBatchesInfo(instanceUuid, filter, mbOp, tmOp, readAttrs),
+						ops.getMessageBatchInfoConverter(), queryInfo))
+				.thenApply(it -> new MessageBatchInfoIteratorAdapter(it, pagingSupplies, ops.getMessageBatchInfoConverter(), queryInfo,
+						filter == null ? 0 : filter.getLimit()));
+	}
+	
+	@Override
+	protected long doCountMessages(StoredMessageFilter filter) throws IOException
+	{
+		try
+		{
+			return doCountMessagesAsync(filter).get();
+		}
+		catch (Exception e)
+		{
+			throw new IOException("Error while counting messages filtered by "+filter, e);
+		}
+	}
+	
+	@Override
+	protected CompletableFuture<Long> doCountMessagesAsync(StoredMessageFilter filter)
+	{
+		return collectMessageStatistics(filter, "counting messages filtered by "+filter)
+				.thenApply(MessageStatisticsCollector::getMessageCount);
+	}
+	
+	@Override
+	protected StreamStatistics doGetStreamStatistics(String streamName, Direction direction, Instant from, Instant to) 
+			throws IOException
+	{
+		try
+		{
+			return doGetStreamStatisticsAsync(streamName, direction, from, to).get();
+		}
+		catch (Exception e)
+		{
+			throw new IOException("Error while getting statistics of stream '"+streamName+"', direction '"+direction
+					+"' for range "+from+".."+to, e);
+		}
+	}
+	
+	@Override
+	protected CompletableFuture<StreamStatistics> doGetStreamStatisticsAsync(String streamName, Direction direction, 
+			Instant from, Instant to)
+	{
+		StoredMessageFilterBuilder builder = new StoredMessageFilterBuilder()
+				.streamName().isEqualTo(streamName)
+				.direction().isEqualTo(direction);
+		if (from != null)
+			builder = builder.timestampFrom().isGreaterThanOrEqualTo(from);
+		if (to != null)
+			builder = builder.timestampTo().isLessThanOrEqualTo(to);
+		StoredMessageFilter filter = builder.build();
+		return collectMessageStatistics(filter, 
+				format("getting statistics of stream '%s', direction '%s' for range %s..%s", streamName, direction, from, to))
+				.thenApply(collector -> collector.toStreamStatistics(streamName, direction));
+	}
+	
+	/**
+	 * Collects statistics of messages matching the filter from metadata of message batches. 
+	 * Batches that only partially match the filter are checked by positions of their messages, if stored. 
+	 * Otherwise such batches, normally found on range boundaries, are decoded
+	 */
+	private CompletableFuture<MessageStatisticsCollector> collectMessageStatistics(StoredMessageFilter filter, String queryInfo)
+	{
+		StoredMessageFilter batchesFilter;
+		if (filter != null)
+		{
+			batchesFilter = new StoredMessageFilter(filter);
+			batchesFilter.setLimit(0);
+		}
+		else
+			batchesFilter = null;
+		
+		MessageBatchOperator mbOp = ops.getMessageBatchOperator();
+		TimeMessageOperator tmOp = timeMessageOperator;
+		MessageStatisticsCollector collector = new MessageStatisticsCollector(filter);
+		return afterTimeIndicesLoaded(batchesFilter, () -> selectExecutor.executeMultiRowResultQuery(
+						() -> mbOp.filterMessageBatchesInfo(instanceUuid, batchesFilter, mbOp, tmOp, readAttrs),
+						ops.getMessageBatchInfoConverter(), queryInfo))
+				.thenComposeAsync(rs -> {
+					//Pages are processed one after another, so the list is never accessed concurrently
+					List<CompletableFuture<Void>> boundaries = new ArrayList<>();
+					return new AsyncPageReader<>(pagingSupplies, ops.getMessageBatchInfoConverter(), queryInfo).forEach(rs, entity -> {
+						StoredMessageBatchInfo info = entity.toStoredMessageBatchInfo();
+						switch (MessageBatchFilterMatcher.match(filter, info))
+						{
+						case NONE : 
+							break;
+						case ALL : 
+							collector.addBatch(info);
+							break;
+						default : 
+							if (info.getMessagePositions() != null)
+								collector.addPositions(info.getMessagePositions());
+							else
+							{
+								StoredMessageBatchId id = info.getId();
+								StoredMessageId firstId = new StoredMessageId(id.getStreamName(), id.getDirection(), id.getIndex());
+								boundaries.add(readCachedMessageBatch(firstId, true)
+										.thenAccept(messages -> {
+											if (messages != null)
+												collector.addMessages(messages);
+										}));
+							}
+						}
+					}).thenCompose(r -> CompletableFuture.allOf(boundaries.toArray(new CompletableFuture[0])));
+				})
+				.thenApply(r -> collector);
+	}
+
+	@Override
+	protected Flow.Publisher<StoredMessage> doGetMessagesPublisher(StoredMessageFilter filter)
+	{
+		String queryInfo = "publishing messages filtered by "+filter;
+		return new MessagesPublisher(filter, () -> doGetDetailedMessageBatchEntities(filter, queryInfo), 
+				pagingSupplies, ops.getMessageBatchConverter(), queryInfo, submittingExecutor);
+	}
+
+	@Override
+	protected Flow.Publisher<StoredMessageBatch> doGetMessagesBatchesPublisher(StoredMessageFilter filter)
+	{
+		String queryInfo = "publishing message batches filtered by "+filter;
+		return new StoredMessageBatchPublisher(() -> doGetDetailedMessageBatchEntities(filter, queryInfo), 
+				pagingSupplies, ops.getMessageBatchConverter(), queryInfo, submittingExecutor, filter == null ? 0 : filter.getLimit());
 	}
 
 	private CompletableFuture<MappedAsyncPagingIterable<DetailedMessageBatchEntity>> doGetDetailedMessageBatchEntities(
 			StoredMessageFilter filter, String queryInfo)
 	{
 		MessageBatchOperator mbOp = ops.getMessageBatchOperator();
-		TimeMessageOperator tmOp = ops.getTimeMessageOperator();
-		return selectExecutor.executeMultiRowResultQuery(
+		TimeMessageOperator tmOp = timeMessageOperator;
+		return afterTimeIndicesLoaded(filter, () -> selectExecutor.executeMultiRowResultQuery(
 				() -> mbOp.filterMessages(instanceUuid, filter, mbOp, tmOp, readAttrs),
-				ops.getMessageBatchConverter(), queryInfo);
+				ops.getMessageBatchConverter(), queryInfo));
 	}
 
 	@Override
@@ -628,24 +1109,37 @@ public class CassandraCradleStorage extends CradleStorage
 	protected CompletableFuture<Iterable<StoredTestEventMetadata>> doGetRootTestEventsAsync(Instant from, Instant to,
 			Order order) throws CradleStorageException
 	{
-		LocalDateTime fromDateTime = LocalDateTime.ofInstant(from, TIMEZONE_OFFSET),
-				toDateTime = LocalDateTime.ofInstant(to, TIMEZONE_OFFSET);
-		checkTimeBoundaries(fromDateTime, toDateTime, from, to);
+		String queryInfo = "get root test events from range " + from + ".." + to + " in " + order + " order";
+		RootTestEventConverter converter = ops.getRootTestEventConverter();
+		List<Supplier<CompletableFuture<MappedAsyncPagingIterable<RootTestEventEntity>>>> queries = 
+				dailyQueries(from, to, order, (date, fromTime, toTime) -> queryRootTestEvents(date, fromTime, toTime, order, queryInfo));
+		if (queries.size() == 1)
+			return queries.get(0).get()
+					.thenApply(result -> new RootTestEventsMetadataIteratorAdapter(result, pagingSupplies, converter, queryInfo, 
+							decodingExecutor, decodingLookahead, testEventBatchMetadataCache));
+		return getOrderedResults(queries, rows -> new RootTestEventsMetadataIterator(rows, pagingSupplies, converter, queryInfo, 
+				decodingExecutor, decodingLookahead, testEventBatchMetadataCache), queryInfo);
+	}
 
-		LocalTime fromTime = fromDateTime.toLocalTime(),
-				toTime = toDateTime.toLocalTime();
+	@Override
+	protected Flow.Publisher<StoredTestEventMetadata> doGetRootTestEventsPublisher(Instant from, Instant to, Order order)
+			throws CradleStorageException
+	{
+		String queryInfo = "publishing root test events from range " + from + ".." + to + " in " + order + " order";
+		return new TestEventsMetadataPublisher<>(
+				dailyQueries(from, to, order, (date, fromTime, toTime) -> queryRootTestEvents(date, fromTime, toTime, order, queryInfo)),
+				pagingSupplies, ops.getRootTestEventConverter(), queryInfo, submittingExecutor, testEventBatchMetadataCache);
+	}
 
-		String queryInfo = "get root test events from range " + from + ".." + to + " in " + order + " order";
+	private CompletableFuture<MappedAsyncPagingIterable<RootTestEventEntity>> queryRootTestEvents(LocalDate date, 
+			LocalTime fromTime, LocalTime toTime, Order order, String queryInfo)
+	{
 		RootTestEventOperator op = ops.getRootTestEventOperator();
 		return selectExecutor.executeMultiRowResultQuery(
 						() -> order == Order.DIRECT
-								? op.getTestEventsDirect(instanceUuid, fromDateTime.toLocalDate(), fromTime,
-								toTime, readAttrs)
-								: op.getTestEventsReverse(instanceUuid, fromDateTime.toLocalDate(), fromTime,
-										toTime, readAttrs),
-						ops.getRootTestEventConverter(), queryInfo)
-				.thenApply(result -> new RootTestEventsMetadataIteratorAdapter(result, pagingSupplies,
-						ops.getRootTestEventConverter(), queryInfo));
+								? op.getTestEventsDirect(instanceUuid, date, fromTime, toTime, readAttrs)
+								: op.getTestEventsReverse(instanceUuid, date, fromTime, toTime, readAttrs),
+						ops.getRootTestEventConverter(), queryInfo);
 	}
 
 
@@ -671,23 +1165,39 @@ public class CassandraCradleStorage extends CradleStorage
 	protected CompletableFuture<Iterable<StoredTestEventMetadata>> doGetTestEventsAsync(StoredTestEventId parentId,
 			Instant from, Instant to, Order order) throws CradleStorageException
 	{
-		LocalDateTime fromDateTime = LocalDateTime.ofInstant(from, TIMEZONE_OFFSET),
-				toDateTime = LocalDateTime.ofInstant(to, TIMEZONE_OFFSET);
-		checkTimeBoundaries(fromDateTime, toDateTime, from, to);
-
-		LocalTime fromTime = fromDateTime.toLocalTime(),
-				toTime = toDateTime.toLocalTime();
-
 		String queryInfo =
 				format("getting child test events of %s from range %s..%s in %s order", parentId, from, to, order);
+		TestEventChildConverter converter = ops.getTestEventChildConverter();
+		List<Supplier<CompletableFuture<MappedAsyncPagingIterable<TestEventChildEntity>>>> queries = dailyQueries(from, to, order, 
+				(date, fromTime, toTime) -> queryTestEventChildren(parentId, date, fromTime, toTime, order, queryInfo));
+		if (queries.size() == 1)
+			return queries.get(0).get()
+					.thenApply(result -> new TestEventChildrenMetadataIteratorAdapter(result, pagingSupplies, converter, queryInfo, 
+							decodingExecutor, decodingLookahead, testEventBatchMetadataCache));
+		return getOrderedResults(queries, rows -> new TestEventChildrenMetadataIterator(rows, pagingSupplies, converter, queryInfo, 
+				decodingExecutor, decodingLookahead, testEventBatchMetadataCache), queryInfo);
+	}
+
+	@Override
+	protected Flow.Publisher<StoredTestEventMetadata> doGetTestEventsPublisher(StoredTestEventId parentId,
+			Instant from, Instant to, Order order) throws CradleStorageException
+	{
+		String queryInfo =
+				format("publishing child test events of %s from range %s..%s in %s order", parentId, from, to, order);
+		return new TestEventsMetadataPublisher<>(dailyQueries(from, to, order, 
+						(date, fromTime, toTime) -> queryTestEventChildren(parentId, date, fromTime, toTime, order, queryInfo)),
+				pagingSupplies, ops.getTestEventChildConverter(), queryInfo, submittingExecutor, testEventBatchMetadataCache);
+	}
+
+	private CompletableFuture<MappedAsyncPagingIterable<TestEventChildEntity>> queryTestEventChildren(StoredTestEventId parentId,
+			LocalDate date, LocalTime fromTime, LocalTime toTime, Order order, String queryInfo)
+	{
 		return selectExecutor.executeMultiRowResultQuery(() -> order == Order.DIRECT
 								? ops.getTestEventChildrenOperator().getTestEventsDirect(instanceUuid,
-										parentId.toString(), fromDateTime.toLocalDate(), fromTime, toTime, readAttrs)
+										parentId.toString(), date, fromTime, toTime, readAttrs)
 								: ops.getTestEventChildrenOperator().getTestEventsReverse(instanceUuid,
-										parentId.toString(), fromDateTime.toLocalDate(), fromTime, toTime, readAttrs),
-						ops.getTestEventChildConverter(), queryInfo)
-				.thenApply(result -> new TestEventChildrenMetadataIteratorAdapter(result, pagingSupplies,
-						ops.getTestEventChildConverter(), queryInfo));
+										parentId.toString(), date, fromTime, toTime, readAttrs),
+						ops.getTestEventChildConverter(), queryInfo);
 	}
 
 
@@ -711,28 +1221,125 @@ public class CassandraCradleStorage extends CradleStorage
 	@Override
 	protected CompletableFuture<Iterable<StoredTestEventMetadata>> doGetTestEventsAsync(Instant from, Instant to, Order order)
 			throws CradleStorageException
+	{
+		String queryInfo = format("getting child test events from range %s..%s in %s order", from, to, order);
+		TimeTestEventConverter converter = ops.getTimeTestEventConverter();
+		List<Supplier<CompletableFuture<MappedAsyncPagingIterable<TimeTestEventEntity>>>> queries = 
+				dailyQueries(from, to, order, (date, fromTime, toTime) -> queryTimeTestEvents(date, fromTime, toTime, order, queryInfo));
+		if (queries.size() == 1)
+			return queries.get(0).get()
+					.thenApply(result -> new TimeTestEventsMetadataIteratorAdapter(result, pagingSupplies, converter, queryInfo, 
+							decodingExecutor, decodingLookahead, testEventBatchMetadataCache));
+		return getOrderedResults(queries, rows -> new TimeTestEventsMetadataIterator(rows, pagingSupplies, converter, queryInfo, 
+				decodingExecutor, decodingLookahead, testEventBatchMetadataCache), queryInfo);
+	}
+
+	@Override
+	protected Flow.Publisher<StoredTestEventMetadata> doGetTestEventsPublisher(Instant from, Instant to, Order order)
+			throws CradleStorageException
+	{
+		String queryInfo = format("publishing test events from range %s..%s in %s order", from, to, order);
+		return new TestEventsMetadataPublisher<>(
+				dailyQueries(from, to, order, (date, fromTime, toTime) -> queryTimeTestEvents(date, fromTime, toTime, order, queryInfo)),
+				pagingSupplies, ops.getTimeTestEventConverter(), queryInfo, submittingExecutor, testEventBatchMetadataCache);
+	}
+
+	private CompletableFuture<MappedAsyncPagingIterable<TimeTestEventEntity>> queryTimeTestEvents(LocalDate date, 
+			LocalTime fromTime, LocalTime toTime, Order order, String queryInfo)
+	{
+		return selectExecutor.executeMultiRowResultQuery(() -> order == Order.DIRECT
+								? ops.getTimeTestEventOperator().getTestEventsDirect(instanceUuid, date, fromTime, toTime, readAttrs)
+								: ops.getTimeTestEventOperator().getTestEventsReverse(instanceUuid, date, fromTime, toTime, readAttrs),
+						ops.getTimeTestEventConverter(), queryInfo);
+	}
+	
+	
+	/**
+	 * Splits range of timestamps into ranges within days, because data is partitioned by date
+	 * @param from left boundary of range
+	 * @param to right boundary of range
+	 * @param order in which days should be queried
+	 * @param query to get data of one day within given time range
+	 * @return suppliers of query results for each day of the range in given order
+	 * @param <E> class of entities obtained from Cassandra
+	 */
+	private <E> List<Supplier<CompletableFuture<MappedAsyncPagingIterable<E>>>> dailyQueries(Instant from, Instant to, 
+			Order order, DailyQuery<E> query)
 	{
 		LocalDateTime fromDateTime = LocalDateTime.ofInstant(from, TIMEZONE_OFFSET),
 				toDateTime = LocalDateTime.ofInstant(to, TIMEZONE_OFFSET);
-		checkTimeBoundaries(fromDateTime, toDateTime, from, to);
-
-		LocalTime fromTime = fromDateTime.toLocalTime(),
-				toTime = toDateTime.toLocalTime();
+		LocalDate fromDate = fromDateTime.toLocalDate(),
+				toDate = toDateTime.toLocalDate();
 		
-		String queryInfo = format("getting child test events from range %s..%s in %s order", from, to, order);
-		return selectExecutor.executeMultiRowResultQuery(() -> order == Order.DIRECT
-								? ops.getTimeTestEventOperator().getTestEventsDirect(instanceUuid,
-										fromDateTime.toLocalDate(), fromTime, toTime, readAttrs)
-								: ops.getTimeTestEventOperator().getTestEventsReverse(instanceUuid,
-										fromDateTime.toLocalDate(), fromTime, toTime, readAttrs),
-						ops.getTimeTestEventConverter(), queryInfo)
-				.thenApply(result -> new TimeTestEventsMetadataIteratorAdapter(result, pagingSupplies,
-						ops.getTimeTestEventConverter(), queryInfo));
+		List<Supplier<CompletableFuture<MappedAsyncPagingIterable<E>>>> result = new ArrayList<>();
+		if (fromDate.equals(toDate))
+		{
+			result.add(() -> query.query(fromDate, fromDateTime.toLocalTime(), toDateTime.toLocalTime()));
+			return result;
+		}
+		
+		for (LocalDate d = fromDate; !d.isAfter(toDate); d = d.plusDays(1))
+		{
+			LocalDate date = d;
+			LocalTime fromTime = date.equals(fromDate) ? fromDateTime.toLocalTime() : LocalTime.MIN,
+					toTime = date.equals(toDate) ? toDateTime.toLocalTime() : LocalTime.MAX;
+			result.add(() -> query.query(date, fromTime, toTime));
+		}
+		if (order == Order.REVERSE)
+			Collections.reverse(result);
+		return result;
+	}
+	
+	/**
+	 * Executes queries in advance with parallelism limited by {@link CassandraConnectionSettings#getMaxParallelDailyQueries()}, 
+	 * returning their results in order of queries
+	 */
+	private <E, T> CompletableFuture<Iterable<T>> getOrderedResults(List<Supplier<CompletableFuture<MappedAsyncPagingIterable<E>>>> queries, 
+			Function<MappedAsyncPagingIterable<E>, Iterator<T>> toIterator, String queryInfo)
+	{
+		List<Supplier<CompletableFuture<Iterator<T>>>> results = new ArrayList<>(queries.size());
+		for (Supplier<CompletableFuture<MappedAsyncPagingIterable<E>>> q : queries)
+			results.add(() -> q.get().thenApply(toIterator));
+		return new OrderedQueriesIteratorAdapter<>(results, maxParallelDailyQueries, queryInfo).whenStarted();
+	}
+	
+	@FunctionalInterface
+	private interface DailyQuery<E>
+	{
+		CompletableFuture<MappedAsyncPagingIterable<E>> query(LocalDate date, LocalTime fromTime, LocalTime toTime);
 	}
 
 
 	@Override
 	protected Collection<String> doGetStreams() throws IOException
+	{
+		//Streams table may miss streams whose messages were stored by previous versions of Cradle, 
+		//so until it is backfilled, streams are also read from messages table
+		return streamsRegistry.getValues();
+	}
+	
+	private List<String> readRegisteredStreams() throws IOException
+	{
+		InstanceStreamOperator op = ops.getInstanceStreamOperator();
+		InstanceStreamConverter converter = ops.getInstanceStreamConverter();
+		String queryInfo = "getting streams";
+		List<String> result = new ArrayList<>();
+		try
+		{
+			PagedIterator<InstanceStreamEntity> entities = selectExecutor.executeMultiRowResultQuery(
+							() -> op.getStreams(instanceUuid, readAttrs), converter, queryInfo)
+					.thenApply(it -> new PagedIterator<>(it, pagingSupplies, converter, queryInfo)).get();
+			while (entities.hasNext())
+				result.add(entities.next().getStreamName());
+		}
+		catch (InterruptedException | ExecutionException e)
+		{
+			throw new IOException("Error occurred while " + queryInfo, e);
+		}
+		return result;
+	}
+	
+	private List<String> getStreamsFromMessages()
 	{
 		List<String> result = new ArrayList<>();
 		for (StreamEntity entity : ops.getMessageBatchOperator().getStreams(readAttrs))
@@ -740,14 +1347,65 @@ public class CassandraCradleStorage extends CradleStorage
 			if (instanceUuid.equals(entity.getInstanceId()))
 				result.add(entity.getStreamName());
 		}
-		result.sort(null);
 		return result;
 	}
+	
+	private boolean isRegistryBackfilled(String registry) throws IOException
+	{
+		String queryInfo = "checking if registry '"+registry+"' is backfilled";
+		try
+		{
+			return selectExecutor.executeSingleRowResultQuery(
+					() -> ops.getRegistryBackfillOperator().get(instanceUuid, registry, readAttrs), 
+					ops.getRegistryBackfillConverter(), queryInfo).get() != null;
+		}
+		catch (InterruptedException | ExecutionException e)
+		{
+			throw new IOException("Error occurred while " + queryInfo, e);
+		}
+	}
+	
+	private CompletableFuture<RegistryBackfillEntity> markRegistryBackfilled(String registry)
+	{
+		return new AsyncOperator<RegistryBackfillEntity>(semaphore).getFuture(() -> 
+				ops.getRegistryBackfillOperator().write(new RegistryBackfillEntity(instanceUuid, registry), writeAttrs));
+	}
 
 	@Override
 	protected Collection<Instant> doGetRootTestEventsDates() throws IOException
 	{
-		Collection<Instant> result = new ArrayList<>();
+		//Dates table may miss dates of root events stored by previous versions of Cradle, 
+		//so until it is backfilled, dates are also read from root events table
+		List<Instant> result = new ArrayList<>();
+		for (LocalDate date : rootEventDatesRegistry.getValues())
+			result.add(date.atStartOfDay(TIMEZONE_OFFSET).toInstant());
+		return result;
+	}
+	
+	private List<LocalDate> readRegisteredRootEventDates() throws IOException
+	{
+		RootTestEventDatesOperator op = ops.getRootTestEventDatesOperator();
+		InstanceRootTestEventDateConverter converter = ops.getInstanceRootTestEventDateConverter();
+		String queryInfo = "getting root event dates";
+		List<LocalDate> result = new ArrayList<>();
+		try
+		{
+			PagedIterator<InstanceRootTestEventDateEntity> entities = selectExecutor.executeMultiRowResultQuery(
+							() -> op.get(instanceUuid, readAttrs), converter, queryInfo)
+					.thenApply(it -> new PagedIterator<>(it, pagingSupplies, converter, queryInfo)).get();
+			while (entities.hasNext())
+				result.add(entities.next().getStartDate());
+		}
+		catch (InterruptedException | ExecutionException e)
+		{
+			throw new IOException("Error occurred while " + queryInfo, e);
+		}
+		return result;
+	}
+	
+	private List<LocalDate> getRootTestEventsDatesFromEvents() throws IOException
+	{
+		List<LocalDate> dates = new ArrayList<>();
 		RootTestEventOperator rteOperator = ops.getRootTestEventOperator();
 		RootTestEventsDatesConverter converter = ops.getRootTestEventsDatesConverter();
 		String queryInfo = "getting root event dates";
@@ -761,35 +1419,25 @@ public class CassandraCradleStorage extends CradleStorage
 			{
 				RootTestEventDateEntity entity = entities.next();
 				if (instanceUuid.equals(entity.getInstanceId()))
-					result.add(entity.getStartDate().atStartOfDay(TIMEZONE_OFFSET).toInstant());
+					dates.add(entity.getStartDate());
 			}
-			return result;
 		}
 		catch (InterruptedException | ExecutionException e)
 		{
 			throw new IOException("Error occurred while " + queryInfo, e);
 		}
+		return dates;
 	}
 
 	@Override
 	protected Collection<Instant> doGetTestEventsDates(StoredTestEventId parentId) throws IOException
 	{
-		Collection<Instant> result = new ArrayList<>();
-		TestEventChildrenDatesOperator tecdOperator = ops.getTestEventChildrenDatesOperator();
-		TestEventChildDatesConverter converter = ops.getTestEventChildDatesConverter();
 		String queryInfo = "getting child event dates of parent " + parentId;
-		CompletableFuture<MappedAsyncPagingIterable<TestEventChildDateEntity>> future =
-				selectExecutor.executeMultiRowResultQuery(
-						() -> tecdOperator.get(instanceUuid, parentId.toString(), readAttrs), converter, queryInfo);
 		try
 		{
-			PagedIterator<TestEventChildDateEntity> entities =
-					future.thenApply(it -> new PagedIterator<>(it, pagingSupplies, converter, queryInfo)).get();
-			for (; entities.hasNext(); )
-			{
-				TestEventChildDateEntity entity = entities.next();
-				result.add(entity.getStartDate().atStartOfDay(TIMEZONE_OFFSET).toInstant());
-			}
+			Collection<Instant> result = new ArrayList<>();
+			for (LocalDate date : queryTestEventChildrenDates(parentId, queryInfo).get())
+				result.add(date.atStartOfDay(TIMEZONE_OFFSET).toInstant());
 			return result;
 		}
 		catch (InterruptedException | ExecutionException e)
@@ -797,6 +1445,47 @@ public class CassandraCradleStorage extends CradleStorage
 			throw new IOException("Error occurred while " + queryInfo, e);
 		}
 	}
+	
+	private CompletableFuture<Collection<LocalDate>> queryTestEventChildrenDates(StoredTestEventId parentId, String queryInfo)
+	{
+		TestEventChildrenDatesOperator tecdOperator = ops.getTestEventChildrenDatesOperator();
+		TestEventChildDatesConverter converter = ops.getTestEventChildDatesConverter();
+		return selectExecutor.executeMultiRowResultQuery(
+						() -> tecdOperator.get(instanceUuid, parentId.toString(), readAttrs), converter, queryInfo)
+				.thenCompose(rows -> {
+					Collection<LocalDate> result = new ArrayList<>();
+					return new AsyncPageReader<>(pagingSupplies, converter, queryInfo)
+							.forEach(rows, entity -> result.add(entity.getStartDate()))
+							.thenApply(r -> result);
+				});
+	}
+	
+	@Override
+	protected Iterable<TestEventTreeNode> doGetTestEventTree(StoredTestEventId rootId, int maxDepth) throws IOException
+	{
+		try
+		{
+			return doGetTestEventTreeAsync(rootId, maxDepth).get();
+		}
+		catch (Exception e)
+		{
+			throw new IOException("Error while getting tree of test event "+rootId, e);
+		}
+	}
+	
+	@Override
+	protected CompletableFuture<Iterable<TestEventTreeNode>> doGetTestEventTreeAsync(StoredTestEventId rootId, int maxDepth)
+	{
+		String queryInfo = format("getting tree of test event %s with max depth %d", rootId, maxDepth);
+		TestEventChildConverter converter = ops.getTestEventChildConverter();
+		TestEventTreeLoader loader = new TestEventTreeLoader(
+				parentId -> queryTestEventChildrenDates(parentId, queryInfo),
+				(parentId, date) -> queryTestEventChildren(parentId, date, LocalTime.MIN, LocalTime.MAX, Order.DIRECT, queryInfo)
+						.thenApply(rows -> new TestEventChildrenMetadataIterator(rows, pagingSupplies, converter, queryInfo)),
+				maxDepth, maxParallelEventTreeQueries, maxBufferedEventTreeNodes, submittingExecutor, ForkJoinPool.commonPool(), 
+				testEventBatchMetadataCache, queryInfo);
+		return CompletableFuture.completedFuture(loader.start(rootId));
+	}
 
 	@Override
 	public CradleObjectsFactory getObjectsFactory()
@@ -878,7 +1567,7 @@ public class CassandraCradleStorage extends CradleStorage
 					DetailedMessageBatchEntity entity;
 					try
 					{
-						entity = new DetailedMessageBatchEntity(batch, instanceUuid);
+						entity = new DetailedMessageBatchEntity(batch, instanceUuid, settings.isStoreMessagePositions());
 					}
 					catch (IOException e)
 					{
@@ -891,7 +1580,46 @@ public class CassandraCradleStorage extends CradleStorage
 					MessageBatchOperator op = rawMessage ? ops.getMessageBatchOperator() : ops.getProcessedMessageBatchOperator();
 					return op.writeMessageBatch(entity, writeAttrs);
 				});
-		return future.thenAccept(e -> {});
+		CompletableFuture<Void> result;
+		if (indexTracker == null)
+			result = future.thenAccept(e -> {});
+		else
+		{
+			String table = rawMessage ? settings.getMessagesTableName() : settings.getProcessedMessagesTableName();
+			result = future.thenAccept(e -> indexTracker.onBatchStored(table, batch.getStreamName(), batch.getDirection(), 
+					batch.getFirstMessage().getIndex(), batch.getLastMessage().getIndex()));
+		}
+		
+		if (messageLinksFilterCache != null)
+		{
+			//Batch is stored even if buckets couldn't be marked as covered, links to their messages will be always queried
+			CompletableFuture<Void> coverage = messageLinksFilterCache.onMessagesStored(batch.getStreamName(), batch.getDirection(), 
+					batch.getFirstMessage().getIndex(), batch.getLastMessage().getIndex()).exceptionally(error -> {
+						logger.warn("Could not mark filters of linked messages as covered for batch {}", batch.getId(), error);
+						return null;
+					});
+			result = result.thenCombine(coverage, (r1, r2) -> null);
+		}
+		
+		if (!rawMessage)
+			return result;
+		//Batch is stored even if stream couldn't be registered, next batch of the stream will try to register it again
+		CompletableFuture<Void> registration = registerStream(batch.getStreamName()).exceptionally(error -> {
+			logger.warn("Could not register stream '{}'", batch.getStreamName(), error);
+			return null;
+		});
+		return result.thenCombine(registration, (r1, r2) -> null);
+	}
+	
+	/**
+	 * Adds stream to the table of streams of this instance. Query is executed only once for each stream
+	 * @param streamName name of stream to register
+	 * @return future that completes when stream is registered
+	 */
+	private CompletableFuture<Void> registerStream(String streamName)
+	{
+		return registeredStreams.register(streamName, () -> new AsyncOperator<InstanceStreamEntity>(semaphore)
+				.getFuture(() -> ops.getInstanceStreamOperator().writeStream(new InstanceStreamEntity(instanceUuid, streamName), writeAttrs)));
 	}
 
 	private CompletableFuture<DetailedMessageBatchEntity> readMessageBatchEntity(StoredMessageId messageId, boolean rawMessage)
@@ -902,8 +1630,139 @@ public class CassandraCradleStorage extends CradleStorage
 				ops.getMessageBatchConverter(), "getting message batch by id " + messageId);
 	}
 
+	private CompletableFuture<Collection<StoredMessage>> readCachedMessageBatch(StoredMessageId id, boolean rawMessage)
+	{
+		String table = rawMessage ? settings.getMessagesTableName() : settings.getProcessedMessagesTableName();
+		if (messageBatchCache != null)
+		{
+			Collection<StoredMessage> cached = messageBatchCache.get(table, id);
+			if (cached != null)
+				return CompletableFuture.completedFuture(cached);
+		}
+		
+		if (contentCache != null)
+		{
+			CachedContent content = contentCache.getMessageBatch(table, id);
+			if (content != null)
+			{
+				try
+				{
+					return CompletableFuture.completedFuture(cacheMessageBatch(table, content.getContent(), content.isCompressed()));
+				}
+				catch (IOException e)
+				{
+					CompletableFuture<Collection<StoredMessage>> error = new CompletableFuture<>();
+					error.completeExceptionally(e);
+					return error;
+				}
+			}
+		}
+		
+		return readMessageBatchEntity(id, rawMessage).thenApply(entity -> {
+			if (entity == null)
+				return null;
+			
+			if (contentCache != null)
+				contentCache.putMessageBatch(table, entity);
+			try
+			{
+				return cacheMessageBatch(table, entity.getContent(), entity.isCompressed());
+			}
+			catch (IOException e)
+			{
+				throw new CompletionException("Error while reading message batch", e);
+			}
+		});
+	}
+	
+	private Collection<StoredMessage> cacheMessageBatch(String table, ByteBuffer content, boolean compressed) throws IOException
+	{
+		List<StoredMessage> messages = MessageUtils.bytesToMessages(content, compressed);
+		return messageBatchCache != null ? messageBatchCache.put(table, messages) : messages;
+	}
+	
+	/**
+	 * Takes requested messages from batches that are in cache
+	 * @return IDs of messages not found in cache
+	 */
+	private Collection<StoredMessageId> findCachedMessages(Set<StoredMessageId> requested, Map<StoredMessageId, StoredMessage> found)
+	{
+		String table = settings.getMessagesTableName();
+		List<StoredMessageId> result = new ArrayList<>();
+		for (StoredMessageId id : requested)
+		{
+			if (found.containsKey(id))
+				continue;
+			
+			Collection<StoredMessage> batch = messageBatchCache.get(table, id);
+			if (batch == null)
+			{
+				result.add(id);
+				continue;
+			}
+			
+			for (StoredMessage msg : batch)
+			{
+				if (requested.contains(msg.getId()))
+					found.put(msg.getId(), msg);
+			}
+		}
+		//Batch found in cache may contain messages that were checked before it
+		result.removeIf(found::containsKey);
+		return result;
+	}
+	
+	/**
+	 * Reads batches that contain messages of given range, decoding each batch once and only if it contains requested messages
+	 */
+	private CompletableFuture<Void> readMessagesRange(MessageIdsRange range, Set<StoredMessageId> requested, 
+			Map<StoredMessageId, StoredMessage> found)
+	{
+		MessageBatchOperator op = ops.getMessageBatchOperator();
+		String table = settings.getMessagesTableName();
+		String stream = range.getStreamName(),
+				direction = range.getDirection().getLabel();
+		String queryInfo = format("getting %d message(s) by IDs from range %s", range.size(), range);
+		
+		//Batch with first requested message may start before it, so need to find its index to include the batch in range query
+		return selectExecutor.executeSingleRowResultQuery(
+				() -> op.getBatchIndex(instanceUuid, stream, direction, range.getFromIndex(), readAttrs), 
+				r -> r, queryInfo)
+				.thenCompose(row -> {
+					long fromIndex = row == null ? range.getFromIndex() : row.getLong(MESSAGE_INDEX);
+					return selectExecutor.executeMultiRowResultQuery(
+							() -> op.getMessageBatches(instanceUuid, stream, direction, fromIndex, range.getToIndex(), readAttrs), 
+							ops.getMessageBatchConverter(), queryInfo);
+				})
+				.thenComposeAsync(rs -> new AsyncPageReader<>(pagingSupplies, ops.getMessageBatchConverter(), queryInfo)
+						.forEach(rs, entity -> {
+							if (!range.hasIndices(entity.getMessageIndex(), entity.getLastMessageIndex()))
+								return;
+							
+							for (StoredMessage msg : cacheMessageBatch(table, entity.getContent(), entity.isCompressed()))
+							{
+								if (requested.contains(msg.getId()))
+									found.put(msg.getId(), msg);
+							}
+						}));
+	}
+	
 	private CompletableFuture<StoredMessage> readMessage(StoredMessageId id, boolean rawMessage)
 	{
+		if (messageBatchCache != null || contentCache != null)
+		{
+			return readCachedMessageBatch(id, rawMessage).thenApply(batch -> {
+				if (batch == null)
+					return null;
+				for (StoredMessage msg : batch)
+				{
+					if (msg.getIndex() == id.getIndex())
+						return msg;
+				}
+				return null;
+			});
+		}
+		
 		CompletableFuture<DetailedMessageBatchEntity> entityFuture = readMessageBatchEntity(id, rawMessage);
 		return entityFuture.thenApply(entity -> {
 			if (entity == null)
@@ -920,15 +1779,6 @@ public class CassandraCradleStorage extends CradleStorage
 		});
 	}
 
-	private void checkTimeBoundaries(LocalDateTime fromDateTime, LocalDateTime toDateTime, Instant originalFrom, Instant originalTo)
-			throws CradleStorageException
-	{
-		LocalDate fromDate = fromDateTime.toLocalDate(),
-				toDate = toDateTime.toLocalDate();
-		if (!fromDate.equals(toDate))
-			throw new CradleStorageException("Left and right boundaries should be of the same date, but got '"+originalFrom+"' and '"+originalTo+"'");
-	}
-
 	private long getFirstIndex(MessageBatchOperator op, String streamName, Direction direction) throws IOException
 	{
 		String queryInfo = format("getting first message for stream '%s' and direction '%s'", streamName, direction);
@@ -946,6 +1796,70 @@ public class CassandraCradleStorage extends CradleStorage
 		}
 	}
 
+	private long loadMessageIndex(String table, String streamName, Direction direction, boolean first) throws IOException
+	{
+		MessageBatchOperator op = table.equals(settings.getMessagesTableName()) ? ops.getMessageBatchOperator() : ops.getProcessedMessageBatchOperator();
+		return first ? getFirstIndex(op, streamName, direction) : getLastIndex(op, streamName, direction);
+	}
+
+	/**
+	 * Loads time index for {@link TimeIndexCache}. 
+	 * Query is started by separate executor, because cache can be used by thread that shouldn't wait for free query slot. 
+	 * Result pages are read without blocking threads while waiting for them
+	 */
+	private CompletableFuture<TimeIndex> loadTimeIndex(String streamName, Direction direction, LocalDate date)
+	{
+		String queryInfo = format("loading time index for stream '%s', direction '%s' and date %s", streamName, direction, date);
+		TimeIndex result = new TimeIndex();
+		return CompletableFuture.supplyAsync(() -> selectExecutor.executeMultiRowResultQuery(
+						() -> ops.getTimeMessageOperator().getMessages(instanceUuid, streamName, date, direction.getLabel(), readAttrs), 
+						ops.getTimeMessageConverter(), queryInfo), 
+						submittingExecutor)
+				.thenCompose(f -> f)
+				.thenComposeAsync(rs -> new AsyncPageReader<>(pagingSupplies, ops.getTimeMessageConverter(), queryInfo)
+						.forEach(rs, entity -> result.add(entity.getMessageTime().toNanoOfDay(), entity.getMessageIndex())))
+				.thenApply(r -> {
+					logger.debug("Time index with {} entries loaded for stream '{}', direction '{}' and date {}", 
+							result.size(), streamName, direction, date);
+					return result;
+				});
+	}
+	
+	/**
+	 * Executes query after time indices needed to find bounds of given filter are loaded into {@link TimeIndexCache}. 
+	 * Index is loaded by query of its own, so it is loaded before the query takes a query slot, not while the query holds it
+	 */
+	private <T> CompletableFuture<T> afterTimeIndicesLoaded(StoredMessageFilter filter, Supplier<CompletableFuture<T>> query)
+	{
+		if (filter == null || filter.getStreamName() == null || filter.getDirection() == null)
+			return query.get();
+		
+		List<Instant> timestamps = new ArrayList<>(2);
+		if (filter.getTimestampFrom() != null)
+			timestamps.add(filter.getTimestampFrom().getValue());
+		if (filter.getTimestampTo() != null)
+			timestamps.add(filter.getTimestampTo().getValue());
+		return afterTimeIndicesLoaded(filter.getStreamName().getValue(), filter.getDirection().getValue(), timestamps, query);
+	}
+	
+	private <T> CompletableFuture<T> afterTimeIndicesLoaded(String streamName, Direction direction, Collection<Instant> timestamps, 
+			Supplier<CompletableFuture<T>> query)
+	{
+		if (timeIndexCache == null || timestamps.isEmpty())
+			return query.get();
+		
+		CompletableFuture<?>[] indices = timestamps.stream()
+				.map(ts -> timeIndexCache.getIndex(streamName, direction, LocalDateTime.ofInstant(ts, TIMEZONE_OFFSET).toLocalDate()))
+				.toArray(CompletableFuture<?>[]::new);
+		CompletableFuture<Void> loaded = CompletableFuture.allOf(indices);
+		if (loaded.isDone())
+			return query.get();
+		
+		//If loading fails, cache forgets the index and the query will try to load it again
+		return loaded.handle((r, error) -> r)
+				.thenComposeAsync(r -> query.get(), submittingExecutor);
+	}
+	
 	private long getLastIndex(MessageBatchOperator op, String streamName, Direction direction) throws IOException
 	{
 		String queryInfo = format("getting last message for stream '%s' and direction '%s'", streamName, direction);
@@ -1013,6 +1927,19 @@ public class CassandraCradleStorage extends CradleStorage
 		});
 	}
 
+	protected CompletableFuture<Void> storeRootEventDate(StoredTestEvent event)
+	{
+		return registerRootEventDate(LocalDateTime.ofInstant(event.getStartTimestamp(), TIMEZONE_OFFSET).toLocalDate());
+	}
+	
+	private CompletableFuture<Void> registerRootEventDate(LocalDate date)
+	{
+		return registeredRootEventDates.register(date, () -> new AsyncOperator<InstanceRootTestEventDateEntity>(semaphore).getFuture(() -> {
+			logger.trace("Executing root event date storing query");
+			return ops.getRootTestEventDatesOperator().writeDate(new InstanceRootTestEventDateEntity(instanceUuid, date), writeAttrs);
+		}));
+	}
+
 	protected CompletableFuture<TestEventChildEntity> storeEventInParent(StoredTestEvent event)
 	{
 		return new AsyncOperator<TestEventChildEntity>(semaphore).getFuture(() -> {
@@ -1069,6 +1996,25 @@ public class CassandraCradleStorage extends CradleStorage
 	}
 
 	protected CompletableFuture<Void> storeTestEventOfMessages(List<String> messageIds, String eventId, StoredTestEventId batchId)
+	{
+		if (messageLinksFilterCache == null)
+			return writeTestEventOfMessages(messageIds, eventId, batchId);
+		
+		//Filters are updated before links are stored, so that stored link is always in filter. 
+		//Links are stored even if filters couldn't be updated, in this case filters of their buckets are not used
+		CompletableFuture<Object> filters = storeMessageLinksFilters(messageIds)
+				.handle((r, error) -> {
+					if (error != null)
+						logger.warn("Could not store filters of messages linked to test event {}", eventId, error);
+					return null;
+				});
+		//Bits of linked messages are often already stored, then links are stored by this thread as without filters
+		if (filters.isDone())
+			return writeTestEventOfMessages(messageIds, eventId, batchId);
+		return filters.thenComposeAsync(r -> writeTestEventOfMessages(messageIds, eventId, batchId), submittingExecutor);
+	}
+	
+	private CompletableFuture<Void> writeTestEventOfMessages(List<String> messageIds, String eventId, StoredTestEventId batchId)
 	{
 		String batchIdString = batchId != null ? batchId.toString() : null;
 		List<CompletableFuture<MessageTestEventEntity>> futures = new ArrayList<>();
@@ -1089,6 +2035,79 @@ public class CassandraCradleStorage extends CradleStorage
 		}
 		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
 	}
+	
+	private CompletableFuture<Void> storeMessageLinksFilters(List<String> messageIds)
+	{
+		List<StoredMessageId> ids = new ArrayList<>(messageIds.size());
+		for (String id : messageIds)
+		{
+			try
+			{
+				ids.add(StoredMessageId.fromString(id));
+			}
+			catch (CradleIdException e)
+			{
+				CompletableFuture<Void> error = new CompletableFuture<>();
+				error.completeExceptionally(e);
+				return error;
+			}
+		}
+		return messageLinksFilterCache.onLinksStored(ids);
+	}
+	
+	/**
+	 * Loads mark of coverage and bits of filters of messages with linked test events for {@link MessageLinksFilterCache}
+	 */
+	private CompletableFuture<MessageLinksFilterCache.StoredBucket> loadMessageLinksFilters(String streamName, Direction direction, 
+			long bucket)
+	{
+		String queryInfo = format("loading filters of linked messages for stream '%s', direction '%s' and bucket %d", 
+				streamName, direction, bucket);
+		MessageLinksFilterConverter converter = ops.getMessageLinksFilterConverter();
+		List<MessageLinksFilterEntity> entities = new ArrayList<>();
+		return selectExecutor.executeMultiRowResultQuery(
+						() -> ops.getMessageLinksFilterOperator().getFilters(instanceUuid, streamName, direction.getLabel(), bucket, readAttrs), 
+						converter, queryInfo)
+				.thenComposeAsync(rs -> new AsyncPageReader<>(pagingSupplies, converter, queryInfo).forEach(rs, entities::add))
+				.thenApply(r -> {
+					//Mark of coverage is stored in static column, so all rows have the same value
+					MessageLinksFilterCache.StoredBucket result = 
+							new MessageLinksFilterCache.StoredBucket(!entities.isEmpty() && entities.get(0).isCovered());
+					for (MessageLinksFilterEntity entity : entities)
+					{
+						//Row without filter is returned if only the mark is stored
+						if (entity.getFilterSize() > 0 && entity.getFilterBits() != null)
+							result.addFilter(entity.getFilterSize(), entity.getFilterHashes(), entity.getFilterBits());
+					}
+					return result;
+				});
+	}
+	
+	/**
+	 * Adds bits to filter of messages with linked test events for {@link MessageLinksFilterCache}. 
+	 * Bits are added to stored set, so concurrent writes of the same filter don't overwrite each other
+	 */
+	private CompletableFuture<AsyncResultSet> writeMessageLinksFilterBits(String streamName, Direction direction, long bucket, 
+			int filterSize, int filterHashes, Set<Integer> bits)
+	{
+		return new AsyncOperator<AsyncResultSet>(semaphore)
+				.getFuture(() -> ops.getMessageLinksFilterOperator().addBits(instanceUuid, streamName, direction.getLabel(), bucket, 
+						filterSize, filterHashes, bits, writeAttrs));
+	}
+	
+	/**
+	 * Marks bucket as covered by filter of messages with linked test events, or removes this mark, for {@link MessageLinksFilterCache}. 
+	 * Mark is removed when write of filter fails, i.e. from thread that completes query, so the query is submitted by other thread
+	 */
+	private CompletableFuture<AsyncResultSet> writeMessageLinksCoverage(String streamName, Direction direction, long bucket, 
+			boolean covered)
+	{
+		return CompletableFuture.supplyAsync(() -> new AsyncOperator<AsyncResultSet>(semaphore)
+						.getFuture(() -> ops.getMessageLinksFilterOperator().setCovered(instanceUuid, streamName, direction.getLabel(), 
+								bucket, covered, writeAttrs)), 
+				submittingExecutor)
+				.thenCompose(f -> f);
+	}
 
 	@Override
 	protected void doUpdateEventStatus(StoredTestEventWrapper event, boolean success) throws IOException
@@ -1108,6 +2127,8 @@ public class CassandraCradleStorage extends CradleStorage
 	{
 		String id = event.getId().toString(),
 				parentId = event.getParentId() != null ? event.getParentId().toString() : null;
+		if (testEventCache != null)
+			testEventCache.invalidate(event.getId());
 		LocalDateTime ldt = LocalDateTime.ofInstant(event.getStartTimestamp(), TIMEZONE_OFFSET);
 		LocalDate ld = ldt.toLocalDate();
 		LocalTime lt = ldt.toLocalTime();
@@ -1123,7 +2144,10 @@ public class CassandraCradleStorage extends CradleStorage
 		else
 			result3 = new AsyncOperator<AsyncResultSet>(semaphore)
 					.getFuture(() -> ops.getRootTestEventOperator().updateStatus(instanceUuid, ld, lt, id, success, writeAttrs));
-		return CompletableFuture.allOf(result1, result2, result3);
+		CompletableFuture<Void> result = CompletableFuture.allOf(result1, result2, result3);
+		if (testEventCache != null)  //Test event could be read and cached while its status was being updated
+			result = result.whenComplete((r, error) -> testEventCache.invalidate(event.getId()));
+		return result;
 	}
 
 	protected CompletableFuture<Void> failEventAndParents(StoredTestEventId eventId)
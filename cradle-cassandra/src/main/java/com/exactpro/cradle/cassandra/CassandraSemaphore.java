@@ -35,6 +35,15 @@ public class CassandraSemaphore
 		semaphore.acquire();
 	}
 	
+	/**
+	 * Acquires permit only if it is available at the time of call
+	 * @return true if permit was acquired
+	 */
+	public boolean tryAcquireSemaphore()
+	{
+		return semaphore.tryAcquire();
+	}
+	
 	public void releaseSemaphore()
 	{
 		semaphore.release();
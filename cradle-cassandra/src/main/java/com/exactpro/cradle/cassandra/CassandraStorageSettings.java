@@ -30,13 +30,17 @@ public class CassandraStorageSettings
 			MESSAGES_TABLE_DEFAULT_NAME = "messages",
 			PROCESSED_MESSAGES_TABLE_DEFAULT_NAME = "processed_messages",
 			TIME_MESSAGES_TABLE_DEFAULT_NAME = "messages_timestamps",
+			STREAMS_TABLE_DEFAULT_NAME = "streams",
+			REGISTRY_BACKFILLS_TABLE_DEFAULT_NAME = "registry_backfills",
 			TEST_EVENTS_TABLE_DEFAULT_NAME = "test_events",
 			TIME_TEST_EVENTS_TABLE_DEFAULT_NAME = "time_test_events",
 			ROOT_TEST_EVENTS_TABLE_DEFAULT_NAME = "root_test_events",
+			ROOT_TEST_EVENTS_DATES_TABLE_DEFAULT_NAME = "root_test_events_dates",
 			TEST_EVENTS_CHILDREN_TABLE_DEFAULT_NAME = "test_events_children",
 			TEST_EVENTS_CHILDREN_DATES_TABLE_DEFAULT_NAME = "test_events_children_dates",
 			TEST_EVENTS_MESSAGES_TABLE_DEFAULT_NAME = "test_events_messages",
 			MESSAGES_TEST_EVENTS_TABLE_DEFAULT_NAME = "messages_test_events",
+			MESSAGE_LINKS_FILTERS_TABLE_DEFAULT_NAME = "message_links_filters",
 			INTERVALS_TABLE_DEFAULT_NAME = "intervals";
 	public static final long DEFAULT_TIMEOUT = 5000,
 			DEFAULT_MAX_MESSAGE_BATCH_SIZE = StoredMessageBatch.DEFAULT_MAX_BATCH_SIZE,
@@ -48,14 +52,18 @@ public class CassandraStorageSettings
 	private final String keyspace;
 	private String messagesTableName,
 			timeMessagesTableName,
+			streamsTableName,
+			registryBackfillsTableName,
 			processedMessagesTableName,
 			testEventsTableName,
 			timeTestEventsTableName,
 			rootTestEventsTableName,
+			rootTestEventsDatesTableName,
 			testEventsChildrenTableName,
 			testEventsChildrenDatesTableName,
 			testEventsMessagesTableName,
 			messagesTestEventsTableName,
+			messageLinksFiltersTableName,
 			timeIntervalsTableName,
 			intervalsTableName;
 	private final NetworkTopologyStrategy networkTopologyStrategy;
@@ -65,6 +73,7 @@ public class CassandraStorageSettings
 	private int keyspaceReplicationFactor;
 	private long maxMessageBatchSize,
 			maxTestEventBatchSize;
+	private boolean storeMessagePositions;
 	
 	public CassandraStorageSettings(String keyspace, NetworkTopologyStrategy networkTopologyStrategy, 
 			long timeout, ConsistencyLevel writeConsistencyLevel, ConsistencyLevel readConsistencyLevel)
@@ -72,13 +81,17 @@ public class CassandraStorageSettings
 		this.messagesTableName = MESSAGES_TABLE_DEFAULT_NAME;
 		this.processedMessagesTableName = PROCESSED_MESSAGES_TABLE_DEFAULT_NAME;
 		this.timeMessagesTableName = TIME_MESSAGES_TABLE_DEFAULT_NAME;
+		this.streamsTableName = STREAMS_TABLE_DEFAULT_NAME;
+		this.registryBackfillsTableName = REGISTRY_BACKFILLS_TABLE_DEFAULT_NAME;
 		this.testEventsTableName = TEST_EVENTS_TABLE_DEFAULT_NAME;
 		this.timeTestEventsTableName = TIME_TEST_EVENTS_TABLE_DEFAULT_NAME;
 		this.rootTestEventsTableName = ROOT_TEST_EVENTS_TABLE_DEFAULT_NAME;
+		this.rootTestEventsDatesTableName = ROOT_TEST_EVENTS_DATES_TABLE_DEFAULT_NAME;
 		this.testEventsChildrenTableName = TEST_EVENTS_CHILDREN_TABLE_DEFAULT_NAME;
 		this.testEventsChildrenDatesTableName = TEST_EVENTS_CHILDREN_DATES_TABLE_DEFAULT_NAME;
 		this.testEventsMessagesTableName = TEST_EVENTS_MESSAGES_TABLE_DEFAULT_NAME;
 		this.messagesTestEventsTableName = MESSAGES_TEST_EVENTS_TABLE_DEFAULT_NAME;
+		this.messageLinksFiltersTableName = MESSAGE_LINKS_FILTERS_TABLE_DEFAULT_NAME;
 		this.intervalsTableName = INTERVALS_TABLE_DEFAULT_NAME;
 		this.keyspace = keyspace;
 		this.networkTopologyStrategy = networkTopologyStrategy;
@@ -149,6 +162,28 @@ public class CassandraStorageSettings
 	}
 	
 	
+	public String getStreamsTableName()
+	{
+		return streamsTableName;
+	}
+	
+	public void setStreamsTableName(String streamsTableName)
+	{
+		this.streamsTableName = streamsTableName;
+	}
+	
+	
+	public String getRegistryBackfillsTableName()
+	{
+		return registryBackfillsTableName;
+	}
+	
+	public void setRegistryBackfillsTableName(String registryBackfillsTableName)
+	{
+		this.registryBackfillsTableName = registryBackfillsTableName;
+	}
+	
+	
 	public String getTestEventsTableName()
 	{
 		return testEventsTableName;
@@ -182,6 +217,17 @@ public class CassandraStorageSettings
 	}
 	
 	
+	public String getRootTestEventsDatesTableName()
+	{
+		return rootTestEventsDatesTableName;
+	}
+	
+	public void setRootTestEventsDatesTableName(String rootTestEventsDatesTableName)
+	{
+		this.rootTestEventsDatesTableName = rootTestEventsDatesTableName;
+	}
+	
+	
 	public String getTestEventsChildrenTableName()
 	{
 		return testEventsChildrenTableName;
@@ -224,6 +270,17 @@ public class CassandraStorageSettings
 	{
 		this.messagesTestEventsTableName = messagesTestEventsTableName;
 	}
+	
+	
+	public String getMessageLinksFiltersTableName()
+	{
+		return messageLinksFiltersTableName;
+	}
+	
+	public void setMessageLinksFiltersTableName(String messageLinksFiltersTableName)
+	{
+		this.messageLinksFiltersTableName = messageLinksFiltersTableName;
+	}
 
 	public String getIntervalsTableName() { return intervalsTableName; }
 
@@ -297,4 +354,19 @@ public class CassandraStorageSettings
 	{
 		this.maxTestEventBatchSize = maxTestEventBatchSize;
 	}
+	
+	
+	public boolean isStoreMessagePositions()
+	{
+		return storeMessagePositions;
+	}
+	
+	/**
+	 * @param storeMessagePositions if true, indices and timestamps of messages are written along with message batch 
+	 * so that they can be obtained by {@link com.exactpro.cradle.CradleStorage#getMessagesBatchesInfo} without reading messages content
+	 */
+	public void setStoreMessagePositions(boolean storeMessagePositions)
+	{
+		this.storeMessagePositions = storeMessagePositions;
+	}
 }
@@ -36,6 +36,12 @@ public class StorageConstants
 			MESSAGE_COUNT = "message_count",
 			MESSAGE_DATE = "message_date",
 			MESSAGE_TIME = "message_time",
+			MESSAGE_POSITIONS = "message_positions",
+			BUCKET = "bucket",
+			FILTER_SIZE = "filter_size",
+			FILTER_HASHES = "filter_hashes",
+			FILTER_BITS = "filter_bits",
+			COVERED = "covered",
 			
 			START_DATE = "start_date",
 			START_TIME = "start_time",
@@ -55,13 +55,17 @@ public class TablesCreator
 		createMessagesTable();
 		createProcessedMessagesTable();
 		createTimeMessagesTable();
+		createStreamsTable();
+		createRegistryBackfillsTable();
 		createTestEventsTable();
 		createTimeTestEventsTable();
 		createRootTestEventsTable();
+		createRootTestEventsDatesTable();
 		createTestEventsChildrenTable();
 		createTestEventsChildrenDatesTable();
 		createTestEventsMessagesTable();
 		createMessagesTestEventsTable();
+		createMessageLinksFiltersTable();
 		createIntervalsTable();
 	}
 	
@@ -126,6 +130,35 @@ public class TablesCreator
 		logger.info("Table '{}' has been created", tableName);
 	}
 	
+	public void createStreamsTable() throws IOException
+	{
+		String tableName = settings.getStreamsTableName();
+		if (isTableExists(tableName))
+			return;
+		
+		CreateTableWithOptions create = SchemaBuilder.createTable(settings.getKeyspace(), tableName).ifNotExists()
+				.withPartitionKey(INSTANCE_ID, DataTypes.UUID)
+				.withClusteringColumn(STREAM_NAME, DataTypes.TEXT)
+				.withClusteringOrder(STREAM_NAME, ClusteringOrder.ASC);
+		
+		exec.executeQuery(create.asCql(), true);
+		logger.info("Table '{}' has been created", tableName);
+	}
+	
+	public void createRegistryBackfillsTable() throws IOException
+	{
+		String tableName = settings.getRegistryBackfillsTableName();
+		if (isTableExists(tableName))
+			return;
+		
+		CreateTable create = SchemaBuilder.createTable(settings.getKeyspace(), tableName).ifNotExists()
+				.withPartitionKey(INSTANCE_ID, DataTypes.UUID)
+				.withClusteringColumn(NAME, DataTypes.TEXT);
+		
+		exec.executeQuery(create.asCql(), true);
+		logger.info("Table '{}' has been created", tableName);
+	}
+	
 
 	public void createTestEventsTable() throws IOException
 	{
@@ -217,6 +250,21 @@ public class TablesCreator
 		logger.info("Table '{}' has been created", tableName);
 	}
 	
+	public void createRootTestEventsDatesTable() throws IOException
+	{
+		String tableName = settings.getRootTestEventsDatesTableName();
+		if (isTableExists(tableName))
+			return;
+		
+		CreateTableWithOptions create = SchemaBuilder.createTable(settings.getKeyspace(), tableName).ifNotExists()
+				.withPartitionKey(INSTANCE_ID, DataTypes.UUID)
+				.withClusteringColumn(START_DATE, DataTypes.DATE)
+				.withClusteringOrder(START_DATE, ClusteringOrder.ASC);
+		
+		exec.executeQuery(create.asCql(), true);
+		logger.info("Table '{}' has been created", tableName);
+	}
+	
 	public void createTestEventsChildrenTable() throws IOException
 	{
 		String tableName = settings.getTestEventsChildrenTableName();
@@ -300,10 +348,38 @@ public class TablesCreator
 		logger.info("Table '{}' has been created", tableName);
 	}
 	
+	public void createMessageLinksFiltersTable() throws IOException
+	{
+		String tableName = settings.getMessageLinksFiltersTableName();
+		if (isTableExists(tableName))
+			return;
+		
+		CreateTable create = SchemaBuilder.createTable(settings.getKeyspace(), tableName).ifNotExists()
+				.withPartitionKey(INSTANCE_ID, DataTypes.UUID)
+				.withPartitionKey(STREAM_NAME, DataTypes.TEXT)
+				.withPartitionKey(DIRECTION, DataTypes.TEXT)
+				.withPartitionKey(BUCKET, DataTypes.BIGINT)
+				.withClusteringColumn(FILTER_SIZE, DataTypes.INT)
+				.withClusteringColumn(FILTER_HASHES, DataTypes.INT)
+				.withStaticColumn(COVERED, DataTypes.BOOLEAN)  //Mark is shared by filters with any settings
+				.withColumn(FILTER_BITS, DataTypes.setOf(DataTypes.INT));  //Set is extended by concurrent writers without overwriting
+		
+		exec.executeQuery(create.asCql(), true);
+		logger.info("Table '{}' has been created", tableName);
+	}
+	
 	protected void createMessagesTable(String name) throws IOException
 	{
 		if (isTableExists(name))
+		{
+			if (!isColumnExists(name, MESSAGE_POSITIONS))
+			{
+				AlterTableAddColumnEnd alter = SchemaBuilder.alterTable(settings.getKeyspace(), name).addColumn(MESSAGE_POSITIONS, DataTypes.BLOB);
+				exec.executeQuery(alter.asCql(), true);
+				logger.info("Table '{}' has been altered with column '{}'", name, MESSAGE_POSITIONS);
+			}
 			return;
+		}
 		
 		CreateTableWithOptions create = SchemaBuilder.createTable(settings.getKeyspace(), name).ifNotExists()
 				.withPartitionKey(INSTANCE_ID, DataTypes.UUID)
@@ -320,6 +396,7 @@ public class TablesCreator
 				.withColumn(CONTENT, DataTypes.BLOB)
 				.withColumn(MESSAGE_COUNT, DataTypes.INT)
 				.withColumn(LAST_MESSAGE_INDEX, DataTypes.BIGINT)
+				.withColumn(MESSAGE_POSITIONS, DataTypes.BLOB)
 				.withClusteringOrder(DIRECTION, ClusteringOrder.ASC)
 				.withClusteringOrder(MESSAGE_INDEX, ClusteringOrder.ASC);
 		
@@ -364,6 +441,6 @@ public class TablesCreator
 	
 	private boolean isColumnExists(String tableName, String columnName)
 	{
-		return keyspaceMetadata.getTable(tableName).get().getColumn(EVENT_BATCH_METADATA).isPresent();
+		return keyspaceMetadata.getTable(tableName).get().getColumn(columnName).isPresent();
 	}
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.cassandra.dao.messages.TimeMessageEntity;
+import com.exactpro.cradle.cassandra.dao.messages.TimeMessageOperator;
+
+/**
+ * {@link TimeMessageOperator} that looks for nearest messages in {@link TimeIndexCache} 
+ * and queries Cassandra only if nearest message is not within the day of requested time 
+ * or if index of that day is too large to be cached. 
+ * Time data written by this operator is added to the cache
+ */
+public class CachedTimeMessageOperator implements TimeMessageOperator
+{
+	private final TimeMessageOperator operator;
+	private final TimeIndexCache cache;
+	
+	public CachedTimeMessageOperator(TimeMessageOperator operator, TimeIndexCache cache)
+	{
+		this.operator = operator;
+		this.cache = cache;
+	}
+	
+	
+	@Override
+	public CompletableFuture<TimeMessageEntity> getNearestMessageAfter(UUID instanceId, String streamName, LocalDate messageDate,
+			String direction, LocalTime messageTime, Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		return cache.getIndex(streamName, Direction.byLabel(direction), messageDate)
+				.thenCompose(index -> {
+					TimeIndex.Entry entry = index != null ? index.findAfter(messageTime.toNanoOfDay()) : null;
+					if (entry != null)
+						return CompletableFuture.completedFuture(toEntity(entry, instanceId, streamName, direction, messageDate));
+					return operator.getNearestMessageAfter(instanceId, streamName, messageDate, direction, messageTime, attributes);
+				});
+	}
+	
+	@Override
+	public CompletableFuture<TimeMessageEntity> getNearestMessageBefore(UUID instanceId, String streamName, LocalDate messageDate,
+			String direction, LocalTime messageTime, Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		return cache.getIndex(streamName, Direction.byLabel(direction), messageDate)
+				.thenCompose(index -> {
+					TimeIndex.Entry entry = index != null ? index.findBefore(messageTime.toNanoOfDay()) : null;
+					if (entry != null)
+						return CompletableFuture.completedFuture(toEntity(entry, instanceId, streamName, direction, messageDate));
+					return operator.getNearestMessageBefore(instanceId, streamName, messageDate, direction, messageTime, attributes);
+				});
+	}
+	
+	@Override
+	public CompletableFuture<MappedAsyncPagingIterable<TimeMessageEntity>> getMessages(UUID instanceId, String streamName,
+			LocalDate messageDate, String direction, Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		return operator.getMessages(instanceId, streamName, messageDate, direction, attributes);
+	}
+	
+	@Override
+	public CompletableFuture<TimeMessageEntity> writeMessage(TimeMessageEntity timeMessage,
+			Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		return operator.writeMessage(timeMessage, attributes)
+				.thenApply(r -> {
+					cache.onMessageStored(timeMessage.getStreamName(), Direction.byLabel(timeMessage.getDirection()), 
+							timeMessage.getMessageDate(), timeMessage.getMessageTime(), timeMessage.getMessageIndex());
+					return r;
+				});
+	}
+	
+	
+	private TimeMessageEntity toEntity(TimeIndex.Entry entry, UUID instanceId, String streamName, String direction, LocalDate date)
+	{
+		TimeMessageEntity result = new TimeMessageEntity();
+		result.setInstanceId(instanceId);
+		result.setStreamName(streamName);
+		result.setDirection(direction);
+		result.setMessageDate(date);
+		result.setMessageTime(LocalTime.ofNanoOfDay(entry.getNanoOfDay()));
+		result.setMessageIndex(entry.getIndex());
+		return result;
+	}
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
+import com.exactpro.cradle.cassandra.dao.testevents.TestEventEntity;
+import com.exactpro.cradle.messages.StoredMessageId;
+
+/**
+ * Cache of message batches and test events content as it is stored in Cassandra, i.e. compressed, if compression was applied. 
+ * Data is kept in {@link OffHeapBlobCache}, only small index to find batch by message ID is kept in heap. 
+ * Message batches are never changed once stored. Test events can have their status updated, 
+ * so only columns that never change are cached for test events, while status should be read from Cassandra
+ */
+public class CompressedContentCache
+{
+	private static final String KEY_DELIMITER = "|";
+	
+	private final OffHeapBlobCache blobs;
+	private final Map<String, BatchLocation> batchesByKey = new HashMap<>();
+	private final Map<String, NavigableMap<Long, BatchLocation>> batchesByStream = new HashMap<>();
+	
+	public CompressedContentCache(long maxSize)
+	{
+		this.blobs = new OffHeapBlobCache(maxSize, this::evicted);
+	}
+	
+	
+	/**
+	 * Returns content of cached message batch that contains message with given ID
+	 * @param table name of table the batch is stored in
+	 * @param id of message to find batch for
+	 * @return content of batch or null if no cached batch contains message with given ID
+	 */
+	public synchronized CachedContent getMessageBatch(String table, StoredMessageId id)
+	{
+		NavigableMap<Long, BatchLocation> stream = batchesByStream.get(streamKey(table, id.getStreamName(), id.getDirection().getLabel()));
+		Map.Entry<Long, BatchLocation> entry = stream != null ? stream.floorEntry(id.getIndex()) : null;
+		if (entry == null || entry.getValue().lastIndex < id.getIndex())
+			return null;
+		
+		BatchLocation location = entry.getValue();
+		ByteBuffer content = blobs.get(location.key);
+		return content != null ? new CachedContent(content, location.compressed) : null;
+	}
+	
+	public synchronized void putMessageBatch(String table, DetailedMessageBatchEntity entity)
+	{
+		if (entity.getContent() == null)
+			return;
+		
+		String streamKey = streamKey(table, entity.getStreamName(), entity.getDirection()),
+				key = streamKey+KEY_DELIMITER+entity.getMessageIndex();
+		if (!blobs.put(key, entity.getContent()))
+			return;
+		
+		BatchLocation location = new BatchLocation(key, streamKey, entity.getMessageIndex(), entity.getLastMessageIndex(), entity.isCompressed());
+		batchesByKey.put(key, location);
+		batchesByStream.computeIfAbsent(streamKey, k -> new TreeMap<>()).put(location.firstIndex, location);
+	}
+	
+	
+	/**
+	 * Returns cached test event
+	 * @param table name of table the test event is stored in
+	 * @param id of test event to get
+	 * @return entity restored from cache with all fields, except for instance ID and status, or null if test event is not cached
+	 * @throws IOException if cached data is corrupted
+	 */
+	public synchronized TestEventEntity getTestEvent(String table, String id) throws IOException
+	{
+		ByteBuffer data = blobs.get(testEventKey(table, id));
+		return data != null ? deserializeTestEvent(id, data) : null;
+	}
+	
+	public synchronized void putTestEvent(String table, TestEventEntity entity) throws IOException
+	{
+		blobs.put(testEventKey(table, entity.getId()), serializeTestEvent(entity));
+	}
+	
+	/**
+	 * Removes all cached data and frees memory allocated for it. Nothing is cached after that
+	 */
+	public synchronized void dispose()
+	{
+		blobs.dispose();
+		batchesByKey.clear();
+		batchesByStream.clear();
+	}
+	
+	
+	/**
+	 * @return underlying storage of cached data that provides size and hit/miss statistics
+	 */
+	public OffHeapBlobCache getBlobs()
+	{
+		return blobs;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "CompressedContentCache{"+blobs+"}";
+	}
+	
+	
+	private void evicted(String key)
+	{
+		BatchLocation location = batchesByKey.remove(key);
+		if (location == null)
+			return;
+		
+		NavigableMap<Long, BatchLocation> stream = batchesByStream.get(location.streamKey);
+		if (stream == null)
+			return;
+		
+		stream.remove(location.firstIndex, location);
+		if (stream.isEmpty())
+			batchesByStream.remove(location.streamKey);
+	}
+	
+	private String streamKey(String table, String streamName, String direction)
+	{
+		return table+KEY_DELIMITER+streamName+KEY_DELIMITER+direction;
+	}
+	
+	private String testEventKey(String table, String id)
+	{
+		return table+KEY_DELIMITER+id;
+	}
+	
+	
+	static ByteBuffer serializeTestEvent(TestEventEntity entity) throws IOException
+	{
+		try (ByteArrayOutputStream out = new ByteArrayOutputStream();
+				DataOutputStream dos = new DataOutputStream(out))
+		{
+			writeString(dos, entity.getName());
+			writeString(dos, entity.getType());
+			writeString(dos, entity.getParentId());
+			dos.writeBoolean(entity.isRoot());
+			dos.writeBoolean(entity.isEventBatch());
+			dos.writeBoolean(entity.isCompressed());
+			writeDate(dos, entity.getStartDate());
+			writeTime(dos, entity.getStartTime());
+			writeDate(dos, entity.getEndDate());
+			writeTime(dos, entity.getEndTime());
+			
+			ByteBuffer content = entity.getContent();
+			if (content == null)
+				dos.writeInt(-1);
+			else
+			{
+				byte[] bytes = new byte[content.remaining()];
+				content.duplicate().get(bytes);
+				dos.writeInt(bytes.length);
+				dos.write(bytes);
+			}
+			dos.flush();
+			return ByteBuffer.wrap(out.toByteArray());
+		}
+	}
+	
+	static TestEventEntity deserializeTestEvent(String id, ByteBuffer data) throws IOException
+	{
+		try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data.array(), data.arrayOffset()+data.position(), data.remaining())))
+		{
+			TestEventEntity result = new TestEventEntity();
+			result.setId(id);
+			result.setName(readString(dis));
+			result.setType(readString(dis));
+			result.setParentId(readString(dis));
+			result.setRoot(dis.readBoolean());
+			result.setEventBatch(dis.readBoolean());
+			result.setCompressed(dis.readBoolean());
+			result.setStartDate(readDate(dis));
+			result.setStartTime(readTime(dis));
+			result.setEndDate(readDate(dis));
+			result.setEndTime(readTime(dis));
+			
+			int contentLength = dis.readInt();
+			if (contentLength >= 0)
+			{
+				byte[] content = new byte[contentLength];
+				dis.readFully(content);
+				result.setContent(ByteBuffer.wrap(content));
+			}
+			return result;
+		}
+	}
+	
+	private static void writeString(DataOutputStream dos, String s) throws IOException
+	{
+		if (s == null)
+		{
+			dos.writeInt(-1);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		dos.writeInt(bytes.length);
+		dos.write(bytes);
+	}
+	
+	private static String readString(DataInputStream dis) throws IOException
+	{
+		int length = dis.readInt();
+		if (length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		dis.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	private static void writeDate(DataOutputStream dos, LocalDate date) throws IOException
+	{
+		dos.writeLong(date != null ? date.toEpochDay() : Long.MIN_VALUE);
+	}
+	
+	private static LocalDate readDate(DataInputStream dis) throws IOException
+	{
+		long value = dis.readLong();
+		return value != Long.MIN_VALUE ? LocalDate.ofEpochDay(value) : null;
+	}
+	
+	private static void writeTime(DataOutputStream dos, LocalTime time) throws IOException
+	{
+		dos.writeLong(time != null ? time.toNanoOfDay() : -1);
+	}
+	
+	private static LocalTime readTime(DataInputStream dis) throws IOException
+	{
+		long value = dis.readLong();
+		return value >= 0 ? LocalTime.ofNanoOfDay(value) : null;
+	}
+	
+	
+	public static class CachedContent
+	{
+		private final ByteBuffer content;
+		private final boolean compressed;
+		
+		CachedContent(ByteBuffer content, boolean compressed)
+		{
+			this.content = content;
+			this.compressed = compressed;
+		}
+		
+		public ByteBuffer getContent()
+		{
+			return content;
+		}
+		
+		public boolean isCompressed()
+		{
+			return compressed;
+		}
+	}
+	
+	private static class BatchLocation
+	{
+		private final String key,
+				streamKey;
+		private final long firstIndex,
+				lastIndex;
+		private final boolean compressed;
+		
+		BatchLocation(String key, String streamKey, long firstIndex, long lastIndex, boolean compressed)
+		{
+			this.key = key;
+			this.streamKey = streamKey;
+			this.firstIndex = firstIndex;
+			this.lastIndex = lastIndex;
+			this.compressed = compressed;
+		}
+	}
+}
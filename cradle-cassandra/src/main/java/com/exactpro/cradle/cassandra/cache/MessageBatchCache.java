@@ -0,0 +1,272 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageId;
+
+/**
+ * Size-bounded cache of decoded message batches with least recently used eviction policy. 
+ * Batches are identified by table they are stored in, stream name, direction and index of first message. 
+ * Stored batches are never changed, thus cached batches don't need invalidation
+ */
+public class MessageBatchCache
+{
+	/**
+	 * Approximate number of bytes taken by {@link StoredMessage} object, its ID and timestamp, excluding content and metadata
+	 */
+	static final int MESSAGE_OVERHEAD_BYTES = 128;
+	
+	private final long maxSize;
+	private final LinkedHashMap<BatchKey, CachedBatch> batches = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<StreamKey, NavigableMap<Long, CachedBatch>> streams = new HashMap<>();
+	private long size;
+	private final LongAdder hits = new LongAdder(),
+			misses = new LongAdder(),
+			evictions = new LongAdder();
+	
+	public MessageBatchCache(long maxSize)
+	{
+		this.maxSize = maxSize;
+	}
+	
+	
+	/**
+	 * Returns cached batch that contains message with given ID
+	 * @param table name of table the batch is stored in
+	 * @param id of message to find batch for
+	 * @return messages of batch or null if no cached batch contains message with given ID
+	 */
+	public synchronized Collection<StoredMessage> get(String table, StoredMessageId id)
+	{
+		NavigableMap<Long, CachedBatch> stream = streams.get(new StreamKey(table, id.getStreamName(), id.getDirection()));
+		Map.Entry<Long, CachedBatch> entry = stream != null ? stream.floorEntry(id.getIndex()) : null;
+		if (entry == null || entry.getValue().lastIndex < id.getIndex())
+		{
+			misses.increment();
+			return null;
+		}
+		
+		CachedBatch batch = entry.getValue();
+		batches.get(batch.key);  //To update access order
+		hits.increment();
+		return batch.messages;
+	}
+	
+	/**
+	 * Puts decoded batch to the cache, evicting least recently used batches if cache size exceeds the limit
+	 * @param table name of table the batch is stored in
+	 * @param messages of the batch in direct order
+	 * @return unmodifiable collection of given messages
+	 */
+	public synchronized Collection<StoredMessage> put(String table, List<StoredMessage> messages)
+	{
+		Collection<StoredMessage> result = Collections.unmodifiableList(messages);
+		if (messages.isEmpty())
+			return result;
+		
+		StoredMessage first = messages.get(0);
+		long batchSize = estimateSize(messages);
+		if (batchSize > maxSize)
+			return result;
+		
+		StreamKey streamKey = new StreamKey(table, first.getStreamName(), first.getDirection());
+		BatchKey key = new BatchKey(streamKey, first.getIndex());
+		CachedBatch batch = new CachedBatch(key, result, messages.get(messages.size()-1).getIndex(), batchSize);
+		CachedBatch previous = batches.put(key, batch);
+		if (previous != null)
+			size -= previous.size;
+		size += batchSize;
+		streams.computeIfAbsent(streamKey, k -> new TreeMap<>()).put(key.firstIndex, batch);
+		
+		Iterator<CachedBatch> it = batches.values().iterator();
+		while (size > maxSize && it.hasNext())
+		{
+			CachedBatch eldest = it.next();
+			it.remove();
+			removeFromStream(eldest);
+			size -= eldest.size;
+			evictions.increment();
+		}
+		return result;
+	}
+	
+	public synchronized void clear()
+	{
+		batches.clear();
+		streams.clear();
+		size = 0;
+	}
+	
+	
+	public long getMaxSize()
+	{
+		return maxSize;
+	}
+	
+	/**
+	 * @return estimated size in bytes of cached batches
+	 */
+	public synchronized long getSize()
+	{
+		return size;
+	}
+	
+	public synchronized int getBatchCount()
+	{
+		return batches.size();
+	}
+	
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+	
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+	
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "MessageBatchCache{size="+getSize()+" of "+maxSize
+				+", batches="+getBatchCount()
+				+", hits="+getHitCount()
+				+", misses="+getMissCount()
+				+", evictions="+getEvictionCount()+"}";
+	}
+	
+	
+	static long estimateSize(Collection<StoredMessage> messages)
+	{
+		long result = 0;
+		for (StoredMessage msg : messages)
+		{
+			byte[] content = msg.getContent();
+			result += MESSAGE_OVERHEAD_BYTES + (content != null ? content.length : 0);
+		}
+		return result;
+	}
+	
+	private void removeFromStream(CachedBatch batch)
+	{
+		NavigableMap<Long, CachedBatch> stream = streams.get(batch.key.stream);
+		if (stream == null)
+			return;
+		
+		stream.remove(batch.key.firstIndex, batch);
+		if (stream.isEmpty())
+			streams.remove(batch.key.stream);
+	}
+	
+	
+	private static class StreamKey
+	{
+		private final String table,
+				streamName;
+		private final Direction direction;
+		
+		StreamKey(String table, String streamName, Direction direction)
+		{
+			this.table = table;
+			this.streamName = streamName;
+			this.direction = direction;
+		}
+		
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			StreamKey that = (StreamKey)o;
+			return table.equals(that.table) && streamName.equals(that.streamName) && direction == that.direction;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(table, streamName, direction);
+		}
+	}
+	
+	private static class BatchKey
+	{
+		private final StreamKey stream;
+		private final long firstIndex;
+		
+		BatchKey(StreamKey stream, long firstIndex)
+		{
+			this.stream = stream;
+			this.firstIndex = firstIndex;
+		}
+		
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			BatchKey that = (BatchKey)o;
+			return firstIndex == that.firstIndex && stream.equals(that.stream);
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(stream, firstIndex);
+		}
+	}
+	
+	private static class CachedBatch
+	{
+		private final BatchKey key;
+		private final Collection<StoredMessage> messages;
+		private final long lastIndex,
+				size;
+		
+		CachedBatch(BatchKey key, Collection<StoredMessage> messages, long lastIndex, long size)
+		{
+			this.key = key;
+			this.messages = messages;
+			this.lastIndex = lastIndex;
+			this.size = size;
+		}
+	}
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exactpro.cradle.Direction;
+
+/**
+ * Keeps first and last message indices of streams to answer requests for them without querying Cassandra. 
+ * Indices are loaded lazily on first request and then are updated with each stored message batch. 
+ * Concurrent first requests for the same index share one loading. 
+ * To get indices of batches stored by other writers, loaded indices can be refreshed by {@link #refresh()}
+ */
+public class MessageIndexTracker
+{
+	private static final Logger logger = LoggerFactory.getLogger(MessageIndexTracker.class);
+	
+	/**
+	 * Value returned for streams that have no messages
+	 */
+	public static final long EMPTY_INDEX = -1L;
+	
+	private final IndexLoader loader;
+	private final Map<StreamKey, TrackedIndices> streams = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder(),
+			loads = new LongAdder();
+	
+	public MessageIndexTracker(IndexLoader loader)
+	{
+		this.loader = loader;
+	}
+	
+	
+	public long getFirstIndex(String table, String streamName, Direction direction) throws IOException
+	{
+		return getIndex(new StreamKey(table, streamName, direction), true);
+	}
+	
+	public long getLastIndex(String table, String streamName, Direction direction) throws IOException
+	{
+		return getIndex(new StreamKey(table, streamName, direction), false);
+	}
+	
+	/**
+	 * Updates tracked indices with indices of successfully stored message batch
+	 * @param table where message batch is stored
+	 * @param streamName of stored message batch
+	 * @param direction of stored message batch
+	 * @param firstIndex index of first message in stored batch
+	 * @param lastIndex index of last message in stored batch
+	 */
+	public void onBatchStored(String table, String streamName, Direction direction, long firstIndex, long lastIndex)
+	{
+		streams.computeIfAbsent(new StreamKey(table, streamName, direction), k -> new TrackedIndices())
+				.update(firstIndex, lastIndex);
+	}
+	
+	/**
+	 * Loads again all indices that were loaded before, merging them with indices stored meanwhile by this storage
+	 */
+	public void refresh()
+	{
+		for (Map.Entry<StreamKey, TrackedIndices> e : streams.entrySet())
+		{
+			StreamKey key = e.getKey();
+			TrackedIndices indices = e.getValue();
+			try
+			{
+				if (indices.isFirstLoaded())
+					indices.loadedFirst(load(key, true));
+				if (indices.isLastLoaded())
+					indices.loadedLast(load(key, false));
+			}
+			catch (IOException error)
+			{
+				logger.warn("Could not refresh message indices for "+key, error);
+			}
+		}
+	}
+	
+	public void clear()
+	{
+		streams.clear();
+	}
+	
+	
+	public int getStreamCount()
+	{
+		return streams.size();
+	}
+	
+	/**
+	 * @return number of requests answered without querying Cassandra
+	 */
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+	
+	/**
+	 * @return number of queries made to load indices, including refresh
+	 */
+	public long getLoadCount()
+	{
+		return loads.sum();
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "MessageIndexTracker{streams="+getStreamCount()
+				+", hits="+getHitCount()
+				+", loads="+getLoadCount()+"}";
+	}
+	
+	
+	private long getIndex(StreamKey key, boolean first) throws IOException
+	{
+		TrackedIndices indices = streams.computeIfAbsent(key, k -> new TrackedIndices());
+		if (first ? indices.isFirstLoaded() : indices.isLastLoaded())
+		{
+			hits.increment();
+			return first ? indices.getFirst() : indices.getLast();
+		}
+		
+		CompletableFuture<Long> loading = new CompletableFuture<>(),
+				current = indices.startLoading(first, loading);
+		if (current != loading)  //Index is already loaded or is being loaded by other thread
+		{
+			hits.increment();
+			return await(current, key);
+		}
+		
+		try
+		{
+			//Batches stored while the query is running are merged with its result
+			long loaded = load(key, first);
+			long result = first ? indices.loadedFirst(loaded) : indices.loadedLast(loaded);
+			loading.complete(result);
+			return result;
+		}
+		catch (IOException | RuntimeException e)
+		{
+			loading.completeExceptionally(e);
+			throw e;
+		}
+		finally
+		{
+			indices.finishLoading(first, loading);
+		}
+	}
+	
+	private long await(CompletableFuture<Long> loading, StreamKey key) throws IOException
+	{
+		try
+		{
+			return loading.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for message index of "+key, e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IOException("Could not load message index of "+key, e.getCause());
+		}
+	}
+	
+	private long load(StreamKey key, boolean first) throws IOException
+	{
+		loads.increment();
+		return loader.load(key.table, key.streamName, key.direction, first);
+	}
+	
+	
+	@FunctionalInterface
+	public interface IndexLoader
+	{
+		/**
+		 * @return first or last index of message stored for given stream and direction or {@link #EMPTY_INDEX} if there are no messages
+		 */
+		long load(String table, String streamName, Direction direction, boolean first) throws IOException;
+	}
+	
+	
+	private static class TrackedIndices
+	{
+		private long first = EMPTY_INDEX,
+				last = EMPTY_INDEX;
+		private boolean firstLoaded,
+				lastLoaded;
+		private CompletableFuture<Long> firstLoading,
+				lastLoading;
+		
+		/**
+		 * Registers loading of first or last index, if it is not loaded and is not being loaded yet
+		 * @return given loading if it is registered, loading that is already in progress or completed future with loaded index
+		 */
+		synchronized CompletableFuture<Long> startLoading(boolean first, CompletableFuture<Long> loading)
+		{
+			if (first ? firstLoaded : lastLoaded)
+				return CompletableFuture.completedFuture(first ? this.first : this.last);
+			
+			CompletableFuture<Long> current = first ? firstLoading : lastLoading;
+			if (current != null)
+				return current;
+			
+			if (first)
+				firstLoading = loading;
+			else
+				lastLoading = loading;
+			return loading;
+		}
+		
+		synchronized void finishLoading(boolean first, CompletableFuture<Long> loading)
+		{
+			if (first && firstLoading == loading)
+				firstLoading = null;
+			else if (!first && lastLoading == loading)
+				lastLoading = null;
+		}
+		
+		synchronized void update(long firstIndex, long lastIndex)
+		{
+			first = min(first, firstIndex);
+			last = Math.max(last, lastIndex);
+		}
+		
+		synchronized long loadedFirst(long index)
+		{
+			first = min(first, index);
+			firstLoaded = true;
+			return first;
+		}
+		
+		synchronized long loadedLast(long index)
+		{
+			last = Math.max(last, index);
+			lastLoaded = true;
+			return last;
+		}
+		
+		synchronized long getFirst()
+		{
+			return first;
+		}
+		
+		synchronized long getLast()
+		{
+			return last;
+		}
+		
+		synchronized boolean isFirstLoaded()
+		{
+			return firstLoaded;
+		}
+		
+		synchronized boolean isLastLoaded()
+		{
+			return lastLoaded;
+		}
+		
+		private static long min(long index1, long index2)
+		{
+			if (index1 == EMPTY_INDEX)
+				return index2;
+			if (index2 == EMPTY_INDEX)
+				return index1;
+			return Math.min(index1, index2);
+		}
+	}
+	
+	private static class StreamKey
+	{
+		private final String table,
+				streamName;
+		private final Direction direction;
+		
+		StreamKey(String table, String streamName, Direction direction)
+		{
+			this.table = table;
+			this.streamName = streamName;
+			this.direction = direction;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return (table.hashCode() * 31 + streamName.hashCode()) * 31 + direction.hashCode();
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (!(obj instanceof StreamKey))
+				return false;
+			StreamKey other = (StreamKey) obj;
+			return table.equals(other.table) && streamName.equals(other.streamName) && direction == other.direction;
+		}
+		
+		@Override
+		public String toString()
+		{
+			return table+" / "+streamName+" / "+direction.getLabel();
+		}
+	}
+}
@@ -0,0 +1,619 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.cassandra.utils.BloomFilter;
+import com.exactpro.cradle.messages.StoredMessageId;
+
+/**
+ * Cache of Bloom filters of messages that have test events linked to them. 
+ * There is one filter per stream, direction and range of message indices (bucket). 
+ * Writers add bits of linked messages to the stored filter, so that concurrent writes don't overwrite each other 
+ * and the same filter is extended after restart of writer. 
+ * Filter of bucket is used only if the bucket is covered, i.e. its first message was stored by client with filters enabled. 
+ * For other buckets it is unknown if their messages have links, so the cache answers that they might have. 
+ * Bits of links stored by this client are added to the cache immediately, 
+ * cached filters expire after given time to get links stored by other writers. 
+ * Filters cover only links stored while filters are enabled, so all clients that store links should have them enabled
+ */
+public class MessageLinksFilterCache
+{
+	private static final Logger logger = LoggerFactory.getLogger(MessageLinksFilterCache.class);
+	
+	public static final int DEFAULT_HASHES = 3;
+	
+	private final int maxEntries;
+	private final long ttlNanos,
+			bucketSize;
+	private final int filterBits,
+			filterHashes;
+	private final FiltersLoader loader;
+	private final FilterWriter writer;
+	private final CoverageWriter coverageWriter;
+	private final LongSupplier clock;
+	private final LinkedHashMap<FilterKey, CachedFilter> filters;
+	private final LinkedHashMap<FilterKey, WrittenBits> writtenBits;
+	private final LongAdder hits = new LongAdder(),
+			misses = new LongAdder(),
+			evictions = new LongAdder(),
+			expirations = new LongAdder(),
+			negatives = new LongAdder();
+	
+	/**
+	 * Creates cache with given capacity and time-to-live of entries
+	 * @param maxEntries max number of filters to keep in the cache. 
+	 * The same number of filters with bits written by this client is kept to not write the same bits again
+	 * @param ttlMillis time in milliseconds after which cached filter expires. 0 means that filters don't expire
+	 * @param bucketSize number of message indices covered by one filter
+	 * @param filterBits number of bits in one filter
+	 * @param loader to load data stored for bucket
+	 * @param writer to add bits to stored filter
+	 * @param coverageWriter to mark bucket as covered by filter or to remove this mark
+	 */
+	public MessageLinksFilterCache(int maxEntries, long ttlMillis, long bucketSize, int filterBits, 
+			FiltersLoader loader, FilterWriter writer, CoverageWriter coverageWriter)
+	{
+		this(maxEntries, ttlMillis, bucketSize, filterBits, loader, writer, coverageWriter, System::nanoTime);
+	}
+	
+	MessageLinksFilterCache(int maxEntries, long ttlMillis, long bucketSize, int filterBits, 
+			FiltersLoader loader, FilterWriter writer, CoverageWriter coverageWriter, LongSupplier clock)
+	{
+		if (bucketSize <= 0)
+			throw new IllegalArgumentException("Bucket size must be positive");
+		
+		this.maxEntries = maxEntries;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		this.bucketSize = bucketSize;
+		this.filterBits = new BloomFilter(filterBits, DEFAULT_HASHES).getNumBits();
+		this.filterHashes = DEFAULT_HASHES;
+		this.loader = loader;
+		this.writer = writer;
+		this.coverageWriter = coverageWriter;
+		this.clock = clock;
+		this.filters = new LinkedHashMap<FilterKey, CachedFilter>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<FilterKey, CachedFilter> eldest)
+			{
+				if (size() <= MessageLinksFilterCache.this.maxEntries)
+					return false;
+				evictions.increment();
+				return true;
+			}
+		};
+		this.writtenBits = new LinkedHashMap<FilterKey, WrittenBits>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<FilterKey, WrittenBits> eldest)
+			{
+				//Adding bits is idempotent, so evicted bits are just written again if needed
+				return size() > MessageLinksFilterCache.this.maxEntries;
+			}
+		};
+	}
+	
+	
+	/**
+	 * Checks if message might have test events linked to it, loading filter of its bucket if it is not cached or has expired
+	 * @param messageId ID of message to check
+	 * @return future to get false if message has no linked test events for sure, 
+	 * true if message might have linked test events or filter could not be loaded
+	 */
+	public CompletableFuture<Boolean> mightBeLinked(StoredMessageId messageId)
+	{
+		long index = messageId.getIndex();
+		return getFilter(new FilterKey(messageId.getStreamName(), messageId.getDirection(), getBucket(index)))
+				.handle((filter, error) -> {
+					if (error != null)
+						return true;
+					
+					boolean result = filter.mightContain(index);
+					if (!result)
+						negatives.increment();
+					return result;
+				});
+	}
+	
+	/**
+	 * Adds messages linked to test event to filters. Only bits not yet written by this client are stored. 
+	 * If bits could not be stored, buckets of messages are not considered covered anymore
+	 * @param messageIds IDs of messages to store links for
+	 * @return future that completes when bits of all messages are stored. Links should be stored after that
+	 */
+	public CompletableFuture<Void> onLinksStored(Collection<StoredMessageId> messageIds)
+	{
+		Map<FilterKey, List<Long>> indices = new LinkedHashMap<>();
+		for (StoredMessageId id : messageIds)
+		{
+			FilterKey key = new FilterKey(id.getStreamName(), id.getDirection(), getBucket(id.getIndex()));
+			indices.computeIfAbsent(key, k -> new ArrayList<>()).add(id.getIndex());
+		}
+		
+		List<CompletableFuture<?>> writes = new ArrayList<>(indices.size());
+		indices.forEach((key, keyIndices) -> writes.add(addAndWrite(key, keyIndices)));
+		return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]));
+	}
+	
+	/**
+	 * Marks buckets that start within stored batch of messages as covered, 
+	 * i.e. all links to messages of these buckets will be added to their filters
+	 * @param streamName name of stream of stored messages
+	 * @param direction direction of stored messages
+	 * @param firstIndex index of the first stored message
+	 * @param lastIndex index of the last stored message
+	 * @return future that completes when buckets are marked
+	 */
+	public CompletableFuture<Void> onMessagesStored(String streamName, Direction direction, long firstIndex, long lastIndex)
+	{
+		long firstBucket = getBucket(firstIndex);
+		if (firstIndex % bucketSize != 0)
+			firstBucket++;
+		long lastBucket = getBucket(lastIndex);
+		
+		List<CompletableFuture<?>> writes = new ArrayList<>();
+		for (long bucket = firstBucket; bucket <= lastBucket; bucket++)
+			writes.add(setCovered(new FilterKey(streamName, direction, bucket), true));
+		return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]));
+	}
+	
+	public synchronized void clear()
+	{
+		filters.clear();
+	}
+	
+	
+	public long getBucket(long messageIndex)
+	{
+		return messageIndex / bucketSize;
+	}
+	
+	public long getBucketSize()
+	{
+		return bucketSize;
+	}
+	
+	public int getFilterBits()
+	{
+		return filterBits;
+	}
+	
+	public int getMaxEntries()
+	{
+		return maxEntries;
+	}
+	
+	public synchronized int getEntryCount()
+	{
+		return filters.size();
+	}
+	
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+	
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+	
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+	
+	public long getExpirationCount()
+	{
+		return expirations.sum();
+	}
+	
+	/**
+	 * @return number of checks answered that message has no linked test events
+	 */
+	public long getNegativeCount()
+	{
+		return negatives.sum();
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "MessageLinksFilterCache{entries="+getEntryCount()+" of "+maxEntries
+				+", hits="+getHitCount()
+				+", misses="+getMissCount()
+				+", evictions="+getEvictionCount()
+				+", expirations="+getExpirationCount()
+				+", negatives="+getNegativeCount()+"}";
+	}
+	
+	
+	private CompletableFuture<LinksFilter> getFilter(FilterKey key)
+	{
+		CachedFilter cached;
+		synchronized (this)
+		{
+			cached = filters.get(key);
+			if (cached != null && ttlNanos > 0 && clock.getAsLong() - cached.cachedAt >= ttlNanos)
+			{
+				filters.remove(key);
+				expirations.increment();
+				cached = null;
+			}
+			
+			if (cached != null)
+			{
+				hits.increment();
+				return cached.filter;
+			}
+			
+			misses.increment();
+			cached = new CachedFilter(clock.getAsLong());
+			filters.put(key, cached);
+		}
+		
+		CachedFilter loading = cached;
+		CompletableFuture<StoredBucket> loaded;
+		try
+		{
+			loaded = loader.load(key.streamName, key.direction, key.bucket);
+		}
+		catch (Exception e)
+		{
+			loaded = new CompletableFuture<>();
+			loaded.completeExceptionally(e);
+		}
+		
+		loaded.whenComplete((stored, error) -> {
+			if (error != null)
+			{
+				synchronized (this)
+				{
+					filters.remove(key, loading);
+				}
+				loading.filter.completeExceptionally(error);
+				return;
+			}
+			
+			LinksFilter result = merge(stored);
+			//Bits written by this client may be not visible yet, bits written after loading are added to the result by addAndWrite()
+			BloomFilter written = null;
+			synchronized (this)
+			{
+				WrittenBits bits = writtenBits.get(key);
+				if (bits != null)
+					written = bits.filter.copy();
+			}
+			if (written != null)
+				result.merge(written);
+			loading.filter.complete(result);
+		});
+		return loading.filter;
+	}
+	
+	private LinksFilter merge(StoredBucket stored)
+	{
+		//Bucket not started by client with filters enabled may have links not added to its filter
+		if (stored == null || !stored.isCovered())
+			return new LinksFilter(null);
+		
+		BloomFilter result = new BloomFilter(filterBits, filterHashes);
+		for (StoredBits bits : stored.filters)
+		{
+			if (bits.bits.isEmpty())
+				continue;
+			
+			//Bits of filter built with different settings cannot be merged, so nothing is known about links in the bucket
+			if (bits.numBits != filterBits || bits.numHashes != filterHashes)
+				return new LinksFilter(null);
+			
+			for (Integer bit : bits.bits)
+			{
+				if (bit == null || bit < 0 || bit >= filterBits)
+					return new LinksFilter(null);
+				result.setBit(bit);
+			}
+		}
+		return new LinksFilter(result);
+	}
+	
+	private CompletableFuture<?> addAndWrite(FilterKey key, List<Long> indices)
+	{
+		//Filter loaded after bits were marked as written will include them, filter loaded before that needs to be updated
+		CachedFilter cached;
+		WrittenBits written;
+		Set<Integer> newBits = new HashSet<>();
+		CompletableFuture<Void> previousWrites,
+				write = new CompletableFuture<>();
+		synchronized (this)
+		{
+			cached = filters.get(key);
+			written = writtenBits.computeIfAbsent(key, k -> new WrittenBits(new BloomFilter(filterBits, filterHashes)));
+			for (long index : indices)
+			{
+				for (int bit : written.filter.getBits(index))
+				{
+					if (!written.filter.isBitSet(bit))
+						newBits.add(bit);
+				}
+			}
+			
+			previousWrites = written.pendingWrites;
+			if (!newBits.isEmpty())
+			{
+				for (int bit : newBits)
+					written.filter.setBit(bit);
+				written.pendingWrites = CompletableFuture.allOf(previousWrites, write);
+			}
+		}
+		if (cached != null)
+			cached.filter.thenAccept(filter -> filter.addAll(indices));
+		
+		//Bits of messages may be being written by previous call, link to message should be stored only after that
+		if (newBits.isEmpty())
+			return previousWrites;
+		
+		CompletableFuture<?> result;
+		try
+		{
+			result = writer.addBits(key.streamName, key.direction, key.bucket, filterBits, filterHashes, newBits);
+		}
+		catch (Exception e)
+		{
+			CompletableFuture<?> error = new CompletableFuture<>();
+			error.completeExceptionally(e);
+			result = error;
+		}
+		
+		result.whenComplete((r, error) -> {
+			if (error != null)
+				onWriteFailed(key, written, error);
+			write.complete(null);
+		});
+		return CompletableFuture.allOf(previousWrites, result);
+	}
+	
+	private void onWriteFailed(FilterKey key, WrittenBits written, Throwable error)
+	{
+		logger.warn("Could not store filter of linked messages for {}, links to messages of this bucket will be always queried", 
+				key, error);
+		
+		//Filter doesn't contain all links anymore, so nothing is known about links in the bucket till the mark of coverage is removed
+		CachedFilter unknown = new CachedFilter(clock.getAsLong());
+		unknown.filter.complete(new LinksFilter(null));
+		synchronized (this)
+		{
+			filters.put(key, unknown);
+			writtenBits.remove(key, written);
+		}
+		
+		setCovered(key, false).whenComplete((r, e) -> {
+			if (e != null)
+				logger.error("Could not remove mark of coverage from {}, links to its messages may be not found", key, e);
+		});
+	}
+	
+	private CompletableFuture<?> setCovered(FilterKey key, boolean covered)
+	{
+		try
+		{
+			return coverageWriter.setCovered(key.streamName, key.direction, key.bucket, covered);
+		}
+		catch (Exception e)
+		{
+			CompletableFuture<?> error = new CompletableFuture<>();
+			error.completeExceptionally(e);
+			return error;
+		}
+	}
+	
+	
+	@FunctionalInterface
+	public interface FiltersLoader
+	{
+		/**
+		 * @return future to obtain data stored for given stream, direction and bucket. 
+		 * Data with no mark of coverage and no bits is returned if nothing is stored
+		 */
+		CompletableFuture<StoredBucket> load(String streamName, Direction direction, long bucket);
+	}
+	
+	@FunctionalInterface
+	public interface FilterWriter
+	{
+		/**
+		 * Adds bits to stored filter with given number of bits and hash functions. 
+		 * Bits already stored by any writer remain set
+		 * @return future that completes when bits are stored
+		 */
+		CompletableFuture<?> addBits(String streamName, Direction direction, long bucket, int filterBits, int filterHashes, 
+				Set<Integer> bits);
+	}
+	
+	@FunctionalInterface
+	public interface CoverageWriter
+	{
+		/**
+		 * Marks bucket as covered by filter, i.e. all links to its messages are added to the filter, or removes this mark
+		 * @return future that completes when the mark is stored
+		 */
+		CompletableFuture<?> setCovered(String streamName, Direction direction, long bucket, boolean covered);
+	}
+	
+	
+	/**
+	 * Data stored for bucket: mark of coverage and bits of filters built with different settings
+	 */
+	public static class StoredBucket
+	{
+		private final boolean covered;
+		private final List<StoredBits> filters = new ArrayList<>();
+		
+		public StoredBucket(boolean covered)
+		{
+			this.covered = covered;
+		}
+		
+		
+		/**
+		 * Adds stored bits of filter
+		 * @param numBits number of bits in filter
+		 * @param numHashes number of hash functions of filter
+		 * @param bits positions of set bits
+		 */
+		public void addFilter(int numBits, int numHashes, Collection<Integer> bits)
+		{
+			filters.add(new StoredBits(numBits, numHashes, bits));
+		}
+		
+		public boolean isCovered()
+		{
+			return covered;
+		}
+	}
+	
+	
+	private static class StoredBits
+	{
+		private final int numBits,
+				numHashes;
+		private final Collection<Integer> bits;
+		
+		StoredBits(int numBits, int numHashes, Collection<Integer> bits)
+		{
+			this.numBits = numBits;
+			this.numHashes = numHashes;
+			this.bits = bits;
+		}
+	}
+	
+	private static class FilterKey
+	{
+		private final String streamName;
+		private final Direction direction;
+		private final long bucket;
+		
+		FilterKey(String streamName, Direction direction, long bucket)
+		{
+			this.streamName = streamName;
+			this.direction = direction;
+			this.bucket = bucket;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(streamName, direction, bucket);
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (!(obj instanceof FilterKey))
+				return false;
+			FilterKey other = (FilterKey)obj;
+			return direction == other.direction && bucket == other.bucket && Objects.equals(streamName, other.streamName);
+		}
+		
+		@Override
+		public String toString()
+		{
+			return "stream '"+streamName+"', direction '"+direction+"' and bucket "+bucket;
+		}
+	}
+	
+	private static class CachedFilter
+	{
+		private final CompletableFuture<LinksFilter> filter = new CompletableFuture<>();
+		private final long cachedAt;
+		
+		CachedFilter(long cachedAt)
+		{
+			this.cachedAt = cachedAt;
+		}
+	}
+	
+	/**
+	 * Bits written or being written by this client for one bucket. Accessed under lock of the cache
+	 */
+	private static class WrittenBits
+	{
+		private final BloomFilter filter;
+		private CompletableFuture<Void> pendingWrites = CompletableFuture.completedFuture(null);
+		
+		WrittenBits(BloomFilter filter)
+		{
+			this.filter = filter;
+		}
+	}
+	
+	/**
+	 * Merged filter of bucket. Filter is null if nothing is known about links in the bucket
+	 */
+	private static class LinksFilter
+	{
+		private final BloomFilter filter;
+		
+		LinksFilter(BloomFilter filter)
+		{
+			this.filter = filter;
+		}
+		
+		synchronized boolean mightContain(long index)
+		{
+			return filter == null || filter.mightContain(index);
+		}
+		
+		synchronized void merge(BloomFilter other)
+		{
+			if (filter != null)
+				filter.merge(other);
+		}
+		
+		synchronized void addAll(Collection<Long> indices)
+		{
+			if (filter == null)
+				return;
+			for (long index : indices)
+				filter.add(index);
+		}
+	}
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+/**
+ * Cache of binary data kept in direct memory, i.e. outside of Java heap, with least recently used eviction policy. 
+ * Memory is allocated in segments of fixed size on demand and is split into blocks of equal size. 
+ * Each cached entry occupies as many blocks as needed to hold its data, blocks are reused after entry is evicted. 
+ * Thus, cached data doesn't affect garbage collection and memory fragmentation is limited by block size. 
+ * Cache size is limited by half of max direct memory of JVM, the rest is left for other users, e.g. Cassandra driver. 
+ * If direct memory is exhausted anyway, the cache doesn't grow anymore and evicts entries to store new ones
+ */
+public class OffHeapBlobCache
+{
+	private static final Logger logger = LoggerFactory.getLogger(OffHeapBlobCache.class);
+	
+	public static final int DEFAULT_BLOCK_SIZE = 4*1024,
+			DEFAULT_SEGMENT_SIZE = 64*1024*1024;
+	
+	private final int blockSize,
+			blocksPerSegment;
+	private int totalBlocks;
+	private final List<ByteBuffer> segments = new ArrayList<>();
+	private final int[] freeBlocks;
+	private int freeBlocksCount,
+			nextNewBlock;
+	private final LinkedHashMap<String, CachedBlob> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Consumer<String> evictionListener;
+	private long size;
+	private final LongAdder hits = new LongAdder(),
+			misses = new LongAdder(),
+			evictions = new LongAdder();
+	
+	/**
+	 * Creates cache with given capacity
+	 * @param maxSize max number of bytes to keep in the cache
+	 * @param blockSize size of one block of memory. Entry size is rounded up to a multiple of block size
+	 * @param segmentSize size of memory segment to allocate when more blocks are needed
+	 * @param evictionListener optional listener to notify about keys evicted from the cache to free memory for new entries
+	 */
+	public OffHeapBlobCache(long maxSize, int blockSize, int segmentSize, Consumer<String> evictionListener)
+	{
+		if (blockSize <= 0 || segmentSize < blockSize)
+			throw new IllegalArgumentException("Segment size ("+segmentSize+") should be not less than positive block size ("+blockSize+")");
+		
+		long maxDirectMemory = getMaxDirectMemory() / 2;
+		if (maxSize > maxDirectMemory)
+		{
+			logger.warn("Cache size {} exceeds half of max direct memory, cache will hold up to {} bytes. "
+					+ "Use -XX:MaxDirectMemorySize to allow bigger cache", maxSize, maxDirectMemory);
+			maxSize = maxDirectMemory;
+		}
+		
+		this.blockSize = blockSize;
+		this.blocksPerSegment = segmentSize / blockSize;
+		this.totalBlocks = (int)Math.min(Integer.MAX_VALUE, (maxSize + blockSize - 1) / blockSize);
+		this.freeBlocks = new int[totalBlocks];
+		this.evictionListener = evictionListener;
+	}
+	
+	public OffHeapBlobCache(long maxSize, Consumer<String> evictionListener)
+	{
+		this(maxSize, DEFAULT_BLOCK_SIZE, DEFAULT_SEGMENT_SIZE, evictionListener);
+	}
+	
+	
+	/**
+	 * Copies given data to the cache, replacing data previously cached with the same key. 
+	 * Least recently used entries are evicted if there is not enough memory for new data
+	 * @param key to store data with
+	 * @param data to copy to the cache. Its position and limit define bytes to copy and are not changed
+	 * @return true if data has been cached, false if data is larger than whole cache
+	 */
+	public synchronized boolean put(String key, ByteBuffer data)
+	{
+		int length = data.remaining(),
+				blocksNeeded = (length + blockSize - 1) / blockSize;
+		if (blocksNeeded > totalBlocks)
+			return false;
+		
+		remove(key);
+		Iterator<Map.Entry<String, CachedBlob>> it = entries.entrySet().iterator();
+		while (availableBlocks() < blocksNeeded && it.hasNext())
+		{
+			Map.Entry<String, CachedBlob> eldest = it.next();
+			it.remove();
+			release(eldest.getValue());
+			evictions.increment();
+			if (evictionListener != null)
+				evictionListener.accept(eldest.getKey());
+		}
+		
+		int[] blocks = new int[blocksNeeded];
+		int allocated = 0;
+		try
+		{
+			for (; allocated < blocksNeeded; allocated++)
+				blocks[allocated] = allocateBlock();
+		}
+		catch (OutOfMemoryError e)
+		{
+			for (int i = 0; i < allocated; i++)
+				freeBlocks[freeBlocksCount++] = blocks[i];
+			limitToAllocatedMemory(e);
+			return false;
+		}
+		
+		ByteBuffer source = data.duplicate();
+		for (int i = 0; i < blocksNeeded; i++)
+		{
+			ByteBuffer block = block(blocks[i]);
+			source.limit(Math.min(source.position() + blockSize, data.limit()));
+			block.put(source);
+		}
+		
+		entries.put(key, new CachedBlob(blocks, length));
+		size += length;
+		return true;
+	}
+	
+	/**
+	 * Returns copy of data cached with given key
+	 * @param key to get data for
+	 * @return buffer in heap memory with copy of cached data or null if no data is cached with given key
+	 */
+	public synchronized ByteBuffer get(String key)
+	{
+		CachedBlob entry = entries.get(key);
+		if (entry == null)
+		{
+			misses.increment();
+			return null;
+		}
+		
+		hits.increment();
+		byte[] result = new byte[entry.length];
+		int offset = 0;
+		for (int b : entry.blocks)
+		{
+			int count = Math.min(blockSize, entry.length - offset);
+			block(b).get(result, offset, count);
+			offset += count;
+		}
+		return ByteBuffer.wrap(result);
+	}
+	
+	public synchronized boolean contains(String key)
+	{
+		return entries.containsKey(key);
+	}
+	
+	/**
+	 * Removes data with given key from the cache. Eviction listener is not notified about this
+	 * @param key to remove data for
+	 */
+	public synchronized void remove(String key)
+	{
+		CachedBlob entry = entries.remove(key);
+		if (entry != null)
+			release(entry);
+	}
+	
+	
+	/**
+	 * Removes all data and drops direct memory allocated by the cache, so that the memory is freed by garbage collector. 
+	 * Nothing is cached after that
+	 */
+	public synchronized void dispose()
+	{
+		entries.clear();
+		segments.clear();
+		freeBlocksCount = 0;
+		nextNewBlock = 0;
+		totalBlocks = 0;
+		size = 0;
+	}
+	
+	
+	/**
+	 * @return max number of bytes the cache can hold
+	 */
+	public synchronized long getMaxSize()
+	{
+		return (long)totalBlocks * blockSize;
+	}
+	
+	/**
+	 * @return number of bytes of cached data
+	 */
+	public synchronized long getSize()
+	{
+		return size;
+	}
+	
+	/**
+	 * @return number of bytes of direct memory allocated by the cache
+	 */
+	public synchronized long getAllocatedSize()
+	{
+		return (long)segments.size() * blocksPerSegment * blockSize;
+	}
+	
+	public synchronized int getEntryCount()
+	{
+		return entries.size();
+	}
+	
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+	
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+	
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "OffHeapBlobCache{size="+getSize()
+				+", allocated="+getAllocatedSize()
+				+", entries="+getEntryCount()
+				+", hits="+getHitCount()
+				+", misses="+getMissCount()
+				+", evictions="+getEvictionCount()+"}";
+	}
+	
+	
+	private int availableBlocks()
+	{
+		return freeBlocksCount + (totalBlocks - nextNewBlock);
+	}
+	
+	private int allocateBlock()
+	{
+		if (freeBlocksCount > 0)
+			return freeBlocks[--freeBlocksCount];
+		
+		int result = nextNewBlock;
+		if (result / blocksPerSegment >= segments.size())
+		{
+			int segmentBlocks = Math.min(blocksPerSegment, totalBlocks - segments.size() * blocksPerSegment);
+			segments.add(ByteBuffer.allocateDirect(segmentBlocks * blockSize));
+		}
+		nextNewBlock++;
+		return result;
+	}
+	
+	private void limitToAllocatedMemory(OutOfMemoryError error)
+	{
+		int allocatedBlocks = 0;
+		for (ByteBuffer s : segments)
+			allocatedBlocks += s.capacity() / blockSize;
+		logger.warn("Could not allocate direct memory, cache will hold up to {} bytes", (long)allocatedBlocks * blockSize, error);
+		totalBlocks = allocatedBlocks;
+	}
+	
+	/**
+	 * @return max size of direct memory available to JVM, as set by -XX:MaxDirectMemorySize or max heap size by default
+	 */
+	static long getMaxDirectMemory()
+	{
+		try
+		{
+			HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+			long value = Long.parseLong(bean.getVMOption("MaxDirectMemorySize").getValue());
+			if (value > 0)
+				return value;
+		}
+		catch (Exception e)
+		{
+			logger.debug("Could not get max direct memory size, using max heap size instead", e);
+		}
+		return Runtime.getRuntime().maxMemory();
+	}
+	
+	private void release(CachedBlob entry)
+	{
+		for (int b : entry.blocks)
+			freeBlocks[freeBlocksCount++] = b;
+		size -= entry.length;
+	}
+	
+	private ByteBuffer block(int index)
+	{
+		ByteBuffer result = segments.get(index / blocksPerSegment).duplicate();
+		int offset = (index % blocksPerSegment) * blockSize;
+		result.limit(offset + blockSize).position(offset);
+		return result;
+	}
+	
+	
+	private static class CachedBlob
+	{
+		private final int[] blocks;
+		private final int length;
+		
+		CachedBlob(int[] blocks, int length)
+		{
+			this.blocks = blocks;
+			this.length = length;
+		}
+	}
+}
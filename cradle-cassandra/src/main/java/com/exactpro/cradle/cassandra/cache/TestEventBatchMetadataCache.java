@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.exactpro.cradle.testevents.StoredTestEventBatchMetadata;
+import com.exactpro.cradle.testevents.StoredTestEventId;
+import com.exactpro.cradle.testevents.StoredTestEventMetadata;
+
+/**
+ * Cache of decoded metadata of test event batches, limited by number of entries, with least recently used eviction policy. 
+ * Metadata of stored batch doesn't change, so cached entries don't expire. 
+ * Allows to decode metadata of batch only once, though it is obtained from different tables and by repeated queries
+ */
+public class TestEventBatchMetadataCache
+{
+	private final int maxEntries;
+	private final LinkedHashMap<StoredTestEventId, StoredTestEventBatchMetadata> batches;
+	private final LongAdder hits = new LongAdder(),
+			misses = new LongAdder(),
+			evictions = new LongAdder();
+	
+	/**
+	 * Creates cache with given capacity
+	 * @param maxEntries max number of batches whose metadata is kept in the cache
+	 */
+	public TestEventBatchMetadataCache(int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+		this.batches = new LinkedHashMap<StoredTestEventId, StoredTestEventBatchMetadata>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<StoredTestEventId, StoredTestEventBatchMetadata> eldest)
+			{
+				if (size() <= TestEventBatchMetadataCache.this.maxEntries)
+					return false;
+				evictions.increment();
+				return true;
+			}
+		};
+	}
+	
+	
+	/**
+	 * @param batchId ID of test event batch
+	 * @return cached metadata of batch or null if it is not cached
+	 */
+	public synchronized StoredTestEventBatchMetadata get(StoredTestEventId batchId)
+	{
+		StoredTestEventBatchMetadata result = batches.get(batchId);
+		if (result == null)
+			misses.increment();
+		else
+			hits.increment();
+		return result;
+	}
+	
+	public synchronized void put(StoredTestEventBatchMetadata metadata)
+	{
+		batches.put(metadata.getId(), metadata);
+	}
+	
+	/**
+	 * Sets metadata of given test event batch from the cache, if present. 
+	 * Otherwise, decodes metadata stored in the test event and puts it into the cache
+	 * @param event to set or decode batch metadata for. If it is not a batch, it is left as is
+	 * @throws IOException if batch metadata is malformed
+	 */
+	public void resolve(StoredTestEventMetadata event) throws IOException
+	{
+		if (!event.isBatch())
+			return;
+		
+		StoredTestEventBatchMetadata cached = get(event.getId());
+		if (cached != null)
+		{
+			event.setBatchMetadata(cached);
+			return;
+		}
+		
+		StoredTestEventBatchMetadata decoded = event.getBatchMetadata();
+		if (decoded != null)
+			put(decoded);
+	}
+	
+	public synchronized void clear()
+	{
+		batches.clear();
+	}
+	
+	
+	public int getMaxEntries()
+	{
+		return maxEntries;
+	}
+	
+	public synchronized int getEntryCount()
+	{
+		return batches.size();
+	}
+	
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+	
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+	
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "TestEventBatchMetadataCache{entries="+getEntryCount()+" of "+maxEntries
+				+", hits="+getHitCount()
+				+", misses="+getMissCount()
+				+", evictions="+getEvictionCount()+"}";
+	}
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.exactpro.cradle.testevents.StoredTestEventId;
+import com.exactpro.cradle.testevents.StoredTestEventWrapper;
+
+/**
+ * Cache of test events, limited by number of entries, with least recently used eviction policy. 
+ * As status of stored test event can be changed, cached test event must be invalidated when its status is updated. 
+ * To get status updates made by other writers, cached test events expire after given time. 
+ * Test event read from Cassandra is cached only if it was not invalidated while being read, see {@link #getStamp()}
+ */
+public class TestEventCache
+{
+	private final int maxEntries;
+	private final long ttlNanos;
+	private final LongSupplier clock;
+	private final LinkedHashMap<StoredTestEventId, CachedEvent> events;
+	//Stamps of recent invalidations, in order of invalidation
+	private final LinkedHashMap<StoredTestEventId, Long> invalidations = new LinkedHashMap<>();
+	private long lastInvalidation,
+			lastForgottenInvalidation;
+	private final LongAdder hits = new LongAdder(),
+			misses = new LongAdder(),
+			evictions = new LongAdder(),
+			expirations = new LongAdder();
+	
+	/**
+	 * Creates cache with given capacity and time-to-live of entries
+	 * @param maxEntries max number of test events to keep in the cache
+	 * @param ttlMillis time in milliseconds after which cached test event expires. 0 means that test events don't expire
+	 */
+	public TestEventCache(int maxEntries, long ttlMillis)
+	{
+		this(maxEntries, ttlMillis, System::nanoTime);
+	}
+	
+	TestEventCache(int maxEntries, long ttlMillis, LongSupplier clock)
+	{
+		this.maxEntries = maxEntries;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		this.clock = clock;
+		this.events = new LinkedHashMap<StoredTestEventId, CachedEvent>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<StoredTestEventId, CachedEvent> eldest)
+			{
+				if (size() <= TestEventCache.this.maxEntries)
+					return false;
+				evictions.increment();
+				return true;
+			}
+		};
+	}
+	
+	
+	/**
+	 * @param id of test event to get
+	 * @return cached test event or null if test event is not cached or cached entry has expired
+	 */
+	public synchronized StoredTestEventWrapper get(StoredTestEventId id)
+	{
+		CachedEvent cached = events.get(id);
+		if (cached == null)
+		{
+			misses.increment();
+			return null;
+		}
+		
+		if (ttlNanos > 0 && clock.getAsLong() - cached.cachedAt >= ttlNanos)
+		{
+			events.remove(id);
+			expirations.increment();
+			misses.increment();
+			return null;
+		}
+		
+		hits.increment();
+		return cached.event;
+	}
+	
+	public synchronized void put(StoredTestEventWrapper event)
+	{
+		events.put(event.getId(), new CachedEvent(event, clock.getAsLong()));
+	}
+	
+	/**
+	 * Puts test event to the cache only if it was not invalidated after given stamp was obtained. 
+	 * This prevents caching of test event that was read before its status was updated
+	 * @param event to put to the cache
+	 * @param stamp obtained by {@link #getStamp()} before reading the test event
+	 * @return true if test event was put to the cache
+	 */
+	public synchronized boolean put(StoredTestEventWrapper event, long stamp)
+	{
+		//Not all invalidations made since the stamp are remembered, so can't check if test event is among them
+		if (stamp < lastForgottenInvalidation)
+			return false;
+		
+		Long invalidated = invalidations.get(event.getId());
+		if (invalidated != null && invalidated > stamp)
+			return false;
+		
+		put(event);
+		return true;
+	}
+	
+	/**
+	 * @return stamp to pass to {@link #put(StoredTestEventWrapper, long)} for test event that is going to be read
+	 */
+	public synchronized long getStamp()
+	{
+		return lastInvalidation;
+	}
+	
+	public synchronized void invalidate(StoredTestEventId id)
+	{
+		events.remove(id);
+		
+		invalidations.remove(id);
+		invalidations.put(id, ++lastInvalidation);
+		if (invalidations.size() > maxEntries)
+		{
+			Iterator<Long> it = invalidations.values().iterator();
+			lastForgottenInvalidation = it.next();
+			it.remove();
+		}
+	}
+	
+	public synchronized void clear()
+	{
+		events.clear();
+	}
+	
+	
+	public int getMaxEntries()
+	{
+		return maxEntries;
+	}
+	
+	public synchronized int getEntryCount()
+	{
+		return events.size();
+	}
+	
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+	
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+	
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+	
+	public long getExpirationCount()
+	{
+		return expirations.sum();
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "TestEventCache{entries="+getEntryCount()+" of "+maxEntries
+				+", hits="+getHitCount()
+				+", misses="+getMissCount()
+				+", evictions="+getEvictionCount()
+				+", expirations="+getExpirationCount()+"}";
+	}
+	
+	
+	private static class CachedEvent
+	{
+		private final StoredTestEventWrapper event;
+		private final long cachedAt;
+		
+		CachedEvent(StoredTestEventWrapper event, long cachedAt)
+		{
+			this.event = event;
+			this.cachedAt = cachedAt;
+		}
+	}
+}
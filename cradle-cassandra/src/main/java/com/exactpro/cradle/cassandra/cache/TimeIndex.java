@@ -0,0 +1,168 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.util.Arrays;
+
+/**
+ * Time index of messages of one stream and direction for one day, i.e. data of messages_timestamps table 
+ * kept in sorted primitive arrays. 
+ * Time is stored as nanosecond of the day, entries are sorted by time and then by message index
+ */
+public class TimeIndex
+{
+	private static final int INITIAL_CAPACITY = 16;
+	/**
+	 * Approximate number of bytes taken by index object and headers of its arrays
+	 */
+	static final int OVERHEAD_BYTES = 64;
+	
+	private long[] times,
+			indices;
+	private int size;
+	
+	public TimeIndex()
+	{
+		this(INITIAL_CAPACITY);
+	}
+	
+	public TimeIndex(int capacity)
+	{
+		times = new long[Math.max(capacity, 1)];
+		indices = new long[times.length];
+	}
+	
+	
+	/**
+	 * Adds entry to the index. Entries are usually added in ascending order, so adding is cheap. 
+	 * Entry already present in the index is not added again
+	 * @param nanoOfDay time of message
+	 * @param index of message
+	 */
+	public synchronized void add(long nanoOfDay, long index)
+	{
+		int pos = size;
+		if (pos > 0 && compare(pos-1, nanoOfDay, index) >= 0)
+		{
+			pos = search(nanoOfDay, index);
+			if (pos >= 0)
+				return;
+			pos = -pos-1;
+		}
+		
+		if (size == times.length)
+		{
+			int capacity = times.length*2;
+			times = Arrays.copyOf(times, capacity);
+			indices = Arrays.copyOf(indices, capacity);
+		}
+		if (pos < size)
+		{
+			System.arraycopy(times, pos, times, pos+1, size-pos);
+			System.arraycopy(indices, pos, indices, pos+1, size-pos);
+		}
+		times[pos] = nanoOfDay;
+		indices[pos] = index;
+		size++;
+	}
+	
+	/**
+	 * @param nanoOfDay time to search for
+	 * @return the last entry whose time is less than or equal to given one, null if there is no such entry
+	 */
+	public synchronized Entry findBefore(long nanoOfDay)
+	{
+		int pos = -search(nanoOfDay, Long.MAX_VALUE)-1;  //Insertion point after all entries with given time
+		return pos > 0 ? new Entry(times[pos-1], indices[pos-1]) : null;
+	}
+	
+	/**
+	 * @param nanoOfDay time to search for
+	 * @return the first entry whose time is greater than or equal to given one, null if there is no such entry
+	 */
+	public synchronized Entry findAfter(long nanoOfDay)
+	{
+		int pos = -search(nanoOfDay, Long.MIN_VALUE)-1;  //Insertion point before all entries with given time
+		return pos < size ? new Entry(times[pos], indices[pos]) : null;
+	}
+	
+	public synchronized int size()
+	{
+		return size;
+	}
+	
+	/**
+	 * @return approximate number of bytes taken by the index, including reserved capacity
+	 */
+	public synchronized long getSizeInBytes()
+	{
+		return OVERHEAD_BYTES + (long)times.length * Long.BYTES * 2;
+	}
+	
+	
+	/**
+	 * Binary search for entry
+	 * @return position of entry, if found, else (-(insertion point) - 1)
+	 */
+	private int search(long nanoOfDay, long index)
+	{
+		int low = 0,
+				high = size-1;
+		while (low <= high)
+		{
+			int mid = (low + high) >>> 1;
+			int cmp = compare(mid, nanoOfDay, index);
+			if (cmp < 0)
+				low = mid+1;
+			else if (cmp > 0)
+				high = mid-1;
+			else
+				return mid;
+		}
+		return -(low+1);
+	}
+	
+	private int compare(int pos, long nanoOfDay, long index)
+	{
+		int result = Long.compare(times[pos], nanoOfDay);
+		return result != 0 ? result : Long.compare(indices[pos], index);
+	}
+	
+	
+	public static class Entry
+	{
+		private final long nanoOfDay,
+				index;
+		
+		public Entry(long nanoOfDay, long index)
+		{
+			this.nanoOfDay = nanoOfDay;
+			this.index = index;
+		}
+		
+		
+		public long getNanoOfDay()
+		{
+			return nanoOfDay;
+		}
+		
+		public long getIndex()
+		{
+			return index;
+		}
+	}
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.exactpro.cradle.Direction;
+
+/**
+ * Cache of time indices of messages, i.e. data of messages_timestamps table for stream, direction and day. 
+ * Is limited by approximate size of indices in bytes, with least recently used eviction policy. 
+ * Size of index is counted when it is loaded and when it grows with added time data. 
+ * Index that alone exceeds the limit is not cached. Its day is remembered as too large, 
+ * so that the index is not loaded again and nearest messages for that day are queried from Cassandra. 
+ * Index is loaded once and then is updated with time data stored by this client. 
+ * To get data stored by other writers, cached indices expire after given time
+ */
+public class TimeIndexCache
+{
+	private static final int MAX_TOO_LARGE_INDICES = 10000;
+	
+	private final long maxSize;
+	private final long ttlNanos;
+	private final TimeIndexLoader loader;
+	private final LongSupplier clock;
+	private final LinkedHashMap<IndexKey, CachedIndex> indices = new LinkedHashMap<>(16, 0.75f, true);
+	private final Set<IndexKey> tooLarge = Collections.newSetFromMap(new LinkedHashMap<IndexKey, Boolean>(16, 0.75f, true)
+	{
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IndexKey, Boolean> eldest)
+		{
+			return size() > MAX_TOO_LARGE_INDICES;
+		}
+	});
+	private long size;
+	private final LongAdder hits = new LongAdder(),
+			misses = new LongAdder(),
+			evictions = new LongAdder(),
+			expirations = new LongAdder(),
+			rejections = new LongAdder();
+	
+	/**
+	 * Creates cache with given capacity and time-to-live of entries
+	 * @param maxSize max size in bytes of time indices to keep in the cache
+	 * @param ttlMillis time in milliseconds after which cached time index expires. 0 means that time indices don't expire
+	 * @param loader to load time index for stream, direction and day when it is not cached
+	 */
+	public TimeIndexCache(long maxSize, long ttlMillis, TimeIndexLoader loader)
+	{
+		this(maxSize, ttlMillis, loader, System::nanoTime);
+	}
+	
+	TimeIndexCache(long maxSize, long ttlMillis, TimeIndexLoader loader, LongSupplier clock)
+	{
+		this.maxSize = maxSize;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		this.loader = loader;
+		this.clock = clock;
+	}
+	
+	
+	/**
+	 * Returns time index for given stream, direction and day, loading it if it is not cached or cached index has expired. 
+	 * Concurrent requests for the same index share one loading
+	 * @param streamName name of stream
+	 * @param direction of messages
+	 * @param date day to get time index for
+	 * @return future to obtain time index. Its result is null if index of the day is too large to be cached
+	 */
+	public CompletableFuture<TimeIndex> getIndex(String streamName, Direction direction, LocalDate date)
+	{
+		IndexKey key = new IndexKey(streamName, direction, date);
+		CachedIndex cached;
+		synchronized (this)
+		{
+			if (tooLarge.contains(key))
+				return CompletableFuture.completedFuture(null);
+			
+			cached = indices.get(key);
+			if (cached != null && ttlNanos > 0 && clock.getAsLong() - cached.cachedAt >= ttlNanos)
+			{
+				remove(key, cached);
+				expirations.increment();
+				cached = null;
+			}
+			
+			if (cached != null)
+			{
+				hits.increment();
+				return cached.index;
+			}
+			
+			misses.increment();
+			cached = new CachedIndex(clock.getAsLong());
+			indices.put(key, cached);
+		}
+		
+		CachedIndex loading = cached;
+		CompletableFuture<TimeIndex> loaded;
+		try
+		{
+			loaded = loader.load(streamName, direction, date);
+		}
+		catch (Exception e)
+		{
+			loaded = new CompletableFuture<>();
+			loaded.completeExceptionally(e);
+		}
+		
+		loaded.whenComplete((index, error) -> {
+			if (error != null)
+			{
+				synchronized (this)
+				{
+					if (!loading.removed)
+						remove(key, loading);
+				}
+				loading.index.completeExceptionally(error);
+			}
+			else
+			{
+				updateSize(key, loading, index);
+				loading.index.complete(index);
+			}
+		});
+		return loading.index;
+	}
+	
+	/**
+	 * Adds time data of stored message to cached time index, if any
+	 * @param streamName name of stream
+	 * @param direction of message
+	 * @param date of message
+	 * @param time of message
+	 * @param messageIndex index of message
+	 */
+	public void onMessageStored(String streamName, Direction direction, LocalDate date, LocalTime time, long messageIndex)
+	{
+		IndexKey key = new IndexKey(streamName, direction, date);
+		CachedIndex cached;
+		synchronized (this)
+		{
+			cached = indices.get(key);
+		}
+		
+		//If index is being loaded, entry will be added to it after loading
+		if (cached != null)
+		{
+			cached.index.thenAccept(index -> {
+				index.add(time.toNanoOfDay(), messageIndex);
+				updateSize(key, cached, index);
+			});
+		}
+	}
+	
+	public synchronized void clear()
+	{
+		for (CachedIndex cached : indices.values())
+			cached.removed = true;
+		indices.clear();
+		tooLarge.clear();
+		size = 0;
+	}
+	
+	
+	public long getMaxSize()
+	{
+		return maxSize;
+	}
+	
+	public synchronized long getSize()
+	{
+		return size;
+	}
+	
+	public synchronized int getEntryCount()
+	{
+		return indices.size();
+	}
+	
+	public long getHitCount()
+	{
+		return hits.sum();
+	}
+	
+	public long getMissCount()
+	{
+		return misses.sum();
+	}
+	
+	public long getEvictionCount()
+	{
+		return evictions.sum();
+	}
+	
+	public long getExpirationCount()
+	{
+		return expirations.sum();
+	}
+	
+	/**
+	 * @return number of indices that were not cached or were removed from the cache because each of them exceeds its size limit
+	 */
+	public long getRejectionCount()
+	{
+		return rejections.sum();
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "TimeIndexCache{entries="+getEntryCount()
+				+", size="+getSize()+" of "+maxSize
+				+", hits="+getHitCount()
+				+", misses="+getMissCount()
+				+", evictions="+getEvictionCount()
+				+", expirations="+getExpirationCount()
+				+", rejections="+getRejectionCount()+"}";
+	}
+	
+	
+	/**
+	 * Updates counted size of cached index with its current size, evicting least recently used indices if cache size exceeds the limit. 
+	 * Index larger than the limit is removed without evicting other indices
+	 */
+	private void updateSize(IndexKey key, CachedIndex cached, TimeIndex index)
+	{
+		long indexSize = index.getSizeInBytes();
+		synchronized (this)
+		{
+			if (cached.removed)
+				return;
+			
+			if (indexSize > maxSize)
+			{
+				remove(key, cached);
+				tooLarge.add(key);
+				rejections.increment();
+				return;
+			}
+			
+			size += indexSize-cached.size;
+			cached.size = indexSize;
+			
+			Iterator<CachedIndex> it = indices.values().iterator();
+			while (size > maxSize && it.hasNext())
+			{
+				CachedIndex eldest = it.next();
+				if (eldest.size == 0)  //Index is being loaded, concurrent requests should still share the loading
+					continue;
+				it.remove();
+				eldest.removed = true;
+				size -= eldest.size;
+				evictions.increment();
+			}
+		}
+	}
+	
+	private void remove(IndexKey key, CachedIndex cached)
+	{
+		indices.remove(key);
+		cached.removed = true;
+		size -= cached.size;
+	}
+	
+	
+	@FunctionalInterface
+	public interface TimeIndexLoader
+	{
+		CompletableFuture<TimeIndex> load(String streamName, Direction direction, LocalDate date);
+	}
+	
+	
+	private static class IndexKey
+	{
+		private final String streamName;
+		private final Direction direction;
+		private final LocalDate date;
+		
+		IndexKey(String streamName, Direction direction, LocalDate date)
+		{
+			this.streamName = streamName;
+			this.direction = direction;
+			this.date = date;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(streamName, direction, date);
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (!(obj instanceof IndexKey))
+				return false;
+			IndexKey other = (IndexKey)obj;
+			return direction == other.direction && Objects.equals(streamName, other.streamName) && Objects.equals(date, other.date);
+		}
+	}
+	
+	private static class CachedIndex
+	{
+		private final CompletableFuture<TimeIndex> index = new CompletableFuture<>();
+		private final long cachedAt;
+		//Counted size of loaded index, guarded by the cache
+		private long size;
+		private boolean removed;
+		
+		CachedIndex(long cachedAt)
+		{
+			this.cachedAt = cachedAt;
+		}
+	}
+}
@@ -32,7 +32,26 @@ public class CassandraConnectionSettings
 			readConsistencyLevel;
 	private NetworkTopologyStrategy networkTopologyStrategy;
 	private int maxParallelQueries,
-			resultPageSize;
+			resultPageSize,
+			messageBatchDecodingThreads,
+			messageBatchDecodingLookahead,
+			maxParallelDailyQueries,
+			maxParallelEventPointReads,
+			maxParallelEventTreeQueries,
+			maxBufferedEventTreeNodes;
+	private long messageBatchCacheSize,
+			compressedContentCacheSize,
+			testEventCacheTtl,
+			timeIndexCacheSize,
+			timeIndexCacheTtl,
+			messageIndexRefreshInterval,
+			messageLinksFilterCacheTtl,
+			messageLinksFilterBucketSize;
+	private int testEventCacheSize,
+			testEventBatchMetadataCacheSize,
+			messageLinksFilterCacheSize,
+			messageLinksFilterBits;
+	private boolean trackMessageIndices;
 	private SelectExecutionPolicy selectExecutionPolicy, singleRowResultExecutionPolicy;
 
 	public CassandraConnectionSettings()
@@ -49,6 +68,25 @@ public class CassandraConnectionSettings
 		networkTopologyStrategy = null;
 		maxParallelQueries = 500;
 		resultPageSize = 0;  //In this case default page size will be used
+		messageBatchDecodingThreads = 0;  //In this case message batches will be decoded by the thread that iterates over them
+		messageBatchDecodingLookahead = 8;
+		maxParallelDailyQueries = 4;
+		maxParallelEventPointReads = 0;  //In this case test events are requested by one query
+		maxParallelEventTreeQueries = 16;
+		maxBufferedEventTreeNodes = 10000;
+		messageBatchCacheSize = 0;  //In this case message batches are not cached
+		compressedContentCacheSize = 0;
+		testEventCacheSize = 0;  //In this case test events are not cached
+		testEventCacheTtl = 60000;
+		testEventBatchMetadataCacheSize = 0;  //In this case metadata of test event batches is not cached
+		timeIndexCacheSize = 0;  //In this case time indices are not cached
+		timeIndexCacheTtl = 60000;
+		trackMessageIndices = false;
+		messageIndexRefreshInterval = 0;  //In this case tracked indices are not refreshed
+		messageLinksFilterCacheSize = 0;  //In this case links of messages are always checked by query
+		messageLinksFilterCacheTtl = 60000;
+		messageLinksFilterBucketSize = 10000;
+		messageLinksFilterBits = 131072;
 		selectExecutionPolicy = null;
 		singleRowResultExecutionPolicy = null;
 	}
@@ -77,6 +115,25 @@ public class CassandraConnectionSettings
 		this.networkTopologyStrategy = settings.getNetworkTopologyStrategy() != null ? new NetworkTopologyStrategy(settings.getNetworkTopologyStrategy().asMap()) : null;
 		this.maxParallelQueries = settings.maxParallelQueries;
 		this.resultPageSize = settings.resultPageSize;
+		this.messageBatchDecodingThreads = settings.messageBatchDecodingThreads;
+		this.messageBatchDecodingLookahead = settings.messageBatchDecodingLookahead;
+		this.maxParallelDailyQueries = settings.maxParallelDailyQueries;
+		this.maxParallelEventPointReads = settings.maxParallelEventPointReads;
+		this.maxParallelEventTreeQueries = settings.maxParallelEventTreeQueries;
+		this.maxBufferedEventTreeNodes = settings.maxBufferedEventTreeNodes;
+		this.messageBatchCacheSize = settings.messageBatchCacheSize;
+		this.compressedContentCacheSize = settings.compressedContentCacheSize;
+		this.testEventCacheSize = settings.testEventCacheSize;
+		this.testEventCacheTtl = settings.testEventCacheTtl;
+		this.testEventBatchMetadataCacheSize = settings.testEventBatchMetadataCacheSize;
+		this.timeIndexCacheSize = settings.timeIndexCacheSize;
+		this.timeIndexCacheTtl = settings.timeIndexCacheTtl;
+		this.trackMessageIndices = settings.trackMessageIndices;
+		this.messageIndexRefreshInterval = settings.messageIndexRefreshInterval;
+		this.messageLinksFilterCacheSize = settings.messageLinksFilterCacheSize;
+		this.messageLinksFilterCacheTtl = settings.messageLinksFilterCacheTtl;
+		this.messageLinksFilterBucketSize = settings.messageLinksFilterBucketSize;
+		this.messageLinksFilterBits = settings.messageLinksFilterBits;
 		this.selectExecutionPolicy = settings.selectExecutionPolicy;
 		this.singleRowResultExecutionPolicy = settings.singleRowResultExecutionPolicy;
 	}
@@ -214,6 +271,316 @@ public class CassandraConnectionSettings
 	}
 	
 	
+	public int getMessageBatchDecodingThreads()
+	{
+		return messageBatchDecodingThreads;
+	}
+	
+	/**
+	 * @param messageBatchDecodingThreads number of threads to decode message batches in advance while iterating over query results. 
+	 * The same threads decode metadata of test event batches in advance while iterating over test events metadata. 
+	 * 0 means that batches are decoded one by one by the iterating thread
+	 */
+	public void setMessageBatchDecodingThreads(int messageBatchDecodingThreads)
+	{
+		this.messageBatchDecodingThreads = messageBatchDecodingThreads;
+	}
+	
+	
+	public int getMessageBatchDecodingLookahead()
+	{
+		return messageBatchDecodingLookahead;
+	}
+	
+	/**
+	 * @param messageBatchDecodingLookahead max number of message batches of one query result being decoded at once
+	 */
+	public void setMessageBatchDecodingLookahead(int messageBatchDecodingLookahead)
+	{
+		this.messageBatchDecodingLookahead = messageBatchDecodingLookahead;
+	}
+	
+	
+	public int getMaxParallelDailyQueries()
+	{
+		return maxParallelDailyQueries;
+	}
+	
+	/**
+	 * @param maxParallelDailyQueries max number of days whose data is requested at once when getting data for range of several days. 
+	 * Results are returned in order of days, queries for next days are executed in advance
+	 */
+	public void setMaxParallelDailyQueries(int maxParallelDailyQueries)
+	{
+		this.maxParallelDailyQueries = maxParallelDailyQueries;
+	}
+	
+	
+	public int getMaxParallelEventPointReads()
+	{
+		return maxParallelEventPointReads;
+	}
+	
+	/**
+	 * @param maxParallelEventPointReads if greater than 0, test events requested by {@link com.exactpro.cradle.CradleStorage#getCompleteTestEvents(java.util.Set)} 
+	 * are read by separate single-partition queries, with this number of queries executed at once. 
+	 * Result is returned when all test events are read. 
+	 * 0 means that all test events are requested by one query with IN clause
+	 */
+	public void setMaxParallelEventPointReads(int maxParallelEventPointReads)
+	{
+		this.maxParallelEventPointReads = maxParallelEventPointReads;
+	}
+	
+	
+	public int getMaxParallelEventTreeQueries()
+	{
+		return maxParallelEventTreeQueries;
+	}
+	
+	/**
+	 * @param maxParallelEventTreeQueries max number of queries executed at once by 
+	 * {@link com.exactpro.cradle.CradleStorage#getTestEventTree(com.exactpro.cradle.testevents.StoredTestEventId, int)} 
+	 * to get children of test events of the tree
+	 */
+	public void setMaxParallelEventTreeQueries(int maxParallelEventTreeQueries)
+	{
+		this.maxParallelEventTreeQueries = maxParallelEventTreeQueries;
+	}
+	
+	
+	public int getMaxBufferedEventTreeNodes()
+	{
+		return maxBufferedEventTreeNodes;
+	}
+	
+	/**
+	 * @param maxBufferedEventTreeNodes max number of test events loaded by 
+	 * {@link com.exactpro.cradle.CradleStorage#getTestEventTree(com.exactpro.cradle.testevents.StoredTestEventId, int)} 
+	 * and not yet taken by iterator. Loading pauses while this number is reached. 0 means no limit
+	 */
+	public void setMaxBufferedEventTreeNodes(int maxBufferedEventTreeNodes)
+	{
+		this.maxBufferedEventTreeNodes = maxBufferedEventTreeNodes;
+	}
+	
+	
+	public long getMessageBatchCacheSize()
+	{
+		return messageBatchCacheSize;
+	}
+	
+	/**
+	 * @param messageBatchCacheSize max size in bytes of decoded message batches to keep in memory 
+	 * to serve requests for single messages and batches without querying Cassandra. 0 disables the cache
+	 */
+	public void setMessageBatchCacheSize(long messageBatchCacheSize)
+	{
+		this.messageBatchCacheSize = messageBatchCacheSize;
+	}
+	
+	
+	public long getCompressedContentCacheSize()
+	{
+		return compressedContentCacheSize;
+	}
+	
+	/**
+	 * @param compressedContentCacheSize max size in bytes of direct memory to keep content of message batches and test events 
+	 * in the form they are stored in Cassandra. Status of test events is not cached and is always read from Cassandra. 
+	 * Size is limited by half of max direct memory of JVM. 0 disables the cache
+	 */
+	public void setCompressedContentCacheSize(long compressedContentCacheSize)
+	{
+		this.compressedContentCacheSize = compressedContentCacheSize;
+	}
+	
+	
+	public int getTestEventCacheSize()
+	{
+		return testEventCacheSize;
+	}
+	
+	/**
+	 * @param testEventCacheSize max number of test events to keep in memory 
+	 * to serve requests for test events by ID without querying Cassandra. 0 disables the cache
+	 */
+	public void setTestEventCacheSize(int testEventCacheSize)
+	{
+		this.testEventCacheSize = testEventCacheSize;
+	}
+	
+	
+	public long getTestEventCacheTtl()
+	{
+		return testEventCacheTtl;
+	}
+	
+	/**
+	 * @param testEventCacheTtl time in milliseconds after which cached test event is requested from Cassandra again. 
+	 * Status updates made by this storage are applied to the cache immediately, 
+	 * the time limit makes updates made by other writers visible. 0 means that cached test events don't expire
+	 */
+	public void setTestEventCacheTtl(long testEventCacheTtl)
+	{
+		this.testEventCacheTtl = testEventCacheTtl;
+	}
+	
+	
+	public int getTestEventBatchMetadataCacheSize()
+	{
+		return testEventBatchMetadataCacheSize;
+	}
+	
+	/**
+	 * @param testEventBatchMetadataCacheSize max number of test event batches whose decoded metadata is kept in memory, 
+	 * so that metadata of the same batch obtained by different queries is decoded once. 0 disables the cache
+	 */
+	public void setTestEventBatchMetadataCacheSize(int testEventBatchMetadataCacheSize)
+	{
+		this.testEventBatchMetadataCacheSize = testEventBatchMetadataCacheSize;
+	}
+	
+	
+	public long getTimeIndexCacheSize()
+	{
+		return timeIndexCacheSize;
+	}
+	
+	/**
+	 * @param timeIndexCacheSize max size in bytes of message time indices to keep in memory, one index per stream, direction and day. 
+	 * Each time entry of index takes 16 bytes. Cached indices are used to find nearest message by timestamp and to find bounds of message filters with timestamps 
+	 * without querying Cassandra. 0 disables the cache. 
+	 * Note that on cache miss time data of the whole day is read, while a single row is read without the cache, 
+	 * so the cache pays off only if the same days are looked up repeatedly. 
+	 * Index of a day that alone doesn't fit into the cache is not kept, such days are looked up in Cassandra
+	 */
+	public void setTimeIndexCacheSize(long timeIndexCacheSize)
+	{
+		this.timeIndexCacheSize = timeIndexCacheSize;
+	}
+	
+	
+	public long getTimeIndexCacheTtl()
+	{
+		return timeIndexCacheTtl;
+	}
+	
+	/**
+	 * @param timeIndexCacheTtl time in milliseconds after which cached time index is loaded from Cassandra again. 
+	 * Messages stored by this storage are added to the cache immediately, 
+	 * the time limit makes messages stored by other writers visible. 0 means that cached time indices don't expire
+	 */
+	public void setTimeIndexCacheTtl(long timeIndexCacheTtl)
+	{
+		this.timeIndexCacheTtl = timeIndexCacheTtl;
+	}
+	
+	
+	public boolean isTrackMessageIndices()
+	{
+		return trackMessageIndices;
+	}
+	
+	/**
+	 * @param trackMessageIndices if true, first and last message indices of streams are kept in memory 
+	 * after first request for them and are updated with each stored message batch, 
+	 * so that further requests are answered without querying Cassandra
+	 */
+	public void setTrackMessageIndices(boolean trackMessageIndices)
+	{
+		this.trackMessageIndices = trackMessageIndices;
+	}
+	
+	
+	public long getMessageIndexRefreshInterval()
+	{
+		return messageIndexRefreshInterval;
+	}
+	
+	/**
+	 * @param messageIndexRefreshInterval interval in milliseconds to load again tracked message indices 
+	 * to get messages stored by other writers. 0 means that tracked indices are not refreshed
+	 */
+	public void setMessageIndexRefreshInterval(long messageIndexRefreshInterval)
+	{
+		this.messageIndexRefreshInterval = messageIndexRefreshInterval;
+	}
+	
+	
+	public int getMessageLinksFilterCacheSize()
+	{
+		return messageLinksFilterCacheSize;
+	}
+	
+	/**
+	 * @param messageLinksFilterCacheSize max number of Bloom filters of messages with linked test events to keep in memory, 
+	 * one filter per stream, direction and range of message indices. 
+	 * If greater than 0, links stored by {@link com.exactpro.cradle.cassandra.CassandraCradleStorage} are added to the filters, 
+	 * which are stored in Cassandra, and check if message has linked test events doesn't query Cassandra if filter tells it has not. 
+	 * Filter of range is used only if the first message of the range was stored while filters were enabled, 
+	 * for other ranges links are always queried. Filters should be enabled in all clients that store links. 
+	 * 0 disables the filters
+	 */
+	public void setMessageLinksFilterCacheSize(int messageLinksFilterCacheSize)
+	{
+		this.messageLinksFilterCacheSize = messageLinksFilterCacheSize;
+	}
+	
+	
+	public long getMessageLinksFilterCacheTtl()
+	{
+		return messageLinksFilterCacheTtl;
+	}
+	
+	/**
+	 * @param messageLinksFilterCacheTtl time in milliseconds after which cached filter of messages with linked test events 
+	 * is loaded from Cassandra again. Links stored by this storage are added to the cache immediately, 
+	 * the time limit makes links stored by other writers visible. 0 means that cached filters don't expire
+	 */
+	public void setMessageLinksFilterCacheTtl(long messageLinksFilterCacheTtl)
+	{
+		this.messageLinksFilterCacheTtl = messageLinksFilterCacheTtl;
+	}
+	
+	
+	public long getMessageLinksFilterBucketSize()
+	{
+		return messageLinksFilterBucketSize;
+	}
+	
+	/**
+	 * @param messageLinksFilterBucketSize number of message indices covered by one filter of messages with linked test events. 
+	 * Must be the same for all writers and readers. 
+	 * Filter uses 3 hash functions, so if all messages of bucket are linked, its false positive rate is about (1-e^(-3*bucketSize/bits))^3. 
+	 * With default values (10000 indices and 131072 bits) it is below 1%, while e.g. 100000 indices per 65536 bits make the filter useless
+	 */
+	public void setMessageLinksFilterBucketSize(long messageLinksFilterBucketSize)
+	{
+		this.messageLinksFilterBucketSize = messageLinksFilterBucketSize;
+	}
+	
+	
+	public int getMessageLinksFilterBits()
+	{
+		return messageLinksFilterBits;
+	}
+	
+	/**
+	 * @param messageLinksFilterBits number of bits in one filter of messages with linked test events. 
+	 * More bits give less false positive answers for filters with many linked messages. 
+	 * Filter is stored as set of numbers of its set bits, one cell per bit, so a bucket takes up to 3 cells per linked message 
+	 * in Cassandra and its size is bounded by number of linked messages rather than by number of bits. 
+	 * Cached filter takes bits/8 bytes in memory. 
+	 * Only bits not yet stored by this storage are written, so number of bits doesn't affect the time to store links. 
+	 * Filters of ranges that have bits stored with different number of bits are not used
+	 */
+	public void setMessageLinksFilterBits(int messageLinksFilterBits)
+	{
+		this.messageLinksFilterBits = messageLinksFilterBits;
+	}
+	
+	
 	public SelectExecutionPolicy getSelectExecutionPolicy()
 	{
 		return selectExecutionPolicy;
@@ -22,12 +22,20 @@ import com.datastax.oss.driver.api.mapper.annotations.DaoTable;
 import com.datastax.oss.driver.api.mapper.annotations.Mapper;
 import com.exactpro.cradle.cassandra.dao.intervals.IntervalOperator;
 import com.exactpro.cradle.cassandra.dao.intervals.converters.IntervalConverter;
+import com.exactpro.cradle.cassandra.dao.messages.InstanceStreamOperator;
 import com.exactpro.cradle.cassandra.dao.messages.MessageBatchOperator;
+import com.exactpro.cradle.cassandra.dao.messages.MessageLinksFilterOperator;
 import com.exactpro.cradle.cassandra.dao.messages.MessageTestEventConverter;
 import com.exactpro.cradle.cassandra.dao.messages.MessageTestEventOperator;
 import com.exactpro.cradle.cassandra.dao.messages.TimeMessageOperator;
 import com.exactpro.cradle.cassandra.dao.messages.converters.DetailedMessageBatchConverter;
+import com.exactpro.cradle.cassandra.dao.messages.converters.InstanceStreamConverter;
+import com.exactpro.cradle.cassandra.dao.messages.converters.MessageLinksFilterConverter;
+import com.exactpro.cradle.cassandra.dao.messages.converters.MessageBatchInfoConverter;
 import com.exactpro.cradle.cassandra.dao.messages.converters.TimeMessageConverter;
+import com.exactpro.cradle.cassandra.dao.registries.RegistryBackfillOperator;
+import com.exactpro.cradle.cassandra.dao.registries.converters.RegistryBackfillConverter;
+import com.exactpro.cradle.cassandra.dao.testevents.RootTestEventDatesOperator;
 import com.exactpro.cradle.cassandra.dao.testevents.RootTestEventOperator;
 import com.exactpro.cradle.cassandra.dao.testevents.TestEventChildrenDatesOperator;
 import com.exactpro.cradle.cassandra.dao.testevents.TestEventChildrenOperator;
@@ -45,9 +53,24 @@ public interface CassandraDataMapper
 	@DaoFactory
 	DetailedMessageBatchConverter detailedMessageBatchConverter();
 	
+	@DaoFactory
+	MessageBatchInfoConverter messageBatchInfoConverter();
+	
 	@DaoFactory
 	TimeMessageOperator timeMessageOperator(@DaoKeyspace String keyspace, @DaoTable String timeMessagesTable);
 	
+	@DaoFactory
+	InstanceStreamOperator instanceStreamOperator(@DaoKeyspace String keyspace, @DaoTable String streamsTable);
+	
+	@DaoFactory
+	InstanceStreamConverter instanceStreamConverter();
+	
+	@DaoFactory
+	RegistryBackfillOperator registryBackfillOperator(@DaoKeyspace String keyspace, @DaoTable String registryBackfillsTable);
+	
+	@DaoFactory
+	RegistryBackfillConverter registryBackfillConverter();
+	
 	@DaoFactory
 	TestEventOperator testEventOperator(@DaoKeyspace String keyspace, @DaoTable String testEventsTable);
 	
@@ -57,6 +80,9 @@ public interface CassandraDataMapper
 	@DaoFactory
 	RootTestEventOperator rootTestEventOperator(@DaoKeyspace String keyspace, @DaoTable String rootTestEventsTable);
 	
+	@DaoFactory
+	RootTestEventDatesOperator rootTestEventDatesOperator(@DaoKeyspace String keyspace, @DaoTable String rootTestEventsDatesTable);
+	
 	@DaoFactory
 	TestEventChildrenOperator testEventChildrenOperator(@DaoKeyspace String keyspace, @DaoTable String testEventsChildrenTable);
 	
@@ -69,6 +95,12 @@ public interface CassandraDataMapper
 	@DaoFactory
 	MessageTestEventOperator messageTestEventOperator(@DaoKeyspace String keyspace, @DaoTable String testEventsChildrenDatesTable);
 	
+	@DaoFactory
+	MessageLinksFilterOperator messageLinksFilterOperator(@DaoKeyspace String keyspace, @DaoTable String messageLinksFiltersTable);
+	
+	@DaoFactory
+	MessageLinksFilterConverter messageLinksFilterConverter();
+	
 	@DaoFactory
 	TestEventConverter testEventConverter();
 	@DaoFactory
@@ -87,6 +119,8 @@ public interface CassandraDataMapper
 	TestEventChildDatesConverter testEventChildDatesConverter();
 	@DaoFactory
 	RootTestEventsDatesConverter rootTestEventsDatesConverter();
+	@DaoFactory
+	InstanceRootTestEventDateConverter instanceRootTestEventDateConverter();
 
 	@DaoFactory
 	IntervalOperator intervalOperator(@DaoKeyspace String keyspace, @DaoTable String intervalsTable);
@@ -19,12 +19,20 @@ package com.exactpro.cradle.cassandra.dao;
 import com.exactpro.cradle.cassandra.CassandraStorageSettings;
 import com.exactpro.cradle.cassandra.dao.intervals.IntervalOperator;
 import com.exactpro.cradle.cassandra.dao.intervals.converters.IntervalConverter;
+import com.exactpro.cradle.cassandra.dao.messages.InstanceStreamOperator;
 import com.exactpro.cradle.cassandra.dao.messages.MessageBatchOperator;
 import com.exactpro.cradle.cassandra.dao.messages.MessageTestEventConverter;
 import com.exactpro.cradle.cassandra.dao.messages.MessageTestEventOperator;
+import com.exactpro.cradle.cassandra.dao.messages.MessageLinksFilterOperator;
 import com.exactpro.cradle.cassandra.dao.messages.TimeMessageOperator;
 import com.exactpro.cradle.cassandra.dao.messages.converters.DetailedMessageBatchConverter;
+import com.exactpro.cradle.cassandra.dao.messages.converters.InstanceStreamConverter;
+import com.exactpro.cradle.cassandra.dao.messages.converters.MessageLinksFilterConverter;
+import com.exactpro.cradle.cassandra.dao.messages.converters.MessageBatchInfoConverter;
 import com.exactpro.cradle.cassandra.dao.messages.converters.TimeMessageConverter;
+import com.exactpro.cradle.cassandra.dao.registries.RegistryBackfillOperator;
+import com.exactpro.cradle.cassandra.dao.registries.converters.RegistryBackfillConverter;
+import com.exactpro.cradle.cassandra.dao.testevents.RootTestEventDatesOperator;
 import com.exactpro.cradle.cassandra.dao.testevents.RootTestEventOperator;
 import com.exactpro.cradle.cassandra.dao.testevents.TestEventChildrenDatesOperator;
 import com.exactpro.cradle.cassandra.dao.testevents.TestEventChildrenOperator;
@@ -38,50 +46,68 @@ public class CassandraOperators
 	private final MessageBatchOperator messageBatchOperator, 
 			processedMessageBatchOperator;
 	private final TimeMessageOperator timeMessageOperator;
+	private final InstanceStreamOperator instanceStreamOperator;
+	private final RegistryBackfillOperator registryBackfillOperator;
 	private final TestEventOperator testEventOperator;
 	private final RootTestEventOperator rootTestEventOperator;
+	private final RootTestEventDatesOperator rootTestEventDatesOperator;
 	private final TestEventChildrenOperator testEventChildrenOperator;
 	private final TimeTestEventOperator timeTestEventOperator;
 	private final TestEventChildrenDatesOperator testEventChildrenDatesOperator;
 	private final TestEventMessagesOperator testEventMessagesOperator;
 	private final MessageTestEventOperator messageTestEventOperator;
+	private final MessageLinksFilterOperator messageLinksFilterOperator;
 	private final IntervalOperator intervalOperator;
 	private final DetailedMessageBatchConverter messageBatchConverter;
+	private final MessageBatchInfoConverter messageBatchInfoConverter;
 	private final TestEventConverter testEventConverter;
 	private final RootTestEventConverter rootTestEventConverter;
 	private final TestEventChildConverter testEventChildConverter;
 	private final TimeTestEventConverter timeTestEventConverter;
 	private final TestEventMessagesConverter testEventMessagesConverter;
 	private final MessageTestEventConverter messageTestEventConverter;
+	private final MessageLinksFilterConverter messageLinksFilterConverter;
 	private final IntervalConverter intervalConverter;
 	private final TimeMessageConverter timeMessageConverter;
+	private final InstanceStreamConverter instanceStreamConverter;
+	private final RegistryBackfillConverter registryBackfillConverter;
 	private final TestEventChildDatesConverter testEventChildDatesConverter;
 	private final RootTestEventsDatesConverter rootTestEventsDatesConverter;
+	private final InstanceRootTestEventDateConverter instanceRootTestEventDateConverter;
 
 	public CassandraOperators(CassandraDataMapper dataMapper, CassandraStorageSettings settings)
 	{
 		messageBatchOperator = dataMapper.messageBatchOperator(settings.getKeyspace(), settings.getMessagesTableName());
 		processedMessageBatchOperator = dataMapper.messageBatchOperator(settings.getKeyspace(), settings.getProcessedMessagesTableName());
 		timeMessageOperator = dataMapper.timeMessageOperator(settings.getKeyspace(), settings.getTimeMessagesTableName());
+		instanceStreamOperator = dataMapper.instanceStreamOperator(settings.getKeyspace(), settings.getStreamsTableName());
+		registryBackfillOperator = dataMapper.registryBackfillOperator(settings.getKeyspace(), settings.getRegistryBackfillsTableName());
 		testEventOperator = dataMapper.testEventOperator(settings.getKeyspace(), settings.getTestEventsTableName());
 		timeTestEventOperator = dataMapper.timeTestEventOperator(settings.getKeyspace(), settings.getTimeTestEventsTableName());
 		rootTestEventOperator = dataMapper.rootTestEventOperator(settings.getKeyspace(), settings.getRootTestEventsTableName());
+		rootTestEventDatesOperator = dataMapper.rootTestEventDatesOperator(settings.getKeyspace(), settings.getRootTestEventsDatesTableName());
 		testEventChildrenOperator = dataMapper.testEventChildrenOperator(settings.getKeyspace(), settings.getTestEventsChildrenTableName());
 		testEventChildrenDatesOperator = dataMapper.testEventChildrenDatesOperator(settings.getKeyspace(), settings.getTestEventsChildrenDatesTableName());
 		testEventMessagesOperator = dataMapper.testEventMessagesOperator(settings.getKeyspace(), settings.getTestEventsMessagesTableName());
 		messageTestEventOperator = dataMapper.messageTestEventOperator(settings.getKeyspace(), settings.getMessagesTestEventsTableName());
+		messageLinksFilterOperator = dataMapper.messageLinksFilterOperator(settings.getKeyspace(), settings.getMessageLinksFiltersTableName());
 		intervalOperator = dataMapper.intervalOperator(settings.getKeyspace(), settings.getIntervalsTableName());
 		messageBatchConverter = dataMapper.detailedMessageBatchConverter();
+		messageBatchInfoConverter = dataMapper.messageBatchInfoConverter();
 		testEventConverter = dataMapper.testEventConverter();
 		rootTestEventConverter = dataMapper.rootTestEventConverter();
 		testEventChildConverter = dataMapper.testEventChildConverter();
 		timeTestEventConverter = dataMapper.timeTestEventConverter();
 		testEventMessagesConverter = dataMapper.testEventMessagesConverter();
 		messageTestEventConverter = dataMapper.messageTestEventConverter();
+		messageLinksFilterConverter = dataMapper.messageLinksFilterConverter();
 		intervalConverter = dataMapper.intervalConverter();
 		timeMessageConverter = dataMapper.timeMessageConverter();
+		instanceStreamConverter = dataMapper.instanceStreamConverter();
+		registryBackfillConverter = dataMapper.registryBackfillConverter();
 		testEventChildDatesConverter = dataMapper.testEventChildDatesConverter();
 		rootTestEventsDatesConverter = dataMapper.rootTestEventsDatesConverter();
+		instanceRootTestEventDateConverter = dataMapper.instanceRootTestEventDateConverter();
 	}
 
 	public MessageBatchOperator getMessageBatchOperator()
@@ -99,6 +125,16 @@ public class CassandraOperators
 		return timeMessageOperator;
 	}
 	
+	public InstanceStreamOperator getInstanceStreamOperator()
+	{
+		return instanceStreamOperator;
+	}
+	
+	public RegistryBackfillOperator getRegistryBackfillOperator()
+	{
+		return registryBackfillOperator;
+	}
+	
 	public TestEventOperator getTestEventOperator()
 	{
 		return testEventOperator;
@@ -109,6 +145,11 @@ public class CassandraOperators
 		return rootTestEventOperator;
 	}
 	
+	public RootTestEventDatesOperator getRootTestEventDatesOperator()
+	{
+		return rootTestEventDatesOperator;
+	}
+	
 	public TestEventChildrenOperator getTestEventChildrenOperator()
 	{
 		return testEventChildrenOperator;
@@ -133,6 +174,11 @@ public class CassandraOperators
 	{
 		return messageTestEventOperator;
 	}
+	
+	public MessageLinksFilterOperator getMessageLinksFilterOperator()
+	{
+		return messageLinksFilterOperator;
+	}
 
 	public IntervalOperator getIntervalOperator() { return intervalOperator; }
 	
@@ -142,6 +188,11 @@ public class CassandraOperators
 		return messageBatchConverter;
 	}
 	
+	public MessageBatchInfoConverter getMessageBatchInfoConverter()
+	{
+		return messageBatchInfoConverter;
+	}
+	
 	public TestEventConverter getTestEventConverter()
 	{
 		return testEventConverter;
@@ -172,6 +223,11 @@ public class CassandraOperators
 		return messageTestEventConverter;
 	}
 	
+	public MessageLinksFilterConverter getMessageLinksFilterConverter()
+	{
+		return messageLinksFilterConverter;
+	}
+	
 	public IntervalConverter getIntervalConverter()
 	{
 		return intervalConverter;
@@ -181,6 +237,16 @@ public class CassandraOperators
 	{
 		return timeMessageConverter;
 	}
+	
+	public InstanceStreamConverter getInstanceStreamConverter()
+	{
+		return instanceStreamConverter;
+	}
+	
+	public RegistryBackfillConverter getRegistryBackfillConverter()
+	{
+		return registryBackfillConverter;
+	}
 
 	public TestEventChildDatesConverter getTestEventChildDatesConverter()
 	{
@@ -191,4 +257,9 @@ public class CassandraOperators
 	{
 		return rootTestEventsDatesConverter;
 	}
+	
+	public InstanceRootTestEventDateConverter getInstanceRootTestEventDateConverter()
+	{
+		return instanceRootTestEventDateConverter;
+	}
 }
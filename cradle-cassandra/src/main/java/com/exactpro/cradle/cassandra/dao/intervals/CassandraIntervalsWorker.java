@@ -19,11 +19,12 @@ package com.exactpro.cradle.cassandra.dao.intervals;
 import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
-import com.datastax.oss.driver.shaded.guava.common.collect.Iterables;
 import com.exactpro.cradle.cassandra.CassandraSemaphore;
 import com.exactpro.cradle.cassandra.dao.AsyncOperator;
 import com.exactpro.cradle.cassandra.dao.intervals.converters.IntervalConverter;
+import com.exactpro.cradle.cassandra.iterators.IntervalsIterator;
 import com.exactpro.cradle.cassandra.iterators.IntervalsIteratorAdapter;
+import com.exactpro.cradle.cassandra.iterators.OrderedQueriesIteratorAdapter;
 import com.exactpro.cradle.cassandra.retries.PagingSupplies;
 import com.exactpro.cradle.intervals.Interval;
 import com.exactpro.cradle.intervals.IntervalsWorker;
@@ -35,28 +36,45 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static com.exactpro.cradle.cassandra.CassandraCradleStorage.TIMEZONE_OFFSET;
 
 public class CassandraIntervalsWorker implements IntervalsWorker
 {
+    public static final int DEFAULT_MAX_PARALLEL_DAILY_QUERIES = 4;
+
     private final CassandraSemaphore semaphore;
     private final UUID instanceUuid;
     private final Function<BoundStatementBuilder, BoundStatementBuilder> writeAttrs, readAttrs;
     private final IntervalOperator intervalOperator;
     private final IntervalConverter converter;
     private final PagingSupplies pagingSupplies;
+    private final int maxParallelDailyQueries;
 
     public CassandraIntervalsWorker(CassandraSemaphore semaphore, UUID instanceUuid, 
             Function<BoundStatementBuilder, BoundStatementBuilder> writeAttrs,
             Function<BoundStatementBuilder, BoundStatementBuilder> readAttrs, 
             IntervalSupplies supplies)
+    {
+        this(semaphore, instanceUuid, writeAttrs, readAttrs, supplies, DEFAULT_MAX_PARALLEL_DAILY_QUERIES);
+    }
+
+    /**
+     * @param maxParallelDailyQueries max number of days whose intervals are requested at once 
+     * when getting intervals for range of several days
+     */
+    public CassandraIntervalsWorker(CassandraSemaphore semaphore, UUID instanceUuid, 
+            Function<BoundStatementBuilder, BoundStatementBuilder> writeAttrs,
+            Function<BoundStatementBuilder, BoundStatementBuilder> readAttrs, 
+            IntervalSupplies supplies, int maxParallelDailyQueries)
     {
         this.semaphore = semaphore;
         this.instanceUuid = instanceUuid;
@@ -65,6 +83,7 @@ public class CassandraIntervalsWorker implements IntervalsWorker
         this.intervalOperator = supplies.getOperator();
         this.converter = supplies.getConverter();
         this.pagingSupplies = supplies.getpagingSupplies();
+        this.maxParallelDailyQueries = maxParallelDailyQueries;
     }
 
     @Override
@@ -132,10 +151,12 @@ public class CassandraIntervalsWorker implements IntervalsWorker
         return future.thenApply(result -> new IntervalsIteratorAdapter(result, pagingSupplies, converter, queryInfo));
     }
 
-    private Iterable<Interval> getIntervalsPerDay(LocalDateTime from, LocalDateTime to, String crawlerName, String crawlerVersion, String crawlerType) throws IOException {
+    @Override
+    public Iterable<Interval> getIntervals(Instant from, Instant to, String crawlerName, String crawlerVersion, String crawlerType) throws IOException
+    {
         try
         {
-            return getIntervalsPerDayAsync(from, to, crawlerName, crawlerVersion, crawlerType).get();
+            return getIntervalsAsync(from, to, crawlerName, crawlerVersion, crawlerType).get();
         }
         catch (Exception e)
         {
@@ -144,56 +165,36 @@ public class CassandraIntervalsWorker implements IntervalsWorker
         }
     }
 
-    private CompletableFuture<Iterable<Interval>> getIntervalsPerDayAsync(LocalDateTime from, LocalDateTime to, String crawlerName,
-                                                                         String crawlerVersion, String crawlerType) throws CradleStorageException
-    {
-        checkTimeBoundaries(from, to);
-
-        LocalTime fromTime = from.toLocalTime(),
-                toTime = to.toLocalTime();
-
-        LocalDate date = from.toLocalDate();
-
-        CompletableFuture<MappedAsyncPagingIterable<IntervalEntity>> future =
-                new AsyncOperator<MappedAsyncPagingIterable<IntervalEntity>>(semaphore)
-                        .getFuture(() -> intervalOperator
-                                .getIntervals(instanceUuid, date, fromTime, toTime, crawlerName, crawlerVersion, crawlerType, readAttrs));
-        
-        String queryInfo = "get intervals from: "+from+", to: "+to+" by Crawler with "
-        		+"name: "+crawlerName+", version: "+crawlerVersion+", type: "+crawlerType;
-        return future.thenApply(result -> new IntervalsIteratorAdapter(result, pagingSupplies, converter, queryInfo));
-    }
-
     @Override
-    public Iterable<Interval> getIntervals(Instant from, Instant to, String crawlerName, String crawlerVersion, String crawlerType) throws IOException
+    public CompletableFuture<Iterable<Interval>> getIntervalsAsync(Instant from, Instant to, String crawlerName,
+                                                                   String crawlerVersion, String crawlerType)
     {
         LocalDateTime fromDateTime = LocalDateTime.ofInstant(from, TIMEZONE_OFFSET),
                 toDateTime = LocalDateTime.ofInstant(to, TIMEZONE_OFFSET);
+        LocalDate fromDate = fromDateTime.toLocalDate(),
+                toDate = toDateTime.toLocalDate();
 
-        Iterable<Interval> result = new ArrayList<>();
-
-        if (fromDateTime.toLocalDate().compareTo(toDateTime.toLocalDate()) == 0)
+        String queryInfo = "get intervals from: "+from+", to: "+to+" by Crawler with "
+                +"name: "+crawlerName+", version: "+crawlerVersion+", type: "+crawlerType;
+        //Intervals are partitioned by date, so querying each day of the range. Queries for next days are executed in advance
+        List<Supplier<CompletableFuture<Iterator<Interval>>>> queries = new ArrayList<>();
+        for (LocalDate d = fromDate; !d.isAfter(toDate); d = d.plusDays(1))
         {
-            return getIntervalsPerDay(from, to, crawlerName, crawlerVersion, crawlerType);
-        }
-
-        LocalDateTime point = fromDateTime;
-
-        while (point.isBefore(toDateTime))
-        {
-            point = LocalDateTime.of(fromDateTime.toLocalDate(), LocalTime.MAX);
-
-            if (point.isAfter(toDateTime))
-                point = toDateTime;
-
-            Iterable<Interval> intervals = getIntervalsPerDay(fromDateTime, point, crawlerName, crawlerVersion, crawlerType);
-
-            fromDateTime = fromDateTime.plusDays(1).truncatedTo(ChronoUnit.DAYS);
-
-            result = Iterables.concat(result, intervals);
+            LocalDate date = d;
+            LocalTime fromTime = date.equals(fromDate) ? fromDateTime.toLocalTime() : LocalTime.MIN,
+                    toTime = date.equals(toDate) ? toDateTime.toLocalTime() : LocalTime.MAX;
+            queries.add(() -> queryIntervals(date, fromTime, toTime, crawlerName, crawlerVersion, crawlerType)
+                    .<Iterator<Interval>>thenApply(rows -> new IntervalsIterator(rows, pagingSupplies, converter, queryInfo)));
         }
+        return new OrderedQueriesIteratorAdapter<>(queries, maxParallelDailyQueries, queryInfo).whenStarted();
+    }
 
-        return result;
+    private CompletableFuture<MappedAsyncPagingIterable<IntervalEntity>> queryIntervals(LocalDate date, LocalTime fromTime, LocalTime toTime,
+                                                                                       String crawlerName, String crawlerVersion, String crawlerType)
+    {
+        return new AsyncOperator<MappedAsyncPagingIterable<IntervalEntity>>(semaphore)
+                .getFuture(() -> intervalOperator
+                        .getIntervals(instanceUuid, date, fromTime, toTime, crawlerName, crawlerVersion, crawlerType, readAttrs));
     }
 
     @Override
@@ -345,11 +346,4 @@ public class CassandraIntervalsWorker implements IntervalsWorker
         if (!fromDate.equals(toDate))
             throw new CradleStorageException("Left and right boundaries should be of the same date, but got '"+originalFrom+"' and '"+originalTo+"'");
     }
-
-    private void checkTimeBoundaries(LocalDateTime fromDateTime, LocalDateTime toDateTime) throws CradleStorageException {
-        LocalDate fromDate = fromDateTime.toLocalDate(),
-                toDate = toDateTime.toLocalDate();
-        if (!fromDate.equals(toDate))
-            throw new CradleStorageException("Left and right boundaries should be of the same date, but got '"+fromDateTime+"' and '"+toDateTime+"'");
-    }
 }
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2020-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.dao.messages;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.metadata.schema.ClusteringOrder;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import com.datastax.oss.driver.api.querybuilder.select.Select;
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.Order;
+import com.exactpro.cradle.cassandra.utils.CassandraMessageUtils;
+import com.exactpro.cradle.cassandra.utils.FilterUtils;
+import com.exactpro.cradle.filters.ComparisonOperation;
+import com.exactpro.cradle.filters.FilterForEquals;
+import com.exactpro.cradle.messages.StoredMessageFilter;
+import com.exactpro.cradle.messages.StoredMessageId;
+import com.exactpro.cradle.utils.CradleStorageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.bindMarker;
+import static com.exactpro.cradle.cassandra.CassandraCradleStorage.TIMEZONE_OFFSET;
+import static com.exactpro.cradle.cassandra.StorageConstants.*;
+
+/**
+ * Builds and executes query to get message batches according to {@link StoredMessageFilter}. 
+ * Subclasses define which columns of message batches table are read
+ * @param <E> type of entity to map query results to
+ */
+public abstract class AbstractMessageBatchQueryProvider<E>
+{
+	private static final Logger logger = LoggerFactory.getLogger(AbstractMessageBatchQueryProvider.class);
+
+	private static final String LEFT_MESSAGE_INDEX = "left_" + MESSAGE_INDEX,
+			RIGHT_MESSAGE_INDEX = "right_" + MESSAGE_INDEX;
+	private final CqlSession session;
+	private final EntityHelper<E> helper;
+	private final Select selectStart;
+
+	public AbstractMessageBatchQueryProvider(MapperContext context, EntityHelper<E> helper)
+	{
+		this.session = context.getSession();
+		this.helper = helper;
+		this.selectStart = helper.selectStart()
+				.whereColumn(INSTANCE_ID).isEqualTo(bindMarker())
+				.allowFiltering();
+	}
+	
+	protected CompletableFuture<MappedAsyncPagingIterable<E>> filterBatches(UUID instanceId, 
+			StoredMessageFilter filter, MessageBatchOperator mbOperator,
+			TimeMessageOperator tmOperator, Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		Select select = selectStart;
+		Order order = null;
+		if (filter != null)
+		{
+			order = filter.getOrder();
+			select = addFilter(select, filter);
+		}
+		select = orderBy(order, select);
+		PreparedStatement ps = session.prepare(select.build());
+		//Parameters are bound asynchronously, so that look-ups to find query bounds don't block the calling thread
+		return bindParameters(ps, instanceId, filter, mbOperator, tmOperator, attributes)
+				.thenCompose(bs -> session.executeAsync(bs))
+				.thenApply(r -> r.map(helper::get));
+	}
+
+	private Select orderBy(Order order, Select select)
+	{
+		if (order == null)
+			order = Order.DIRECT;
+		ClusteringOrder clusteringOrder = order == Order.DIRECT ? ClusteringOrder.ASC : ClusteringOrder.DESC;
+		return select.orderBy(DIRECTION, clusteringOrder).orderBy(MESSAGE_INDEX, clusteringOrder);
+	}
+
+	private Select addFilter(Select select, StoredMessageFilter filter)
+	{
+		FilterForEquals<String> streamName = filter.getStreamName();
+		if (streamName != null)
+			select = FilterUtils.filterToWhere(streamName.getOperation(), select.whereColumn(STREAM_NAME), null);
+
+		FilterForEquals<Direction> direction = filter.getDirection();
+		if (direction != null)
+			select = FilterUtils.filterToWhere(direction.getOperation(), select.whereColumn(DIRECTION), null);
+
+		boolean isLeftIndexSelected = false;
+		boolean isRightIndexSelected = false;
+		if (filter.getIndex() != null)
+		{
+			ComparisonOperation op = filter.getIndex().getOperation();
+			if (op == ComparisonOperation.EQUALS)
+			{
+				select = FilterUtils.filterToWhere(ComparisonOperation.GREATER_OR_EQUALS,
+						select.whereColumn(MESSAGE_INDEX), LEFT_MESSAGE_INDEX);
+				select = FilterUtils.filterToWhere(ComparisonOperation.LESS_OR_EQUALS,
+						select.whereColumn(MESSAGE_INDEX), RIGHT_MESSAGE_INDEX);
+				return select;
+			}
+			
+			//This is for case when need to return "previous X messages, i.e. X messages whose index is less than Y"
+			if (filter.getLimit() > 0 && (op == ComparisonOperation.LESS || op == ComparisonOperation.LESS_OR_EQUALS))
+			{
+				select = FilterUtils.filterToWhere(ComparisonOperation.GREATER_OR_EQUALS,
+						select.whereColumn(MESSAGE_INDEX), LEFT_MESSAGE_INDEX);
+			}
+			
+			//Overriding operation to include message's batch while selecting by query
+			//While iterating through query results original op will be used
+			switch (op)
+			{
+				case GREATER:
+					op = ComparisonOperation.GREATER_OR_EQUALS;
+				case GREATER_OR_EQUALS:
+					isLeftIndexSelected = true;
+					select = FilterUtils.filterToWhere(op, select.whereColumn(MESSAGE_INDEX), LEFT_MESSAGE_INDEX);
+					break;
+				case LESS:
+					op = ComparisonOperation.LESS_OR_EQUALS;
+				case LESS_OR_EQUALS:
+				default:
+					isRightIndexSelected = true;
+					select = FilterUtils.filterToWhere(op, select.whereColumn(MESSAGE_INDEX), RIGHT_MESSAGE_INDEX);
+			}
+		}
+		
+		if (!isLeftIndexSelected && filter.getTimestampFrom() != null)
+			select = FilterUtils.filterToWhere(ComparisonOperation.GREATER_OR_EQUALS, select.whereColumn(MESSAGE_INDEX),
+					LEFT_MESSAGE_INDEX);
+
+		if (!isRightIndexSelected && filter.getTimestampTo() != null)
+			select = FilterUtils.filterToWhere(ComparisonOperation.LESS_OR_EQUALS, select.whereColumn(MESSAGE_INDEX),
+					RIGHT_MESSAGE_INDEX);
+		
+		if (filter.getLimit() > 0)
+			select.limit(filter.getLimit());
+		
+		return select;
+	}
+
+	private CompletableFuture<BoundStatement> bindParameters(PreparedStatement ps, UUID instanceId, StoredMessageFilter filter,
+			MessageBatchOperator mbOperator, TimeMessageOperator tmOperator,
+			Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		BoundStatementBuilder builder = ps.boundStatementBuilder().setUuid(INSTANCE_ID, instanceId);
+		builder = attributes.apply(builder);
+		if (filter == null)
+			return CompletableFuture.completedFuture(builder.build());
+		return bindFilterParameters(builder, instanceId, filter, mbOperator, tmOperator, attributes)
+				.thenApply(BoundStatementBuilder::build);
+	}
+	
+	private CompletableFuture<DetailedMessageBatchEntity> getMessageBatch(UUID instanceId, StoredMessageFilter filter, 
+			MessageBatchOperator operator, 
+			Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		if (filter.getStreamName() == null || filter.getDirection() == null)
+		{
+			//FIXME: throw exception to require stream name and direction to filter by message index
+			return failed(new CradleStorageException("Both streamName and direction are required when filtering by message index"));
+		}
+		
+		StoredMessageId id = new StoredMessageId(filter.getStreamName().getValue(), 
+				filter.getDirection().getValue(), 
+				filter.getIndex().getValue());
+		return CassandraMessageUtils.getMessageBatch(id, operator, instanceId, attributes)
+				.handle((batch, error) -> {
+					if (error != null)
+						throw new CompletionException(new CradleStorageException("Error while getting message batch for ID "+id, error));
+					return batch;
+				});
+	}
+
+	private CompletableFuture<BoundStatementBuilder> bindFilterParameters(BoundStatementBuilder builder, UUID instanceId,
+			StoredMessageFilter filter, MessageBatchOperator operator,
+			TimeMessageOperator tmOperator, Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		if (filter.getStreamName() == null)
+			return failed(new CradleStorageException("Stream name is a mandatory filter field and can't be empty"));
+		
+		builder = builder.setString(STREAM_NAME, filter.getStreamName().getValue());
+
+		FilterForEquals<Direction> directionFilter = filter.getDirection();
+		if ((filter.getTimestampFrom() != null || filter.getTimestampTo() != null) && directionFilter == null)
+			return failed(new CradleStorageException("Direction is a mandatory filter field for filtering by timestamp or index"));
+
+		if (directionFilter != null)
+			builder = builder.setString(DIRECTION, directionFilter.getValue().getLabel());
+
+		QueryBounds bounds = new QueryBounds(builder);
+		CompletableFuture<QueryBounds> result = filter.getIndex() != null 
+				? bindIndexParameters(bounds, instanceId, filter, operator, attributes)
+				: CompletableFuture.completedFuture(bounds);
+		
+		if (filter.getTimestampFrom() != null)
+			result = result.thenCompose(b -> bindTimestampFrom(b, instanceId, filter, operator, tmOperator, attributes));
+		
+		if (filter.getTimestampTo() != null)
+			result = result.thenCompose(b -> bindTimestampTo(b, instanceId, filter, tmOperator, attributes));
+		
+		return result.thenApply(b -> b.builder);
+	}
+	
+	private CompletableFuture<QueryBounds> bindIndexParameters(QueryBounds bounds, UUID instanceId, 
+			StoredMessageFilter filter, MessageBatchOperator operator, 
+			Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		ComparisonOperation op = filter.getIndex().getOperation();
+		return getMessageBatch(instanceId, filter, operator, attributes)
+				.thenCompose(batch -> {
+					if (filter.getLimit() <= 0 || (op != ComparisonOperation.LESS && op != ComparisonOperation.LESS_OR_EQUALS))
+						return CompletableFuture.completedFuture(batch);
+					
+					//Finding left bound for filter (will use it in iterator) and batch index (will use it in query)
+					return CassandraMessageUtils.findLeftMessageIndexAsync(batch, filter, instanceId, operator, attributes)
+							.handle((leftIndex, error) -> {
+								if (error != null)
+								{
+									logger.warn("Error while finding left batch index for stream "
+											+ "'"+filter.getStreamName().getValue()+"', direction '"+filter.getDirection().getValue()
+											+ "' and index "+filter.getIndex().getValue(), error);
+									leftIndex = batch != null ? batch.getMessageIndex() : filter.getIndex().getValue();
+								}
+								bounds.builder = bounds.builder.setLong(LEFT_MESSAGE_INDEX, bounds.leftIndex = leftIndex);
+								return batch;
+							});
+				})
+				.thenApply(batch -> {
+					long leftBatchIndex = batch != null ? batch.getMessageIndex() : filter.getIndex().getValue();
+					long rightBatchIndex = batch != null ? batch.getLastMessageIndex() : filter.getIndex().getValue();
+					switch (op)
+					{
+						case GREATER:
+						case GREATER_OR_EQUALS:
+							bounds.builder = bounds.builder.setLong(LEFT_MESSAGE_INDEX, bounds.leftIndex = leftBatchIndex);
+							break;
+						case LESS:
+						case LESS_OR_EQUALS:
+							bounds.builder = bounds.builder.setLong(RIGHT_MESSAGE_INDEX, bounds.rightIndex = rightBatchIndex);
+							break;
+						case EQUALS:
+							bounds.builder = bounds.builder.setLong(LEFT_MESSAGE_INDEX, leftBatchIndex);
+							bounds.builder = bounds.builder.setLong(RIGHT_MESSAGE_INDEX, rightBatchIndex);
+							bounds.complete = true;
+					}
+					return bounds;
+				});
+	}
+	
+	private CompletableFuture<QueryBounds> bindTimestampFrom(QueryBounds bounds, UUID instanceId, 
+			StoredMessageFilter filter, MessageBatchOperator operator, TimeMessageOperator tmOperator, 
+			Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		if (bounds.complete)
+			return CompletableFuture.completedFuture(bounds);
+		
+		Instant ts = filter.getTimestampFrom().getValue();
+		String streamName = filter.getStreamName().getValue();
+		Direction direction = filter.getDirection().getValue();
+		return getNearestMessageIndexBefore(tmOperator, instanceId, streamName, direction, ts, attributes)
+				.thenCompose(fromIndex -> {
+					if (fromIndex == Long.MIN_VALUE)
+						return CompletableFuture.completedFuture(fromIndex);
+					// Find batch index by nearest message index before
+					return getMessageBatchIndex(operator, instanceId, streamName, direction, fromIndex, attributes);
+				})
+				.handle((fromIndex, error) -> {
+					if (error != null)
+						throw new CompletionException(new CradleStorageException("Error getting message batch index for timestamp 'From=" + ts + '\'', error));
+					
+					if (fromIndex >= bounds.leftIndex)
+						bounds.builder = bounds.builder.setLong(LEFT_MESSAGE_INDEX, fromIndex);
+					return bounds;
+				});
+	}
+	
+	private CompletableFuture<QueryBounds> bindTimestampTo(QueryBounds bounds, UUID instanceId, 
+			StoredMessageFilter filter, TimeMessageOperator tmOperator, 
+			Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		if (bounds.complete)
+			return CompletableFuture.completedFuture(bounds);
+		
+		Instant ts = filter.getTimestampTo().getValue();
+		return getNearestMessageIndexAfter(tmOperator, instanceId, 
+						filter.getStreamName().getValue(), filter.getDirection().getValue(), ts, attributes)
+				.handle((toIndex, error) -> {
+					if (error != null)
+						throw new CompletionException(new CradleStorageException("Error getting message batch index for timestamp 'To=" + ts + '\'', error));
+					
+					if (toIndex <= bounds.rightIndex)
+						bounds.builder = bounds.builder.setLong(RIGHT_MESSAGE_INDEX, toIndex);
+					return bounds;
+				});
+	}
+
+	private CompletableFuture<Long> getNearestMessageIndexBefore(TimeMessageOperator tmOperator, UUID instanceId, String streamName,
+			Direction direction, Instant instant, Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		LocalDateTime ldt = LocalDateTime.ofInstant(instant, TIMEZONE_OFFSET);
+		return tmOperator.getNearestMessageBefore(instanceId, streamName, ldt.toLocalDate(),
+				direction.getLabel(), ldt.toLocalTime(), attributes)
+				.thenApply(entity -> entity == null ? Long.MIN_VALUE : entity.getMessageIndex());
+	}
+
+	private CompletableFuture<Long> getMessageBatchIndex(MessageBatchOperator mbOperator, UUID instanceId, String streamName,
+			Direction direction, long messageIndex, Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		return mbOperator.getBatchIndex(instanceId, streamName, direction.getLabel(), messageIndex, attributes)
+				.thenApply(row -> row == null ? Long.MIN_VALUE : row.getLong(MESSAGE_INDEX));
+	}
+	
+	private CompletableFuture<Long> getNearestMessageIndexAfter(TimeMessageOperator tmOperator, UUID instanceId, String streamName,
+			Direction direction, Instant instant, Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		LocalDateTime ldt = LocalDateTime.ofInstant(instant, TIMEZONE_OFFSET);
+		return tmOperator.getNearestMessageAfter(instanceId, streamName, ldt.toLocalDate(),
+				direction.getLabel(), ldt.toLocalTime(), attributes)
+				.thenApply(entity -> entity == null ? Long.MAX_VALUE : entity.getMessageIndex());
+	}
+	
+	private static <T> CompletableFuture<T> failed(Throwable error)
+	{
+		CompletableFuture<T> result = new CompletableFuture<>();
+		result.completeExceptionally(error);
+		return result;
+	}
+	
+	
+	/**
+	 * Bounds of query being built. Bound values are passed from one look-up to another
+	 */
+	private static class QueryBounds
+	{
+		private BoundStatementBuilder builder;
+		private long leftIndex = Long.MIN_VALUE,
+				rightIndex = Long.MAX_VALUE;
+		private boolean complete;
+		
+		QueryBounds(BoundStatementBuilder builder)
+		{
+			this.builder = builder;
+		}
+	}
+}
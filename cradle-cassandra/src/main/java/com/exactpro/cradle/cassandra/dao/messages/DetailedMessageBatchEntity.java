@@ -19,6 +19,7 @@ package com.exactpro.cradle.cassandra.dao.messages;
 import static com.exactpro.cradle.cassandra.StorageConstants.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -27,6 +28,7 @@ import java.util.UUID;
 
 import com.exactpro.cradle.messages.*;
 import com.exactpro.cradle.utils.CradleStorageException;
+import com.exactpro.cradle.utils.MessageUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,12 +66,24 @@ public class DetailedMessageBatchEntity extends MessageBatchEntity
 	@CqlName(LAST_MESSAGE_INDEX)
 	private long lastMessageIndex;
 	
+	@CqlName(MESSAGE_POSITIONS)
+	private ByteBuffer messagePositions;
+	
 	
 	public DetailedMessageBatchEntity()
 	{
 	}
 	
 	public DetailedMessageBatchEntity(StoredMessageBatch batch, UUID instanceId) throws IOException
+	{
+		this(batch, instanceId, false);
+	}
+	
+	/**
+	 * @param storeMessagePositions if true, indices and timestamps of messages will be stored in separate column 
+	 * to obtain them without reading batch content
+	 */
+	public DetailedMessageBatchEntity(StoredMessageBatch batch, UUID instanceId, boolean storeMessagePositions) throws IOException
 	{
 		super(batch, instanceId);
 		
@@ -80,6 +94,8 @@ public class DetailedMessageBatchEntity extends MessageBatchEntity
 		this.setLastMessageTimestamp(batch.getLastTimestamp());
 		this.setMessageCount(batch.getMessageCount());
 		this.setLastMessageIndex(batch.getLastMessage().getIndex());
+		if (storeMessagePositions)
+			this.setMessagePositions(ByteBuffer.wrap(MessageUtils.serializeMessagePositions(batch.getMessages())));
 	}
 
 	public StoredMessageBatch toStoredMessageBatch() throws IOException, CradleStorageException
@@ -228,6 +244,17 @@ public class DetailedMessageBatchEntity extends MessageBatchEntity
 	{
 		this.lastMessageIndex = lastMessageIndex;
 	}
+	
+	
+	public ByteBuffer getMessagePositions()
+	{
+		return messagePositions;
+	}
+	
+	public void setMessagePositions(ByteBuffer messagePositions)
+	{
+		this.messagePositions = messagePositions;
+	}
 
 	/**
 	 * This class is only for access to internal addMessageInternal() method
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.dao.messages;
+
+import static com.exactpro.cradle.cassandra.StorageConstants.INSTANCE_ID;
+import static com.exactpro.cradle.cassandra.StorageConstants.STREAM_NAME;
+
+import java.util.UUID;
+
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+
+/**
+ * Contains name of stream that has messages stored within Cradle instance
+ */
+@Entity
+public class InstanceStreamEntity
+{
+	@PartitionKey(0)
+	@CqlName(INSTANCE_ID)
+	private UUID instanceId;
+	
+	@ClusteringColumn(0)
+	@CqlName(STREAM_NAME)
+	private String streamName;
+	
+	
+	public InstanceStreamEntity()
+	{
+	}
+	
+	public InstanceStreamEntity(UUID instanceId, String streamName)
+	{
+		this.instanceId = instanceId;
+		this.streamName = streamName;
+	}
+	
+	
+	public UUID getInstanceId()
+	{
+		return instanceId;
+	}
+	
+	public void setInstanceId(UUID instanceId)
+	{
+		this.instanceId = instanceId;
+	}
+	
+	
+	public String getStreamName()
+	{
+		return streamName;
+	}
+	
+	public void setStreamName(String streamName)
+	{
+		this.streamName = streamName;
+	}
+}
@@ -22,8 +22,6 @@ import static com.exactpro.cradle.cassandra.StorageConstants.*;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
 import java.util.UUID;
 
 import com.exactpro.cradle.Order;
@@ -105,14 +103,16 @@ public class MessageBatchEntity extends MessageBatchMetadataEntity
 		return toStoredMessages(Order.DIRECT);
 	}
 
+	/**
+	 * @param order of messages to return
+	 * @return messages of the batch. In reverse order messages are deserialized lazily, starting from the last one
+	 * @throws IOException if batch content could not be decompressed or is malformed
+	 */
 	public Collection<StoredMessage> toStoredMessages(Order order) throws IOException
 	{
-		List<StoredMessage> messages = MessageUtils.bytesToMessages(content, isCompressed());
-		if (order == Order.DIRECT)
-			return messages;
-		
-		Collections.reverse(messages);
-		return messages;
+		if (order == Order.REVERSE)
+			return MessageUtils.bytesToMessagesReverse(content, isCompressed());
+		return MessageUtils.bytesToMessages(content, isCompressed());
 	}
 	
 	public StoredMessage toStoredMessage(StoredMessageId id) throws IOException
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.dao.messages;
+
+import static com.exactpro.cradle.cassandra.StorageConstants.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.exactpro.cradle.cassandra.CassandraCradleStorage;
+import com.exactpro.cradle.messages.StoredMessageBatchId;
+import com.exactpro.cradle.messages.StoredMessageBatchInfo;
+import com.exactpro.cradle.messages.StoredMessagePosition;
+import com.exactpro.cradle.utils.MessageUtils;
+
+/**
+ * Contains data about {@link com.exactpro.cradle.messages.StoredMessageBatch} stored in Cassandra, except for content of the batch.
+ * Used to list message batches without reading their content
+ */
+@Entity
+public class MessageBatchInfoEntity extends MessageBatchMetadataEntity
+{
+	@CqlName(STORED_DATE)
+	private LocalDate storedDate;
+	@CqlName(STORED_TIME)
+	private LocalTime storedTime;
+	
+	@CqlName(FIRST_MESSAGE_DATE)
+	private LocalDate firstMessageDate;
+	@CqlName(FIRST_MESSAGE_TIME)
+	private LocalTime firstMessageTime;
+	
+	@CqlName(LAST_MESSAGE_DATE)
+	private LocalDate lastMessageDate;
+	@CqlName(LAST_MESSAGE_TIME)
+	private LocalTime lastMessageTime;
+	
+	@CqlName(MESSAGE_COUNT)
+	private int messageCount;
+	
+	@CqlName(LAST_MESSAGE_INDEX)
+	private long lastMessageIndex;
+	
+	@CqlName(MESSAGE_POSITIONS)
+	private ByteBuffer messagePositions;
+	
+	
+	public MessageBatchInfoEntity()
+	{
+	}
+	
+	
+	public StoredMessageBatchInfo toStoredMessageBatchInfo() throws IOException
+	{
+		StoredMessageBatchId id = createBatchId();
+		List<StoredMessagePosition> positions = null;
+		if (messagePositions != null)
+		{
+			byte[] bytes = new byte[messagePositions.remaining()];
+			messagePositions.duplicate().get(bytes);
+			positions = MessageUtils.deserializeMessagePositions(bytes, id);
+		}
+		
+		return new StoredMessageBatchInfo(id, getLastMessageIndex(), getMessageCount(), 
+				toInstant(getFirstMessageDate(), getFirstMessageTime()), 
+				toInstant(getLastMessageDate(), getLastMessageTime()), 
+				toInstant(getStoredDate(), getStoredTime()), 
+				positions);
+	}
+	
+	
+	public LocalDate getStoredDate()
+	{
+		return storedDate;
+	}
+	
+	public void setStoredDate(LocalDate storedDate)
+	{
+		this.storedDate = storedDate;
+	}
+	
+	public LocalTime getStoredTime()
+	{
+		return storedTime;
+	}
+	
+	public void setStoredTime(LocalTime storedTime)
+	{
+		this.storedTime = storedTime;
+	}
+	
+	
+	public LocalDate getFirstMessageDate()
+	{
+		return firstMessageDate;
+	}
+	
+	public void setFirstMessageDate(LocalDate firstMessageDate)
+	{
+		this.firstMessageDate = firstMessageDate;
+	}
+	
+	public LocalTime getFirstMessageTime()
+	{
+		return firstMessageTime;
+	}
+	
+	public void setFirstMessageTime(LocalTime firstMessageTime)
+	{
+		this.firstMessageTime = firstMessageTime;
+	}
+	
+	
+	public LocalDate getLastMessageDate()
+	{
+		return lastMessageDate;
+	}
+	
+	public void setLastMessageDate(LocalDate lastMessageDate)
+	{
+		this.lastMessageDate = lastMessageDate;
+	}
+	
+	public LocalTime getLastMessageTime()
+	{
+		return lastMessageTime;
+	}
+	
+	public void setLastMessageTime(LocalTime lastMessageTime)
+	{
+		this.lastMessageTime = lastMessageTime;
+	}
+	
+	
+	public int getMessageCount()
+	{
+		return messageCount;
+	}
+	
+	public void setMessageCount(int messageCount)
+	{
+		this.messageCount = messageCount;
+	}
+	
+	
+	public long getLastMessageIndex()
+	{
+		return lastMessageIndex;
+	}
+	
+	public void setLastMessageIndex(long lastMessageIndex)
+	{
+		this.lastMessageIndex = lastMessageIndex;
+	}
+	
+	
+	public ByteBuffer getMessagePositions()
+	{
+		return messagePositions;
+	}
+	
+	public void setMessagePositions(ByteBuffer messagePositions)
+	{
+		this.messagePositions = messagePositions;
+	}
+	
+	
+	private Instant toInstant(LocalDate date, LocalTime time)
+	{
+		if (date == null || time == null)
+			return null;
+		return LocalDateTime.of(date, time).toInstant(CassandraCradleStorage.TIMEZONE_OFFSET);
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.dao.messages;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.mapper.MapperContext;
+import com.datastax.oss.driver.api.mapper.entity.EntityHelper;
+import com.exactpro.cradle.messages.StoredMessageFilter;
+
+/**
+ * Provides query to get information about message batches, not reading their content
+ */
+public class MessageBatchInfoQueryProvider extends AbstractMessageBatchQueryProvider<MessageBatchInfoEntity>
+{
+	public MessageBatchInfoQueryProvider(MapperContext context, EntityHelper<MessageBatchInfoEntity> helper)
+	{
+		super(context, helper);
+	}
+	
+	public CompletableFuture<MappedAsyncPagingIterable<MessageBatchInfoEntity>> filterMessageBatchesInfo(UUID instanceId, 
+			StoredMessageFilter filter, MessageBatchOperator mbOperator,
+			TimeMessageOperator tmOperator, Function<BoundStatementBuilder, BoundStatementBuilder> attributes)
+	{
+		return filterBatches(instanceId, filter, mbOperator, tmOperator, attributes);
+	}
+}
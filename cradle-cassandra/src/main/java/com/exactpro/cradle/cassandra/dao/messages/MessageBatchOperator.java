@@ -22,6 +22,7 @@ import java.util.function.Function;
 
 import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
 import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.mapper.annotations.Dao;
@@ -60,6 +61,12 @@ public interface MessageBatchOperator
 	PagingIterable<DetailedMessageBatchEntity> getMessageBatchesReversed(UUID instanceId, String streamName, String direction, long toIndex, 
 			Function<BoundStatementBuilder, BoundStatementBuilder> attributes);
 	
+	@Query("SELECT "+MESSAGE_INDEX+", "+LAST_MESSAGE_INDEX+", "+MESSAGE_COUNT+" FROM ${qualifiedTableId} WHERE "
+			+INSTANCE_ID+"=:instanceId AND "+STREAM_NAME+"=:streamName AND "+DIRECTION+"=:direction AND "
+			+MESSAGE_INDEX+"<=:toIndex ORDER BY "+DIRECTION+" DESC, "+MESSAGE_INDEX+" DESC")
+	CompletableFuture<AsyncResultSet> getMessageBatchesMetadataReversed(UUID instanceId, String streamName, String direction, long toIndex, 
+			Function<BoundStatementBuilder, BoundStatementBuilder> attributes);
+	
 	@Query("SELECT * FROM ${qualifiedTableId} WHERE "
 			+INSTANCE_ID+"=:instanceId AND "+STREAM_NAME+"=:streamName AND "+DIRECTION+"=:direction AND "
 			+MESSAGE_INDEX+"<=:messageIndex ORDER BY "+DIRECTION+" DESC, "+MESSAGE_INDEX+" DESC LIMIT 1")
@@ -92,6 +99,11 @@ public interface MessageBatchOperator
 			StoredMessageFilter filter, MessageBatchOperator mbOperator,
 			TimeMessageOperator tmOperator, Function<BoundStatementBuilder, BoundStatementBuilder> attributes);
 	
+	@QueryProvider(providerClass = MessageBatchInfoQueryProvider.class, entityHelpers = MessageBatchInfoEntity.class)
+	CompletableFuture<MappedAsyncPagingIterable<MessageBatchInfoEntity>> filterMessageBatchesInfo(UUID instanceId,
+			StoredMessageFilter filter, MessageBatchOperator mbOperator,
+			TimeMessageOperator tmOperator, Function<BoundStatementBuilder, BoundStatementBuilder> attributes);
+	
 	@Query("SELECT DISTINCT "+INSTANCE_ID+", "+STREAM_NAME+" from ${qualifiedTableId}")
 	PagingIterable<StreamEntity> getStreams(Function<BoundStatementBuilder, BoundStatementBuilder> attributes);
 	
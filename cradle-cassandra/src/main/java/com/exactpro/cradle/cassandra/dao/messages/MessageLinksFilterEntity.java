@@ -0,0 +1,159 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.dao.messages;
+
+import static com.exactpro.cradle.cassandra.StorageConstants.*;
+
+import java.util.Set;
+import java.util.UUID;
+
+import com.datastax.oss.driver.api.mapper.annotations.ClusteringColumn;
+import com.datastax.oss.driver.api.mapper.annotations.CqlName;
+import com.datastax.oss.driver.api.mapper.annotations.Entity;
+import com.datastax.oss.driver.api.mapper.annotations.PartitionKey;
+
+/**
+ * Contains bits of Bloom filter of messages with linked test events for stream, direction and range of message indices. 
+ * All writers add bits to the same filter. Mark of coverage is shared by filters with different settings. 
+ * If only the mark is stored, filter size and number of hash functions are 0
+ */
+@Entity
+public class MessageLinksFilterEntity
+{
+	@PartitionKey(0)
+	@CqlName(INSTANCE_ID)
+	private UUID instanceId;
+	
+	@PartitionKey(1)
+	@CqlName(STREAM_NAME)
+	private String streamName;
+	
+	@PartitionKey(2)
+	@CqlName(DIRECTION)
+	private String direction;
+	
+	@PartitionKey(3)
+	@CqlName(BUCKET)
+	private long bucket;
+	
+	@ClusteringColumn(0)
+	@CqlName(FILTER_SIZE)
+	private int filterSize;
+	
+	@ClusteringColumn(1)
+	@CqlName(FILTER_HASHES)
+	private int filterHashes;
+	
+	@CqlName(COVERED)
+	private boolean covered;
+	
+	@CqlName(FILTER_BITS)
+	private Set<Integer> filterBits;
+	
+	
+	public MessageLinksFilterEntity()
+	{
+	}
+	
+	
+	public UUID getInstanceId()
+	{
+		return instanceId;
+	}
+	
+	public void setInstanceId(UUID instanceId)
+	{
+		this.instanceId = instanceId;
+	}
+	
+	
+	public String getStreamName()
+	{
+		return streamName;
+	}
+	
+	public void setStreamName(String streamName)
+	{
+		this.streamName = streamName;
+	}
+	
+	
+	public String getDirection()
+	{
+		return direction;
+	}
+	
+	public void setDirection(String direction)
+	{
+		this.direction = direction;
+	}
+	
+	
+	public long getBucket()
+	{
+		return bucket;
+	}
+	
+	public void setBucket(long bucket)
+	{
+		this.bucket = bucket;
+	}
+	
+	
+	public int getFilterSize()
+	{
+		return filterSize;
+	}
+	
+	public void setFilterSize(int filterSize)
+	{
+		this.filterSize = filterSize;
+	}
+	
+	
+	public int getFilterHashes()
+	{
+		return filterHashes;
+	}
+	
+	public void setFilterHashes(int filterHashes)
+	{
+		this.filterHashes = filterHashes;
+	}
+	
+	
+	public boolean isCovered()
+	{
+		return covered;
+	}
+	
+	public void setCovered(boolean covered)
+	{
+		this.covered = covered;
+	}
+	
+	
+	public Set<Integer> getFilterBits()
+	{
+		return filterBits;
+	}
+	
+	public void setFilterBits(Set<Integer> filterBits)
+	{
+		this.filterBits = filterBits;
+	}
+}
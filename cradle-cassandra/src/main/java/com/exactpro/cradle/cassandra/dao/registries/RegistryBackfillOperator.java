@@ -0,0 +1,38 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.dao.registries;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.mapper.annotations.Dao;
+import com.datastax.oss.driver.api.mapper.annotations.Insert;
+import com.datastax.oss.driver.api.mapper.annotations.Select;
+
+@Dao
+public interface RegistryBackfillOperator
+{
+	@Select
+	CompletableFuture<RegistryBackfillEntity> get(UUID instanceId, String name, 
+			Function<BoundStatementBuilder, BoundStatementBuilder> attributes);
+	
+	@Insert
+	CompletableFuture<RegistryBackfillEntity> write(RegistryBackfillEntity backfill, 
+			Function<BoundStatementBuilder, BoundStatementBuilder> attributes);
+}
@@ -24,6 +24,7 @@ import java.util.function.Function;
 import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.mapper.annotations.Dao;
 import com.datastax.oss.driver.api.mapper.annotations.Insert;
 import com.datastax.oss.driver.api.mapper.annotations.Query;
@@ -38,6 +39,10 @@ public interface TestEventOperator
 	CompletableFuture<TestEventEntity> get(UUID instanceId, String id, 
 			Function<BoundStatementBuilder, BoundStatementBuilder> attributes);
 
+	@Query("SELECT "+SUCCESS+" FROM ${qualifiedTableId} WHERE "+INSTANCE_ID+"=:instanceId AND "+ID+"=:id")
+	CompletableFuture<Row> getStatus(UUID instanceId, String id, 
+			Function<BoundStatementBuilder, BoundStatementBuilder> attributes);
+
 	@QueryProvider(providerClass = TestEventQueryProvider.class, entityHelpers = TestEventEntity.class)
 	CompletableFuture<MappedAsyncPagingIterable<TestEventEntity>> getComplete(UUID instanceId, List<String> id,
 			Function<BoundStatementBuilder, BoundStatementBuilder> attributes);
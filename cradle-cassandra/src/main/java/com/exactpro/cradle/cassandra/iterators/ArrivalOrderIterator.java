@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Iterator over results of several asynchronous requests, returning results in order of their arrival. 
+ * Blocks while waiting for next result
+ * @param <T> class of objects to iterate over
+ */
+public class ArrivalOrderIterator<T> implements Iterator<T>
+{
+	private static final Object MISSING = new Object(),
+			END = new Object();
+	
+	private final BlockingQueue<Object> arrived = new LinkedBlockingQueue<>();
+	private final int expected;
+	private final String queryInfo;
+	private int received;
+	private boolean finished;
+	private T next;
+	
+	/**
+	 * @param expected number of results to wait for, including empty results and errors
+	 * @param queryInfo description of requests
+	 */
+	public ArrivalOrderIterator(int expected, String queryInfo)
+	{
+		this.expected = expected;
+		this.queryInfo = queryInfo;
+	}
+	
+	/**
+	 * Creates iterator for unknown number of results. Iteration stops when {@link #finish()} is called and all results are returned
+	 * @param queryInfo description of requests
+	 */
+	public ArrivalOrderIterator(String queryInfo)
+	{
+		this(-1, queryInfo);
+	}
+	
+	
+	/**
+	 * Adds result of request
+	 * @param result to add. Null means that request has no result, it is counted but not returned by iterator
+	 */
+	public void add(T result)
+	{
+		arrived.add(result != null ? result : MISSING);
+	}
+	
+	/**
+	 * Adds error of request, which will be thrown by iterator when reached
+	 * @param error of request
+	 */
+	public void fail(Throwable error)
+	{
+		arrived.add(new Failure(error));
+	}
+	
+	/**
+	 * Marks that all results are added, which is needed if number of results is unknown
+	 */
+	public void finish()
+	{
+		arrived.add(END);
+	}
+	
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean hasNext()
+	{
+		while (next == null)
+		{
+			if (finished || (expected > -1 && received >= expected))
+				return false;
+			
+			Object result;
+			try
+			{
+				result = arrived.take();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while waiting for next result of "+queryInfo, e);
+			}
+			if (result == END)
+			{
+				finished = true;
+				return false;
+			}
+			received++;
+			
+			if (result instanceof Failure)
+				throw new RuntimeException("Error while getting next result of "+queryInfo, ((Failure)result).error);
+			if (result != MISSING)
+				next = (T)result;
+		}
+		return true;
+	}
+	
+	@Override
+	public T next()
+	{
+		if (!hasNext())
+			throw new NoSuchElementException();
+		T result = next;
+		next = null;
+		return result;
+	}
+	
+	
+	private static class Failure
+	{
+		private final Throwable error;
+		
+		Failure(Throwable error)
+		{
+			this.error = error;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.internal.core.AsyncPagingIterableWrapper;
+import com.exactpro.cradle.cassandra.dao.EntityConverter;
+import com.exactpro.cradle.cassandra.retries.CannotRetryException;
+import com.exactpro.cradle.cassandra.retries.PagingSupplies;
+import com.exactpro.cradle.cassandra.retries.RetryUtils;
+
+/**
+ * Reads result pages of asynchronous paging iterable without blocking threads while waiting for next pages. 
+ * Next pages are requested with retries according to policy from paging supplies, as {@link PagedIterator} does
+ * @param <E> - class of entities obtained from Cassandra
+ */
+public class AsyncPageReader<E>
+{
+	private static final Logger logger = LoggerFactory.getLogger(AsyncPageReader.class);
+	
+	private final PagingSupplies pagingSupplies;
+	private final Function<Row, E> mapper;
+	private final String queryInfo;
+	
+	public AsyncPageReader(PagingSupplies pagingSupplies, EntityConverter<E> converter, String queryInfo)
+	{
+		this.pagingSupplies = pagingSupplies;
+		this.mapper = row -> converter.convert(row);
+		this.queryInfo = queryInfo;
+	}
+	
+	
+	/**
+	 * Passes all entities from given result to action. 
+	 * Entities of the current page are processed in the calling thread, entities of next pages - in the common pool
+	 * @param rows result to read
+	 * @param action to perform for each entity
+	 * @return future that completes when all entities are processed or fails with error of page fetching or of action
+	 */
+	public CompletableFuture<Void> forEach(MappedAsyncPagingIterable<E> rows, EntityAction<E> action)
+	{
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		readPages(rows, action, result);
+		return result;
+	}
+	
+	/**
+	 * Requests next page of given result, retrying the request if policy allows
+	 * @param rows result to get next page of
+	 * @return future with next page
+	 */
+	public CompletableFuture<MappedAsyncPagingIterable<E>> fetchNextPage(MappedAsyncPagingIterable<E> rows)
+	{
+		if (pagingSupplies == null)
+		{
+			logger.debug("Fetching next result page for '{}' with default behavior", queryInfo);
+			return rows.fetchNextPage().toCompletableFuture();
+		}
+		
+		ExecutionInfo ei = rows.getExecutionInfo();
+		ByteBuffer state = ei.getPagingState();
+		Statement<?> stmt = ei.getStatement().copy(state);
+		
+		//Page size can be smaller than max size if retries reduced it, so policy may restore it back
+		stmt = RetryUtils.applyPolicyVerdict(stmt, pagingSupplies.getExecPolicy().onNextPage(stmt, queryInfo));
+		
+		CompletableFuture<MappedAsyncPagingIterable<E>> result = new CompletableFuture<>();
+		executePageQuery(stmt, ei.getStatement(), state, result, 0);
+		return result;
+	}
+	
+	
+	private void readPages(MappedAsyncPagingIterable<E> rows, EntityAction<E> action, CompletableFuture<Void> result)
+	{
+		try
+		{
+			for (E entity : rows.currentPage())
+				action.accept(entity);
+		}
+		catch (Exception e)
+		{
+			result.completeExceptionally(e);
+			return;
+		}
+		
+		if (!rows.hasMorePages())
+		{
+			result.complete(null);
+			return;
+		}
+		
+		fetchNextPage(rows).whenCompleteAsync((page, error) -> {
+			if (error != null)
+				result.completeExceptionally(error);
+			else
+				readPages(page, action, result);
+		});
+	}
+	
+	private void executePageQuery(Statement<?> stmt, Statement<?> original, ByteBuffer state, 
+			CompletableFuture<MappedAsyncPagingIterable<E>> result, int retryCount)
+	{
+		logger.debug("Getting next result page for '{}'", queryInfo);
+		long start = System.nanoTime();
+		pagingSupplies.getSession().executeAsync(stmt).whenComplete((rs, error) -> {
+			if (error == null)
+			{
+				RetryUtils.notifyPageFetched(pagingSupplies.getExecPolicy(), queryInfo, rs, start);
+				result.complete(new AsyncPagingIterableWrapper<Row, E>(rs, mapper));
+				return;
+			}
+			
+			Statement<?> retryStmt = original.copy(state).setPageSize(stmt.getPageSize()).setConsistencyLevel(stmt.getConsistencyLevel());
+			try
+			{
+				retryStmt = RetryUtils.applyPolicyVerdict(retryStmt, pagingSupplies.getExecPolicy().onError(retryStmt, queryInfo, error, retryCount));
+			}
+			catch (CannotRetryException e)
+			{
+				result.completeExceptionally(e);
+				return;
+			}
+			
+			long delay = RetryUtils.calculateDelayWithJitter(retryCount);
+			logger.debug("Retrying next page request ({}) for '{}' with page size {} and CL {} with delay {}ms after error: '{}'", 
+					retryCount+1, queryInfo, retryStmt.getPageSize(), retryStmt.getConsistencyLevel(), delay, error.getMessage());
+			Statement<?> nextStmt = retryStmt;
+			CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+					.execute(() -> executePageQuery(nextStmt, original, state, result, retryCount+1));
+		});
+	}
+	
+	
+	@FunctionalInterface
+	public interface EntityAction<E>
+	{
+		void accept(E entity) throws Exception;
+	}
+}
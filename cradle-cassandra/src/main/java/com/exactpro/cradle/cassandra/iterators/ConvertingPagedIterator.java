@@ -17,7 +17,18 @@
 package com.exactpro.cradle.cassandra.iterators;
 
 import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,7 +38,10 @@ import com.exactpro.cradle.cassandra.dao.EntityConverter;
 import com.exactpro.cradle.cassandra.retries.PagingSupplies;
 
 /**
- * Wrapper for asynchronous paging iterable that converts retrieved entities into Cradle objects
+ * Wrapper for asynchronous paging iterable that converts retrieved entities into Cradle objects.
+ * If executor for conversion is given, up to lookahead entities are converted in advance by that executor,
+ * while results are still returned in the order of entities. 
+ * Conversions made in advance are cancelled by {@link #cancel()} or when the iterator is garbage collected
  * @param <R> - class of objects to get while using the wrapper
  * @param <E> - class of entities obtained from Cassandra
  */
@@ -35,28 +49,116 @@ public abstract class ConvertingPagedIterator<R, E> implements Iterator<R>
 {
 	private static final Logger logger = LoggerFactory.getLogger(ConvertingPagedIterator.class);
 	
-	private final PagedIterator<E> it;
+	private static final Cleaner CLEANER = Cleaner.create();
+	
+	private final Iterator<E> it;
+	private final ExecutorService converterExecutor;
+	private final int lookahead;
+	private final Conversions<E, R> converting;
+	private final WeakReference<ConvertingPagedIterator<R, E>> self;
+	private boolean cancelled;
 	
 	public ConvertingPagedIterator(MappedAsyncPagingIterable<E> rows, PagingSupplies pagingSupplies, EntityConverter<E> converter, String queryInfo)
 	{
-		this.it = new PagedIterator<>(rows, pagingSupplies, converter, queryInfo);
+		this(rows, pagingSupplies, converter, queryInfo, null, 0);
+	}
+	
+	public ConvertingPagedIterator(MappedAsyncPagingIterable<E> rows, PagingSupplies pagingSupplies, EntityConverter<E> converter, String queryInfo,
+			ExecutorService converterExecutor, int lookahead)
+	{
+		this(new PagedIterator<>(rows, pagingSupplies, converter, queryInfo), converterExecutor, lookahead);
+	}
+	
+	protected ConvertingPagedIterator(Iterator<E> entities, ExecutorService converterExecutor, int lookahead)
+	{
+		this.it = entities;
+		this.converterExecutor = lookahead > 0 ? converterExecutor : null;
+		this.lookahead = lookahead;
+		if (this.converterExecutor != null)
+		{
+			this.converting = new Conversions<>(lookahead);
+			CLEANER.register(this, converting);
+		}
+		else
+			this.converting = null;
+		//Conversions made in advance refer to the iterator weakly, so that the iterator can be collected while they are queued
+		this.self = new WeakReference<>(this);
 	}
 	
 	
 	protected abstract R convertEntity(E entity) throws IOException;
 	
+	/**
+	 * @return max number of entities being converted at once, including the one to return next. 
+	 * Can be overridden to not convert entities that won't be requested
+	 */
+	protected int getLookahead()
+	{
+		return lookahead;
+	}
+	
+	/**
+	 * Checks if entities being converted in advance already give enough results, so that no more entities need to be converted in advance. 
+	 * Can be overridden to not convert entities that won't be requested
+	 * @param entities being converted in advance, in order their results will be returned
+	 * @return true if no more entities should be converted in advance
+	 */
+	protected boolean isEnoughConverting(Collection<E> entities)
+	{
+		return false;
+	}
+	
+	/**
+	 * Cancels conversions made in advance whose results were not returned yet, the iterator will return no more results after that. 
+	 * Should be called if no more results will be requested. Conversions are also cancelled when the iterator is garbage collected
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+		if (converting != null)
+			converting.run();
+	}
+	
 	
 	@Override
 	public boolean hasNext()
 	{
+		if (cancelled)
+			return false;
+		if (converting != null && !converting.isEmpty())
+			return true;
 		return it.hasNext();
 	}
 	
 	@Override
 	public R next()
 	{
-		E entity = it.next();
+		if (converting == null)
+			return convert(it.next());
 		
+		fillLookahead();
+		Future<R> result = converting.poll();
+		if (result == null)  //Maybe, hasNext() wasn't called
+			return convert(it.next());
+		
+		try
+		{
+			return result.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while getting next data row", e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new RuntimeException("Error while getting next data row", e.getCause());
+		}
+	}
+	
+	
+	private R convert(E entity)
+	{
 		logger.trace("Converting entity");
 		try
 		{
@@ -67,4 +169,70 @@ public abstract class ConvertingPagedIterator<R, E> implements Iterator<R>
 			throw new RuntimeException("Error while getting next data row", e);
 		}
 	}
+	
+	private void fillLookahead()
+	{
+		WeakReference<ConvertingPagedIterator<R, E>> owner = self;  //Conversions must not capture "this"
+		int max = Math.min(getLookahead(), lookahead);
+		while (converting.size() < max && !isEnoughConverting(converting.getEntities()) && it.hasNext())
+		{
+			E entity = it.next();
+			converting.add(entity, converterExecutor.submit(() -> {
+					ConvertingPagedIterator<R, E> iterator = owner.get();
+					if (iterator == null)  //Iterator is abandoned and its conversions are being cancelled
+						return null;
+					logger.trace("Converting entity in advance");
+					return iterator.convertEntity(entity);
+				}));
+		}
+	}
+	
+	
+	/**
+	 * Conversions made in advance. Doesn't refer to the iterator, so that it can cancel conversions when the iterator is garbage collected
+	 */
+	private static class Conversions<E, R> implements Runnable
+	{
+		private final Deque<Entry<E, Future<R>>> conversions;
+		
+		Conversions(int capacity)
+		{
+			conversions = new ArrayDeque<>(capacity);
+		}
+		
+		
+		@Override
+		public synchronized void run()
+		{
+			Entry<E, Future<R>> c;
+			while ((c = conversions.poll()) != null)
+				c.getValue().cancel(false);
+		}
+		
+		synchronized void add(E entity, Future<R> conversion)
+		{
+			conversions.add(new SimpleEntry<>(entity, conversion));
+		}
+		
+		synchronized Future<R> poll()
+		{
+			Entry<E, Future<R>> c = conversions.poll();
+			return c != null ? c.getValue() : null;
+		}
+		
+		synchronized boolean isEmpty()
+		{
+			return conversions.isEmpty();
+		}
+		
+		synchronized int size()
+		{
+			return conversions.size();
+		}
+		
+		synchronized Collection<E> getEntities()
+		{
+			return conversions.stream().map(Entry::getKey).collect(Collectors.toList());
+		}
+	}
 }
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import com.exactpro.cradle.Order;
+import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
+import com.exactpro.cradle.filters.FilterByField;
+import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageBatchInfo;
+import com.exactpro.cradle.messages.StoredMessageFilter;
+
+/**
+ * Matches message batches against {@link StoredMessageFilter} using index and timestamp bounds stored with the batch.
+ * Batches that have no messages matching the filter are not decoded at all, 
+ * batches whose messages all match the filter are decoded without checking each message
+ */
+public class MessageBatchFilterMatcher
+{
+	public enum Match
+	{
+		NONE,
+		PARTIAL,
+		ALL
+	}
+	
+	
+	/**
+	 * Checks if messages of given batch match the filter, using only batch metadata
+	 * @param filter to check batch against. If null, all messages match
+	 * @param entity batch to check
+	 * @return {@link Match#NONE} if no messages in batch can match the filter, 
+	 * {@link Match#ALL} if all messages match the filter and {@link Match#PARTIAL} if messages need to be checked one by one
+	 */
+	public static Match match(StoredMessageFilter filter, DetailedMessageBatchEntity entity)
+	{
+		if (filter == null)
+			return Match.ALL;
+		
+		Instant first = null,
+				last = null;
+		if (entity.getFirstMessageDate() != null && entity.getFirstMessageTime() != null 
+				&& entity.getLastMessageDate() != null && entity.getLastMessageTime() != null)
+		{
+			first = entity.getFirstMessageTimestamp();
+			last = entity.getLastMessageTimestamp();
+		}
+		return match(filter, entity.getMessageIndex(), entity.getLastMessageIndex(), first, last);
+	}
+	
+	/**
+	 * Checks if messages of batch with given info match the filter, using only batch metadata
+	 * @param filter to check batch against. If null, all messages match
+	 * @param info information about batch to check
+	 * @return {@link Match#NONE} if no messages in batch can match the filter, 
+	 * {@link Match#ALL} if all messages match the filter and {@link Match#PARTIAL} if messages need to be checked one by one
+	 */
+	public static Match match(StoredMessageFilter filter, StoredMessageBatchInfo info)
+	{
+		if (filter == null)
+			return Match.ALL;
+		return match(filter, info.getFirstIndex(), info.getLastIndex(), info.getFirstTimestamp(), info.getLastTimestamp());
+	}
+	
+	/**
+	 * Checks if message with given index and timestamp matches the filter
+	 * @param filter to check message against. If null, message matches
+	 * @param index of message to check
+	 * @param timestamp of message to check
+	 * @return true if message matches the filter
+	 */
+	public static boolean matches(StoredMessageFilter filter, long index, Instant timestamp)
+	{
+		if (filter == null)
+			return true;
+		
+		if (filter.getLeftBoundIndex() > -1 && index < filter.getLeftBoundIndex())
+			return false;
+		
+		if (filter.getIndex() != null && !filter.getIndex().check(index))
+			return false;
+		if (filter.getTimestampFrom() != null && !filter.getTimestampFrom().check(timestamp))
+			return false;
+		if (filter.getTimestampTo() != null && !filter.getTimestampTo().check(timestamp))
+			return false;
+		return true;
+	}
+	
+	
+	private static Match match(StoredMessageFilter filter, long firstIndex, long lastIndex, Instant first, Instant last)
+	{
+		Match result = Match.ALL;
+		if (filter.getLeftBoundIndex() > -1)
+		{
+			if (lastIndex < filter.getLeftBoundIndex())
+				return Match.NONE;
+			if (firstIndex < filter.getLeftBoundIndex())
+				result = Match.PARTIAL;
+		}
+		
+		result = combine(result, match(filter.getIndex(), firstIndex, lastIndex));
+		if (result == Match.NONE)
+			return result;
+		
+		if (filter.getTimestampFrom() == null && filter.getTimestampTo() == null)
+			return result;
+		
+		if (first == null || last == null)
+			return Match.PARTIAL;  //Timestamp bounds are unknown, messages will be checked one by one
+		
+		result = combine(result, match(filter.getTimestampFrom(), first, last));
+		return combine(result, match(filter.getTimestampTo(), first, last));
+	}
+	
+	/**
+	 * Decodes messages of given batch that match the filter. Batch is not decoded if it has no matching messages
+	 * @param filter to check messages against
+	 * @param entity batch to get messages from
+	 * @return collection of messages matching the filter, ordered according to filter order
+	 * @throws IOException if batch decoding failed
+	 */
+	public static Collection<StoredMessage> getMatchingMessages(StoredMessageFilter filter, DetailedMessageBatchEntity entity) throws IOException
+	{
+		Order order = filter == null ? Order.DIRECT : filter.getOrder();
+		switch (match(filter, entity))
+		{
+		case NONE : return Collections.emptyList();
+		case ALL : return entity.toStoredMessages(order);
+		default : 
+			Collection<StoredMessage> messages = entity.toStoredMessages(order);
+			if (order == Order.REVERSE)  //Messages in reverse order are deserialized while iterating, so filtering them the same way
+				return new FilteredMessages(messages, filter);
+			return messages.stream()
+					.filter(msg -> matches(filter, msg.getIndex(), msg.getTimestamp()))
+					.collect(Collectors.toList());
+		}
+	}
+	
+	
+	static <V extends Comparable<V>> Match match(FilterByField<V> filter, V first, V last)
+	{
+		if (filter == null)
+			return Match.ALL;
+		if (filter.getOperation() == null)
+			return Match.NONE;  //The same as FilterByField.check() does
+		
+		switch (filter.getOperation())
+		{
+		case GREATER :
+		case GREATER_OR_EQUALS :
+			if (!filter.check(last))
+				return Match.NONE;
+			return filter.check(first) ? Match.ALL : Match.PARTIAL;
+		case LESS :
+		case LESS_OR_EQUALS :
+			if (!filter.check(first))
+				return Match.NONE;
+			return filter.check(last) ? Match.ALL : Match.PARTIAL;
+		default :
+			V value = filter.getValue();
+			if (value.compareTo(first) < 0 || value.compareTo(last) > 0)
+				return Match.NONE;
+			return first.equals(last) ? Match.ALL : Match.PARTIAL;
+		}
+	}
+	
+	private static Match combine(Match m1, Match m2)
+	{
+		return m1.compareTo(m2) < 0 ? m1 : m2;
+	}
+	
+	
+	/**
+	 * Messages matching the filter, checked while iterating. 
+	 * {@link #size()} iterates through all messages
+	 */
+	private static class FilteredMessages extends AbstractCollection<StoredMessage>
+	{
+		private final Collection<StoredMessage> messages;
+		private final StoredMessageFilter filter;
+		
+		FilteredMessages(Collection<StoredMessage> messages, StoredMessageFilter filter)
+		{
+			this.messages = messages;
+			this.filter = filter;
+		}
+		
+		@Override
+		public Iterator<StoredMessage> iterator()
+		{
+			Iterator<StoredMessage> it = messages.iterator();
+			return new Iterator<StoredMessage>()
+			{
+				private StoredMessage next;
+				
+				@Override
+				public boolean hasNext()
+				{
+					while (next == null && it.hasNext())
+					{
+						StoredMessage msg = it.next();
+						if (matches(filter, msg.getIndex(), msg.getTimestamp()))
+							next = msg;
+					}
+					return next != null;
+				}
+				
+				@Override
+				public StoredMessage next()
+				{
+					if (!hasNext())
+						throw new NoSuchElementException();
+					StoredMessage result = next;
+					next = null;
+					return result;
+				}
+			};
+		}
+		
+		@Override
+		public int size()
+		{
+			int result = 0;
+			for (Iterator<StoredMessage> it = iterator(); it.hasNext(); it.next())
+				result++;
+			return result;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.util.Iterator;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.exactpro.cradle.cassandra.dao.messages.MessageBatchInfoEntity;
+import com.exactpro.cradle.cassandra.dao.messages.converters.MessageBatchInfoConverter;
+import com.exactpro.cradle.cassandra.retries.PagingSupplies;
+import com.exactpro.cradle.messages.StoredMessageBatchInfo;
+
+public class MessageBatchInfoIteratorAdapter implements Iterable<StoredMessageBatchInfo>
+{
+	private final MappedAsyncPagingIterable<MessageBatchInfoEntity> rows;
+	private final PagingSupplies pagingSupplies;
+	private final MessageBatchInfoConverter converter;
+	private final String queryInfo;
+	private final int limit;
+	
+	public MessageBatchInfoIteratorAdapter(MappedAsyncPagingIterable<MessageBatchInfoEntity> rows,
+			PagingSupplies pagingSupplies, MessageBatchInfoConverter converter, String queryInfo, int limit)
+	{
+		this.rows = rows;
+		this.pagingSupplies = pagingSupplies;
+		this.converter = converter;
+		this.queryInfo = queryInfo;
+		this.limit = limit;
+	}
+	
+	@Override
+	public Iterator<StoredMessageBatchInfo> iterator()
+	{
+		return new MessageBatchInfoIterator(rows, pagingSupplies, converter, queryInfo, limit);
+	}
+}
@@ -18,6 +18,8 @@ package com.exactpro.cradle.cassandra.iterators;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 
 import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.exactpro.cradle.Order;
@@ -25,21 +27,90 @@ import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
 import com.exactpro.cradle.cassandra.dao.messages.converters.DetailedMessageBatchConverter;
 import com.exactpro.cradle.cassandra.retries.PagingSupplies;
 import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageFilter;
 
 public class MessageBatchIterator extends ConvertingPagedIterator<Collection<StoredMessage>, DetailedMessageBatchEntity>
 {
 	private final Order order;
+	private final StoredMessageFilter filter;
+	private long messagesLeft = -1;
 	
 	public MessageBatchIterator(MappedAsyncPagingIterable<DetailedMessageBatchEntity> rows, Order order, 
 			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo)
 	{
-		super(rows, pagingSupplies, converter, queryInfo);
+		this(rows, order, pagingSupplies, converter, queryInfo, null, 0);
+	}
+	
+	public MessageBatchIterator(MappedAsyncPagingIterable<DetailedMessageBatchEntity> rows, Order order, 
+			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo,
+			ExecutorService decodingExecutor, int decodingLookahead)
+	{
+		super(rows, pagingSupplies, converter, queryInfo, decodingExecutor, decodingLookahead);
 		this.order = order;
+		this.filter = null;
+	}
+	
+	/**
+	 * Creates iterator that returns only messages matching given filter. 
+	 * Batches are checked against the filter by their bounds before decoding, see {@link MessageBatchFilterMatcher}
+	 */
+	public MessageBatchIterator(MappedAsyncPagingIterable<DetailedMessageBatchEntity> rows, StoredMessageFilter filter, 
+			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo,
+			ExecutorService decodingExecutor, int decodingLookahead)
+	{
+		super(rows, pagingSupplies, converter, queryInfo, decodingExecutor, decodingLookahead);
+		this.order = filter == null ? Order.DIRECT : filter.getOrder();
+		this.filter = filter;
+	}
+	
+	MessageBatchIterator(Iterator<DetailedMessageBatchEntity> entities, StoredMessageFilter filter, 
+			ExecutorService decodingExecutor, int decodingLookahead)
+	{
+		super(entities, decodingExecutor, decodingLookahead);
+		this.order = filter == null ? Order.DIRECT : filter.getOrder();
+		this.filter = filter;
+	}
+	
+	/**
+	 * Sets number of messages still to be returned from batches of this iterator, so that batches beyond that number are not decoded in advance
+	 * @param messagesLeft number of messages to return or negative value if the number is not limited
+	 */
+	void setMessagesLeft(long messagesLeft)
+	{
+		this.messagesLeft = messagesLeft;
+	}
+	
+	@Override
+	protected int getLookahead()
+	{
+		if (messagesLeft < 0)
+			return super.getLookahead();
+		//Batch that is not skipped by its bounds normally has at least one matching message
+		return (int)Math.min(super.getLookahead(), messagesLeft);
+	}
+	
+	@Override
+	protected boolean isEnoughConverting(Collection<DetailedMessageBatchEntity> entities)
+	{
+		if (messagesLeft < 0)
+			return false;
+		
+		long matching = 0;
+		for (DetailedMessageBatchEntity e : entities)
+		{
+			if (MessageBatchFilterMatcher.match(filter, e) == MessageBatchFilterMatcher.Match.ALL)
+				matching += e.getMessageCount();
+			if (matching >= messagesLeft)
+				return true;
+		}
+		return false;
 	}
 	
 	@Override
 	protected Collection<StoredMessage> convertEntity(DetailedMessageBatchEntity entity) throws IOException
 	{
-		return entity.toStoredMessages(order);
+		if (filter == null)
+			return entity.toStoredMessages(order);
+		return MessageBatchFilterMatcher.getMatchingMessages(filter, entity);
 	}
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
+
+import com.exactpro.cradle.Order;
+import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
+import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageFilter;
+
+/**
+ * Cursor over message batches of one stream and direction, used to merge messages of several streams by timestamp.
+ * Next batch is decoded only when requested, before that its first/last message timestamp is used as a bound for messages it contains
+ */
+public class MessageStreamCursor
+{
+	private final Iterator<DetailedMessageBatchEntity> batches;
+	private final StoredMessageFilter filter;
+	private final Order order;
+	private DetailedMessageBatchEntity pendingBatch;
+	private Iterator<StoredMessage> messages = Collections.emptyIterator();
+	private StoredMessage head;
+	
+	public MessageStreamCursor(Iterator<DetailedMessageBatchEntity> batches, StoredMessageFilter filter)
+	{
+		this.batches = batches;
+		this.filter = filter;
+		this.order = filter == null ? Order.DIRECT : filter.getOrder();
+	}
+	
+	
+	/**
+	 * Moves cursor to next message or to next batch if current batch has no more messages matching the filter
+	 * @return true if cursor has data, false if cursor is exhausted
+	 */
+	public boolean advance()
+	{
+		head = null;
+		if (messages.hasNext())
+		{
+			head = messages.next();
+			return true;
+		}
+		
+		if (!batches.hasNext())
+		{
+			pendingBatch = null;
+			return false;
+		}
+		
+		pendingBatch = batches.next();
+		return true;
+	}
+	
+	/**
+	 * Decodes pending batch and moves cursor to its first message matching the filter
+	 * @return true if cursor has data, false if cursor is exhausted
+	 * @throws IOException if batch decoding failed
+	 */
+	public boolean decode() throws IOException
+	{
+		messages = MessageBatchFilterMatcher.getMatchingMessages(filter, pendingBatch).iterator();
+		pendingBatch = null;
+		return advance();
+	}
+	
+	/**
+	 * @return true if cursor points to batch that is not decoded yet
+	 */
+	public boolean isPending()
+	{
+		return pendingBatch != null;
+	}
+	
+	/**
+	 * @return message the cursor points to or null if cursor points to batch that is not decoded yet
+	 */
+	public StoredMessage getHead()
+	{
+		return head;
+	}
+	
+	/**
+	 * @return timestamp of message the cursor points to. 
+	 * If cursor points to batch that is not decoded yet, returns the nearest timestamp of messages in the batch according to order
+	 */
+	public Instant getTimestamp()
+	{
+		if (head != null)
+			return head.getTimestamp();
+		return order == Order.DIRECT ? pendingBatch.getFirstMessageTimestamp() : pendingBatch.getLastMessageTimestamp();
+	}
+}
@@ -17,8 +17,8 @@
 package com.exactpro.cradle.cassandra.iterators;
 
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 
-import com.exactpro.cradle.Order;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,10 +41,22 @@ public class MessagesIterator implements Iterator<StoredMessage>
 	
 	public MessagesIterator(StoredMessageFilter filter, MappedAsyncPagingIterable<DetailedMessageBatchEntity> rows,
 			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo)
+	{
+		this(filter, rows, pagingSupplies, converter, queryInfo, null, 0);
+	}
+	
+	public MessagesIterator(StoredMessageFilter filter, MappedAsyncPagingIterable<DetailedMessageBatchEntity> rows,
+			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo,
+			ExecutorService decodingExecutor, int decodingLookahead)
+	{
+		this(filter, new MessageBatchIterator(rows, filter,
+				pagingSupplies, converter, queryInfo, decodingExecutor, decodingLookahead));
+	}
+	
+	MessagesIterator(StoredMessageFilter filter, MessageBatchIterator batchIterator)
 	{
 		this.filter = filter;
-		this.batchIterator = new MessageBatchIterator(rows, filter == null ? Order.DIRECT : filter.getOrder(),
-				pagingSupplies, converter, queryInfo);
+		this.batchIterator = batchIterator;
 	}
 	
 	
@@ -52,15 +64,21 @@ public class MessagesIterator implements Iterator<StoredMessage>
 	public boolean hasNext()
 	{
 		if (filter != null && filter.getLimit() > 0 && returnedMessages >= filter.getLimit())
+		{
+			batchIterator.cancel();
 			return false;
+		}
 
 		if (messagesIterator == null)
 			messagesIterator = getNextMessagesIterator();
 
 		while (messagesIterator != null)
 		{
-			if ((nextMessage = checkNext()) != null)
+			if (messagesIterator.hasNext())
+			{
+				nextMessage = messagesIterator.next();
 				return true;
+			}
 
 			messagesIterator = getNextMessagesIterator();
 		}
@@ -71,6 +89,8 @@ public class MessagesIterator implements Iterator<StoredMessage>
 	private Iterator<StoredMessage> getNextMessagesIterator()
 	{
 		logger.trace("Getting messages from next batch");
+		if (filter != null && filter.getLimit() > 0)
+			batchIterator.setMessagesLeft(filter.getLimit()-returnedMessages);
 		if (batchIterator.hasNext())
 			return batchIterator.next().iterator();
 
@@ -91,33 +111,4 @@ public class MessagesIterator implements Iterator<StoredMessage>
 		returnedMessages++;
 		return result;
 	}
-	
-	
-	private StoredMessage checkNext()
-	{
-		while (messagesIterator.hasNext())
-		{
-			StoredMessage msg = messagesIterator.next();
-			if (checkFilter(msg))
-				return msg;
-		}
-		return null;
-	}
-	
-	private boolean checkFilter(StoredMessage message)
-	{
-		if (filter == null)
-			return true;
-		
-		if (filter.getLeftBoundIndex() > -1 && message.getIndex() < filter.getLeftBoundIndex())
-			return false;
-		
-		if (filter.getIndex() != null && !filter.getIndex().check(message.getIndex()))
-			return false;
-		if (filter.getTimestampFrom() != null && !filter.getTimestampFrom().check(message.getTimestamp()))
-			return false;
-		if (filter.getTimestampTo() != null && !filter.getTimestampTo().check(message.getTimestamp()))
-			return false;
-		return true;
-	}
 }
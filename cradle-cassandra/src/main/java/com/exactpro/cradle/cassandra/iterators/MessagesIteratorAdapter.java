@@ -17,6 +17,7 @@
 package com.exactpro.cradle.cassandra.iterators;
 
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 
 import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.PagingIterable;
@@ -31,6 +32,7 @@ import com.exactpro.cradle.messages.StoredMessageFilter;
  * Wrapper for {@link PagingIterable}. 
  * Converts {@link MessageBatchEntity} into {@link StoredMessage} while iterating.
  * Also applies given filter to exclude unnecessary results for iterator.
+ * If executor for decoding is given, batches are decoded in advance by that executor.
  */
 public class MessagesIteratorAdapter implements Iterable<StoredMessage>
 {
@@ -39,20 +41,32 @@ public class MessagesIteratorAdapter implements Iterable<StoredMessage>
 	private final PagingSupplies pagingSupplies;
 	private final DetailedMessageBatchConverter converter;
 	private final String queryInfo;
+	private final ExecutorService decodingExecutor;
+	private final int decodingLookahead;
 	
 	public MessagesIteratorAdapter(StoredMessageFilter filter, MappedAsyncPagingIterable<DetailedMessageBatchEntity> entities,
 			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo)
+	{
+		this(filter, entities, pagingSupplies, converter, queryInfo, null, 0);
+	}
+	
+	public MessagesIteratorAdapter(StoredMessageFilter filter, MappedAsyncPagingIterable<DetailedMessageBatchEntity> entities,
+			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo,
+			ExecutorService decodingExecutor, int decodingLookahead)
 	{
 		this.filter = filter;
 		this.entities = entities;
 		this.pagingSupplies = pagingSupplies;
 		this.converter = converter;
 		this.queryInfo = queryInfo;
+		this.decodingExecutor = decodingExecutor;
+		this.decodingLookahead = decodingLookahead;
 	}
 	
 	@Override
 	public Iterator<StoredMessage> iterator()
 	{
-		return new MessagesIterator(filter, entities, pagingSupplies, converter, queryInfo);
+		return new MessagesIterator(filter, entities, pagingSupplies, converter, queryInfo,
+				decodingExecutor, decodingLookahead);
 	}
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
+import com.exactpro.cradle.cassandra.dao.messages.converters.DetailedMessageBatchConverter;
+import com.exactpro.cradle.cassandra.retries.PagingSupplies;
+import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageFilter;
+
+/**
+ * Publisher of messages from batches retrieved from Cassandra. 
+ * Applies given filter the same way as {@link MessagesIterator} does
+ */
+public class MessagesPublisher extends PagedPublisher<StoredMessage, DetailedMessageBatchEntity>
+{
+	private final StoredMessageFilter filter;
+	
+	public MessagesPublisher(StoredMessageFilter filter, Supplier<CompletableFuture<MappedAsyncPagingIterable<DetailedMessageBatchEntity>>> query,
+			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo, Executor queryExecutor)
+	{
+		super(query, pagingSupplies, converter, queryInfo, queryExecutor);
+		this.filter = filter;
+	}
+	
+	
+	@Override
+	protected Iterator<StoredMessage> convertEntity(DetailedMessageBatchEntity entity) throws Exception
+	{
+		return MessageBatchFilterMatcher.getMatchingMessages(filter, entity).iterator();
+	}
+	
+	@Override
+	protected boolean isFinished(long published)
+	{
+		return filter != null && filter.getLimit() > 0 && published >= filter.getLimit();
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.exactpro.cradle.Order;
+import com.exactpro.cradle.messages.StoredMessage;
+
+/**
+ * Iterator that merges messages of several streams and directions by timestamp. 
+ * Cursors are kept in a heap ordered by timestamp of message they point to. 
+ * Batch that is not decoded yet is ordered by its first (or last, for reverse order) message timestamp, 
+ * so it is decoded only when messages from it are really needed
+ */
+public class MultiStreamMessagesIterator implements Iterator<StoredMessage>
+{
+	private static final Logger logger = LoggerFactory.getLogger(MultiStreamMessagesIterator.class);
+	
+	private final PriorityQueue<MessageStreamCursor> cursors;
+	private final int limit;
+	private long returnedMessages;
+	private StoredMessage nextMessage;
+	
+	public MultiStreamMessagesIterator(Collection<MessageStreamCursor> cursors, Order order, int limit)
+	{
+		Comparator<MessageStreamCursor> comparator = createComparator(order);
+		this.cursors = new PriorityQueue<>(Math.max(cursors.size(), 1), comparator);
+		for (MessageStreamCursor c : cursors)
+		{
+			if (c.advance())
+				this.cursors.add(c);
+		}
+		this.limit = limit;
+	}
+	
+	
+	@Override
+	public boolean hasNext()
+	{
+		if (nextMessage != null)
+			return true;
+		
+		if (limit > 0 && returnedMessages >= limit)
+			return false;
+		
+		while (!cursors.isEmpty())
+		{
+			MessageStreamCursor cursor = cursors.poll();
+			if (cursor.isPending())
+			{
+				logger.trace("Decoding next batch to merge messages");
+				try
+				{
+					if (cursor.decode())
+						cursors.add(cursor);
+				}
+				catch (IOException e)
+				{
+					throw new RuntimeException("Error while decoding message batch", e);
+				}
+				continue;
+			}
+			
+			nextMessage = cursor.getHead();
+			if (cursor.advance())
+				cursors.add(cursor);
+			return true;
+		}
+		return false;
+	}
+	
+	@Override
+	public StoredMessage next()
+	{
+		if (!hasNext())
+			return null;
+		
+		StoredMessage result = nextMessage;
+		nextMessage = null;
+		returnedMessages++;
+		return result;
+	}
+	
+	
+	private Comparator<MessageStreamCursor> createComparator(Order order)
+	{
+		Comparator<MessageStreamCursor> byTimestamp = Comparator.comparing(MessageStreamCursor::getTimestamp);
+		if (order == Order.REVERSE)
+			byTimestamp = byTimestamp.reversed();
+		
+		//Batches not decoded yet go first for the same timestamp because they may contain messages with that timestamp
+		Comparator<MessageStreamCursor> result = byTimestamp.thenComparing(c -> !c.isPending());
+		Comparator<MessageStreamCursor> directById = Comparator.comparing((MessageStreamCursor c) -> c.getHead().getStreamName())
+				.thenComparing(c -> c.getHead().getDirection())
+				.thenComparingLong(c -> c.getHead().getIndex());
+		Comparator<MessageStreamCursor> byId = order == Order.REVERSE ? directById.reversed() : directById;
+		return result.thenComparing((c1, c2) -> c1.isPending() || c2.isPending() ? 0 : byId.compare(c1, c2));
+	}
+}
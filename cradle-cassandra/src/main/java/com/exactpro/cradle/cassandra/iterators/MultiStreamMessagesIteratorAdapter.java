@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
+import com.exactpro.cradle.cassandra.dao.messages.converters.DetailedMessageBatchConverter;
+import com.exactpro.cradle.cassandra.retries.PagingSupplies;
+import com.exactpro.cradle.messages.MultiStreamMessageFilter;
+import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageFilter;
+
+/**
+ * Wrapper for results of queries for messages of several streams and directions. 
+ * Merges messages of all streams and directions by timestamp while iterating
+ */
+public class MultiStreamMessagesIteratorAdapter implements Iterable<StoredMessage>
+{
+	private final MultiStreamMessageFilter filter;
+	private final List<StoredMessageFilter> streamFilters;
+	private final List<MappedAsyncPagingIterable<DetailedMessageBatchEntity>> entities;
+	private final PagingSupplies pagingSupplies;
+	private final DetailedMessageBatchConverter converter;
+	private final String queryInfo;
+	
+	/**
+	 * @param filter for messages of all streams
+	 * @param streamFilters filters for each stream and direction
+	 * @param entities query results for each stream and direction, in the same order as streamFilters
+	 * @param pagingSupplies to fetch next result pages
+	 * @param converter to convert result rows into entities
+	 * @param queryInfo description of queries
+	 */
+	public MultiStreamMessagesIteratorAdapter(MultiStreamMessageFilter filter, List<StoredMessageFilter> streamFilters,
+			List<MappedAsyncPagingIterable<DetailedMessageBatchEntity>> entities,
+			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo)
+	{
+		this.filter = filter;
+		this.streamFilters = streamFilters;
+		this.entities = entities;
+		this.pagingSupplies = pagingSupplies;
+		this.converter = converter;
+		this.queryInfo = queryInfo;
+	}
+	
+	@Override
+	public Iterator<StoredMessage> iterator()
+	{
+		List<MessageStreamCursor> cursors = new ArrayList<>(entities.size());
+		for (int i = 0; i < entities.size(); i++)
+		{
+			StoredMessageFilter f = streamFilters.get(i);
+			cursors.add(new MessageStreamCursor(new PagedIterator<>(entities.get(i), pagingSupplies, converter, queryInfo+" ("+f+")"), f));
+		}
+		return new MultiStreamMessagesIterator(cursors, filter.getOrder(), filter.getLimit());
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterator over results of several queries that return data of consecutive non-overlapping ranges, 
+ * e.g. of partitions for consecutive days. Results are returned in the order of queries. 
+ * Queries are executed in advance, limiting number of queries whose results are not consumed yet
+ * @param <T> class of objects to iterate over
+ */
+public class OrderedQueriesIterator<T> implements Iterator<T>
+{
+	private static final Logger logger = LoggerFactory.getLogger(OrderedQueriesIterator.class);
+	
+	private final Iterator<Supplier<CompletableFuture<Iterator<T>>>> queries;
+	private final int parallelism;
+	private final String queryInfo;
+	private final Deque<CompletableFuture<Iterator<T>>> started;
+	private Iterator<T> current = Collections.emptyIterator();
+	
+	/**
+	 * Creates iterator and executes first queries
+	 * @param queries suppliers of query results in order in which the results should be returned
+	 * @param parallelism max number of queries to execute in advance
+	 * @param queryInfo description of queries
+	 */
+	public OrderedQueriesIterator(List<Supplier<CompletableFuture<Iterator<T>>>> queries, int parallelism, String queryInfo)
+	{
+		this.queries = queries.iterator();
+		this.parallelism = Math.max(parallelism, 1);
+		this.queryInfo = queryInfo;
+		this.started = new ArrayDeque<>(this.parallelism);
+		while (started.size() < this.parallelism && this.queries.hasNext())
+			started.add(this.queries.next().get());
+	}
+	
+	
+	@Override
+	public boolean hasNext()
+	{
+		while (!current.hasNext())
+		{
+			CompletableFuture<Iterator<T>> next = started.poll();
+			if (next == null)
+				return false;
+			
+			if (queries.hasNext())
+				started.add(queries.next().get());
+			
+			try
+			{
+				current = next.get();
+			}
+			catch (Exception e)
+			{
+				throw new RuntimeException("Error while getting next result of "+queryInfo, e);
+			}
+			logger.trace("Switched to next query result for '{}'", queryInfo);
+		}
+		return true;
+	}
+	
+	@Override
+	public T next()
+	{
+		if (!hasNext())
+			throw new NoSuchElementException();
+		return current.next();
+	}
+	
+	
+	/**
+	 * @return future that completes when result of the first query is obtained, failing if the query failed. 
+	 * Completes immediately if there are no queries
+	 */
+	public CompletableFuture<Void> getFirstResult()
+	{
+		CompletableFuture<Iterator<T>> first = started.peek();
+		return first != null ? first.thenAccept(r -> {}) : CompletableFuture.completedFuture(null);
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Wrapper for results of several queries that return data of consecutive non-overlapping ranges. 
+ * The first iterator uses queries executed when the wrapper was created, next iterators execute the queries again
+ * @param <T> class of objects to iterate over
+ */
+public class OrderedQueriesIteratorAdapter<T> implements Iterable<T>
+{
+	private final List<Supplier<CompletableFuture<Iterator<T>>>> queries;
+	private final int parallelism;
+	private final String queryInfo;
+	private final AtomicReference<OrderedQueriesIterator<T>> firstIterator;
+	
+	public OrderedQueriesIteratorAdapter(List<Supplier<CompletableFuture<Iterator<T>>>> queries, int parallelism, String queryInfo)
+	{
+		this.queries = queries;
+		this.parallelism = parallelism;
+		this.queryInfo = queryInfo;
+		this.firstIterator = new AtomicReference<>(new OrderedQueriesIterator<>(queries, parallelism, queryInfo));
+	}
+	
+	
+	/**
+	 * @return future that completes with this object when result of the first query is obtained
+	 */
+	public CompletableFuture<Iterable<T>> whenStarted()
+	{
+		OrderedQueriesIterator<T> it = firstIterator.get();
+		if (it == null)
+			return CompletableFuture.completedFuture(this);
+		return it.getFirstResult().thenApply(r -> this);
+	}
+	
+	@Override
+	public Iterator<T> iterator()
+	{
+		OrderedQueriesIterator<T> it = firstIterator.getAndSet(null);
+		return it != null ? it : new OrderedQueriesIterator<>(queries, parallelism, queryInfo);
+	}
+}
@@ -120,8 +120,12 @@ public class PagedIterator<E> implements Iterator<E>
 		{
 			try
 			{
-				return session.executeAsync(stmt).thenApply(next -> new AsyncPagingIterableWrapper<Row, E>(next, mapper))
+				long start = System.nanoTime();
+				MappedAsyncPagingIterable<E> result = session.executeAsync(stmt)
+						.thenApply(next -> new AsyncPagingIterableWrapper<Row, E>(next, mapper))
 						.toCompletableFuture().get();
+				RetryUtils.notifyPageFetched(pagingSupplies.getExecPolicy(), queryInfo, result, start);
+				return result;
 			}
 			catch (Exception e)
 			{
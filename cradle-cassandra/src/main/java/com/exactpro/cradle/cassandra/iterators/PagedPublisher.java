@@ -0,0 +1,327 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.exactpro.cradle.cassandra.dao.EntityConverter;
+import com.exactpro.cradle.cassandra.retries.PagingSupplies;
+
+/**
+ * Publisher of objects converted from entities retrieved from Cassandra.
+ * Query is executed when subscriber requests the first object, next result pages are fetched asynchronously 
+ * when subscriber requests more objects than current page contains. 
+ * No thread is blocked while waiting for result pages. Cancelled subscription stops fetching of result pages.
+ * Publisher can be created for several queries, e.g. for partitions of consecutive days. 
+ * In this case the next query is executed when all results of the previous one are published. 
+ * Queries are started by separate executor, because waiting for a free query slot would otherwise block the thread 
+ * that requested objects or completed fetching of previous page.
+ * Each subscriber gets its own query execution
+ * @param <R> - class of objects to publish
+ * @param <E> - class of entities obtained from Cassandra
+ */
+public abstract class PagedPublisher<R, E> implements Flow.Publisher<R>
+{
+	private static final Logger logger = LoggerFactory.getLogger(PagedPublisher.class);
+	
+	private final List<Supplier<CompletableFuture<MappedAsyncPagingIterable<E>>>> queries;
+	private final AsyncPageReader<E> pageReader;
+	private final Executor queryExecutor;
+	protected final String queryInfo;
+	
+	public PagedPublisher(Supplier<CompletableFuture<MappedAsyncPagingIterable<E>>> query, 
+			PagingSupplies pagingSupplies, EntityConverter<E> converter, String queryInfo, Executor queryExecutor)
+	{
+		this(Collections.singletonList(query), pagingSupplies, converter, queryInfo, queryExecutor);
+	}
+	
+	/**
+	 * Creates publisher of results of several queries
+	 * @param queries to execute one after another. Results of queries are published in the same order
+	 * @param pagingSupplies to fetch next result pages
+	 * @param converter to convert result rows into entities
+	 * @param queryInfo description of queries
+	 * @param queryExecutor to start queries by
+	 */
+	public PagedPublisher(List<Supplier<CompletableFuture<MappedAsyncPagingIterable<E>>>> queries, 
+			PagingSupplies pagingSupplies, EntityConverter<E> converter, String queryInfo, Executor queryExecutor)
+	{
+		this.queries = queries;
+		this.pageReader = new AsyncPageReader<>(pagingSupplies, converter, queryInfo);
+		this.queryExecutor = queryExecutor;
+		this.queryInfo = queryInfo;
+	}
+	
+	
+	/**
+	 * Converts entity obtained from Cassandra into objects to publish
+	 * @param entity to convert
+	 * @return iterator of objects to publish. Can be empty if entity doesn't contain objects to publish
+	 * @throws Exception if conversion failed
+	 */
+	protected abstract Iterator<R> convertEntity(E entity) throws Exception;
+	
+	/**
+	 * Checks if publishing should be finished before all entities are processed, e.g. because of limit
+	 * @param published number of objects already published to subscriber
+	 * @return true if no more objects should be published
+	 */
+	protected boolean isFinished(long published)
+	{
+		return false;
+	}
+	
+	
+	@Override
+	public void subscribe(Flow.Subscriber<? super R> subscriber)
+	{
+		if (subscriber == null)
+			throw new NullPointerException("Subscriber cannot be null");
+		
+		subscriber.onSubscribe(new PageSubscription(subscriber));
+	}
+	
+	
+	private class PageSubscription implements Flow.Subscription
+	{
+		private final Flow.Subscriber<? super R> subscriber;
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private volatile boolean cancelled;
+		private volatile MappedAsyncPagingIterable<E> fetchedPage;
+		private volatile Throwable fetchError;
+		
+		//Accessed only while draining, i.e. by one thread at a time
+		private boolean started,
+				fetching,
+				done;
+		private int nextQuery;
+		private MappedAsyncPagingIterable<E> rows;
+		private Iterator<E> rowsIterator = Collections.emptyIterator();
+		private Iterator<R> objects = Collections.emptyIterator();
+		private long published;
+		
+		public PageSubscription(Flow.Subscriber<? super R> subscriber)
+		{
+			this.subscriber = subscriber;
+		}
+		
+		
+		@Override
+		public void request(long n)
+		{
+			if (n <= 0)
+			{
+				fetchError = new IllegalArgumentException("Number of requested objects should be positive, but got "+n);
+				drain();
+				return;
+			}
+			
+			requested.accumulateAndGet(n, (current, add) -> {
+				long sum = current+add;
+				return sum < 0 ? Long.MAX_VALUE : sum;  //Overflow means unbounded demand
+			});
+			drain();
+		}
+		
+		@Override
+		public void cancel()
+		{
+			logger.debug("Subscription for '{}' cancelled", queryInfo);
+			cancelled = true;
+			drain();  //To release fetched rows
+		}
+		
+		
+		private void drain()
+		{
+			if (wip.getAndIncrement() != 0)
+				return;
+			
+			int missed = 1;
+			do
+			{
+				try
+				{
+					emit();
+				}
+				catch (Throwable e)
+				{
+					fail(e);
+				}
+				missed = wip.addAndGet(-missed);
+			}
+			while (missed != 0);
+		}
+		
+		private void emit() throws Exception
+		{
+			if (cancelled)
+			{
+				release();
+				return;
+			}
+			
+			if (done)
+				return;
+			
+			Throwable error = fetchError;
+			if (error != null)
+			{
+				fail(error);
+				return;
+			}
+			
+			if (fetching)
+			{
+				MappedAsyncPagingIterable<E> page = fetchedPage;
+				if (page == null)
+					return;
+				
+				fetchedPage = null;
+				fetching = false;
+				rows = page;
+				rowsIterator = page.currentPage().iterator();
+			}
+			
+			while (!cancelled)
+			{
+				if (isFinished(published))
+				{
+					complete();
+					return;
+				}
+				
+				if (objects.hasNext())
+				{
+					if (requested.get() == 0)
+						return;
+					
+					R next = objects.next();
+					published++;
+					requested.decrementAndGet();
+					subscriber.onNext(next);
+					continue;
+				}
+				
+				if (rowsIterator.hasNext())
+				{
+					Iterator<R> converted = convertEntity(rowsIterator.next());
+					objects = converted != null ? converted : Collections.emptyIterator();
+					continue;
+				}
+				
+				if (!started)
+				{
+					if (requested.get() == 0)  //Query will be executed on first demand
+						return;
+					
+					started = true;
+					if (queries.isEmpty())
+					{
+						complete();
+						return;
+					}
+					
+					logger.debug("Executing query '{}' for subscriber", queryInfo);
+					startQuery(queries.get(nextQuery++));
+					return;
+				}
+				
+				if (rows.hasMorePages())
+				{
+					if (requested.get() == 0)
+						return;
+					
+					startFetching(pageReader.fetchNextPage(rows));
+					return;
+				}
+				
+				if (nextQuery < queries.size())
+				{
+					if (requested.get() == 0)
+						return;
+					
+					logger.debug("Executing query {} of {} for '{}'", nextQuery+1, queries.size(), queryInfo);
+					startQuery(queries.get(nextQuery++));
+					return;
+				}
+				
+				complete();
+				return;
+			}
+		}
+		
+		private void startQuery(Supplier<CompletableFuture<MappedAsyncPagingIterable<E>>> query)
+		{
+			startFetching(CompletableFuture.supplyAsync(query, queryExecutor).thenCompose(f -> f));
+		}
+		
+		private void startFetching(CompletableFuture<MappedAsyncPagingIterable<E>> future)
+		{
+			fetching = true;
+			future.whenComplete((page, error) -> {
+				if (cancelled)
+					return;
+				
+				if (error != null)
+					fetchError = error;
+				else
+					fetchedPage = page;
+				drain();
+			});
+		}
+		
+		private void release()
+		{
+			done = true;
+			fetchedPage = null;
+			rows = null;
+			rowsIterator = Collections.emptyIterator();
+			objects = Collections.emptyIterator();
+		}
+		
+		private void complete()
+		{
+			release();
+			logger.debug("All data published for '{}'", queryInfo);
+			subscriber.onComplete();
+		}
+		
+		private void fail(Throwable error)
+		{
+			if (done)
+				return;
+			
+			release();
+			logger.error("Error while publishing data for '"+queryInfo+"'", error);
+			subscriber.onError(error);
+		}
+	}
+}
@@ -16,15 +16,15 @@
 
 package com.exactpro.cradle.cassandra.iterators;
 
-import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.exactpro.cradle.cassandra.cache.TestEventBatchMetadataCache;
 import com.exactpro.cradle.cassandra.dao.testevents.RootTestEventEntity;
 import com.exactpro.cradle.cassandra.dao.testevents.converters.RootTestEventConverter;
 import com.exactpro.cradle.cassandra.retries.PagingSupplies;
-import com.exactpro.cradle.testevents.StoredTestEventMetadata;
 
-public class RootTestEventsMetadataIterator extends ConvertingPagedIterator<StoredTestEventMetadata, RootTestEventEntity>
+public class RootTestEventsMetadataIterator extends TestEventsMetadataIterator<RootTestEventEntity>
 {
 	public RootTestEventsMetadataIterator(MappedAsyncPagingIterable<RootTestEventEntity> rows, 
 			PagingSupplies pagingSupplies, RootTestEventConverter converter, String queryInfo)
@@ -32,9 +32,10 @@ public class RootTestEventsMetadataIterator extends ConvertingPagedIterator<Stor
 		super(rows, pagingSupplies, converter, queryInfo);
 	}
 	
-	@Override
-	protected StoredTestEventMetadata convertEntity(RootTestEventEntity entity) throws IOException
+	public RootTestEventsMetadataIterator(MappedAsyncPagingIterable<RootTestEventEntity> rows, 
+			PagingSupplies pagingSupplies, RootTestEventConverter converter, String queryInfo, 
+			ExecutorService decodingExecutor, int decodingLookahead, TestEventBatchMetadataCache batchMetadataCache)
 	{
-		return entity.toStoredTestEventMetadata();
+		super(rows, pagingSupplies, converter, queryInfo, decodingExecutor, decodingLookahead, batchMetadataCache);
 	}
 }
@@ -24,6 +24,7 @@ import com.exactpro.cradle.cassandra.retries.PagingSupplies;
 import com.exactpro.cradle.messages.StoredMessageBatch;
 
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 
 public class StoredMessageBatchAdapter implements Iterable<StoredMessageBatch>
 {
@@ -33,10 +34,19 @@ public class StoredMessageBatchAdapter implements Iterable<StoredMessageBatch>
 	private final String queryInfo;
 	private final CradleObjectsFactory objectsFactory;
 	private int limit;
+	private final ExecutorService decodingExecutor;
+	private final int decodingLookahead;
 	
 	public StoredMessageBatchAdapter(MappedAsyncPagingIterable<DetailedMessageBatchEntity> entities,
 			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo,
 			CradleObjectsFactory objectsFactory, int limit)
+	{
+		this(entities, pagingSupplies, converter, queryInfo, objectsFactory, limit, null, 0);
+	}
+	
+	public StoredMessageBatchAdapter(MappedAsyncPagingIterable<DetailedMessageBatchEntity> entities,
+			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo,
+			CradleObjectsFactory objectsFactory, int limit, ExecutorService decodingExecutor, int decodingLookahead)
 	{
 		this.entities = entities;
 		this.pagingSupplies = pagingSupplies;
@@ -44,11 +54,14 @@ public class StoredMessageBatchAdapter implements Iterable<StoredMessageBatch>
 		this.queryInfo = queryInfo;
 		this.objectsFactory = objectsFactory;
 		this.limit = limit;
+		this.decodingExecutor = decodingExecutor;
+		this.decodingLookahead = decodingLookahead;
 	}
 
 	@Override
 	public Iterator<StoredMessageBatch> iterator()
 	{
-		return new StoredMessageBatchIterator(entities, pagingSupplies, converter, queryInfo, objectsFactory, limit);
+		return new StoredMessageBatchIterator(entities, pagingSupplies, converter, queryInfo, objectsFactory, limit,
+				decodingExecutor, decodingLookahead);
 	}
 }
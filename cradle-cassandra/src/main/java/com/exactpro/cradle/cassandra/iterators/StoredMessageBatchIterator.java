@@ -25,6 +25,7 @@ import com.exactpro.cradle.messages.StoredMessageBatch;
 import com.exactpro.cradle.utils.CradleStorageException;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 public class StoredMessageBatchIterator extends ConvertingPagedIterator<StoredMessageBatch, DetailedMessageBatchEntity>
 {
@@ -36,7 +37,14 @@ public class StoredMessageBatchIterator extends ConvertingPagedIterator<StoredMe
 			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo,
 			CradleObjectsFactory objectsFactory, int limit)
 	{
-		super(rows, pagingSupplies, converter, queryInfo);
+		this(rows, pagingSupplies, converter, queryInfo, objectsFactory, limit, null, 0);
+	}
+	
+	public StoredMessageBatchIterator(MappedAsyncPagingIterable<DetailedMessageBatchEntity> rows,
+			PagingSupplies pagingSupplies, DetailedMessageBatchConverter converter, String queryInfo,
+			CradleObjectsFactory objectsFactory, int limit, ExecutorService decodingExecutor, int decodingLookahead)
+	{
+		super(rows, pagingSupplies, converter, queryInfo, decodingExecutor, decodingLookahead);
 		this.objectsFactory = objectsFactory;
 		this.limit = limit;
 	}
@@ -45,7 +53,10 @@ public class StoredMessageBatchIterator extends ConvertingPagedIterator<StoredMe
 	public boolean hasNext()
 	{
 		if (limit > 0 && returnedEntities >= limit)
+		{
+			cancel();
 			return false;
+		}
 
 		return super.hasNext();
 	}
@@ -57,6 +68,15 @@ public class StoredMessageBatchIterator extends ConvertingPagedIterator<StoredMe
 		return super.next();
 	}
 
+	@Override
+	protected int getLookahead()
+	{
+		if (limit <= 0)
+			return super.getLookahead();
+		//returnedEntities already includes the batch to return next
+		return (int)Math.min(super.getLookahead(), limit - returnedEntities + 1);
+	}
+
 	@Override
 	protected StoredMessageBatch convertEntity(DetailedMessageBatchEntity entity) throws IOException
 	{
@@ -16,15 +16,15 @@
 
 package com.exactpro.cradle.cassandra.iterators;
 
-import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.exactpro.cradle.cassandra.cache.TestEventBatchMetadataCache;
 import com.exactpro.cradle.cassandra.dao.testevents.TestEventChildEntity;
 import com.exactpro.cradle.cassandra.dao.testevents.converters.TestEventChildConverter;
 import com.exactpro.cradle.cassandra.retries.PagingSupplies;
-import com.exactpro.cradle.testevents.StoredTestEventMetadata;
 
-public class TestEventChildrenMetadataIterator extends ConvertingPagedIterator<StoredTestEventMetadata, TestEventChildEntity>
+public class TestEventChildrenMetadataIterator extends TestEventsMetadataIterator<TestEventChildEntity>
 {
 	public TestEventChildrenMetadataIterator(MappedAsyncPagingIterable<TestEventChildEntity> rows,
 			PagingSupplies pagingSupplies, TestEventChildConverter converter, String queryInfo)
@@ -32,9 +32,10 @@ public class TestEventChildrenMetadataIterator extends ConvertingPagedIterator<S
 		super(rows, pagingSupplies, converter, queryInfo);
 	}
 	
-	@Override
-	protected StoredTestEventMetadata convertEntity(TestEventChildEntity entity) throws IOException
+	public TestEventChildrenMetadataIterator(MappedAsyncPagingIterable<TestEventChildEntity> rows,
+			PagingSupplies pagingSupplies, TestEventChildConverter converter, String queryInfo, 
+			ExecutorService decodingExecutor, int decodingLookahead, TestEventBatchMetadataCache batchMetadataCache)
 	{
-		return entity.toStoredTestEventMetadata();
+		super(rows, pagingSupplies, converter, queryInfo, decodingExecutor, decodingLookahead, batchMetadataCache);
 	}
 }
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.exactpro.cradle.cassandra.cache.TestEventBatchMetadataCache;
+import com.exactpro.cradle.testevents.BatchedStoredTestEventMetadata;
+import com.exactpro.cradle.testevents.StoredTestEvent;
+import com.exactpro.cradle.testevents.StoredTestEventBatchMetadata;
+import com.exactpro.cradle.testevents.StoredTestEventId;
+import com.exactpro.cradle.testevents.StoredTestEventMetadata;
+import com.exactpro.cradle.testevents.TestEventTreeNode;
+
+/**
+ * Loads descendants of test event, requesting children of several parents and of several dates in parallel. 
+ * Number of queries executed at once is limited, metadata of test event batches is decoded in parallel by given executor. 
+ * Loading pauses while number of loaded test events not yet taken by iterator reaches the limit. 
+ * Test events are returned in order of arrival, each test event is returned after its parent. 
+ * Loading can be stopped before all test events are returned by closing the loader
+ */
+public class TestEventTreeLoader implements Iterable<TestEventTreeNode>, AutoCloseable
+{
+	private final Function<StoredTestEventId, CompletableFuture<Collection<LocalDate>>> datesQuery;
+	private final BiFunction<StoredTestEventId, LocalDate, CompletableFuture<Iterator<StoredTestEventMetadata>>> childrenQuery;
+	private final int maxDepth,
+			parallelism,
+			maxBufferedNodes;
+	private final Executor queryExecutor,
+			executor;
+	private final TestEventBatchMetadataCache batchMetadataCache;
+	private final ArrivalOrderIterator<TestEventTreeNode> nodes;
+	private final Iterator<TestEventTreeNode> nodesIterator = new NodesIterator();
+	private final Deque<Supplier<CompletableFuture<Void>>> queued = new ArrayDeque<>();
+	private int running,
+			outstanding,
+			bufferedNodes;
+	private boolean stopped;
+	
+	/**
+	 * @param datesQuery returns dates when children of given test event started
+	 * @param childrenQuery returns children of given test event started at given date
+	 * @param maxDepth max depth of test events to load, 0 means no limit
+	 * @param parallelism max number of queries to execute at once
+	 * @param maxBufferedNodes max number of loaded test events not yet taken by iterator, 
+	 * new queries are not executed while this number is reached. 0 means no limit
+	 * @param queryExecutor to execute queries and to iterate over their results. Its threads can be blocked while waiting for the results
+	 * @param executor to decode metadata of test event batches
+	 * @param batchMetadataCache cache to get metadata of test event batches from and to put decoded metadata into. Can be null
+	 * @param queryInfo description of the loading
+	 */
+	public TestEventTreeLoader(Function<StoredTestEventId, CompletableFuture<Collection<LocalDate>>> datesQuery,
+			BiFunction<StoredTestEventId, LocalDate, CompletableFuture<Iterator<StoredTestEventMetadata>>> childrenQuery,
+			int maxDepth, int parallelism, int maxBufferedNodes, Executor queryExecutor, Executor executor, 
+			TestEventBatchMetadataCache batchMetadataCache, String queryInfo)
+	{
+		this.datesQuery = datesQuery;
+		this.childrenQuery = childrenQuery;
+		this.maxDepth = maxDepth;
+		this.parallelism = Math.max(parallelism, 1);
+		this.maxBufferedNodes = maxBufferedNodes;
+		this.queryExecutor = queryExecutor;
+		this.executor = executor;
+		this.batchMetadataCache = batchMetadataCache;
+		this.nodes = new ArrivalOrderIterator<>(queryInfo);
+	}
+	
+	
+	/**
+	 * Starts loading of descendants of given test event. Queries are executed by query executor, not by the calling thread
+	 * @param rootId ID of test event to load descendants of
+	 * @return this loader to iterate over loaded test events
+	 */
+	public TestEventTreeLoader start(StoredTestEventId rootId)
+	{
+		started();
+		expand(rootId, 0);
+		completed(null);
+		return this;
+	}
+	
+	@Override
+	public Iterator<TestEventTreeNode> iterator()
+	{
+		return nodesIterator;
+	}
+	
+	/**
+	 * Stops loading: queued queries are not executed and results of running ones are ignored. 
+	 * Iterator returns test events loaded before closing and then ends
+	 */
+	@Override
+	public void close()
+	{
+		synchronized (this)
+		{
+			if (stopped)
+				return;
+			stopped = true;
+			queued.clear();
+		}
+		nodes.finish();
+	}
+	
+	
+	private void expand(StoredTestEventId parentId, int depth)
+	{
+		submit(() -> datesQuery.apply(parentId).thenAccept(dates -> {
+			for (LocalDate date : dates)
+				submit(() -> loadChildren(parentId, date, depth+1));
+		}));
+	}
+	
+	private CompletableFuture<Void> loadChildren(StoredTestEventId parentId, LocalDate date, int depth)
+	{
+		return childrenQuery.apply(parentId, date).thenAcceptAsync(children -> {
+			while (children.hasNext() && !isStopped())
+			{
+				StoredTestEventMetadata child = children.next();
+				if (child.isBatch())
+					decodeBatch(child, depth);
+				else
+					addNode(child, depth);
+			}
+		}, queryExecutor);
+	}
+	
+	private void decodeBatch(StoredTestEventMetadata batch, int depth)
+	{
+		started();
+		CompletableFuture.runAsync(() -> {
+			StoredTestEventBatchMetadata metadata;
+			try
+			{
+				if (batchMetadataCache != null)
+					batchMetadataCache.resolve(batch);
+				metadata = batch.getBatchMetadata();
+			}
+			catch (IOException e)
+			{
+				throw new CompletionException("Error while decoding metadata of test event batch "+batch.getId(), e);
+			}
+			
+			if (metadata != null)
+			{
+				for (BatchedStoredTestEventMetadata event : metadata.getRootTestEvents())
+					addBatchedNode(event, depth);
+			}
+		}, executor).whenComplete((r, error) -> completed(error));
+	}
+	
+	private void addBatchedNode(BatchedStoredTestEventMetadata event, int depth)
+	{
+		addNode(event, depth);
+		if (canGoDeeper(depth))
+		{
+			for (BatchedStoredTestEventMetadata child : event.getChildren())
+				addBatchedNode(child, depth+1);
+		}
+	}
+	
+	private void addNode(StoredTestEvent event, int depth)
+	{
+		synchronized (this)
+		{
+			if (stopped)
+				return;
+			bufferedNodes++;
+		}
+		
+		nodes.add(new TestEventTreeNode(event, depth));
+		if (canGoDeeper(depth))
+			expand(event.getId(), depth);
+	}
+	
+	private boolean canGoDeeper(int depth)
+	{
+		return maxDepth <= 0 || depth < maxDepth;
+	}
+	
+	
+	private void submit(Supplier<CompletableFuture<Void>> query)
+	{
+		synchronized (this)
+		{
+			if (stopped)
+				return;
+			outstanding++;
+			queued.add(query);
+		}
+		runQueued();
+	}
+	
+	private void runQueued()
+	{
+		while (true)
+		{
+			Supplier<CompletableFuture<Void>> query;
+			synchronized (this)
+			{
+				if (stopped || running >= parallelism || queued.isEmpty() 
+						|| (maxBufferedNodes > 0 && bufferedNodes >= maxBufferedNodes))
+					return;
+				query = queued.poll();
+				running++;
+			}
+			
+			//Query is executed by query executor because it may wait for free slot to execute
+			CompletableFuture<Void> future;
+			try
+			{
+				future = CompletableFuture.supplyAsync(query, queryExecutor).thenCompose(f -> f);
+			}
+			catch (Exception e)
+			{
+				future = new CompletableFuture<>();
+				future.completeExceptionally(e);
+			}
+			future.whenComplete((r, error) -> {
+				synchronized (this)
+				{
+					running--;
+				}
+				completed(error);
+				runQueued();
+			});
+		}
+	}
+	
+	private void nodeTaken()
+	{
+		synchronized (this)
+		{
+			bufferedNodes--;
+		}
+		runQueued();
+	}
+	
+	private synchronized boolean isStopped()
+	{
+		return stopped;
+	}
+	
+	private synchronized void started()
+	{
+		outstanding++;
+	}
+	
+	private void completed(Throwable error)
+	{
+		boolean finish;
+		synchronized (this)
+		{
+			if (stopped)
+				return;
+			finish = --outstanding == 0;
+			if (error != null || finish)
+			{
+				stopped = true;
+				queued.clear();
+			}
+		}
+		
+		if (error != null)
+			nodes.fail(error);
+		else if (finish)
+			nodes.finish();
+	}
+	
+	
+	private class NodesIterator implements Iterator<TestEventTreeNode>
+	{
+		@Override
+		public boolean hasNext()
+		{
+			return nodes.hasNext();
+		}
+		
+		@Override
+		public TestEventTreeNode next()
+		{
+			TestEventTreeNode result = nodes.next();
+			nodeTaken();
+			return result;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.exactpro.cradle.cassandra.cache.TestEventBatchMetadataCache;
+import com.exactpro.cradle.cassandra.dao.EntityConverter;
+import com.exactpro.cradle.cassandra.dao.testevents.TestEventMetadataEntity;
+import com.exactpro.cradle.cassandra.retries.PagingSupplies;
+import com.exactpro.cradle.testevents.StoredTestEventMetadata;
+
+/**
+ * Iterator over metadata of test events. 
+ * If executor is given, metadata of test event batches is decoded in advance by that executor. 
+ * If cache of batch metadata is given, batch metadata is taken from the cache or decoded and put into it
+ * @param <E> class of entities obtained from Cassandra
+ */
+public class TestEventsMetadataIterator<E extends TestEventMetadataEntity> extends ConvertingPagedIterator<StoredTestEventMetadata, E>
+{
+	private final TestEventBatchMetadataCache batchMetadataCache;
+	private final boolean decodeBatchMetadata;
+	
+	public TestEventsMetadataIterator(MappedAsyncPagingIterable<E> rows, PagingSupplies pagingSupplies, 
+			EntityConverter<E> converter, String queryInfo)
+	{
+		this(rows, pagingSupplies, converter, queryInfo, null, 0, null);
+	}
+	
+	public TestEventsMetadataIterator(MappedAsyncPagingIterable<E> rows, PagingSupplies pagingSupplies, 
+			EntityConverter<E> converter, String queryInfo, 
+			ExecutorService decodingExecutor, int decodingLookahead, TestEventBatchMetadataCache batchMetadataCache)
+	{
+		super(rows, pagingSupplies, converter, queryInfo, decodingExecutor, decodingLookahead);
+		this.batchMetadataCache = batchMetadataCache;
+		this.decodeBatchMetadata = decodingExecutor != null && decodingLookahead > 0;
+	}
+	
+	
+	@Override
+	protected StoredTestEventMetadata convertEntity(E entity) throws IOException
+	{
+		StoredTestEventMetadata result = entity.toStoredTestEventMetadata();
+		decodeBatchMetadata(result, batchMetadataCache, decodeBatchMetadata);
+		return result;
+	}
+	
+	/**
+	 * Sets batch metadata of given test event from cache or decodes it, if needed
+	 * @param event to get batch metadata for
+	 * @param cache of batch metadata. If null, batch metadata is decoded only if decoding is forced
+	 * @param forceDecoding if true, batch metadata is decoded now instead of the first call of 
+	 * {@link StoredTestEventMetadata#getBatchMetadata()}
+	 * @throws IOException if batch metadata is malformed
+	 */
+	static void decodeBatchMetadata(StoredTestEventMetadata event, TestEventBatchMetadataCache cache, boolean forceDecoding) 
+			throws IOException
+	{
+		if (cache != null)
+			cache.resolve(event);
+		else if (forceDecoding && event.isBatch())
+			event.getBatchMetadata();
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.exactpro.cradle.cassandra.cache.TestEventBatchMetadataCache;
+import com.exactpro.cradle.cassandra.dao.EntityConverter;
+import com.exactpro.cradle.cassandra.dao.testevents.TestEventMetadataEntity;
+import com.exactpro.cradle.cassandra.retries.PagingSupplies;
+import com.exactpro.cradle.testevents.StoredTestEventMetadata;
+
+public class TestEventsMetadataPublisher<E extends TestEventMetadataEntity> extends PagedPublisher<StoredTestEventMetadata, E>
+{
+	private final TestEventBatchMetadataCache batchMetadataCache;
+	
+	public TestEventsMetadataPublisher(Supplier<CompletableFuture<MappedAsyncPagingIterable<E>>> query,
+			PagingSupplies pagingSupplies, EntityConverter<E> converter, String queryInfo, Executor queryExecutor)
+	{
+		super(query, pagingSupplies, converter, queryInfo, queryExecutor);
+		this.batchMetadataCache = null;
+	}
+	
+	public TestEventsMetadataPublisher(List<Supplier<CompletableFuture<MappedAsyncPagingIterable<E>>>> queries,
+			PagingSupplies pagingSupplies, EntityConverter<E> converter, String queryInfo, Executor queryExecutor)
+	{
+		this(queries, pagingSupplies, converter, queryInfo, queryExecutor, null);
+	}
+	
+	/**
+	 * Creates publisher that takes metadata of test event batches from given cache or decodes it and puts into the cache
+	 */
+	public TestEventsMetadataPublisher(List<Supplier<CompletableFuture<MappedAsyncPagingIterable<E>>>> queries,
+			PagingSupplies pagingSupplies, EntityConverter<E> converter, String queryInfo, Executor queryExecutor, 
+			TestEventBatchMetadataCache batchMetadataCache)
+	{
+		super(queries, pagingSupplies, converter, queryInfo, queryExecutor);
+		this.batchMetadataCache = batchMetadataCache;
+	}
+	
+	
+	@Override
+	protected Iterator<StoredTestEventMetadata> convertEntity(E entity) throws Exception
+	{
+		StoredTestEventMetadata result = entity.toStoredTestEventMetadata();
+		TestEventsMetadataIterator.decodeBatchMetadata(result, batchMetadataCache, false);
+		return Collections.singletonList(result).iterator();
+	}
+}
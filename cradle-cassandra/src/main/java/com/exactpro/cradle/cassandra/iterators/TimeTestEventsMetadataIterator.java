@@ -16,15 +16,15 @@
 
 package com.exactpro.cradle.cassandra.iterators;
 
-import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.exactpro.cradle.cassandra.cache.TestEventBatchMetadataCache;
 import com.exactpro.cradle.cassandra.dao.testevents.TimeTestEventEntity;
 import com.exactpro.cradle.cassandra.dao.testevents.converters.TimeTestEventConverter;
 import com.exactpro.cradle.cassandra.retries.PagingSupplies;
-import com.exactpro.cradle.testevents.StoredTestEventMetadata;
 
-public class TimeTestEventsMetadataIterator extends ConvertingPagedIterator<StoredTestEventMetadata, TimeTestEventEntity>
+public class TimeTestEventsMetadataIterator extends TestEventsMetadataIterator<TimeTestEventEntity>
 {
 	public TimeTestEventsMetadataIterator(MappedAsyncPagingIterable<TimeTestEventEntity> rows,
 			PagingSupplies pagingSupplies, TimeTestEventConverter converter, String queryInfo)
@@ -32,9 +32,10 @@ public class TimeTestEventsMetadataIterator extends ConvertingPagedIterator<Stor
 		super(rows, pagingSupplies, converter, queryInfo);
 	}
 	
-	@Override
-	protected StoredTestEventMetadata convertEntity(TimeTestEventEntity entity) throws IOException
+	public TimeTestEventsMetadataIterator(MappedAsyncPagingIterable<TimeTestEventEntity> rows,
+			PagingSupplies pagingSupplies, TimeTestEventConverter converter, String queryInfo, 
+			ExecutorService decodingExecutor, int decodingLookahead, TestEventBatchMetadataCache batchMetadataCache)
 	{
-		return entity.toStoredTestEventMetadata();
+		super(rows, pagingSupplies, converter, queryInfo, decodingExecutor, decodingLookahead, batchMetadataCache);
 	}
 }
@@ -17,8 +17,10 @@
 package com.exactpro.cradle.cassandra.iterators;
 
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 
 import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.exactpro.cradle.cassandra.cache.TestEventBatchMetadataCache;
 import com.exactpro.cradle.cassandra.dao.testevents.TimeTestEventEntity;
 import com.exactpro.cradle.cassandra.dao.testevents.converters.TimeTestEventConverter;
 import com.exactpro.cradle.cassandra.retries.PagingSupplies;
@@ -30,19 +32,33 @@ public class TimeTestEventsMetadataIteratorAdapter implements Iterable<StoredTes
 	private final PagingSupplies pagingSupplies;
 	private final TimeTestEventConverter converter;
 	private final String queryInfo;
+	private final ExecutorService decodingExecutor;
+	private final int decodingLookahead;
+	private final TestEventBatchMetadataCache batchMetadataCache;
 	
 	public TimeTestEventsMetadataIteratorAdapter(MappedAsyncPagingIterable<TimeTestEventEntity> rows,
 			PagingSupplies pagingSupplies, TimeTestEventConverter converter, String queryInfo)
+	{
+		this(rows, pagingSupplies, converter, queryInfo, null, 0, null);
+	}
+	
+	public TimeTestEventsMetadataIteratorAdapter(MappedAsyncPagingIterable<TimeTestEventEntity> rows,
+			PagingSupplies pagingSupplies, TimeTestEventConverter converter, String queryInfo, 
+			ExecutorService decodingExecutor, int decodingLookahead, TestEventBatchMetadataCache batchMetadataCache)
 	{
 		this.rows = rows;
 		this.pagingSupplies = pagingSupplies;
 		this.converter = converter;
 		this.queryInfo = queryInfo;
+		this.decodingExecutor = decodingExecutor;
+		this.decodingLookahead = decodingLookahead;
+		this.batchMetadataCache = batchMetadataCache;
 	}
 	
 	@Override
 	public Iterator<StoredTestEventMetadata> iterator()
 	{
-		return new TimeTestEventsMetadataIterator(rows, pagingSupplies, converter, queryInfo);
+		return new TimeTestEventsMetadataIterator(rows, pagingSupplies, converter, queryInfo, 
+				decodingExecutor, decodingLookahead, batchMetadataCache);
 	}
 }
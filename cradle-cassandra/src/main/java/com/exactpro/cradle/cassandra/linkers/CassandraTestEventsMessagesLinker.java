@@ -19,10 +19,14 @@ package com.exactpro.cradle.cassandra.linkers;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import com.exactpro.cradle.cassandra.retries.SelectQueryExecutor;
@@ -33,7 +37,7 @@ import com.exactpro.cradle.utils.CradleIdException;
 import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
 import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
 import com.exactpro.cradle.cassandra.CassandraSemaphore;
-import com.exactpro.cradle.cassandra.dao.AsyncOperator;
+import com.exactpro.cradle.cassandra.cache.MessageLinksFilterCache;
 import com.exactpro.cradle.cassandra.dao.messages.MessageTestEventEntity;
 import com.exactpro.cradle.cassandra.dao.testevents.TestEventMessagesEntity;
 import com.exactpro.cradle.cassandra.iterators.PagedIterator;
@@ -44,20 +48,49 @@ public class CassandraTestEventsMessagesLinker implements TestEventsMessagesLink
 	private final LinkerSupplies supplies;
 	private final UUID instanceId;
 	private final Function<BoundStatementBuilder, BoundStatementBuilder> readAttrs;
-	private final CassandraSemaphore semaphore;
 	private final SelectQueryExecutor selectExec;
 	private final PagingSupplies pagingSupplies;
+	private final MessageLinksFilterCache linksFilterCache;
+	private final Executor lookupExecutor;
 	
+	public CassandraTestEventsMessagesLinker(LinkerSupplies supplies, 
+			UUID instanceId, Function<BoundStatementBuilder, BoundStatementBuilder> readAttrs,
+			SelectQueryExecutor selectExec, PagingSupplies pagingSupplies)
+	{
+		this(supplies, instanceId, readAttrs, selectExec, pagingSupplies, null, null);
+	}
+	
+	/**
+	 * @deprecated queries are limited by semaphore of {@link SelectQueryExecutor}, so given semaphore is not used. 
+	 * Use constructor without semaphore
+	 */
+	@Deprecated
 	public CassandraTestEventsMessagesLinker(LinkerSupplies supplies, 
 			UUID instanceId, Function<BoundStatementBuilder, BoundStatementBuilder> readAttrs, CassandraSemaphore semaphore,
 			SelectQueryExecutor selectExec, PagingSupplies pagingSupplies)
+	{
+		this(supplies, instanceId, readAttrs, selectExec, pagingSupplies);
+	}
+	
+	/**
+	 * Creates linker that checks filters of messages with linked test events before querying test events of message
+	 * @param linksFilterCache cache of filters. If null, test events of message are always queried
+	 * @param lookupExecutor to start lookups for several IDs requested at once. 
+	 * Its threads can be blocked while waiting for free slot to execute query. 
+	 * If null, lookups are started by the calling thread, which can be blocked for the same reason
+	 */
+	public CassandraTestEventsMessagesLinker(LinkerSupplies supplies, 
+			UUID instanceId, Function<BoundStatementBuilder, BoundStatementBuilder> readAttrs,
+			SelectQueryExecutor selectExec, PagingSupplies pagingSupplies, MessageLinksFilterCache linksFilterCache, 
+			Executor lookupExecutor)
 	{
 		this.supplies = supplies;
 		this.instanceId = instanceId;
 		this.readAttrs = readAttrs;
-		this.semaphore = semaphore;
 		this.selectExec = selectExec;
 		this.pagingSupplies = pagingSupplies;
+		this.linksFilterCache = linksFilterCache;
+		this.lookupExecutor = lookupExecutor;
 	}
 	
 	
@@ -76,13 +109,20 @@ public class CassandraTestEventsMessagesLinker implements TestEventsMessagesLink
 	
 	@Override
 	public CompletableFuture<Collection<StoredTestEventId>> getTestEventIdsByMessageIdAsync(StoredMessageId messageId)
+	{
+		if (linksFilterCache != null)
+			return linksFilterCache.mightBeLinked(messageId)
+					.thenCompose(linked -> linked ? queryTestEventIds(messageId) : CompletableFuture.completedFuture(null));
+		return queryTestEventIds(messageId);
+	}
+	
+	private CompletableFuture<Collection<StoredTestEventId>> queryTestEventIds(StoredMessageId messageId)
 	{
 		String queryInfo = "get test events for messageId="+messageId;
-		CompletableFuture<MappedAsyncPagingIterable<MessageTestEventEntity>> future = new AsyncOperator<MappedAsyncPagingIterable<MessageTestEventEntity>>(semaphore)
-				.getFuture(() -> selectExec
-						.executeMultiRowResultQuery(() -> supplies.getMessagesOperator().getTestEvents(instanceId, messageId.toString(), readAttrs),
-								supplies.getMessageConverter(),
-								queryInfo));
+		CompletableFuture<MappedAsyncPagingIterable<MessageTestEventEntity>> future = selectExec
+				.executeMultiRowResultQuery(() -> supplies.getMessagesOperator().getTestEvents(instanceId, messageId.toString(), readAttrs),
+						supplies.getMessageConverter(),
+						queryInfo);
 		
 		return future.thenApplyAsync((rs) -> {
 				PagedIterator<MessageTestEventEntity> it = new PagedIterator<>(rs, pagingSupplies, supplies.getMessageConverter(), queryInfo);
@@ -119,11 +159,10 @@ public class CassandraTestEventsMessagesLinker implements TestEventsMessagesLink
 	public CompletableFuture<Collection<StoredMessageId>> getMessageIdsByTestEventIdAsync(StoredTestEventId eventId)
 	{
 		String queryInfo = "get messages for eventId="+eventId;
-		CompletableFuture<MappedAsyncPagingIterable<TestEventMessagesEntity>> future = new AsyncOperator<MappedAsyncPagingIterable<TestEventMessagesEntity>>(semaphore)
-				.getFuture(() -> selectExec
-						.executeMultiRowResultQuery(() -> supplies.getTestEventsOperator().getMessages(instanceId, eventId.toString(), readAttrs),
-								supplies.getTestEventConverter(),
-								queryInfo));
+		CompletableFuture<MappedAsyncPagingIterable<TestEventMessagesEntity>> future = selectExec
+				.executeMultiRowResultQuery(() -> supplies.getTestEventsOperator().getMessages(instanceId, eventId.toString(), readAttrs),
+						supplies.getTestEventConverter(),
+						queryInfo);
 		
 		return future.thenApplyAsync((rs) -> {
 				PagedIterator<TestEventMessagesEntity> it = new PagedIterator<>(rs, pagingSupplies, supplies.getTestEventConverter(), queryInfo);
@@ -173,11 +212,10 @@ public class CassandraTestEventsMessagesLinker implements TestEventsMessagesLink
 	public CompletableFuture<Boolean> isTestEventLinkedToMessagesAsync(StoredTestEventId eventId)
 	{
 		String queryInfo = "get messages for eventId="+eventId+" to check links";
-		CompletableFuture<MappedAsyncPagingIterable<TestEventMessagesEntity>> future = new AsyncOperator<MappedAsyncPagingIterable<TestEventMessagesEntity>>(semaphore)
-				.getFuture(() -> selectExec
-						.executeMultiRowResultQuery(() -> supplies.getTestEventsOperator().getMessages(instanceId, eventId.toString(), readAttrs),
-								supplies.getTestEventConverter(),
-								queryInfo));
+		CompletableFuture<MappedAsyncPagingIterable<TestEventMessagesEntity>> future = selectExec
+				.executeMultiRowResultQuery(() -> supplies.getTestEventsOperator().getMessages(instanceId, eventId.toString(), readAttrs),
+						supplies.getTestEventConverter(),
+						queryInfo);
 		
 		return future.thenApplyAsync((rs) -> {
 				PagedIterator<TestEventMessagesEntity> it = new PagedIterator<>(rs, pagingSupplies, supplies.getTestEventConverter(), queryInfo);
@@ -210,17 +248,160 @@ public class CassandraTestEventsMessagesLinker implements TestEventsMessagesLink
 	
 	@Override
 	public CompletableFuture<Boolean> isMessageLinkedToTestEventsAsync(StoredMessageId messageId)
+	{
+		if (linksFilterCache != null)
+			return linksFilterCache.mightBeLinked(messageId)
+					.thenCompose(linked -> linked ? queryMessageLinked(messageId) : CompletableFuture.completedFuture(false));
+		return queryMessageLinked(messageId);
+	}
+	
+	private CompletableFuture<Boolean> queryMessageLinked(StoredMessageId messageId)
 	{
 		String queryInfo = "get test events for messageId="+messageId+" to check links";
-		CompletableFuture<MappedAsyncPagingIterable<MessageTestEventEntity>> future = new AsyncOperator<MappedAsyncPagingIterable<MessageTestEventEntity>>(semaphore)
-				.getFuture(() -> selectExec
-						.executeMultiRowResultQuery(() -> supplies.getMessagesOperator().getTestEvents(instanceId, messageId.toString(), readAttrs),
-								supplies.getMessageConverter(),
-								queryInfo));
+		CompletableFuture<MappedAsyncPagingIterable<MessageTestEventEntity>> future = selectExec
+				.executeMultiRowResultQuery(() -> supplies.getMessagesOperator().getTestEvents(instanceId, messageId.toString(), readAttrs),
+						supplies.getMessageConverter(),
+						queryInfo);
 		
 		return future.thenApply((rs) -> {
 				PagedIterator<MessageTestEventEntity> it = new PagedIterator<>(rs, pagingSupplies, supplies.getMessageConverter(), queryInfo);
 				return it.hasNext();
 			});
 	}
+	
+	
+	@Override
+	public Map<StoredMessageId, Collection<StoredTestEventId>> getTestEventIdsByMessageIds(Collection<StoredMessageId> messageIds)
+			throws IOException
+	{
+		try
+		{
+			return getTestEventIdsByMessageIdsAsync(messageIds).get();
+		}
+		catch (Exception e)
+		{
+			throw new IOException("Error while getting IDs of test events linked to "+messageIds.size()+" message(s)", e);
+		}
+	}
+	
+	@Override
+	public CompletableFuture<Map<StoredMessageId, Collection<StoredTestEventId>>> getTestEventIdsByMessageIdsAsync(
+			Collection<StoredMessageId> messageIds)
+	{
+		return readAll(messageIds, this::getTestEventIdsByMessageIdAsync);
+	}
+	
+	@Override
+	public Map<StoredTestEventId, Collection<StoredMessageId>> getMessageIdsByTestEventIds(Collection<StoredTestEventId> eventIds)
+			throws IOException
+	{
+		try
+		{
+			return getMessageIdsByTestEventIdsAsync(eventIds).get();
+		}
+		catch (Exception e)
+		{
+			throw new IOException("Error while getting IDs of messages linked to "+eventIds.size()+" test event(s)", e);
+		}
+	}
+	
+	@Override
+	public CompletableFuture<Map<StoredTestEventId, Collection<StoredMessageId>>> getMessageIdsByTestEventIdsAsync(
+			Collection<StoredTestEventId> eventIds)
+	{
+		return readAll(eventIds, this::getMessageIdsByTestEventIdAsync);
+	}
+	
+	@Override
+	public Set<StoredTestEventId> filterTestEventsLinkedToMessages(Collection<StoredTestEventId> eventIds) throws IOException
+	{
+		try
+		{
+			return filterTestEventsLinkedToMessagesAsync(eventIds).get();
+		}
+		catch (Exception e)
+		{
+			throw new IOException("Error while getting which of "+eventIds.size()+" test event(s) have messages linked to them", e);
+		}
+	}
+	
+	@Override
+	public CompletableFuture<Set<StoredTestEventId>> filterTestEventsLinkedToMessagesAsync(Collection<StoredTestEventId> eventIds)
+	{
+		return filterAll(eventIds, this::isTestEventLinkedToMessagesAsync);
+	}
+	
+	@Override
+	public Set<StoredMessageId> filterMessagesLinkedToTestEvents(Collection<StoredMessageId> messageIds) throws IOException
+	{
+		try
+		{
+			return filterMessagesLinkedToTestEventsAsync(messageIds).get();
+		}
+		catch (Exception e)
+		{
+			throw new IOException("Error while getting which of "+messageIds.size()+" message(s) have test events linked to them", e);
+		}
+	}
+	
+	@Override
+	public CompletableFuture<Set<StoredMessageId>> filterMessagesLinkedToTestEventsAsync(Collection<StoredMessageId> messageIds)
+	{
+		return filterAll(messageIds, this::isMessageLinkedToTestEventsAsync);
+	}
+	
+	
+	/**
+	 * Starts lookups for all given IDs at once and collects results into map. IDs without linked objects are not put into the map
+	 */
+	private <K, V> CompletableFuture<Map<K, V>> readAll(Collection<K> ids, Function<K, CompletableFuture<V>> lookup)
+	{
+		Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+		for (K id : ids)
+			futures.computeIfAbsent(id, k -> startLookup(k, lookup));
+		
+		return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+				.thenApply(r -> {
+					Map<K, V> result = new LinkedHashMap<>();
+					futures.forEach((id, f) -> {
+						V value = f.join();
+						if (value != null)
+							result.put(id, value);
+					});
+					return result;
+				});
+	}
+	
+	/**
+	 * Starts checks for all given IDs at once and collects IDs that passed the check, preserving order of given IDs
+	 */
+	private <K> CompletableFuture<Set<K>> filterAll(Collection<K> ids, Function<K, CompletableFuture<Boolean>> check)
+	{
+		return readAll(ids, check).thenApply(checked -> {
+				Set<K> result = new LinkedHashSet<>();
+				checked.forEach((id, linked) -> {
+					if (linked)
+						result.add(id);
+				});
+				return result;
+			});
+	}
+	
+	private <K, V> CompletableFuture<V> startLookup(K id, Function<K, CompletableFuture<V>> lookup)
+	{
+		if (lookupExecutor == null)
+			return lookup.apply(id);
+		
+		try
+		{
+			//Query may wait for free slot to execute, so it is started by the executor to not block the calling thread
+			return CompletableFuture.supplyAsync(() -> lookup.apply(id), lookupExecutor).thenCompose(f -> f);
+		}
+		catch (Exception e)
+		{
+			CompletableFuture<V> result = new CompletableFuture<>();
+			result.completeExceptionally(e);
+			return result;
+		}
+	}
 }
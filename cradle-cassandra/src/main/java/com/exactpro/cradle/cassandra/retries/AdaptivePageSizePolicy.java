@@ -0,0 +1,249 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.retries;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.datastax.oss.driver.api.core.cql.Statement;
+
+/**
+ * {@link SelectExecutionPolicy} implementation that chooses size of next result page by observed size of rows 
+ * and time to fetch them, so that page fits into given number of bytes and is fetched within given time. 
+ * Statistics is collected separately for each category of queries, 
+ * thus queries that read large rows get small pages while queries that read small rows get large pages. 
+ * Page size is divided by 2 in case of failure and the query category is considered twice slower than before. 
+ * Size of the first page is defined by query itself
+ */
+public class AdaptivePageSizePolicy implements SelectExecutionPolicy
+{
+	public static final double SMOOTHING = 0.2;
+	
+	private final int minPageSize,
+			maxPageSize;
+	private final long targetPageBytes,
+			targetPageNanos;
+	private final Function<String, String> categorizer;
+	private final Map<String, CategoryStats> stats = new ConcurrentHashMap<>();
+	
+	/**
+	 * Creates policy that uses first words of query description as query category
+	 * @param minPageSize minimum number of rows to request in one page
+	 * @param maxPageSize maximum number of rows to request in one page
+	 * @param targetPageBytes number of bytes to get in one page
+	 * @param targetPageMillis time in milliseconds to fetch one page
+	 */
+	public AdaptivePageSizePolicy(int minPageSize, int maxPageSize, long targetPageBytes, long targetPageMillis)
+	{
+		this(minPageSize, maxPageSize, targetPageBytes, targetPageMillis, AdaptivePageSizePolicy::getDefaultCategory);
+	}
+	
+	/**
+	 * @param minPageSize minimum number of rows to request in one page
+	 * @param maxPageSize maximum number of rows to request in one page
+	 * @param targetPageBytes number of bytes to get in one page
+	 * @param targetPageMillis time in milliseconds to fetch one page
+	 * @param categorizer function to get category of query by its description
+	 */
+	public AdaptivePageSizePolicy(int minPageSize, int maxPageSize, long targetPageBytes, long targetPageMillis, 
+			Function<String, String> categorizer)
+	{
+		if (minPageSize < 1)
+			throw new IllegalArgumentException("Minimum page size cannot be less than 1");
+		if (maxPageSize < minPageSize)
+			throw new IllegalArgumentException("Maximum page size cannot be less than minimum page size");
+		if (targetPageBytes < 1 || targetPageMillis < 1)
+			throw new IllegalArgumentException("Target size and time of page must be positive");
+		
+		this.minPageSize = minPageSize;
+		this.maxPageSize = maxPageSize;
+		this.targetPageBytes = targetPageBytes;
+		this.targetPageNanos = TimeUnit.MILLISECONDS.toNanos(targetPageMillis);
+		this.categorizer = categorizer;
+	}
+	
+	
+	/**
+	 * Default category of query is the first words of its description that consist of letters only, 
+	 * e.g. "getting messages filtered by" for "getting messages filtered by StoredMessageFilter{...}"
+	 * @param queryInfo description of query
+	 * @return category of query
+	 */
+	public static String getDefaultCategory(String queryInfo)
+	{
+		if (queryInfo == null)
+			return "";
+		
+		int end = 0,
+				wordStart = 0;
+		for (int i = 0; i <= queryInfo.length(); i++)
+		{
+			if (i == queryInfo.length() || queryInfo.charAt(i) == ' ')
+			{
+				if (i > wordStart)
+					end = i;
+				wordStart = i+1;
+				continue;
+			}
+			
+			if (!Character.isLetter(queryInfo.charAt(i)))
+				break;
+		}
+		return queryInfo.substring(0, end);
+	}
+	
+	
+	@Override
+	public SelectExecutionVerdict onError(Statement<?> statement, String queryInfo, Throwable cause, int retryCount)
+			throws CannotRetryException
+	{
+		if (!RetryUtils.isRetriableException(cause))
+			throw new CannotRetryException("Cannot retry after this error", cause);
+		
+		int pageSize = statement.getPageSize();
+		if (pageSize <= 1)
+			throw new CannotRetryException("Page size is already too small ("+pageSize+"), cannot reduce it", cause);
+		
+		CategoryStats category = stats.get(categorizer.apply(queryInfo));
+		if (category != null)
+			category.onError();
+		return new SelectExecutionVerdict(null, pageSize / 2);
+	}
+	
+	@Override
+	public SelectExecutionVerdict onError(Collection<String> ids, String queryInfo, Throwable cause, int retryCount)
+			throws CannotRetryException
+	{
+		if (!RetryUtils.isRetriableException(cause))
+			throw new CannotRetryException("Cannot retry after this error", cause);
+		
+		int divider = (retryCount+1)*2;
+		if (ids.size() <= divider)
+			throw new CannotRetryException("List size is already too small ("+ids.size()+"), cannot adjust it by dividing by "+divider, cause);
+		return new SelectExecutionVerdict(null, ids.size() / divider);
+	}
+	
+	@Override
+	public SelectExecutionVerdict onNextPage(Statement<?> statement, String queryInfo)
+	{
+		CategoryStats category = stats.get(categorizer.apply(queryInfo));
+		int pageSize = category != null ? category.getPageSize() : -1;
+		if (pageSize <= 0)
+			pageSize = statement.getPageSize();
+		return new SelectExecutionVerdict(null, pageSize);
+	}
+	
+	@Override
+	public void onPageFetched(String queryInfo, int rows, long bytes, long latencyNanos)
+	{
+		if (rows <= 0)
+			return;
+		stats.computeIfAbsent(categorizer.apply(queryInfo), c -> new CategoryStats()).onPage(rows, bytes, latencyNanos);
+	}
+	
+	
+	/**
+	 * @param queryInfo description of query
+	 * @return size of next page for the query, -1 if no pages were fetched by queries of the same category yet
+	 */
+	public int getPageSize(String queryInfo)
+	{
+		CategoryStats category = stats.get(categorizer.apply(queryInfo));
+		return category != null ? category.getPageSize() : -1;
+	}
+	
+	public int getMinPageSize()
+	{
+		return minPageSize;
+	}
+	
+	public int getMaxPageSize()
+	{
+		return maxPageSize;
+	}
+	
+	public long getTargetPageBytes()
+	{
+		return targetPageBytes;
+	}
+	
+	public long getTargetPageMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(targetPageNanos);
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		StringJoiner result = new StringJoiner(", ", "AdaptivePageSizePolicy{", "}");
+		stats.forEach((category, s) -> result.add("'"+category+"'="+s));
+		return result.toString();
+	}
+	
+	
+	private class CategoryStats
+	{
+		private double bytesPerRow = -1,
+				nanosPerRow = -1;
+		private int pageSize = -1;
+		
+		synchronized void onPage(int rows, long bytes, long latencyNanos)
+		{
+			bytesPerRow = smooth(bytesPerRow, (double)bytes/rows);
+			nanosPerRow = smooth(nanosPerRow, (double)latencyNanos/rows);
+			updatePageSize();
+		}
+		
+		synchronized void onError()
+		{
+			if (nanosPerRow <= 0)
+				return;
+			nanosPerRow *= 2;
+			updatePageSize();
+		}
+		
+		synchronized int getPageSize()
+		{
+			return pageSize;
+		}
+		
+		@Override
+		public synchronized String toString()
+		{
+			return "{bytesPerRow="+Math.round(bytesPerRow)+", nanosPerRow="+Math.round(nanosPerRow)+", pageSize="+pageSize+"}";
+		}
+		
+		
+		private double smooth(double current, double observed)
+		{
+			return current < 0 ? observed : current+SMOOTHING*(observed-current);
+		}
+		
+		private void updatePageSize()
+		{
+			double bySize = bytesPerRow > 0 ? targetPageBytes/bytesPerRow : maxPageSize,
+					byTime = nanosPerRow > 0 ? targetPageNanos/nanosPerRow : maxPageSize;
+			long result = (long)Math.min(bySize, byTime);
+			pageSize = (int)Math.max(minPageSize, Math.min(maxPageSize, result));
+		}
+	}
+}
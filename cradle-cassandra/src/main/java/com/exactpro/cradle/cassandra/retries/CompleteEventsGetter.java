@@ -18,9 +18,12 @@ package com.exactpro.cradle.cassandra.retries;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -49,11 +52,35 @@ public class CompleteEventsGetter
 	private final TestEventConverter converter;
 	private final PagingSupplies pagingSupplies;
 	private final CradleObjectsFactory objectsFactory;
+	private final Function<StoredTestEventId, CompletableFuture<StoredTestEventWrapper>> pointReader;
+	private final int pointReadsParallelism;
+	private final Executor pointReadsExecutor;
 	
 	public CompleteEventsGetter(UUID instanceId, Function<BoundStatementBuilder, BoundStatementBuilder> readAttrs,
 			SelectExecutionPolicy execPolicy, CradleObjectsFactory objectsFactory, TestEventOperator operator,
 			TestEventConverter converter, PagingSupplies pagingSupplies)
 	{
+		this(instanceId, readAttrs, execPolicy, objectsFactory, operator, converter, pagingSupplies, null, 0, null);
+	}
+	
+	/**
+	 * Creates getter that can read test events one by one instead of querying them all by one multi-partition query
+	 * @param pointReader function to read one test event by its ID. 
+	 * Single-partition queries are routed by the driver directly to replicas that store the partition
+	 * @param pointReadsParallelism max number of test events being read at once. 
+	 * 0 means that all test events are requested by one query with IN clause
+	 * @param pointReadsExecutor executor to call pointReader in. 
+	 * Point reader may block while waiting for free query slot, so it is not called in threads that complete previous reads
+	 */
+	public CompleteEventsGetter(UUID instanceId, Function<BoundStatementBuilder, BoundStatementBuilder> readAttrs,
+			SelectExecutionPolicy execPolicy, CradleObjectsFactory objectsFactory, TestEventOperator operator,
+			TestEventConverter converter, PagingSupplies pagingSupplies, 
+			Function<StoredTestEventId, CompletableFuture<StoredTestEventWrapper>> pointReader, int pointReadsParallelism, 
+			Executor pointReadsExecutor)
+	{
+		this.pointReader = pointReader;
+		this.pointReadsParallelism = pointReadsParallelism;
+		this.pointReadsExecutor = pointReadsExecutor;
 		this.instanceId = instanceId;
 		this.readAttrs = readAttrs;
 		this.execPolicy = execPolicy;
@@ -63,8 +90,19 @@ public class CompleteEventsGetter
 		this.pagingSupplies = pagingSupplies;
 	}
 	
+	/**
+	 * @return true if test events are read one by one, false if they are requested by one query
+	 */
+	public boolean isPointReads()
+	{
+		return pointReader != null && pointReadsParallelism > 0;
+	}
+	
 	public CompletableFuture<Iterable<StoredTestEventWrapper>> get(Collection<StoredTestEventId> ids, String queryInfo)
 	{
+		if (isPointReads())
+			return getByPointReads(ids, queryInfo);
+		
 		CompletableFuture<Iterable<StoredTestEventWrapper>> f = new CompletableFuture<>();
 		List<String> idStrings = ids.stream().map(StoredTestEventId::toString).collect(Collectors.toList());
 		operator.getComplete(instanceId, idStrings, readAttrs)
@@ -74,6 +112,94 @@ public class CompleteEventsGetter
 	}
 	
 	
+	/**
+	 * Reads test events one by one, keeping given number of reads in progress. 
+	 * Returned future is completed when all test events are read, test events are in order of given IDs. 
+	 * If any read fails, the future fails with its error and no more reads are started
+	 */
+	private CompletableFuture<Iterable<StoredTestEventWrapper>> getByPointReads(Collection<StoredTestEventId> ids, String queryInfo)
+	{
+		PointReads reads = new PointReads(new ArrayList<>(ids));
+		logger.debug("Reading {} test event(s) for '{}' with {} read(s) at once", ids.size(), queryInfo, pointReadsParallelism);
+		if (ids.isEmpty())
+			reads.result.complete(Collections.emptyList());
+		for (int i = 0; i < pointReadsParallelism; i++)
+			submitNext(reads);
+		return reads.result;
+	}
+	
+	private void submitNext(PointReads reads)
+	{
+		try
+		{
+			pointReadsExecutor.execute(() -> readNext(reads));
+		}
+		catch (Exception e)
+		{
+			//Test events that were not read won't arrive, so result cannot be completed other way
+			reads.result.completeExceptionally(e);
+		}
+	}
+	
+	private void readNext(PointReads reads)
+	{
+		//Reads that are completed immediately (e.g. taken from cache) are handled in loop to not grow the stack
+		while (true)
+		{
+			int index;
+			synchronized (reads)
+			{
+				if (reads.next >= reads.ids.size() || reads.result.isDone())
+					return;
+				index = reads.next++;
+			}
+			
+			CompletableFuture<StoredTestEventWrapper> read;
+			try
+			{
+				read = pointReader.apply(reads.ids.get(index));
+			}
+			catch (Exception e)
+			{
+				read = new CompletableFuture<>();
+				read.completeExceptionally(e);
+			}
+			
+			if (!read.isDone())
+			{
+				read.whenComplete((event, error) -> {
+					addResult(reads, index, event, error);
+					submitNext(reads);
+				});
+				return;
+			}
+			
+			read.whenComplete((event, error) -> addResult(reads, index, event, error));
+		}
+	}
+	
+	private void addResult(PointReads reads, int index, StoredTestEventWrapper event, Throwable error)
+	{
+		if (error != null)
+		{
+			reads.result.completeExceptionally(error);
+			return;
+		}
+		
+		reads.events[index] = event;
+		if (reads.remaining.decrementAndGet() > 0)
+			return;
+		
+		//Test events that were not found are skipped, like in result of query with IN clause
+		List<StoredTestEventWrapper> result = new ArrayList<>(reads.events.length);
+		for (StoredTestEventWrapper e : reads.events)
+		{
+			if (e != null)
+				result.add(e);
+		}
+		reads.result.complete(result);
+	}
+	
 	private Collection<StoredTestEventWrapper> toCollection(MappedAsyncPagingIterable<TestEventEntity> rs, String queryInfo)
 	{
 		Collection<StoredTestEventWrapper> result = new ArrayList<>();
@@ -132,4 +258,22 @@ public class CompleteEventsGetter
 			f.completeExceptionally(e);
 		}
 	}
+	
+	
+	private static class PointReads
+	{
+		private final List<StoredTestEventId> ids;
+		private final StoredTestEventWrapper[] events;
+		private final AtomicInteger remaining;
+		private final CompletableFuture<Iterable<StoredTestEventWrapper>> result = new CompletableFuture<>();
+		//Guarded by this object
+		private int next;
+		
+		PointReads(List<StoredTestEventId> ids)
+		{
+			this.ids = ids;
+			this.events = new StoredTestEventWrapper[ids.size()];
+			this.remaining = new AtomicInteger(ids.size());
+		}
+	}
 }
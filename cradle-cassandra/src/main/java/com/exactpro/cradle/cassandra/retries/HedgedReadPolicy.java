@@ -0,0 +1,208 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.retries;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.datastax.oss.driver.api.core.cql.Statement;
+
+/**
+ * {@link SelectExecutionPolicy} implementation that sends duplicate of single-row query if the query takes longer than 
+ * given percentile of latencies of recent queries, thus cutting off slow responses of individual nodes. 
+ * Retries and paging, including notifications about fetched pages, are delegated to other policy. 
+ * No duplicates are sent until enough latencies are collected
+ */
+public class HedgedReadPolicy implements SelectExecutionPolicy
+{
+	public static final int DEFAULT_WINDOW_SIZE = 1000,
+			DEFAULT_MIN_SAMPLES = 100;
+	
+	private final SelectExecutionPolicy delegate;
+	private final double percentile;
+	private final long minDelayMillis,
+			maxDelayMillis;
+	private final int minSamples;
+	private final long[] latencies;
+	private int nextSample,
+			sampleCount,
+			samplesSinceUpdate;
+	private volatile long delayMillis = -1;
+	private final LongAdder hedges = new LongAdder(),
+			wins = new LongAdder();
+	
+	/**
+	 * Creates policy that collects latencies of last {@value #DEFAULT_WINDOW_SIZE} queries
+	 * @param delegate policy to handle errors and paging
+	 * @param percentile of latencies to use as delay before sending duplicate, e.g. 95
+	 * @param minDelayMillis minimum delay before sending duplicate
+	 * @param maxDelayMillis maximum delay before sending duplicate
+	 */
+	public HedgedReadPolicy(SelectExecutionPolicy delegate, double percentile, long minDelayMillis, long maxDelayMillis)
+	{
+		this(delegate, percentile, minDelayMillis, maxDelayMillis, DEFAULT_WINDOW_SIZE, DEFAULT_MIN_SAMPLES);
+	}
+	
+	/**
+	 * @param delegate policy to handle errors and paging
+	 * @param percentile of latencies to use as delay before sending duplicate, e.g. 95
+	 * @param minDelayMillis minimum delay before sending duplicate
+	 * @param maxDelayMillis maximum delay before sending duplicate
+	 * @param windowSize number of latest query latencies to calculate the percentile
+	 * @param minSamples number of latencies to collect before sending duplicates
+	 */
+	public HedgedReadPolicy(SelectExecutionPolicy delegate, double percentile, long minDelayMillis, long maxDelayMillis, 
+			int windowSize, int minSamples)
+	{
+		if (percentile <= 0 || percentile > 100)
+			throw new IllegalArgumentException("Percentile must be greater than 0 and not greater than 100");
+		if (minDelayMillis < 0 || maxDelayMillis < minDelayMillis)
+			throw new IllegalArgumentException("Delay limits must be non-negative and minimum delay cannot be greater than maximum one");
+		if (windowSize < 1)
+			throw new IllegalArgumentException("Window size cannot be less than 1");
+		if (minSamples < 1 || minSamples > windowSize)
+			throw new IllegalArgumentException("Minimum number of samples must be from 1 to window size");
+		
+		this.delegate = delegate;
+		this.percentile = percentile;
+		this.minDelayMillis = minDelayMillis;
+		this.maxDelayMillis = maxDelayMillis;
+		this.latencies = new long[windowSize];
+		this.minSamples = minSamples;
+	}
+	
+	
+	@Override
+	public SelectExecutionVerdict onError(Statement<?> statement, String queryInfo, Throwable cause, int retryCount)
+			throws CannotRetryException
+	{
+		return delegate.onError(statement, queryInfo, cause, retryCount);
+	}
+	
+	@Override
+	public SelectExecutionVerdict onError(Collection<String> ids, String queryInfo, Throwable cause, int retryCount)
+			throws CannotRetryException
+	{
+		return delegate.onError(ids, queryInfo, cause, retryCount);
+	}
+	
+	@Override
+	public SelectExecutionVerdict onNextPage(Statement<?> statement, String queryInfo)
+	{
+		return delegate.onNextPage(statement, queryInfo);
+	}
+	
+	@Override
+	public void onPageFetched(String queryInfo, int rows, long bytes, long latencyNanos)
+	{
+		delegate.onPageFetched(queryInfo, rows, bytes, latencyNanos);
+	}
+	
+	@Override
+	public long getHedgeDelay(String queryInfo)
+	{
+		return delayMillis;
+	}
+	
+	@Override
+	public void onQueryCompleted(String queryInfo, long latencyNanos)
+	{
+		long[] window = null;
+		synchronized (latencies)
+		{
+			latencies[nextSample] = latencyNanos;
+			nextSample = (nextSample+1) % latencies.length;
+			if (sampleCount < latencies.length)
+				sampleCount++;
+			samplesSinceUpdate++;
+			
+			//Percentile is recalculated once per minSamples latencies to keep the overhead small
+			if (sampleCount >= minSamples && samplesSinceUpdate >= minSamples)
+			{
+				samplesSinceUpdate = 0;
+				window = Arrays.copyOf(latencies, sampleCount);
+			}
+		}
+		
+		if (window != null)
+			delayMillis = calculateDelay(window);
+	}
+	
+	@Override
+	public void onHedgeCompleted(String queryInfo, boolean won)
+	{
+		hedges.increment();
+		if (won)
+			wins.increment();
+	}
+	
+	
+	public SelectExecutionPolicy getDelegate()
+	{
+		return delegate;
+	}
+	
+	public double getPercentile()
+	{
+		return percentile;
+	}
+	
+	/**
+	 * @return current delay in milliseconds before sending duplicate of query, -1 if not enough latencies are collected yet
+	 */
+	public long getDelayMillis()
+	{
+		return delayMillis;
+	}
+	
+	/**
+	 * @return number of completed duplicates of queries
+	 */
+	public long getHedgeCount()
+	{
+		return hedges.sum();
+	}
+	
+	/**
+	 * @return number of duplicates whose result was taken because it came before result of original query
+	 */
+	public long getHedgeWinCount()
+	{
+		return wins.sum();
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "HedgedReadPolicy{percentile="+percentile
+				+", delay="+delayMillis+"ms"
+				+", hedges="+getHedgeCount()
+				+", wins="+getHedgeWinCount()+"}";
+	}
+	
+	
+	private long calculateDelay(long[] window)
+	{
+		Arrays.sort(window);
+		int index = (int)Math.ceil(percentile/100*window.length)-1;
+		long result = TimeUnit.NANOSECONDS.toMillis(window[Math.max(index, 0)]);
+		return Math.min(Math.max(result, minDelayMillis), maxDelayMillis);
+	}
+}
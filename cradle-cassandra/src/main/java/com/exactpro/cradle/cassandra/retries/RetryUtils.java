@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
+import com.datastax.oss.driver.api.core.AsyncPagingIterable;
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
 import com.datastax.oss.driver.api.core.DriverException;
 import com.datastax.oss.driver.api.core.DriverTimeoutException;
@@ -90,6 +91,19 @@ public class RetryUtils
 		return result;
 	}
 
+	/**
+	 * Passes size and latency of fetched result page to policy
+	 * @param policy to notify
+	 * @param queryInfo description of executed query
+	 * @param page fetched result page
+	 * @param startNanos value of {@link System#nanoTime()} when page request was sent
+	 */
+	public static void notifyPageFetched(SelectExecutionPolicy policy, String queryInfo, AsyncPagingIterable<?, ?> page, long startNanos)
+	{
+		long latency = System.nanoTime()-startNanos;
+		policy.onPageFetched(queryInfo, page.remaining(), page.getExecutionInfo().getResponseSizeInBytes(), latency);
+	}
+	
 	public static long calculateDelayWithJitter(int retryCount) {
 		// get the pure exponential delay based on the attempt count
 		long delay = Math.min(BASE_DELAYS_MS * (1L << retryCount++), MAX_DELAYS_MS);
@@ -22,7 +22,8 @@ import com.datastax.oss.driver.api.core.cql.Statement;
 
 /**
  * Interface to implement policy for "select" queries execution.
- * The policy defines behavior for retries in case of errors and for result paging
+ * The policy defines behavior for retries in case of errors and for result paging. 
+ * Policy for single-row queries can also define hedging, i.e. sending duplicate of slow query and taking the first response
  */
 public interface SelectExecutionPolicy
 {
@@ -53,4 +54,45 @@ public interface SelectExecutionPolicy
 	 * @return object with changes for statement execution to fetch next page
 	 */
 	SelectExecutionVerdict onNextPage(Statement<?> statement, String queryInfo);
+	
+	/**
+	 * Is called when page of multi-row query result is fetched, so that policy can adjust size of next pages
+	 * @param queryInfo description of executed query
+	 * @param rows number of rows in fetched page
+	 * @param bytes size of response with fetched page in bytes
+	 * @param latencyNanos time in nanoseconds spent to fetch the page
+	 */
+	default void onPageFetched(String queryInfo, int rows, long bytes, long latencyNanos)
+	{
+	}
+	
+	/**
+	 * Defines delay after which duplicate of single-row query is sent if the query is not completed yet. 
+	 * Duplicate is sent only if semaphore has a free permit, the first successful response is taken. 
+	 * Is not used for multi-row queries
+	 * @param queryInfo description of query being executed
+	 * @return delay in milliseconds, negative value if duplicate should not be sent
+	 */
+	default long getHedgeDelay(String queryInfo)
+	{
+		return -1;
+	}
+	
+	/**
+	 * Is called when single-row query completes successfully, without regard to its duplicate
+	 * @param queryInfo description of executed query
+	 * @param latencyNanos time in nanoseconds from sending the query to getting its result, including retries
+	 */
+	default void onQueryCompleted(String queryInfo, long latencyNanos)
+	{
+	}
+	
+	/**
+	 * Is called when duplicate of single-row query completes
+	 * @param queryInfo description of executed query
+	 * @param won true if result of duplicate was taken because it came before result of original query
+	 */
+	default void onHedgeCompleted(String queryInfo, boolean won)
+	{
+	}
 }
@@ -49,17 +49,42 @@ public class SelectQueryExecutor
 		this.singleRowResultExecPolicy = singleRowResultExecPolicy;
 	}
 
+	/**
+	 * Executes query that returns one row, retrying it according to policy for single-row queries. 
+	 * If the policy defines hedge delay and the query doesn't complete within it, 
+	 * duplicate of the query is sent in case semaphore has a free permit, and the first successful result is returned. 
+	 * Permits of the query and its duplicate are released when each of them completes
+	 */
 	public <T> CompletableFuture<T> executeSingleRowResultQuery(Supplier<CompletableFuture<T>> query,
 			EntityConverter<T> converter, String queryInfo)
 	{
-		return new AsyncOperator<T>(semaphore).getFuture(
+		long hedgeDelay = singleRowResultExecPolicy.getHedgeDelay(queryInfo);
+		CompletableFuture<T> result = new CompletableFuture<>();
+		CompletableFuture<T> original = new AsyncOperator<T>(semaphore).getFuture(
 				() ->
 				{
+					long start = System.nanoTime();
 					CompletableFuture<T> f = new CompletableFuture<>();
 					query.get().whenCompleteAsync(
-							(result, error) -> onCompleteSingle(result, error, f, converter::convert, queryInfo, 0));
-					return f;
+							(r, error) -> onCompleteSingle(r, error, f, converter::convert, queryInfo, 0));
+					return f.whenComplete((r, error) -> {
+						if (error == null)
+							singleRowResultExecPolicy.onQueryCompleted(queryInfo, System.nanoTime()-start);
+					});
 				});
+		
+		if (hedgeDelay < 0)
+			return original;
+		
+		original.whenComplete((r, error) -> {
+			if (error == null)
+				result.complete(r);
+			else
+				result.completeExceptionally(error);
+		});
+		if (!result.isDone())
+			CompletableFuture.delayedExecutor(hedgeDelay, TimeUnit.MILLISECONDS).execute(() -> sendHedge(query, result, queryInfo));
+		return result;
 	}
 
 	public <T> CompletableFuture<MappedAsyncPagingIterable<T>> executeMultiRowResultQuery(
@@ -69,13 +94,43 @@ public class SelectQueryExecutor
 		return new AsyncOperator<MappedAsyncPagingIterable<T>>(semaphore).getFuture(
 				() ->
 				{
+					long start = System.nanoTime();
 					CompletableFuture<MappedAsyncPagingIterable<T>> f = new CompletableFuture<>();
 					query.get().whenCompleteAsync(
-							(result, error) -> onCompleteMulti(result, error, f, converter::convert, queryInfo, 0));
+							(result, error) -> onCompleteMulti(result, error, f, converter::convert, queryInfo, 0, start));
 					return f;
 				});
 	}
 
+	private <T> void sendHedge(Supplier<CompletableFuture<T>> query, CompletableFuture<T> result, String queryInfo)
+	{
+		//Duplicate doesn't wait for permit to not exceed the limit of parallel queries and to not delay other queries
+		if (result.isDone() || !semaphore.tryAcquireSemaphore())
+			return;
+		
+		CompletableFuture<T> hedge;
+		try
+		{
+			logger.trace("Sending duplicate of '{}'", queryInfo);
+			hedge = query.get();
+		}
+		catch (Exception e)
+		{
+			semaphore.releaseSemaphore();
+			logger.debug("Could not send duplicate of '{}'", queryInfo, e);
+			return;
+		}
+		
+		//Errors of duplicate are ignored, original query handles errors and retries
+		hedge.whenCompleteAsync((r, error) -> {
+			semaphore.releaseSemaphore();
+			boolean won = error == null && result.complete(r);
+			singleRowResultExecPolicy.onHedgeCompleted(queryInfo, won);
+			if (won)
+				logger.debug("Result of '{}' is taken from its duplicate", queryInfo);
+		});
+	}
+	
 	private Statement<?> handleErrorAndGetStatement(Throwable error, CompletableFuture<?> f,
 			SelectExecutionPolicy execPolicy, String queryInfo, int retryCount)
 	{
@@ -134,10 +189,12 @@ public class SelectQueryExecutor
 
 	private <T> void onCompleteMulti(MappedAsyncPagingIterable<T> result, Throwable error,
 			CompletableFuture<MappedAsyncPagingIterable<T>> f, Function<Row, T> mapper,
-			String queryInfo, int retryCount)
+			String queryInfo, int retryCount, long attemptStart)
 	{
 		if (error == null)
 		{
+			//Latency of successful attempt only, so that delays before retries don't affect page size
+			RetryUtils.notifyPageFetched(multiRowResultExecPolicy, queryInfo, result, attemptStart);
 			f.complete(result);
 			return;
 		}
@@ -153,11 +210,14 @@ public class SelectQueryExecutor
 							() -> logger.debug("Retrying request ({}) '{}' and CL {} with delay {}ms after error: '{}'",
 									retryCount + 1, queryInfo, stmt.getConsistencyLevel(), delay, error.getMessage()),
 							CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
-					.thenComposeAsync(r -> session.executeAsync(stmt))
-					.thenApplyAsync(row -> new AsyncPagingIterableWrapper<Row, T>(row, mapper))
-					.whenCompleteAsync(
-							(retryResult, retryError) -> onCompleteMulti(retryResult, retryError, f, mapper, queryInfo,
-									retryCount + 1));
+					.thenComposeAsync(r -> {
+						long retryStart = System.nanoTime();
+						return session.executeAsync(stmt)
+								.thenApplyAsync(row -> new AsyncPagingIterableWrapper<Row, T>(row, mapper))
+								.whenCompleteAsync(
+										(retryResult, retryError) -> onCompleteMulti(retryResult, retryError, f, mapper, queryInfo,
+												retryCount + 1, retryStart));
+					});
 		}
 		catch (Exception e)
 		{
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads values from a registry table that lists values for faster search, e.g. names of streams or dates with data. 
+ * Registry may miss values stored before it was introduced. 
+ * Until registry is marked as backfilled, values found by full scan of data are merged with registry values and the missing ones are registered. 
+ * Once all of them are registered, the mark is written and further reads use the registry only
+ * @param <V> class of registered values
+ */
+public class BackfilledRegistry<V extends Comparable<? super V>>
+{
+	private static final Logger logger = LoggerFactory.getLogger(BackfilledRegistry.class);
+	
+	private final String name;
+	private final Reader<Collection<V>> registryReader,
+			dataScanner;
+	private final Reader<Boolean> backfillChecker;
+	private final Function<V, CompletableFuture<Void>> registrar;
+	private final Supplier<CompletableFuture<?>> backfillMarker;
+	private volatile boolean backfilled = false;
+	
+	/**
+	 * @param name of registry to use in log and backfill mark
+	 * @param registryReader reads values from registry
+	 * @param dataScanner reads values by full scan of data
+	 * @param registrar adds value to registry
+	 * @param backfillChecker checks if registry is marked as backfilled
+	 * @param backfillMarker writes the mark that registry is backfilled
+	 */
+	public BackfilledRegistry(String name, Reader<Collection<V>> registryReader, Reader<Collection<V>> dataScanner, 
+			Function<V, CompletableFuture<Void>> registrar, 
+			Reader<Boolean> backfillChecker, Supplier<CompletableFuture<?>> backfillMarker)
+	{
+		this.name = name;
+		this.registryReader = registryReader;
+		this.dataScanner = dataScanner;
+		this.registrar = registrar;
+		this.backfillChecker = backfillChecker;
+		this.backfillMarker = backfillMarker;
+	}
+	
+	
+	/**
+	 * @return sorted values from registry, merged with values from data scan if registry is not backfilled yet
+	 * @throws IOException if registry or data couldn't be read
+	 */
+	public List<V> getValues() throws IOException
+	{
+		if (!backfilled && backfillChecker.read())
+			backfilled = true;
+		
+		Set<V> result = new TreeSet<>(registryReader.read());
+		if (backfilled)
+			return new ArrayList<>(result);
+		
+		List<V> missing = new ArrayList<>();
+		for (V value : dataScanner.read())
+		{
+			if (result.add(value))
+				missing.add(value);
+		}
+		
+		backfill(missing);
+		return new ArrayList<>(result);
+	}
+	
+	public boolean isBackfilled()
+	{
+		return backfilled;
+	}
+	
+	
+	private void backfill(List<V> missing)
+	{
+		if (!missing.isEmpty())
+			logger.info("Filling registry '{}' with {} value(s) found in data", name, missing.size());
+		try
+		{
+			CompletableFuture.allOf(missing.stream().map(registrar).toArray(CompletableFuture[]::new))
+					.thenCompose(r -> backfillMarker.get())
+					.get();
+			backfilled = true;
+			logger.info("Registry '{}' is backfilled", name);
+		}
+		catch (InterruptedException | ExecutionException e)
+		{
+			logger.warn("Could not backfill registry '{}', will try again on next read", name, e);
+		}
+	}
+	
+	
+	@FunctionalInterface
+	public interface Reader<T>
+	{
+		T read() throws IOException;
+	}
+}
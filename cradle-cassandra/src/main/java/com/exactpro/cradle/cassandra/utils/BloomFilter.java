@@ -0,0 +1,225 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.utils;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Bloom filter of long keys, e.g. indices of messages. 
+ * Tells for sure if key was not added to the filter, but can give false positive answer for key that was not added. 
+ * Filters with the same number of bits and hash functions can be merged to get filter of keys added to any of them. 
+ * Filter is not thread-safe
+ */
+public class BloomFilter
+{
+	private static final int HEADER_SIZE = Integer.BYTES*2;
+	
+	private final int numBits,
+			numHashes;
+	private final long[] words;
+	
+	/**
+	 * Creates empty filter
+	 * @param numBits number of bits in filter, is rounded up to multiple of 64
+	 * @param numHashes number of hash functions to apply to each key
+	 */
+	public BloomFilter(int numBits, int numHashes)
+	{
+		if (numBits <= 0)
+			throw new IllegalArgumentException("Number of bits must be positive");
+		if (numHashes <= 0)
+			throw new IllegalArgumentException("Number of hash functions must be positive");
+		
+		this.words = new long[(numBits+Long.SIZE-1)/Long.SIZE];
+		this.numBits = words.length*Long.SIZE;
+		this.numHashes = numHashes;
+	}
+	
+	private BloomFilter(int numHashes, long[] words)
+	{
+		this.words = words;
+		this.numBits = words.length*Long.SIZE;
+		this.numHashes = numHashes;
+	}
+	
+	
+	/**
+	 * Restores filter from bytes obtained by {@link #toBytes()}
+	 * @param bytes to restore filter from
+	 * @return restored filter
+	 * @throws IOException if bytes don't contain valid filter
+	 */
+	public static BloomFilter fromBytes(byte[] bytes) throws IOException
+	{
+		try
+		{
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			int numBits = buffer.getInt(),
+					numHashes = buffer.getInt();
+			if (numBits <= 0 || numBits % Long.SIZE != 0 || numHashes <= 0 || bytes.length != HEADER_SIZE+numBits/Byte.SIZE)
+				throw new IOException("Invalid Bloom filter of "+bytes.length+" bytes with "+numBits+" bits and "+numHashes+" hash function(s)");
+			
+			long[] words = new long[numBits/Long.SIZE];
+			buffer.asLongBuffer().get(words);
+			return new BloomFilter(numHashes, words);
+		}
+		catch (BufferUnderflowException e)
+		{
+			throw new IOException("Bloom filter data is too short", e);
+		}
+	}
+	
+	
+	public void add(long key)
+	{
+		long hash = mix(key);
+		int hash1 = (int)hash,
+				hash2 = (int)(hash >>> 32);
+		for (int i = 1; i <= numHashes; i++)
+		{
+			int bit = bitIndex(hash1, hash2, i);
+			words[bit >>> 6] |= 1L << bit;
+		}
+	}
+	
+	/**
+	 * @param key to get bits for
+	 * @return positions of bits that are set in filter when given key is added to it. Positions can repeat
+	 */
+	public int[] getBits(long key)
+	{
+		long hash = mix(key);
+		int hash1 = (int)hash,
+				hash2 = (int)(hash >>> 32);
+		int[] result = new int[numHashes];
+		for (int i = 1; i <= numHashes; i++)
+			result[i-1] = bitIndex(hash1, hash2, i);
+		return result;
+	}
+	
+	/**
+	 * Sets bit at given position, e.g. obtained from {@link #getBits(long)} of other filter with the same number of bits
+	 * @param bit position of bit to set
+	 * @throws IllegalArgumentException if position is out of filter bounds
+	 */
+	public void setBit(int bit) throws IllegalArgumentException
+	{
+		if (bit < 0 || bit >= numBits)
+			throw new IllegalArgumentException("Bit "+bit+" is out of bounds of filter with "+numBits+" bits");
+		words[bit >>> 6] |= 1L << bit;
+	}
+	
+	public boolean isBitSet(int bit)
+	{
+		return bit >= 0 && bit < numBits && (words[bit >>> 6] & (1L << bit)) != 0;
+	}
+	
+	public boolean mightContain(long key)
+	{
+		long hash = mix(key);
+		int hash1 = (int)hash,
+				hash2 = (int)(hash >>> 32);
+		for (int i = 1; i <= numHashes; i++)
+		{
+			int bit = bitIndex(hash1, hash2, i);
+			if ((words[bit >>> 6] & (1L << bit)) == 0)
+				return false;
+		}
+		return true;
+	}
+	
+	public boolean isEmpty()
+	{
+		for (long w : words)
+		{
+			if (w != 0)
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * @param other filter to check
+	 * @return true if other filter has the same number of bits and hash functions, i.e. can be merged with this one
+	 */
+	public boolean isCompatible(BloomFilter other)
+	{
+		return numBits == other.numBits && numHashes == other.numHashes;
+	}
+	
+	/**
+	 * Adds all keys of other filter to this one
+	 * @param other filter to merge into this one
+	 * @throws IllegalArgumentException if other filter is not compatible with this one
+	 */
+	public void merge(BloomFilter other) throws IllegalArgumentException
+	{
+		if (!isCompatible(other))
+			throw new IllegalArgumentException("Cannot merge Bloom filter with "+other.numBits+" bits and "+other.numHashes
+					+" hash function(s) into filter with "+numBits+" bits and "+numHashes+" hash function(s)");
+		
+		for (int i = 0; i < words.length; i++)
+			words[i] |= other.words[i];
+	}
+	
+	public BloomFilter copy()
+	{
+		return new BloomFilter(numHashes, words.clone());
+	}
+	
+	/**
+	 * @return compact binary form of the filter: number of bits, number of hash functions and bits themselves
+	 */
+	public byte[] toBytes()
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE+numBits/Byte.SIZE);
+		buffer.putInt(numBits).putInt(numHashes);
+		buffer.asLongBuffer().put(words);
+		return buffer.array();
+	}
+	
+	
+	public int getNumBits()
+	{
+		return numBits;
+	}
+	
+	public int getNumHashes()
+	{
+		return numHashes;
+	}
+	
+	
+	private int bitIndex(int hash1, int hash2, int i)
+	{
+		int combined = hash1+i*hash2;
+		if (combined < 0)
+			combined = ~combined;
+		return combined % numBits;
+	}
+	
+	private static long mix(long key)
+	{
+		//Finalizer of SplitMix64, spreads sequential keys over all bits
+		long z = key+0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30))*0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27))*0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -21,16 +21,18 @@ import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.selectFrom;
 import static com.exactpro.cradle.cassandra.StorageConstants.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
-import com.datastax.oss.driver.api.core.PagingIterable;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
 import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.Row;
 import com.datastax.oss.driver.api.querybuilder.select.Select;
 import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
 import com.exactpro.cradle.cassandra.dao.messages.MessageBatchOperator;
@@ -38,6 +40,8 @@ import com.exactpro.cradle.filters.ComparisonOperation;
 import com.exactpro.cradle.messages.StoredMessage;
 import com.exactpro.cradle.messages.StoredMessageFilter;
 import com.exactpro.cradle.messages.StoredMessageId;
+import com.exactpro.cradle.messages.StoredMessagePosition;
+import com.exactpro.cradle.utils.MessageUtils;
 
 public class CassandraMessageUtils
 {
@@ -63,72 +67,190 @@ public class CassandraMessageUtils
 						});
 	}
 	
+	/**
+	 * Finds left bound for filter that requests given number of messages before given index, 
+	 * i.e. the first of these messages, and sets it to the filter if it is inside of a batch
+	 * @param batch that contains message with index from the filter. Null if there is no such batch
+	 * @param filter to find left bound for
+	 * @param instanceId ID of Cradle instance
+	 * @param op to query batches with
+	 * @param readAttrs attributes of read queries
+	 * @return index of batch that contains the left bound or -1 if there are not enough messages before given index
+	 * @throws IOException if left bound could not be found
+	 */
 	public static long findLeftMessageIndex(DetailedMessageBatchEntity batch, StoredMessageFilter filter, UUID instanceId, 
 			MessageBatchOperator op, Function<BoundStatementBuilder, BoundStatementBuilder> readAttrs) throws IOException
 	{
-		List<StoredMessage> batchMessages = new ArrayList<>(batch.toStoredMessages());
+		try
+		{
+			return findLeftMessageIndexAsync(batch, filter, instanceId, op, readAttrs).get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while finding left bound for "+filter, e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IOException("Error while finding left bound for "+filter, e.getCause());
+		}
+	}
+	
+	/**
+	 * Asynchronously finds left bound for filter that requests given number of messages before given index. 
+	 * Messages are counted by metadata of batches. 
+	 * Messages of a batch are read only if indices of its messages are not sequenced and the left bound is inside of it
+	 * @param batch that contains message with index from the filter. Null if there is no such batch
+	 * @param filter to find left bound for
+	 * @param instanceId ID of Cradle instance
+	 * @param op to query batches with
+	 * @param readAttrs attributes of read queries
+	 * @return future to obtain index of batch that contains the left bound or -1 if there are not enough messages before given index
+	 */
+	public static CompletableFuture<Long> findLeftMessageIndexAsync(DetailedMessageBatchEntity batch, StoredMessageFilter filter, 
+			UUID instanceId, MessageBatchOperator op, Function<BoundStatementBuilder, BoundStatementBuilder> readAttrs)
+	{
 		int count = filter.getLimit();
-		boolean inclusive = filter.getIndex().getOperation() == ComparisonOperation.LESS_OR_EQUALS;
+		long index = filter.getIndex().getValue(),
+				lastIndex = filter.getIndex().getOperation() == ComparisonOperation.LESS_OR_EQUALS ? index : index-1,
+				toBatchIndex = index;
 		
 		//Need to find out how many messages are on the left of current one in given batch.
-		//Number of messages to iterate in other batches should be reduced  by this number
-		long index = filter.getIndex().getValue();
-		boolean found = false;
-		for (ListIterator<StoredMessage> batchMessagesIt = batchMessages.listIterator(batchMessages.size()); batchMessagesIt.hasPrevious(); )
+		//Number of messages to count in other batches should be reduced by this number
+		if (batch != null)
 		{
-			StoredMessage m = batchMessagesIt.previous();
-			if (!found)
+			try
 			{
-				if (m.getIndex() == index)
+				List<Long> indices = isSequenced(batch.getMessageIndex(), batch.getLastMessageIndex(), batch.getMessageCount()) 
+						? null : getMessageIndices(batch);
+				int before = countMessages(batch, indices, lastIndex);
+				//If left bound is in the same batch - returning index of this batch...
+				if (before >= count)
 				{
-					if (inclusive)
-						count--;
-					found = true;
+					filter.setLeftBoundIndex(getMessageIndex(batch, indices, before-count));
+					return CompletableFuture.completedFuture(batch.getMessageIndex());
 				}
-				continue;
+				count -= before;
 			}
-			
-			count--;
-			//If left bound is in the same batch - returning index of this batch...
-			if (count <= 0)
+			catch (IOException e)
 			{
-				filter.setLeftBoundIndex(m.getIndex());
-				return batch.getMessageIndex();
+				CompletableFuture<Long> error = new CompletableFuture<>();
+				error.completeExceptionally(e);
+				return error;
 			}
+			toBatchIndex = batch.getMessageIndex()-1;
 		}
 		
-		//...else searching in previous batches, iterating through their messages from the end to find message index which is the left bound
-		PagingIterable<DetailedMessageBatchEntity> otherBatches = op.getMessageBatchesReversed(instanceId, 
-				batch.getStreamName(), 
-				batch.getDirection(), 
-				batch.getMessageIndex()-1	, readAttrs);
-		if (otherBatches == null)
-			return -1;
-		
-		for (Iterator<DetailedMessageBatchEntity> it = otherBatches.iterator(); it.hasNext(); )
+		//...else counting messages in previous batches by their metadata
+		int remaining = count;
+		String streamName = filter.getStreamName().getValue(),
+				direction = filter.getDirection().getValue().getLabel();
+		return op.getMessageBatchesMetadataReversed(instanceId, streamName, direction, toBatchIndex, readAttrs)
+				.thenCompose(rs -> findLeftMessageIndex(rs, remaining, filter, instanceId, op, readAttrs));
+	}
+	
+	
+	private static CompletableFuture<Long> findLeftMessageIndex(AsyncResultSet rs, int count, StoredMessageFilter filter, 
+			UUID instanceId, MessageBatchOperator op, Function<BoundStatementBuilder, BoundStatementBuilder> readAttrs)
+	{
+		for (Row row : rs.currentPage())
 		{
-			DetailedMessageBatchEntity ob = it.next();
-			if (ob.getMessageCount() <= count)  //Is needed message outside of this batch?
+			long batchIndex = row.getLong(MESSAGE_INDEX);
+			int messageCount = row.getInt(MESSAGE_COUNT);
+			if (messageCount <= count)  //Is needed message outside of this batch?
 			{
-				count -= ob.getMessageCount();
+				count -= messageCount;
 				if (count <= 0)  //If needed message is in the beginning of the batch
-					return ob.getMessageIndex();
+					return CompletableFuture.completedFuture(batchIndex);
 				continue;
 			}
 			
-			List<StoredMessage> obMessages = new ArrayList<>(ob.toStoredMessages());
-			for (ListIterator<StoredMessage> listIt = obMessages.listIterator(obMessages.size()); listIt.hasPrevious(); )
+			int position = messageCount-count;
+			if (isSequenced(batchIndex, row.getLong(LAST_MESSAGE_INDEX), messageCount))
 			{
-				StoredMessage m = listIt.previous();
-				count--;
-				if (count <= 0)
-				{
-					filter.setLeftBoundIndex(m.getIndex());
-					return ob.getMessageIndex();
-				}
+				filter.setLeftBoundIndex(batchIndex+position);
+				return CompletableFuture.completedFuture(batchIndex);
 			}
+			
+			//Indices in batch have gaps, so need to read the batch to get index of message at needed position
+			return op.getMessageBatch(instanceId, filter.getStreamName().getValue(), filter.getDirection().getValue().getLabel(), 
+					batchIndex, readAttrs)
+					.thenApply(boundaryBatch -> {
+						try
+						{
+							filter.setLeftBoundIndex(getMessageIndices(boundaryBatch).get(position));
+							return batchIndex;
+						}
+						catch (IOException e)
+						{
+							throw new CompletionException("Error while reading message batch "+boundaryBatch.createBatchId(), e);
+						}
+					});
 		}
 		
-		return -1;
+		if (!rs.hasMorePages())
+			return CompletableFuture.completedFuture(-1L);
+		
+		int remaining = count;
+		return rs.fetchNextPage().toCompletableFuture()
+				.thenCompose(nextRs -> findLeftMessageIndex(nextRs, remaining, filter, instanceId, op, readAttrs));
+	}
+	
+	/**
+	 * @return true if batch contains messages with all indices from first to last one
+	 */
+	private static boolean isSequenced(long firstIndex, long lastIndex, int messageCount)
+	{
+		return lastIndex-firstIndex+1 == messageCount;
+	}
+	
+	/**
+	 * Gets indices of messages in batch, reading message positions if they are stored, or decoding messages otherwise
+	 */
+	private static List<Long> getMessageIndices(DetailedMessageBatchEntity batch) throws IOException
+	{
+		List<Long> result = new ArrayList<>(batch.getMessageCount());
+		ByteBuffer positions = batch.getMessagePositions();
+		if (positions != null)
+		{
+			byte[] bytes = new byte[positions.remaining()];
+			positions.duplicate().get(bytes);
+			for (StoredMessagePosition p : MessageUtils.deserializeMessagePositions(bytes, batch.createBatchId()))
+				result.add(p.getId().getIndex());
+		}
+		else
+		{
+			for (StoredMessage m : batch.toStoredMessages())
+				result.add(m.getIndex());
+		}
+		return result;
+	}
+	
+	/**
+	 * @param indices of messages in batch, null if batch contains sequenced messages
+	 * @return number of messages in batch whose index is less than or equal to given one
+	 */
+	private static int countMessages(DetailedMessageBatchEntity batch, List<Long> indices, long lastIndex)
+	{
+		if (indices == null)
+			return (int)Math.max(0, Math.min(lastIndex, batch.getLastMessageIndex())-batch.getMessageIndex()+1);
+		
+		int result = 0;
+		for (long i : indices)
+		{
+			if (i > lastIndex)
+				break;
+			result++;
+		}
+		return result;
+	}
+	
+	/**
+	 * @param indices of messages in batch, null if batch contains sequenced messages
+	 * @return index of message at given position in batch
+	 */
+	private static long getMessageIndex(DetailedMessageBatchEntity batch, List<Long> indices, int position)
+	{
+		return indices == null ? batch.getMessageIndex()+position : indices.get(position);
 	}
 }
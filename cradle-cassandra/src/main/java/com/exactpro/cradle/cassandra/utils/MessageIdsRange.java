@@ -0,0 +1,140 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.messages.StoredMessageBatchId;
+import com.exactpro.cradle.messages.StoredMessageId;
+
+/**
+ * Range of message indices of one stream and direction, covering message IDs requested together. 
+ * Is used to read batches of several messages by one range query
+ */
+public class MessageIdsRange
+{
+	private final String streamName;
+	private final Direction direction;
+	private final long[] indices;
+	
+	public MessageIdsRange(String streamName, Direction direction, long[] indices)
+	{
+		this.streamName = streamName;
+		this.direction = direction;
+		this.indices = indices;
+	}
+	
+	/**
+	 * Groups given message IDs by stream and direction and splits each group into ranges of indices. 
+	 * New range is started if gap between neighbour indices is greater than given one, 
+	 * so that batches that contain no requested messages are not read
+	 * @param ids of messages to group
+	 * @param maxGap max difference between neighbour indices within one range
+	 * @return ranges covering given IDs
+	 */
+	public static List<MessageIdsRange> split(Collection<StoredMessageId> ids, long maxGap)
+	{
+		Map<String, TreeSet<Long>> groups = new LinkedHashMap<>();
+		Map<String, StoredMessageId> groupIds = new LinkedHashMap<>();
+		for (StoredMessageId id : ids)
+		{
+			String key = id.getStreamName()+StoredMessageBatchId.IDS_DELIMITER+id.getDirection().getLabel();
+			groups.computeIfAbsent(key, k -> new TreeSet<>()).add(id.getIndex());
+			groupIds.putIfAbsent(key, id);
+		}
+		
+		List<MessageIdsRange> result = new ArrayList<>();
+		for (Map.Entry<String, TreeSet<Long>> group : groups.entrySet())
+		{
+			StoredMessageId id = groupIds.get(group.getKey());
+			List<Long> range = new ArrayList<>();
+			for (Long index : group.getValue())
+			{
+				if (!range.isEmpty() && index - range.get(range.size()-1) > maxGap)
+				{
+					result.add(new MessageIdsRange(id.getStreamName(), id.getDirection(), toArray(range)));
+					range.clear();
+				}
+				range.add(index);
+			}
+			result.add(new MessageIdsRange(id.getStreamName(), id.getDirection(), toArray(range)));
+		}
+		return result;
+	}
+	
+	
+	public String getStreamName()
+	{
+		return streamName;
+	}
+	
+	public Direction getDirection()
+	{
+		return direction;
+	}
+	
+	public long getFromIndex()
+	{
+		return indices[0];
+	}
+	
+	public long getToIndex()
+	{
+		return indices[indices.length-1];
+	}
+	
+	public int size()
+	{
+		return indices.length;
+	}
+	
+	/**
+	 * @param from first index to check
+	 * @param to last index to check
+	 * @return true if range contains at least one requested index between given ones, inclusive
+	 */
+	public boolean hasIndices(long from, long to)
+	{
+		int pos = Arrays.binarySearch(indices, from);
+		if (pos >= 0)
+			return true;
+		pos = -pos-1;  //Insertion point, i.e. position of first index greater than "from"
+		return pos < indices.length && indices[pos] <= to;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return streamName+StoredMessageBatchId.IDS_DELIMITER+direction.getLabel()+StoredMessageBatchId.IDS_DELIMITER+getFromIndex()+".."+getToIndex();
+	}
+	
+	
+	private static long[] toArray(List<Long> list)
+	{
+		long[] result = new long[list.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = list.get(i);
+		return result;
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.utils;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.cassandra.iterators.MessageBatchFilterMatcher;
+import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageBatchInfo;
+import com.exactpro.cradle.messages.StoredMessageFilter;
+import com.exactpro.cradle.messages.StoredMessagePosition;
+import com.exactpro.cradle.messages.StreamStatistics;
+
+/**
+ * Accumulates number of messages matching the filter and bounds of their indices and timestamps.
+ * Batches whose messages all match the filter are accounted by their metadata, 
+ * messages of other batches are checked one by one. Batches can be added from different threads
+ */
+public class MessageStatisticsCollector
+{
+	private final StoredMessageFilter filter;
+	private long messageCount;
+	private int batchCount;
+	private long firstIndex = -1,
+			lastIndex = -1;
+	private Instant firstTimestamp,
+			lastTimestamp;
+	
+	public MessageStatisticsCollector(StoredMessageFilter filter)
+	{
+		this.filter = filter;
+	}
+	
+	
+	/**
+	 * Accounts batch whose messages all match the filter
+	 * @param info information about the batch
+	 */
+	public synchronized void addBatch(StoredMessageBatchInfo info)
+	{
+		add(info.getMessageCount(), info.getFirstIndex(), info.getLastIndex(), info.getFirstTimestamp(), info.getLastTimestamp());
+	}
+	
+	/**
+	 * Accounts positions of batch messages that match the filter
+	 * @param positions of all messages of the batch
+	 */
+	public void addPositions(Collection<StoredMessagePosition> positions)
+	{
+		Part part = new Part();
+		for (StoredMessagePosition pos : positions)
+			part.add(pos.getId().getIndex(), pos.getTimestamp());
+		addPart(part);
+	}
+	
+	/**
+	 * Accounts batch messages that match the filter
+	 * @param messages all messages of the batch
+	 */
+	public void addMessages(Collection<StoredMessage> messages)
+	{
+		Part part = new Part();
+		for (StoredMessage msg : messages)
+			part.add(msg.getIndex(), msg.getTimestamp());
+		addPart(part);
+	}
+	
+	
+	public synchronized long getMessageCount()
+	{
+		return messageCount;
+	}
+	
+	public synchronized StreamStatistics toStreamStatistics(String streamName, Direction direction)
+	{
+		return new StreamStatistics(streamName, direction, messageCount, batchCount, 
+				firstIndex, lastIndex, firstTimestamp, lastTimestamp);
+	}
+	
+	
+	private synchronized void addPart(Part part)
+	{
+		add(part.count, part.firstIndex, part.lastIndex, part.firstTimestamp, part.lastTimestamp);
+	}
+	
+	private void add(long count, long first, long last, Instant firstTime, Instant lastTime)
+	{
+		if (count <= 0)
+			return;
+		
+		messageCount += count;
+		batchCount++;
+		if (firstIndex < 0 || first < firstIndex)
+			firstIndex = first;
+		if (last > lastIndex)
+			lastIndex = last;
+		if (firstTime != null && (firstTimestamp == null || firstTime.isBefore(firstTimestamp)))
+			firstTimestamp = firstTime;
+		if (lastTime != null && (lastTimestamp == null || lastTime.isAfter(lastTimestamp)))
+			lastTimestamp = lastTime;
+	}
+	
+	
+	private class Part
+	{
+		private long count;
+		private long firstIndex = -1,
+				lastIndex = -1;
+		private Instant firstTimestamp,
+				lastTimestamp;
+		
+		void add(long index, Instant timestamp)
+		{
+			if (!MessageBatchFilterMatcher.matches(filter, index, timestamp))
+				return;
+			
+			count++;
+			if (firstIndex < 0 || index < firstIndex)
+				firstIndex = index;
+			if (index > lastIndex)
+				lastIndex = index;
+			if (firstTimestamp == null || timestamp.isBefore(firstTimestamp))
+				firstTimestamp = timestamp;
+			if (lastTimestamp == null || timestamp.isAfter(lastTimestamp))
+				lastTimestamp = timestamp;
+		}
+	}
+}
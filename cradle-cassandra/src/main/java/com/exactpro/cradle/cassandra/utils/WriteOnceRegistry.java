@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.utils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Makes sure that data identified by given key is written only once by this process. 
+ * Useful for tables that list values for faster search, e.g. names of streams or dates with data. 
+ * Failed writes are forgotten so that the next registration of the same key executes the write again
+ * @param <K> class of keys that identify written data
+ */
+public class WriteOnceRegistry<K>
+{
+	private final Map<K, CompletableFuture<Void>> registrations = new ConcurrentHashMap<>();
+	
+	/**
+	 * Executes write for given key if it wasn't executed yet
+	 * @param key to register
+	 * @param writer supplier of future that performs the write
+	 * @return future that completes when data for the key is written. 
+	 * Concurrent registrations of the same key get the same future
+	 */
+	public CompletableFuture<Void> register(K key, Supplier<? extends CompletableFuture<?>> writer)
+	{
+		CompletableFuture<Void> registration = registrations.get(key);
+		if (registration != null)
+			return registration;
+		
+		CompletableFuture<Void> newRegistration = new CompletableFuture<>();
+		registration = registrations.putIfAbsent(key, newRegistration);
+		if (registration != null)
+			return registration;
+		
+		CompletableFuture<?> write;
+		try
+		{
+			write = writer.get();
+		}
+		catch (Exception e)
+		{
+			registrations.remove(key);
+			newRegistration.completeExceptionally(e);
+			return newRegistration;
+		}
+		
+		write.whenComplete((r, error) -> {
+			if (error == null)
+			{
+				newRegistration.complete(null);
+				return;
+			}
+			
+			registrations.remove(key);
+			newRegistration.completeExceptionally(error);
+		});
+		return newRegistration;
+	}
+	
+	public boolean isRegistered(K key)
+	{
+		CompletableFuture<Void> registration = registrations.get(key);
+		return registration != null && registration.isDone() && !registration.isCompletedExceptionally();
+	}
+	
+	public void clear()
+	{
+		registrations.clear();
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+
+/**
+ * Creates fake results of Cassandra queries for tests. 
+ * Fakes are proxies of driver interfaces that support only methods needed to iterate through result pages
+ */
+public class FakeResults
+{
+	/**
+	 * Handler of method called for fake object
+	 */
+	public interface MethodHandler
+	{
+		/**
+		 * @param method called for fake object
+		 * @param args of method call
+		 * @return result of method call
+		 * @throws UnsupportedOperationException if method is not supported by fake object
+		 */
+		Object invoke(Method method, Object[] args) throws Exception;
+	}
+	
+	/**
+	 * Creates fake implementation of given interface
+	 * @param type of fake object
+	 * @param handler to call for methods of the interface
+	 * @return fake object
+	 */
+	public static <T> T fake(Class<T> type, MethodHandler handler)
+	{
+		return type.cast(Proxy.newProxyInstance(FakeResults.class.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+				switch (method.getName())
+				{
+					case "toString" : return "Fake "+type.getSimpleName();
+					case "hashCode" : return System.identityHashCode(proxy);
+					case "equals" : return proxy == args[0];
+					default : return handler.invoke(method, args);
+				}
+			}));
+	}
+	
+	/**
+	 * @return fake statement whose setters and "copy" method return the statement itself
+	 */
+	public static SimpleStatement statement()
+	{
+		SimpleStatement[] result = new SimpleStatement[1];
+		result[0] = fake(SimpleStatement.class, (method, args) -> {
+				Class<?> type = method.getReturnType();
+				if (type.isInstance(result[0]))
+					return result[0];
+				if (type == int.class)
+					return 0;
+				if (type == long.class)
+					return 0L;
+				return null;
+			});
+		return result[0];
+	}
+	
+	public static ExecutionInfo executionInfo()
+	{
+		SimpleStatement stmt = statement();
+		return fake(ExecutionInfo.class, (method, args) -> {
+				switch (method.getName())
+				{
+					case "getStatement" : return stmt;
+					case "getPagingState" : return ByteBuffer.allocate(0);
+					case "getResponseSizeInBytes" : return 0;
+					default : throw unsupported(method);
+				}
+			});
+	}
+	
+	/**
+	 * @param value to return by {@link Row#getInt(int)}
+	 * @return fake row
+	 */
+	public static Row row(int value)
+	{
+		return fake(Row.class, (method, args) -> {
+				if (method.getName().equals("getInt"))
+					return value;
+				throw unsupported(method);
+			});
+	}
+	
+	/**
+	 * @param values to return by getters of columns with given names, e.g. {@link Row#getLong(String)}
+	 * @return fake row
+	 */
+	public static Row row(Map<String, ?> values)
+	{
+		return fake(Row.class, (method, args) -> {
+				if (method.getName().startsWith("get") && args != null && args.length == 1 && args[0] instanceof String)
+				{
+					if (!values.containsKey(args[0]))
+						throw new IllegalArgumentException("No value for column "+args[0]);
+					return values.get(args[0]);
+				}
+				throw unsupported(method);
+			});
+	}
+	
+	/**
+	 * Creates page of entities
+	 * @param entities of page
+	 * @param nextPage supplier of next page, null if there are no more pages
+	 * @return fake page
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> MappedAsyncPagingIterable<E> page(List<E> entities, Supplier<CompletionStage<MappedAsyncPagingIterable<E>>> nextPage)
+	{
+		return fake(MappedAsyncPagingIterable.class, pageHandler(entities, nextPage));
+	}
+	
+	/**
+	 * @param pages with entities
+	 * @return the first of fake pages, next pages are returned immediately when fetched
+	 */
+	@SafeVarargs
+	public static <E> MappedAsyncPagingIterable<E> pages(List<E>... pages)
+	{
+		List<E>[] rest = Arrays.copyOfRange(pages, 1, pages.length);
+		return page(pages[0], rest.length == 0 ? null : () -> CompletableFuture.completedFuture(pages(rest)));
+	}
+	
+	/**
+	 * Creates page of rows
+	 * @param rows of page
+	 * @param nextPage supplier of next page, null if there are no more pages
+	 * @return fake result set
+	 */
+	public static AsyncResultSet resultSet(List<Row> rows, Supplier<CompletionStage<AsyncResultSet>> nextPage)
+	{
+		return fake(AsyncResultSet.class, pageHandler(rows, nextPage));
+	}
+	
+	
+	private static <E, P> MethodHandler pageHandler(List<E> entities, Supplier<CompletionStage<P>> nextPage)
+	{
+		ExecutionInfo info = executionInfo();
+		return (method, args) -> {
+				switch (method.getName())
+				{
+					case "currentPage" : return entities;
+					case "one" : return entities.isEmpty() ? null : entities.get(0);
+					case "remaining" : return entities.size();
+					case "hasMorePages" : return nextPage != null;
+					case "wasApplied" : return true;
+					case "getExecutionInfo" : return info;
+					case "fetchNextPage" :
+						if (nextPage == null)
+							throw new IllegalStateException("No more pages");
+						return nextPage.get();
+					default : throw unsupported(method);
+				}
+			};
+	}
+	
+	private static UnsupportedOperationException unsupported(Method method)
+	{
+		return new UnsupportedOperationException(method.getDeclaringClass().getSimpleName()+"."+method.getName()+" is not supported by fake");
+	}
+}
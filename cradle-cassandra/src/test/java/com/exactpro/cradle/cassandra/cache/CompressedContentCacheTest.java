@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.cassandra.cache.CompressedContentCache.CachedContent;
+import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
+import com.exactpro.cradle.cassandra.dao.messages.MessageBatchEntityFactory;
+import com.exactpro.cradle.cassandra.dao.testevents.TestEventEntity;
+import com.exactpro.cradle.messages.StoredMessageId;
+
+public class CompressedContentCacheTest
+{
+	private static final String TABLE = "table1";
+	
+	private final MessageBatchEntityFactory entities = new MessageBatchEntityFactory();
+	
+	@Test
+	public void findsBatchByMessageId() throws Exception
+	{
+		CompressedContentCache cache = new CompressedContentCache(1024*1024);
+		DetailedMessageBatchEntity batch = entities.entity("stream1", 10, 1, 2, 3);
+		cache.putMessageBatch(TABLE, batch);
+		
+		CachedContent content = cache.getMessageBatch(TABLE, new StoredMessageId("stream1", Direction.FIRST, 11));
+		Assert.assertNotNull(content, "Batch is found by ID of message inside of it");
+		Assert.assertEquals(content.getContent(), batch.getContent(), "Cached content");
+		Assert.assertEquals(content.isCompressed(), batch.isCompressed());
+		
+		Assert.assertNull(cache.getMessageBatch(TABLE, new StoredMessageId("stream1", Direction.FIRST, 13)), "Message after batch");
+		Assert.assertNull(cache.getMessageBatch(TABLE, new StoredMessageId("stream1", Direction.SECOND, 11)), "Other direction");
+		Assert.assertNull(cache.getMessageBatch("table2", new StoredMessageId("stream1", Direction.FIRST, 11)), "Other table");
+	}
+	
+	@Test
+	public void restoresTestEventWithoutStatus() throws Exception
+	{
+		TestEventEntity event = new TestEventEntity();
+		event.setId("event1");
+		event.setName("Event 1");
+		event.setType("Type");
+		event.setParentId("parent1");
+		event.setEventBatch(true);
+		event.setSuccess(true);
+		event.setCompressed(true);
+		event.setStartDate(LocalDate.of(2021, 1, 1));
+		event.setStartTime(LocalTime.of(10, 0, 0, 123));
+		event.setContent(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+		
+		CompressedContentCache cache = new CompressedContentCache(1024*1024);
+		cache.putTestEvent(TABLE, event);
+		TestEventEntity restored = cache.getTestEvent(TABLE, "event1");
+		
+		Assert.assertEquals(restored.getId(), event.getId());
+		Assert.assertEquals(restored.getName(), event.getName());
+		Assert.assertEquals(restored.getType(), event.getType());
+		Assert.assertEquals(restored.getParentId(), event.getParentId());
+		Assert.assertEquals(restored.isRoot(), event.isRoot());
+		Assert.assertEquals(restored.isEventBatch(), event.isEventBatch());
+		Assert.assertEquals(restored.isCompressed(), event.isCompressed());
+		Assert.assertEquals(restored.getStartDate(), event.getStartDate());
+		Assert.assertEquals(restored.getStartTime(), event.getStartTime());
+		Assert.assertNull(restored.getEndDate(), "End date is not set");
+		Assert.assertNull(restored.getEndTime(), "End time is not set");
+		Assert.assertEquals(restored.getContent(), event.getContent());
+		Assert.assertFalse(restored.isSuccess(), "Status is not cached as it can be changed");
+		Assert.assertNull(cache.getTestEvent(TABLE, "event2"), "Unknown test event");
+	}
+	
+	@Test
+	public void dropsDataWhenDisposed() throws Exception
+	{
+		CompressedContentCache cache = new CompressedContentCache(1024*1024);
+		StoredMessageId id = new StoredMessageId("stream1", Direction.FIRST, 1);
+		cache.putMessageBatch(TABLE, entities.entity("stream1", 1, 1));
+		Assert.assertNotNull(cache.getMessageBatch(TABLE, id));
+		
+		cache.dispose();
+		Assert.assertNull(cache.getMessageBatch(TABLE, id), "Nothing is cached after dispose");
+		Assert.assertEquals(cache.getBlobs().getAllocatedSize(), 0, "Memory is released");
+		
+		cache.putMessageBatch(TABLE, entities.entity("stream1", 1, 1));
+		Assert.assertNull(cache.getMessageBatch(TABLE, id), "Nothing is cached after dispose");
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.messages.MessageToStoreBuilder;
+import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageBatch;
+import com.exactpro.cradle.messages.StoredMessageId;
+import com.exactpro.cradle.utils.CradleStorageException;
+
+public class MessageBatchCacheTest
+{
+	private static final String TABLE = "messages",
+			STREAM = "stream1";
+	
+	@Test
+	public void findsBatchByAnyMessageIndex() throws CradleStorageException
+	{
+		MessageBatchCache cache = new MessageBatchCache(1024*1024);
+		cache.put(TABLE, batch(10, 3));
+		
+		Assert.assertNotNull(cache.get(TABLE, id(10)), "First message of batch");
+		Assert.assertNotNull(cache.get(TABLE, id(12)), "Last message of batch");
+		Assert.assertNull(cache.get(TABLE, id(13)), "Message after batch");
+		Assert.assertNull(cache.get(TABLE, id(9)), "Message before batch");
+		Assert.assertNull(cache.get("processed_messages", id(11)), "Message from other table");
+		Assert.assertEquals(cache.getHitCount(), 2, "Hits");
+		Assert.assertEquals(cache.getMissCount(), 3, "Misses");
+	}
+	
+	@Test
+	public void evictsLeastRecentlyUsedBatch() throws CradleStorageException
+	{
+		List<StoredMessage> batch1 = batch(0, 2),
+				batch2 = batch(10, 2),
+				batch3 = batch(20, 2);
+		MessageBatchCache cache = new MessageBatchCache(MessageBatchCache.estimateSize(batch1)*2);
+		cache.put(TABLE, batch1);
+		cache.put(TABLE, batch2);
+		cache.get(TABLE, id(0));  //batch2 becomes least recently used
+		cache.put(TABLE, batch3);
+		
+		Assert.assertNotNull(cache.get(TABLE, id(1)), "Recently used batch is kept");
+		Assert.assertNull(cache.get(TABLE, id(11)), "Least recently used batch is evicted");
+		Assert.assertNotNull(cache.get(TABLE, id(21)), "New batch is cached");
+		Assert.assertEquals(cache.getEvictionCount(), 1, "Evictions");
+		Assert.assertEquals(cache.getBatchCount(), 2, "Cached batches");
+	}
+	
+	
+	private StoredMessageId id(long index)
+	{
+		return new StoredMessageId(STREAM, Direction.FIRST, index);
+	}
+	
+	private List<StoredMessage> batch(long firstIndex, int count) throws CradleStorageException
+	{
+		StoredMessageBatch batch = new StoredMessageBatch();
+		for (int i = 0; i < count; i++)
+		{
+			batch.addMessage(new MessageToStoreBuilder()
+					.streamName(STREAM)
+					.direction(Direction.FIRST)
+					.index(firstIndex+i)
+					.timestamp(Instant.now())
+					.content(new byte[] {1, 2, 3})
+					.build());
+		}
+		return new ArrayList<>(batch.getMessages());
+	}
+}
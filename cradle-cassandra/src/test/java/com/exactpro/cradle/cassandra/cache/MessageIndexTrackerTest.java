@@ -0,0 +1,148 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.Direction;
+
+public class MessageIndexTrackerTest
+{
+	private static final String TABLE = "messages",
+			STREAM = "stream1";
+	
+	@Test
+	public void loadsIndexOnce() throws IOException
+	{
+		AtomicInteger loads = new AtomicInteger();
+		MessageIndexTracker tracker = new MessageIndexTracker((table, stream, direction, first) -> {
+			loads.incrementAndGet();
+			return first ? 5 : 10;
+		});
+		
+		Assert.assertEquals(tracker.getLastIndex(TABLE, STREAM, Direction.FIRST), 10, "Loaded last index");
+		Assert.assertEquals(tracker.getLastIndex(TABLE, STREAM, Direction.FIRST), 10, "Tracked last index");
+		Assert.assertEquals(tracker.getFirstIndex(TABLE, STREAM, Direction.FIRST), 5, "Loaded first index");
+		Assert.assertEquals(loads.get(), 2, "Loads");
+		Assert.assertEquals(tracker.getHitCount(), 1, "Hits");
+	}
+	
+	@Test
+	public void updatesIndexWithStoredBatches() throws IOException
+	{
+		MessageIndexTracker tracker = new MessageIndexTracker((table, stream, direction, first) -> MessageIndexTracker.EMPTY_INDEX);
+		
+		Assert.assertEquals(tracker.getLastIndex(TABLE, STREAM, Direction.FIRST), MessageIndexTracker.EMPTY_INDEX, "Empty stream");
+		tracker.onBatchStored(TABLE, STREAM, Direction.FIRST, 0, 9);
+		tracker.onBatchStored(TABLE, STREAM, Direction.FIRST, 10, 19);
+		Assert.assertEquals(tracker.getLastIndex(TABLE, STREAM, Direction.FIRST), 19, "Last index after stored batches");
+		Assert.assertEquals(tracker.getLastIndex(TABLE, STREAM, Direction.SECOND), MessageIndexTracker.EMPTY_INDEX, "Other direction");
+	}
+	
+	@Test
+	public void mergesStoredBatchesWithLoadedIndex() throws IOException
+	{
+		MessageIndexTracker tracker = new MessageIndexTracker((table, stream, direction, first) -> first ? 100 : 200);
+		tracker.onBatchStored(TABLE, STREAM, Direction.FIRST, 201, 210);
+		
+		Assert.assertEquals(tracker.getFirstIndex(TABLE, STREAM, Direction.FIRST), 100, "First index");
+		Assert.assertEquals(tracker.getLastIndex(TABLE, STREAM, Direction.FIRST), 210, "Last index");
+	}
+	
+	@Test
+	public void refreshesLoadedIndex() throws IOException
+	{
+		AtomicInteger lastIndex = new AtomicInteger(10);
+		MessageIndexTracker tracker = new MessageIndexTracker((table, stream, direction, first) -> first ? 0 : lastIndex.get());
+		
+		Assert.assertEquals(tracker.getLastIndex(TABLE, STREAM, Direction.FIRST), 10, "Loaded last index");
+		lastIndex.set(20);
+		Assert.assertEquals(tracker.getLastIndex(TABLE, STREAM, Direction.FIRST), 10, "Last index before refresh");
+		tracker.refresh();
+		Assert.assertEquals(tracker.getLastIndex(TABLE, STREAM, Direction.FIRST), 20, "Last index after refresh");
+	}
+	
+	@Test
+	public void sharesConcurrentLoading() throws Exception
+	{
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loadStarted = new CountDownLatch(1),
+				release = new CountDownLatch(1);
+		MessageIndexTracker tracker = new MessageIndexTracker((table, stream, direction, first) -> {
+			loads.incrementAndGet();
+			loadStarted.countDown();
+			try
+			{
+				release.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			return 10;
+		});
+		
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try
+		{
+			Future<Long> index1 = executor.submit(() -> tracker.getLastIndex(TABLE, STREAM, Direction.FIRST));
+			Assert.assertTrue(loadStarted.await(5, TimeUnit.SECONDS), "Loading started");
+			Future<Long> index2 = executor.submit(() -> tracker.getLastIndex(TABLE, STREAM, Direction.FIRST));
+			Thread.sleep(50);  //Letting the second request reach the tracker while index is being loaded
+			release.countDown();
+			
+			Assert.assertEquals(index1.get(5, TimeUnit.SECONDS).longValue(), 10, "Loaded index");
+			Assert.assertEquals(index2.get(5, TimeUnit.SECONDS).longValue(), 10, "Index from shared loading");
+			Assert.assertEquals(loads.get(), 1, "Loads");
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	public void passesLoadingErrorAndRetries() throws IOException
+	{
+		AtomicInteger loads = new AtomicInteger();
+		MessageIndexTracker tracker = new MessageIndexTracker((table, stream, direction, first) -> {
+			if (loads.incrementAndGet() == 1)
+				throw new IOException("Query failed");
+			return 10;
+		});
+		
+		try
+		{
+			tracker.getLastIndex(TABLE, STREAM, Direction.FIRST);
+			Assert.fail("Error of loading is passed to caller");
+		}
+		catch (IOException e)
+		{
+			//Expected
+		}
+		Assert.assertEquals(tracker.getLastIndex(TABLE, STREAM, Direction.FIRST), 10, "Index is loaded again after error");
+	}
+}
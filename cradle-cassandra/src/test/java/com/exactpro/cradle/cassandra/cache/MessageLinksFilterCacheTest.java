@@ -0,0 +1,233 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.cassandra.cache.MessageLinksFilterCache.CoverageWriter;
+import com.exactpro.cradle.cassandra.cache.MessageLinksFilterCache.FilterWriter;
+import com.exactpro.cradle.cassandra.cache.MessageLinksFilterCache.StoredBucket;
+import com.exactpro.cradle.cassandra.utils.BloomFilter;
+import com.exactpro.cradle.messages.StoredMessageId;
+
+public class MessageLinksFilterCacheTest
+{
+	private static final String STREAM = "stream1";
+	private static final int BITS = 1024,
+			HASHES = MessageLinksFilterCache.DEFAULT_HASHES;
+	private static final FilterWriter NO_WRITER = (stream, direction, bucket, size, hashes, bits) -> CompletableFuture.completedFuture(null);
+	private static final CoverageWriter NO_COVERAGE = (stream, direction, bucket, covered) -> CompletableFuture.completedFuture(null);
+	
+	@Test
+	public void unknownWithoutCoverage() throws InterruptedException, ExecutionException
+	{
+		MessageLinksFilterCache cache = new MessageLinksFilterCache(10, 0, 100, BITS, 
+				(stream, direction, bucket) -> CompletableFuture.completedFuture(bucket(false, 20)), NO_WRITER, NO_COVERAGE);
+		
+		Assert.assertTrue(cache.mightBeLinked(id(5)).get(), "Bucket not started with filters enabled");
+		Assert.assertEquals(cache.getNegativeCount(), 0, "Negatives");
+	}
+	
+	@Test
+	public void mergesStoredBits() throws InterruptedException, ExecutionException
+	{
+		AtomicInteger loads = new AtomicInteger();
+		MessageLinksFilterCache cache = new MessageLinksFilterCache(10, 0, 100, BITS, 
+				(stream, direction, bucket) -> {
+					loads.incrementAndGet();
+					return CompletableFuture.completedFuture(bucket == 1 ? bucket(true, 110, 120) : bucket(false));
+				}, NO_WRITER, NO_COVERAGE);
+		
+		Assert.assertTrue(cache.mightBeLinked(id(110)).get(), "Stored key");
+		Assert.assertTrue(cache.mightBeLinked(id(120)).get(), "Other stored key");
+		Assert.assertFalse(cache.mightBeLinked(id(130)).get(), "Key not stored");
+		Assert.assertTrue(cache.mightBeLinked(id(30)).get(), "Key of other bucket");
+		Assert.assertEquals(loads.get(), 2, "Loads");
+		Assert.assertEquals(cache.getNegativeCount(), 1, "Negatives");
+	}
+	
+	@Test
+	public void unknownWithIncompatibleBits() throws InterruptedException, ExecutionException
+	{
+		StoredBucket stored = bucket(true);
+		stored.addFilter(BITS*2, HASHES, Collections.singleton(1));
+		MessageLinksFilterCache cache = new MessageLinksFilterCache(10, 0, 100, BITS, 
+				(stream, direction, bucket) -> CompletableFuture.completedFuture(stored), NO_WRITER, NO_COVERAGE);
+		
+		Assert.assertTrue(cache.mightBeLinked(id(5)).get(), "Bits of filter with other number of bits");
+	}
+	
+	@Test
+	public void writesOnlyNewBits() throws Exception
+	{
+		List<Set<Integer>> written = Collections.synchronizedList(new ArrayList<>());
+		MessageLinksFilterCache cache = new MessageLinksFilterCache(10, 0, 100, BITS, 
+				(stream, direction, bucket) -> CompletableFuture.completedFuture(bucket(true)), 
+				(stream, direction, bucket, size, hashes, bits) -> {
+					Assert.assertEquals(size, BITS, "Filter size");
+					Assert.assertEquals(hashes, HASHES, "Hash functions");
+					written.add(bits);
+					return CompletableFuture.completedFuture(null);
+				}, NO_COVERAGE);
+		
+		Assert.assertFalse(cache.mightBeLinked(id(7)).get(), "Before link is stored");
+		cache.onLinksStored(Arrays.asList(id(7), id(8))).get();
+		cache.onLinksStored(Collections.singletonList(id(7))).get();
+		cache.onLinksStored(Collections.singletonList(id(9))).get();
+		
+		Assert.assertTrue(cache.mightBeLinked(id(7)).get(), "Stored link is added to loaded filter");
+		Assert.assertEquals(written.size(), 2, "Writes, link with written bits causes no write");
+		Assert.assertEquals(written.get(0), bits(7, 8), "Bits of the 1st write");
+		Set<Integer> expected = bits(9);
+		expected.removeAll(bits(7, 8));
+		Assert.assertEquals(written.get(1), expected, "Only bits not written before");
+	}
+	
+	@Test
+	public void waitsForPendingWriteOfSameBits() throws Exception
+	{
+		CompletableFuture<Void> firstWrite = new CompletableFuture<>();
+		MessageLinksFilterCache cache = new MessageLinksFilterCache(10, 0, 100, BITS, 
+				(stream, direction, bucket) -> CompletableFuture.completedFuture(bucket(true)), 
+				(stream, direction, bucket, size, hashes, bits) -> firstWrite, NO_COVERAGE);
+		
+		CompletableFuture<Void> first = cache.onLinksStored(Collections.singletonList(id(7))),
+				second = cache.onLinksStored(Collections.singletonList(id(7)));
+		Assert.assertFalse(second.isDone(), "Link is not stored before its bits");
+		
+		firstWrite.complete(null);
+		first.get(1, TimeUnit.SECONDS);
+		second.get(1, TimeUnit.SECONDS);
+	}
+	
+	@Test
+	public void addsWrittenBitsToLoadedFilter() throws InterruptedException, ExecutionException
+	{
+		AtomicLong clock = new AtomicLong();
+		MessageLinksFilterCache cache = new MessageLinksFilterCache(10, 1000, 100, BITS, 
+				(stream, direction, bucket) -> CompletableFuture.completedFuture(bucket(true)), NO_WRITER, NO_COVERAGE, 
+				clock::get);
+		
+		cache.onLinksStored(Collections.singletonList(id(7))).get();
+		Assert.assertTrue(cache.mightBeLinked(id(7)).get(), "Link stored before loading");
+		
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+		Assert.assertTrue(cache.mightBeLinked(id(7)).get(), "Link stored before reloading");
+		Assert.assertEquals(cache.getExpirationCount(), 1, "Expirations");
+	}
+	
+	@Test
+	public void removesCoverageIfWriteFailed() throws InterruptedException, ExecutionException
+	{
+		List<Boolean> coverage = Collections.synchronizedList(new ArrayList<>());
+		AtomicInteger writes = new AtomicInteger();
+		MessageLinksFilterCache cache = new MessageLinksFilterCache(10, 0, 100, BITS, 
+				(stream, direction, bucket) -> CompletableFuture.completedFuture(bucket(true)), 
+				(stream, direction, bucket, size, hashes, bits) -> {
+					CompletableFuture<Void> result = new CompletableFuture<>();
+					if (writes.incrementAndGet() == 1)
+						result.completeExceptionally(new RuntimeException("Failed"));
+					else
+						result.complete(null);
+					return result;
+				}, 
+				(stream, direction, bucket, covered) -> {
+					coverage.add(covered);
+					return CompletableFuture.completedFuture(null);
+				});
+		
+		Assert.assertFalse(cache.mightBeLinked(id(8)).get(), "Before failed write");
+		Assert.assertTrue(cache.onLinksStored(Collections.singletonList(id(7))).isCompletedExceptionally(), "Failed write");
+		Assert.assertEquals(coverage, Collections.singletonList(false), "Mark of coverage is removed");
+		Assert.assertTrue(cache.mightBeLinked(id(8)).get(), "Bucket with failed write");
+		
+		cache.onLinksStored(Collections.singletonList(id(7))).get();
+		Assert.assertEquals(writes.get(), 2, "Bits of failed write are written again");
+	}
+	
+	@Test
+	public void marksStartedBucketsAsCovered() throws InterruptedException, ExecutionException
+	{
+		List<Long> covered = Collections.synchronizedList(new ArrayList<>());
+		MessageLinksFilterCache cache = new MessageLinksFilterCache(10, 0, 100, BITS, 
+				(stream, direction, bucket) -> CompletableFuture.completedFuture(bucket(false)), NO_WRITER, 
+				(stream, direction, bucket, c) -> {
+					Assert.assertTrue(c, "Bucket is marked as covered");
+					covered.add(bucket);
+					return CompletableFuture.completedFuture(null);
+				});
+		
+		cache.onMessagesStored(STREAM, Direction.FIRST, 101, 150).get();
+		Assert.assertEquals(covered, Collections.emptyList(), "Batch within bucket");
+		
+		cache.onMessagesStored(STREAM, Direction.FIRST, 95, 300).get();
+		Assert.assertEquals(covered, Arrays.asList(1L, 2L, 3L), "Batch with starts of buckets");
+	}
+	
+	@Test
+	public void unknownIfLoadingFailed() throws InterruptedException, ExecutionException
+	{
+		MessageLinksFilterCache cache = new MessageLinksFilterCache(10, 0, 100, BITS, 
+				(stream, direction, bucket) -> {
+					CompletableFuture<StoredBucket> result = new CompletableFuture<>();
+					result.completeExceptionally(new RuntimeException("Failed"));
+					return result;
+				}, NO_WRITER, NO_COVERAGE);
+		
+		Assert.assertTrue(cache.mightBeLinked(id(5)).get(), "Failed loading");
+		Assert.assertEquals(cache.getEntryCount(), 0, "Failed loading is forgotten");
+	}
+	
+	
+	private StoredMessageId id(long index)
+	{
+		return new StoredMessageId(STREAM, Direction.FIRST, index);
+	}
+	
+	private Set<Integer> bits(long... indices)
+	{
+		BloomFilter filter = new BloomFilter(BITS, HASHES);
+		Set<Integer> result = new HashSet<>();
+		for (long index : indices)
+		{
+			for (int bit : filter.getBits(index))
+				result.add(bit);
+		}
+		return result;
+	}
+	
+	private StoredBucket bucket(boolean covered, long... indices)
+	{
+		StoredBucket result = new StoredBucket(covered);
+		result.addFilter(BITS, HASHES, bits(indices));
+		return result;
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class OffHeapBlobCacheTest
+{
+	@Test
+	public void storesDataSpanningSeveralBlocks()
+	{
+		OffHeapBlobCache cache = new OffHeapBlobCache(1024, 16, 64, null);
+		byte[] data = bytes(100, (byte)7);
+		
+		Assert.assertTrue(cache.put("key1", ByteBuffer.wrap(data)), "Data is cached");
+		Assert.assertEquals(cache.get("key1").array(), data, "Cached data");
+		Assert.assertNull(cache.get("key2"), "Data for unknown key");
+		Assert.assertEquals(cache.getSize(), data.length, "Size of cached data");
+		Assert.assertEquals(cache.getHitCount(), 1, "Hits");
+		Assert.assertEquals(cache.getMissCount(), 1, "Misses");
+	}
+	
+	@Test
+	public void evictsLeastRecentlyUsedData()
+	{
+		List<String> evicted = new ArrayList<>();
+		OffHeapBlobCache cache = new OffHeapBlobCache(64, 16, 32, evicted::add);
+		cache.put("key1", ByteBuffer.wrap(bytes(32, (byte)1)));
+		cache.put("key2", ByteBuffer.wrap(bytes(32, (byte)2)));
+		cache.get("key1");
+		cache.put("key3", ByteBuffer.wrap(bytes(20, (byte)3)));
+		
+		Assert.assertEquals(evicted, List.of("key2"), "Evicted keys");
+		Assert.assertEquals(cache.get("key1").array(), bytes(32, (byte)1), "Recently used data is kept");
+		Assert.assertEquals(cache.get("key3").array(), bytes(20, (byte)3), "New data reuses freed blocks");
+	}
+	
+	@Test
+	public void skipsDataLargerThanCache()
+	{
+		OffHeapBlobCache cache = new OffHeapBlobCache(64, 16, 32, null);
+		Assert.assertFalse(cache.put("key1", ByteBuffer.wrap(bytes(65, (byte)1))), "Too large data is not cached");
+		Assert.assertEquals(cache.getAllocatedSize(), 0, "No memory allocated");
+	}
+	
+	@Test
+	public void releasesMemoryWhenDisposed()
+	{
+		OffHeapBlobCache cache = new OffHeapBlobCache(64, 16, 32, null);
+		cache.put("key1", ByteBuffer.wrap(bytes(20, (byte)1)));
+		cache.dispose();
+		
+		Assert.assertEquals(cache.getAllocatedSize(), 0, "Allocated memory is dropped");
+		Assert.assertEquals(cache.getEntryCount(), 0, "No entries after dispose");
+		Assert.assertFalse(cache.put("key2", ByteBuffer.wrap(bytes(20, (byte)2))), "Nothing is cached after dispose");
+	}
+	
+	@Test
+	public void limitsSizeByDirectMemory()
+	{
+		OffHeapBlobCache cache = new OffHeapBlobCache(Long.MAX_VALUE, 1024, 1024, null);
+		Assert.assertTrue(cache.getMaxSize() <= OffHeapBlobCache.getMaxDirectMemory() / 2, "Cache size is limited by half of max direct memory");
+		Assert.assertEquals(cache.getAllocatedSize(), 0, "Memory is allocated on demand");
+	}
+	
+	
+	private byte[] bytes(int length, byte value)
+	{
+		byte[] result = new byte[length];
+		for (int i = 0; i < length; i++)
+			result[i] = (byte)(value + i);
+		return result;
+	}
+}
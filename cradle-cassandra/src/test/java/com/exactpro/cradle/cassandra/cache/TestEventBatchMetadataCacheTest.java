@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.testevents.StoredTestEventBatchMetadata;
+import com.exactpro.cradle.testevents.StoredTestEventId;
+import com.exactpro.cradle.testevents.StoredTestEventMetadata;
+import com.exactpro.cradle.utils.TestEventUtils;
+
+public class TestEventBatchMetadataCacheTest
+{
+	private final StoredTestEventId parentId = new StoredTestEventId("parent");
+	
+	@Test
+	public void decodesBatchMetadataOnce() throws IOException
+	{
+		TestEventBatchMetadataCache cache = new TestEventBatchMetadataCache(10);
+		StoredTestEventMetadata batch1 = batch("batch1"),
+				batch2 = batch("batch1");
+		cache.resolve(batch1);
+		cache.resolve(batch2);
+		
+		Assert.assertSame(batch2.getBatchMetadata(), batch1.getBatchMetadata(), "Metadata of the same batch");
+		Assert.assertEquals(batch1.getBatchMetadata().getTestEvents().size(), 1, "Number of events in batch");
+		Assert.assertEquals(cache.getHitCount(), 1, "Hits");
+		Assert.assertEquals(cache.getMissCount(), 1, "Misses");
+	}
+	
+	@Test
+	public void ignoresSingleEvents() throws IOException
+	{
+		TestEventBatchMetadataCache cache = new TestEventBatchMetadataCache(10);
+		StoredTestEventMetadata event = new StoredTestEventMetadata();
+		event.setId(new StoredTestEventId("single"));
+		cache.resolve(event);
+		
+		Assert.assertEquals(cache.getEntryCount(), 0, "Cached entries");
+		Assert.assertEquals(cache.getMissCount(), 0, "Misses");
+	}
+	
+	@Test
+	public void evictsLeastRecentlyUsedMetadata() throws IOException
+	{
+		TestEventBatchMetadataCache cache = new TestEventBatchMetadataCache(2);
+		cache.resolve(batch("1"));
+		cache.resolve(batch("2"));
+		cache.get(new StoredTestEventId("1"));
+		cache.resolve(batch("3"));
+		
+		Assert.assertNotNull(cache.get(new StoredTestEventId("1")), "Recently used metadata");
+		Assert.assertNull(cache.get(new StoredTestEventId("2")), "Evicted metadata");
+		Assert.assertEquals(cache.getEvictionCount(), 1, "Evictions");
+	}
+	
+	
+	private StoredTestEventMetadata batch(String id) throws IOException
+	{
+		StoredTestEventId batchId = new StoredTestEventId(id);
+		StoredTestEventMetadata event = new StoredTestEventMetadata();
+		event.setId(new StoredTestEventId(id+"_event"));
+		event.setParentId(parentId);
+		event.setName("Event");
+		event.setStartTimestamp(Instant.now());
+		
+		StoredTestEventBatchMetadata metadata = new StoredTestEventBatchMetadata(batchId, parentId);
+		StoredTestEventBatchMetadata.addTestEventMetadata(event, metadata);
+		
+		StoredTestEventMetadata result = new StoredTestEventMetadata();
+		result.setId(batchId);
+		result.setParentId(parentId);
+		result.setBatch(true);
+		result.setBatchMetadataBytes(TestEventUtils.serializeTestEventsMetadata(metadata.getTestEvents()));
+		return result;
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.testevents.StoredTestEventId;
+import com.exactpro.cradle.testevents.StoredTestEventSingle;
+import com.exactpro.cradle.testevents.StoredTestEventWrapper;
+import com.exactpro.cradle.testevents.TestEventToStoreBuilder;
+import com.exactpro.cradle.utils.CradleStorageException;
+
+public class TestEventCacheTest
+{
+	@Test
+	public void returnsCachedEvent() throws CradleStorageException
+	{
+		TestEventCache cache = new TestEventCache(10, 0);
+		StoredTestEventWrapper event = event("1");
+		cache.put(event);
+		
+		Assert.assertSame(cache.get(event.getId()), event, "Cached event");
+		Assert.assertNull(cache.get(new StoredTestEventId("2")), "Not cached event");
+		Assert.assertEquals(cache.getHitCount(), 1, "Hits");
+		Assert.assertEquals(cache.getMissCount(), 1, "Misses");
+	}
+	
+	@Test
+	public void evictsLeastRecentlyUsedEvent() throws CradleStorageException
+	{
+		TestEventCache cache = new TestEventCache(2, 0);
+		StoredTestEventWrapper event1 = event("1"),
+				event2 = event("2"),
+				event3 = event("3");
+		cache.put(event1);
+		cache.put(event2);
+		cache.get(event1.getId());
+		cache.put(event3);
+		
+		Assert.assertNotNull(cache.get(event1.getId()), "Recently used event");
+		Assert.assertNull(cache.get(event2.getId()), "Evicted event");
+		Assert.assertNotNull(cache.get(event3.getId()), "New event");
+		Assert.assertEquals(cache.getEntryCount(), 2, "Entries");
+		Assert.assertEquals(cache.getEvictionCount(), 1, "Evictions");
+	}
+	
+	@Test
+	public void expiresEvent() throws CradleStorageException
+	{
+		AtomicLong now = new AtomicLong();
+		TestEventCache cache = new TestEventCache(10, 1000, now::get);
+		StoredTestEventWrapper event = event("1");
+		cache.put(event);
+		
+		now.set(TimeUnit.MILLISECONDS.toNanos(999));
+		Assert.assertNotNull(cache.get(event.getId()), "Event before expiration");
+		
+		now.set(TimeUnit.MILLISECONDS.toNanos(1000));
+		Assert.assertNull(cache.get(event.getId()), "Expired event");
+		Assert.assertEquals(cache.getExpirationCount(), 1, "Expirations");
+		Assert.assertEquals(cache.getEntryCount(), 0, "Entries");
+	}
+	
+	@Test
+	public void invalidatesEvent() throws CradleStorageException
+	{
+		TestEventCache cache = new TestEventCache(10, 0);
+		StoredTestEventWrapper event = event("1");
+		cache.put(event);
+		cache.invalidate(event.getId());
+		
+		Assert.assertNull(cache.get(event.getId()), "Invalidated event");
+	}
+	
+	@Test
+	public void skipsEventInvalidatedWhileRead() throws CradleStorageException
+	{
+		TestEventCache cache = new TestEventCache(10, 0);
+		StoredTestEventWrapper event1 = event("1"),
+				event2 = event("2");
+		long stamp = cache.getStamp();
+		cache.invalidate(event1.getId());
+		
+		Assert.assertFalse(cache.put(event1, stamp), "Event invalidated after stamp is not cached");
+		Assert.assertNull(cache.get(event1.getId()), "Event read before invalidation");
+		Assert.assertTrue(cache.put(event2, stamp), "Other event is cached");
+		Assert.assertTrue(cache.put(event1, cache.getStamp()), "Event read after invalidation is cached");
+	}
+	
+	@Test
+	public void skipsEventIfInvalidationsAreForgotten() throws CradleStorageException
+	{
+		TestEventCache cache = new TestEventCache(2, 0);
+		long stamp = cache.getStamp();
+		cache.invalidate(new StoredTestEventId("1"));
+		cache.invalidate(new StoredTestEventId("2"));
+		cache.invalidate(new StoredTestEventId("3"));
+		
+		Assert.assertFalse(cache.put(event("1"), stamp), "Event whose invalidation is forgotten is not cached");
+		Assert.assertFalse(cache.put(event("4"), stamp), "Event is not cached if some invalidations after stamp are forgotten");
+		Assert.assertTrue(cache.put(event("4"), cache.getStamp()));
+	}
+	
+	
+	private StoredTestEventWrapper event(String id) throws CradleStorageException
+	{
+		return new StoredTestEventWrapper(new StoredTestEventSingle(new TestEventToStoreBuilder()
+				.id(new StoredTestEventId(id))
+				.name("Event "+id)
+				.startTimestamp(Instant.now())
+				.success(true)
+				.build()));
+	}
+}
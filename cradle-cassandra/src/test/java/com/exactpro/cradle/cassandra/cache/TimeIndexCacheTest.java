@@ -0,0 +1,200 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.cache;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.Direction;
+
+public class TimeIndexCacheTest
+{
+	private static final LocalDate DATE = LocalDate.of(2021, 5, 10);
+	private static final long CACHE_SIZE = 10_000,
+			EMPTY_INDEX_SIZE = new TimeIndex().getSizeInBytes();
+	
+	@Test
+	public void findsNearestEntries()
+	{
+		TimeIndex index = new TimeIndex(2);
+		index.add(30, 300);
+		index.add(10, 100);
+		index.add(20, 200);
+		index.add(20, 201);
+		index.add(20, 200);
+		
+		Assert.assertEquals(index.size(), 4, "Index size without duplicates");
+		Assert.assertEquals(index.findBefore(25).getIndex(), 201, "Before, between entries");
+		Assert.assertEquals(index.findBefore(20).getIndex(), 201, "Before, exact time");
+		Assert.assertEquals(index.findAfter(20).getIndex(), 200, "After, exact time");
+		Assert.assertEquals(index.findAfter(25).getIndex(), 300, "After, between entries");
+		Assert.assertNull(index.findBefore(5), "Before the first entry");
+		Assert.assertNull(index.findAfter(35), "After the last entry");
+	}
+	
+	@Test
+	public void loadsIndexOnce() throws InterruptedException, ExecutionException
+	{
+		AtomicInteger loads = new AtomicInteger();
+		TimeIndexCache cache = new TimeIndexCache(CACHE_SIZE, 0, (stream, direction, date) -> {
+			loads.incrementAndGet();
+			return CompletableFuture.completedFuture(new TimeIndex());
+		});
+		
+		TimeIndex index = cache.getIndex("stream1", Direction.FIRST, DATE).get();
+		Assert.assertSame(cache.getIndex("stream1", Direction.FIRST, DATE).get(), index, "Cached index");
+		cache.getIndex("stream1", Direction.SECOND, DATE).get();
+		
+		Assert.assertEquals(loads.get(), 2, "Loads");
+		Assert.assertEquals(cache.getHitCount(), 1, "Hits");
+		Assert.assertEquals(cache.getMissCount(), 2, "Misses");
+	}
+	
+	@Test
+	public void addsStoredMessagesToCachedIndex() throws InterruptedException, ExecutionException
+	{
+		TimeIndexCache cache = new TimeIndexCache(CACHE_SIZE, 0, (stream, direction, date) -> CompletableFuture.completedFuture(new TimeIndex()));
+		TimeIndex index = cache.getIndex("stream1", Direction.FIRST, DATE).get();
+		cache.onMessageStored("stream1", Direction.FIRST, DATE, LocalTime.of(12, 0), 5);
+		cache.onMessageStored("stream1", Direction.FIRST, DATE.plusDays(1), LocalTime.of(12, 0), 6);
+		
+		Assert.assertEquals(index.size(), 1, "Index size");
+		Assert.assertEquals(index.findAfter(LocalTime.of(11, 0).toNanoOfDay()).getIndex(), 5, "Stored message");
+		Assert.assertEquals(cache.getEntryCount(), 1, "Message of not cached day doesn't cause loading");
+	}
+	
+	@Test
+	public void reloadsExpiredIndex() throws InterruptedException, ExecutionException
+	{
+		AtomicLong clock = new AtomicLong();
+		AtomicInteger loads = new AtomicInteger();
+		TimeIndexCache cache = new TimeIndexCache(CACHE_SIZE, 1000, (stream, direction, date) -> {
+			loads.incrementAndGet();
+			return CompletableFuture.completedFuture(new TimeIndex());
+		}, clock::get);
+		
+		cache.getIndex("stream1", Direction.FIRST, DATE).get();
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+		cache.getIndex("stream1", Direction.FIRST, DATE).get();
+		
+		Assert.assertEquals(loads.get(), 2, "Loads");
+		Assert.assertEquals(cache.getExpirationCount(), 1, "Expirations");
+	}
+	
+	@Test
+	public void forgetsFailedLoading() throws InterruptedException, ExecutionException
+	{
+		AtomicInteger loads = new AtomicInteger();
+		TimeIndexCache cache = new TimeIndexCache(CACHE_SIZE, 0, (stream, direction, date) -> {
+			CompletableFuture<TimeIndex> result = new CompletableFuture<>();
+			if (loads.incrementAndGet() == 1)
+				result.completeExceptionally(new RuntimeException("Failed"));
+			else
+				result.complete(new TimeIndex());
+			return result;
+		});
+		
+		Assert.assertTrue(cache.getIndex("stream1", Direction.FIRST, DATE).isCompletedExceptionally(), "Failed loading");
+		Assert.assertNotNull(cache.getIndex("stream1", Direction.FIRST, DATE).get(), "Loaded after failure");
+		Assert.assertEquals(loads.get(), 2, "Loads");
+	}
+	
+	@Test
+	public void evictsIndicesBySize() throws InterruptedException, ExecutionException
+	{
+		TimeIndexCache cache = new TimeIndexCache(EMPTY_INDEX_SIZE*3, 0, 
+				(stream, direction, date) -> CompletableFuture.completedFuture(new TimeIndex()));
+		for (int i = 1; i <= 4; i++)
+			cache.getIndex("stream"+i, Direction.FIRST, DATE).get();
+		
+		Assert.assertEquals(cache.getEntryCount(), 3, "Entries");
+		Assert.assertEquals(cache.getSize(), EMPTY_INDEX_SIZE*3, "Size");
+		Assert.assertEquals(cache.getEvictionCount(), 1, "Evictions");
+	}
+	
+	@Test
+	public void countsGrowthOfIndex() throws InterruptedException, ExecutionException
+	{
+		AtomicInteger loads = new AtomicInteger();
+		TimeIndexCache cache = new TimeIndexCache(EMPTY_INDEX_SIZE*4, 0, (stream, direction, date) -> {
+			loads.incrementAndGet();
+			return CompletableFuture.completedFuture(new TimeIndex());
+		});
+		TimeIndex index = cache.getIndex("stream1", Direction.FIRST, DATE).get();
+		cache.getIndex("stream2", Direction.FIRST, DATE).get();
+		
+		for (int i = 0; i < 33; i++)
+			cache.onMessageStored("stream1", Direction.FIRST, DATE, LocalTime.of(12, 0, i), i);
+		
+		Assert.assertEquals(cache.getSize(), index.getSizeInBytes(), "Size after growth of index");
+		Assert.assertEquals(cache.getEvictionCount(), 1, "Evictions");
+		Assert.assertSame(cache.getIndex("stream1", Direction.FIRST, DATE).get(), index, "Grown index is still cached");
+		cache.getIndex("stream2", Direction.FIRST, DATE).get();
+		Assert.assertEquals(loads.get(), 3, "Least recently used index is loaded again");
+	}
+	
+	@Test
+	public void doesNotCacheTooLargeIndex() throws InterruptedException, ExecutionException
+	{
+		AtomicInteger loads = new AtomicInteger();
+		TimeIndexCache cache = new TimeIndexCache(EMPTY_INDEX_SIZE*2, 0, (stream, direction, date) -> {
+			loads.incrementAndGet();
+			TimeIndex result = new TimeIndex();
+			if (stream.equals("large"))
+			{
+				for (int i = 0; i < 100; i++)
+					result.add(LocalTime.of(12, 0, i % 60).toNanoOfDay()+i, i);
+			}
+			return CompletableFuture.completedFuture(result);
+		});
+		cache.getIndex("small", Direction.FIRST, DATE).get();
+		
+		Assert.assertNotNull(cache.getIndex("large", Direction.FIRST, DATE).get(), "Loaded index is returned to requester");
+		Assert.assertEquals(cache.getEntryCount(), 1, "Entries");
+		Assert.assertEquals(cache.getSize(), EMPTY_INDEX_SIZE, "Size");
+		Assert.assertEquals(cache.getEvictionCount(), 0, "Other indices are not evicted for too large index");
+		Assert.assertEquals(cache.getRejectionCount(), 1, "Rejections");
+		
+		Assert.assertNull(cache.getIndex("large", Direction.FIRST, DATE).get(), "Day with too large index is not loaded again");
+		cache.getIndex("small", Direction.FIRST, DATE).get();
+		Assert.assertEquals(loads.get(), 2, "Loads");
+	}
+	
+	@Test
+	public void removesIndexGrownTooLarge() throws InterruptedException, ExecutionException
+	{
+		TimeIndexCache cache = new TimeIndexCache(EMPTY_INDEX_SIZE*2, 0, 
+				(stream, direction, date) -> CompletableFuture.completedFuture(new TimeIndex()));
+		cache.getIndex("stream1", Direction.FIRST, DATE).get();
+		
+		for (int i = 0; i < 100; i++)
+			cache.onMessageStored("stream1", Direction.FIRST, DATE, LocalTime.of(12, 0, i % 60), i);
+		
+		Assert.assertEquals(cache.getEntryCount(), 0, "Entries");
+		Assert.assertEquals(cache.getSize(), 0, "Size");
+		Assert.assertEquals(cache.getRejectionCount(), 1, "Rejections");
+		Assert.assertNull(cache.getIndex("stream1", Direction.FIRST, DATE).get(), "Day with too large index is not loaded again");
+	}
+}
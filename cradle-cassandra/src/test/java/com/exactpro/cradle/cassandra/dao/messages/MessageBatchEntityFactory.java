@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.dao.messages;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.Order;
+import com.exactpro.cradle.messages.MessageToStoreBuilder;
+import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageBatch;
+import com.exactpro.cradle.utils.CradleStorageException;
+
+/**
+ * Creates message batch entities for tests. 
+ * Timestamps of messages are given in seconds from {@link #START}, created entities record which batches were decoded
+ */
+public class MessageBatchEntityFactory
+{
+	public static final Instant START = Instant.parse("2021-01-01T10:00:00Z");
+	
+	private final UUID instanceId = UUID.randomUUID();
+	private final Set<Long> decodedBatches = new HashSet<>();
+	
+	/**
+	 * Creates batch whose messages have sequenced indices
+	 * @param streamName of batch messages
+	 * @param firstIndex index of the first message in batch
+	 * @param seconds timestamps of messages in seconds from {@link #START}
+	 * @return entity of batch
+	 */
+	public DetailedMessageBatchEntity entity(String streamName, long firstIndex, long... seconds) throws IOException, CradleStorageException
+	{
+		long[] indices = new long[seconds.length];
+		for (int i = 0; i < indices.length; i++)
+			indices[i] = firstIndex+i;
+		return entity(streamName, indices, seconds);
+	}
+	
+	/**
+	 * Creates batch whose messages have given indices, timestamp of each message in seconds from {@link #START} equals to its index
+	 * @param streamName of batch messages
+	 * @param indices of messages
+	 * @return entity of batch
+	 */
+	public DetailedMessageBatchEntity entityWithIndices(String streamName, long... indices) throws IOException, CradleStorageException
+	{
+		return entity(streamName, indices, indices);
+	}
+	
+	public DetailedMessageBatchEntity entity(String streamName, long[] indices, long[] seconds) throws IOException, CradleStorageException
+	{
+		StoredMessageBatch batch = new StoredMessageBatch();
+		for (int i = 0; i < indices.length; i++)
+		{
+			batch.addMessage(new MessageToStoreBuilder()
+					.streamName(streamName)
+					.direction(Direction.FIRST)
+					.index(indices[i])
+					.timestamp(START.plusSeconds(seconds[i]))
+					.content(new byte[] {1, 2, 3})
+					.build());
+		}
+		
+		long firstSecond = seconds[0];
+		return new DetailedMessageBatchEntity(batch, instanceId)
+		{
+			@Override
+			public Collection<StoredMessage> toStoredMessages(Order order) throws IOException
+			{
+				synchronized (decodedBatches)
+				{
+					decodedBatches.add(firstSecond);
+				}
+				return super.toStoredMessages(order);
+			}
+		};
+	}
+	
+	
+	/**
+	 * @return decoded batches, identified by timestamp of their first message in seconds from {@link #START}
+	 */
+	public Set<Long> getDecodedBatches()
+	{
+		synchronized (decodedBatches)
+		{
+			return new HashSet<>(decodedBatches);
+		}
+	}
+	
+	public boolean isDecoded()
+	{
+		return !getDecodedBatches().isEmpty();
+	}
+	
+	public void clearDecoded()
+	{
+		synchronized (decodedBatches)
+		{
+			decodedBatches.clear();
+		}
+	}
+	
+	public long seconds(StoredMessage message)
+	{
+		return message.getTimestamp().getEpochSecond()-START.getEpochSecond();
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ArrivalOrderIteratorTest
+{
+	@Test
+	public void returnsResultsInOrderOfArrival()
+	{
+		ArrivalOrderIterator<Integer> it = new ArrivalOrderIterator<>(4, "test");
+		it.add(3);
+		it.add(null);
+		it.add(1);
+		it.add(2);
+		
+		List<Integer> values = new ArrayList<>();
+		it.forEachRemaining(values::add);
+		Assert.assertEquals(values, Arrays.asList(3, 1, 2));
+	}
+	
+	@Test
+	public void waitsForResults() throws InterruptedException
+	{
+		ArrivalOrderIterator<Integer> it = new ArrivalOrderIterator<>(2, "test");
+		Thread producer = new Thread(() -> {
+			it.add(1);
+			it.add(2);
+		});
+		producer.start();
+		
+		List<Integer> values = new ArrayList<>();
+		it.forEachRemaining(values::add);
+		producer.join();
+		Assert.assertEquals(values, Arrays.asList(1, 2));
+	}
+	
+	@Test
+	public void stopsWhenFinished()
+	{
+		ArrivalOrderIterator<Integer> it = new ArrivalOrderIterator<>("test");
+		it.add(1);
+		it.add(null);
+		it.add(2);
+		it.finish();
+		
+		List<Integer> values = new ArrayList<>();
+		it.forEachRemaining(values::add);
+		Assert.assertEquals(values, Arrays.asList(1, 2));
+		Assert.assertFalse(it.hasNext(), "No more results after finish");
+	}
+	
+	@Test(expectedExceptions = RuntimeException.class)
+	public void throwsErrorWhenReached()
+	{
+		ArrivalOrderIterator<Integer> it = new ArrivalOrderIterator<>(2, "test");
+		it.add(1);
+		it.fail(new Exception("failed"));
+		
+		Assert.assertEquals(it.next(), Integer.valueOf(1));
+		it.hasNext();
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import static com.exactpro.cradle.cassandra.FakeResults.page;
+import static com.exactpro.cradle.cassandra.FakeResults.pages;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+
+public class AsyncPageReaderTest
+{
+	private final AsyncPageReader<Integer> reader = new AsyncPageReader<>(null, null, "test");
+	
+	@Test
+	public void readsAllPages() throws Exception
+	{
+		List<Integer> result = new ArrayList<>();
+		reader.forEach(pages(Arrays.asList(1, 2), Arrays.asList(3), Arrays.asList(4, 5)), result::add).get(5, TimeUnit.SECONDS);
+		Assert.assertEquals(result, Arrays.asList(1, 2, 3, 4, 5));
+	}
+	
+	@Test
+	public void waitsForNextPageWithoutBlocking() throws Exception
+	{
+		CompletableFuture<MappedAsyncPagingIterable<Integer>> nextPage = new CompletableFuture<>();
+		List<Integer> result = new ArrayList<>();
+		CompletableFuture<Void> future = reader.forEach(page(Arrays.asList(1, 2), () -> nextPage), result::add);
+		
+		Assert.assertFalse(future.isDone(), "Reading is done before next page is fetched");
+		Assert.assertEquals(result, Arrays.asList(1, 2), "Entities of first page");
+		
+		nextPage.complete(pages(Arrays.asList(3)));
+		future.get(5, TimeUnit.SECONDS);
+		Assert.assertEquals(result, Arrays.asList(1, 2, 3), "Entities of all pages");
+	}
+	
+	@Test
+	public void passesErrorOfPageFetch() throws InterruptedException
+	{
+		RuntimeException error = new RuntimeException("Page fetch failed");
+		CompletableFuture<MappedAsyncPagingIterable<Integer>> failed = new CompletableFuture<>();
+		failed.completeExceptionally(error);
+		
+		try
+		{
+			reader.forEach(page(Arrays.asList(1), () -> failed), e -> {}).get();
+			Assert.fail("Error is not passed");
+		}
+		catch (ExecutionException e)
+		{
+			Assert.assertSame(e.getCause(), error);
+		}
+	}
+	
+	@Test
+	public void stopsOnErrorOfAction() throws InterruptedException
+	{
+		List<Integer> result = new ArrayList<>();
+		try
+		{
+			reader.forEach(pages(Arrays.asList(1, 2), Arrays.asList(3)), e -> {
+				if (e == 2)
+					throw new IllegalStateException("Action failed");
+				result.add(e);
+			}).get();
+			Assert.fail("Error is not passed");
+		}
+		catch (ExecutionException e)
+		{
+			Assert.assertEquals(e.getCause().getMessage(), "Action failed");
+		}
+		Assert.assertEquals(result, Arrays.asList(1), "Processed entities");
+	}
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
+import com.exactpro.cradle.cassandra.dao.messages.MessageBatchEntityFactory;
+import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageFilter;
+
+public class ConvertingPagedIteratorTest
+{
+	private ExecutorService executor;
+	
+	@BeforeMethod
+	public void prepare()
+	{
+		executor = Executors.newFixedThreadPool(4);
+	}
+	
+	@AfterMethod
+	public void cleanup()
+	{
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void returnsResultsInOrderOfEntities()
+	{
+		//Entities in the beginning are converted slower, so that conversions made in advance finish earlier
+		TestIterator it = new TestIterator(entities(10), 3, e -> sleep(20-e*2));
+		
+		List<String> result = new ArrayList<>();
+		it.forEachRemaining(result::add);
+		Assert.assertEquals(result, IntStream.rangeClosed(1, 10).mapToObj(String::valueOf).collect(Collectors.toList()));
+	}
+	
+	@Test
+	public void propagatesConversionError()
+	{
+		TestIterator it = new TestIterator(entities(5), 3, e -> {
+				if (e == 3)
+					throw new IOException("Cannot convert "+e);
+			});
+		
+		Assert.assertEquals(it.next(), "1");
+		Assert.assertEquals(it.next(), "2");
+		try
+		{
+			it.next();
+			Assert.fail("Error of conversion is thrown");
+		}
+		catch (RuntimeException e)
+		{
+			Assert.assertTrue(e.getCause() instanceof IOException, "Error of conversion is the cause");
+		}
+	}
+	
+	@Test
+	public void convertsNoMoreThanLookaheadInAdvance()
+	{
+		CountingIterator source = new CountingIterator(entities(10));
+		TestIterator it = new TestIterator(source, 3, e -> {});
+		
+		for (int i = 1; i <= 10; i++)
+		{
+			it.next();
+			Assert.assertEquals(source.taken, Math.min(10, i-1+3), "Entities taken after "+i+" results");
+		}
+		Assert.assertFalse(it.hasNext());
+	}
+	
+	@Test
+	public void cancelsConversionsInAdvance() throws Exception
+	{
+		executor.shutdownNow();
+		executor = Executors.newSingleThreadExecutor();
+		
+		CountDownLatch release = new CountDownLatch(1);
+		TestIterator it = new TestIterator(entities(5), 3, e -> {
+				if (e == 2)
+					await(release);
+			});
+		
+		Assert.assertEquals(it.next(), "1");
+		it.cancel();
+		Assert.assertFalse(it.hasNext(), "No results after cancel");
+		
+		release.countDown();
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		Assert.assertFalse(it.converted.contains(3), "Queued conversion is cancelled");
+		Assert.assertFalse(it.converted.contains(4), "Entity beyond lookahead is not converted");
+	}
+	
+	@Test
+	public void decodesOnlyBatchesWithinLimit() throws Exception
+	{
+		MessageBatchEntityFactory factory = new MessageBatchEntityFactory();
+		List<DetailedMessageBatchEntity> batches = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+			batches.add(factory.entity("stream1", i*2, i*2, i*2+1));
+		
+		StoredMessageFilter filter = new StoredMessageFilter();
+		filter.setLimit(3);
+		MessagesIterator it = new MessagesIterator(filter, new MessageBatchIterator(batches.iterator(), filter, executor, 4));
+		
+		List<Long> result = new ArrayList<>();
+		while (it.hasNext())
+			result.add(it.next().getIndex());
+		
+		Assert.assertEquals(result, Arrays.asList(0L, 1L, 2L), "Number of messages is limited");
+		Assert.assertEquals(factory.getDecodedBatches(), new HashSet<>(Arrays.asList(0L, 2L)), "Only batches with needed messages are decoded");
+	}
+	
+	
+	private Iterator<Integer> entities(int count)
+	{
+		return IntStream.rangeClosed(1, count).boxed().iterator();
+	}
+	
+	private static void sleep(long millis)
+	{
+		try
+		{
+			Thread.sleep(Math.max(millis, 0));
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static void await(CountDownLatch latch)
+	{
+		try
+		{
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	
+	private interface Conversion
+	{
+		void convert(int entity) throws IOException;
+	}
+	
+	private class TestIterator extends ConvertingPagedIterator<String, Integer>
+	{
+		private final Conversion conversion;
+		private final Set<Integer> converted = ConcurrentHashMap.newKeySet();
+		
+		TestIterator(Iterator<Integer> entities, int lookahead, Conversion conversion)
+		{
+			super(entities, executor, lookahead);
+			this.conversion = conversion;
+		}
+		
+		@Override
+		protected String convertEntity(Integer entity) throws IOException
+		{
+			conversion.convert(entity);
+			converted.add(entity);
+			return String.valueOf(entity);
+		}
+	}
+	
+	private static class CountingIterator implements Iterator<Integer>
+	{
+		private final Iterator<Integer> it;
+		private int taken;
+		
+		CountingIterator(Iterator<Integer> it)
+		{
+			this.it = it;
+		}
+		
+		@Override
+		public boolean hasNext()
+		{
+			return it.hasNext();
+		}
+		
+		@Override
+		public Integer next()
+		{
+			taken++;
+			return it.next();
+		}
+	}
+}
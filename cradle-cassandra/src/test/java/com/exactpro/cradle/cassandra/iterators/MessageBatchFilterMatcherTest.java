@@ -0,0 +1,134 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.Order;
+import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
+import com.exactpro.cradle.cassandra.dao.messages.MessageBatchEntityFactory;
+import com.exactpro.cradle.cassandra.iterators.MessageBatchFilterMatcher.Match;
+import com.exactpro.cradle.filters.ComparisonOperation;
+import com.exactpro.cradle.filters.FilterForAny;
+import com.exactpro.cradle.filters.FilterForGreater;
+import com.exactpro.cradle.filters.FilterForLess;
+import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageFilter;
+import com.exactpro.cradle.utils.CradleStorageException;
+
+public class MessageBatchFilterMatcherTest
+{
+	private final Instant start = MessageBatchEntityFactory.START;
+	private final MessageBatchEntityFactory entities = new MessageBatchEntityFactory();
+	
+	@Test
+	public void skipsBatchOutsideOfTimestampRange() throws Exception
+	{
+		StoredMessageFilter filter = new StoredMessageFilter();
+		filter.setTimestampFrom(from(10, true));
+		
+		entities.clearDecoded();
+		Collection<StoredMessage> result = MessageBatchFilterMatcher.getMatchingMessages(filter, entity(1, 1, 5));
+		Assert.assertTrue(result.isEmpty(), "No messages match the filter");
+		Assert.assertFalse(entities.isDecoded(), "Batch outside of filter is not decoded");
+	}
+	
+	@Test
+	public void matchesWholeBatchInsideOfFilter() throws Exception
+	{
+		StoredMessageFilter filter = new StoredMessageFilter();
+		filter.setTimestampFrom(from(1, true));
+		filter.setTimestampTo(to(5, true));
+		filter.setIndex(new FilterForAny<>(10L, ComparisonOperation.GREATER_OR_EQUALS));
+		
+		Assert.assertEquals(MessageBatchFilterMatcher.match(filter, entity(10, 1, 3, 5)), Match.ALL);
+	}
+	
+	@Test
+	public void filtersMessagesOfBoundaryBatch() throws Exception
+	{
+		StoredMessageFilter filter = new StoredMessageFilter();
+		filter.setTimestampFrom(from(3, false));
+		filter.setOrder(Order.REVERSE);
+		
+		DetailedMessageBatchEntity entity = entity(1, 1, 3, 5, 7);
+		Assert.assertEquals(MessageBatchFilterMatcher.match(filter, entity), Match.PARTIAL);
+		Assert.assertEquals(seconds(MessageBatchFilterMatcher.getMatchingMessages(filter, entity)), Arrays.asList(7L, 5L));
+	}
+	
+	@Test
+	public void checksIndexBounds() throws Exception
+	{
+		DetailedMessageBatchEntity entity = entity(10, 1, 2, 3);
+		StoredMessageFilter filter = new StoredMessageFilter();
+		
+		filter.setIndex(new FilterForAny<>(13L, ComparisonOperation.EQUALS));
+		Assert.assertEquals(MessageBatchFilterMatcher.match(filter, entity), Match.NONE, "Index after batch");
+		
+		filter.setIndex(new FilterForAny<>(11L, ComparisonOperation.EQUALS));
+		Assert.assertEquals(MessageBatchFilterMatcher.match(filter, entity), Match.PARTIAL, "Index inside of batch");
+		
+		filter.setIndex(new FilterForAny<>(10L, ComparisonOperation.LESS));
+		Assert.assertEquals(MessageBatchFilterMatcher.match(filter, entity), Match.NONE, "Index before batch");
+		
+		filter.setIndex(null);
+		filter.setLeftBoundIndex(11);
+		Assert.assertEquals(MessageBatchFilterMatcher.match(filter, entity), Match.PARTIAL, "Left bound inside of batch");
+	}
+	
+	
+	private FilterForGreater<Instant> from(long seconds, boolean orEquals)
+	{
+		FilterForGreater<Instant> result = new FilterForGreater<>(start.plusSeconds(seconds));
+		if (orEquals)
+			result.setGreaterOrEquals();
+		else
+			result.setGreater();
+		return result;
+	}
+	
+	private FilterForLess<Instant> to(long seconds, boolean orEquals)
+	{
+		FilterForLess<Instant> result = new FilterForLess<>(start.plusSeconds(seconds));
+		if (orEquals)
+			result.setLessOrEquals();
+		else
+			result.setLess();
+		return result;
+	}
+	
+	private DetailedMessageBatchEntity entity(long firstIndex, long... seconds) throws IOException, CradleStorageException
+	{
+		return entities.entity("stream1", firstIndex, seconds);
+	}
+	
+	private List<Long> seconds(Collection<StoredMessage> messages)
+	{
+		List<Long> result = new ArrayList<>();
+		for (StoredMessage msg : messages)
+			result.add(entities.seconds(msg));
+		return result;
+	}
+}
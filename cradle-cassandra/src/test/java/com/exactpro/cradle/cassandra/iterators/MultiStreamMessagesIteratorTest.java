@@ -0,0 +1,100 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.Order;
+import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
+import com.exactpro.cradle.cassandra.dao.messages.MessageBatchEntityFactory;
+import com.exactpro.cradle.messages.MultiStreamMessageFilter;
+import com.exactpro.cradle.utils.CradleStorageException;
+
+public class MultiStreamMessagesIteratorTest
+{
+	private final MessageBatchEntityFactory entities = new MessageBatchEntityFactory();
+	
+	@Test
+	public void mergesByTimestamp() throws Exception
+	{
+		List<Long> result = timestamps(iterator(Order.DIRECT, 0));
+		Assert.assertEquals(result, Arrays.asList(1L, 2L, 3L, 4L, 7L, 8L, 9L), "Messages of all streams are merged by timestamp");
+	}
+	
+	@Test
+	public void mergesByTimestampInReverseOrder() throws Exception
+	{
+		List<Long> result = timestamps(iterator(Order.REVERSE, 0));
+		Assert.assertEquals(result, Arrays.asList(9L, 8L, 7L, 4L, 3L, 2L, 1L), "Messages of all streams are merged by timestamp in reverse order");
+	}
+	
+	@Test
+	public void appliesLimitAndDecodesOnlyNeededBatches() throws Exception
+	{
+		entities.clearDecoded();
+		List<Long> result = timestamps(iterator(Order.DIRECT, 3));
+		Assert.assertEquals(result, Arrays.asList(1L, 2L, 3L), "Total number of messages is limited");
+		Assert.assertEquals(entities.getDecodedBatches(), new HashSet<>(Arrays.asList(1L, 2L)), "Only batches with needed messages are decoded");
+	}
+	
+	
+	private MultiStreamMessagesIterator iterator(Order order, int limit) throws IOException, CradleStorageException
+	{
+		MultiStreamMessageFilter filter = new MultiStreamMessageFilter(Arrays.asList("stream1", "stream2"));
+		filter.setDirections(Arrays.asList(Direction.FIRST));
+		filter.setOrder(order);
+		filter.setLimit(limit);
+		
+		List<DetailedMessageBatchEntity> stream1 = Arrays.asList(entities.entity("stream1", 1, 1, 4), entities.entity("stream1", 3, 7, 9)),
+				stream2 = Arrays.asList(entities.entity("stream2", 1, 2, 3), entities.entity("stream2", 3, 8));
+		if (order == Order.REVERSE)
+		{
+			stream1 = reversed(stream1);
+			stream2 = reversed(stream2);
+		}
+		
+		Collection<MessageStreamCursor> cursors = Arrays.asList(
+				new MessageStreamCursor(stream1.iterator(), filter.toStreamFilter("stream1", Direction.FIRST)),
+				new MessageStreamCursor(stream2.iterator(), filter.toStreamFilter("stream2", Direction.FIRST)));
+		return new MultiStreamMessagesIterator(cursors, order, limit);
+	}
+	
+	private List<DetailedMessageBatchEntity> reversed(List<DetailedMessageBatchEntity> list)
+	{
+		List<DetailedMessageBatchEntity> result = new ArrayList<>(list);
+		Collections.reverse(result);
+		return result;
+	}
+	
+	private List<Long> timestamps(MultiStreamMessagesIterator it)
+	{
+		List<Long> result = new ArrayList<>();
+		while (it.hasNext())
+			result.add(entities.seconds(it.next()));
+		return result;
+	}
+}
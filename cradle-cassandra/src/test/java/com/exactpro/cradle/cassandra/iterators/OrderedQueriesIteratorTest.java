@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class OrderedQueriesIteratorTest
+{
+	@Test
+	public void returnsResultsInOrderOfQueries()
+	{
+		List<CompletableFuture<Iterator<Integer>>> results = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+			results.add(new CompletableFuture<>());
+		List<Supplier<CompletableFuture<Iterator<Integer>>>> queries = new ArrayList<>();
+		for (CompletableFuture<Iterator<Integer>> r : results)
+			queries.add(() -> r);
+		
+		OrderedQueriesIterator<Integer> it = new OrderedQueriesIterator<>(queries, 3, "test");
+		//Results of later queries come first
+		results.get(2).complete(Arrays.asList(5, 6).iterator());
+		results.get(1).complete(Arrays.<Integer>asList().iterator());
+		results.get(0).complete(Arrays.asList(1, 2).iterator());
+		
+		List<Integer> values = new ArrayList<>();
+		it.forEachRemaining(values::add);
+		Assert.assertEquals(values, Arrays.asList(1, 2, 5, 6));
+	}
+	
+	@Test
+	public void limitsQueriesExecutedInAdvance()
+	{
+		AtomicInteger executed = new AtomicInteger();
+		List<Supplier<CompletableFuture<Iterator<Integer>>>> queries = new ArrayList<>();
+		for (int i = 0; i < 5; i++)
+		{
+			int value = i;
+			queries.add(() -> {
+				executed.incrementAndGet();
+				return CompletableFuture.completedFuture(Arrays.asList(value).iterator());
+			});
+		}
+		
+		OrderedQueriesIterator<Integer> it = new OrderedQueriesIterator<>(queries, 2, "test");
+		Assert.assertEquals(executed.get(), 2, "Queries executed on creation");
+		
+		Assert.assertEquals(it.next(), Integer.valueOf(0));
+		Assert.assertEquals(executed.get(), 3, "Queries executed after first result is taken");
+		
+		List<Integer> values = new ArrayList<>();
+		it.forEachRemaining(values::add);
+		Assert.assertEquals(values, Arrays.asList(1, 2, 3, 4));
+		Assert.assertEquals(executed.get(), 5, "All queries executed");
+	}
+	
+	@Test(expectedExceptions = RuntimeException.class)
+	public void failsOnQueryError()
+	{
+		CompletableFuture<Iterator<Integer>> failed = new CompletableFuture<>();
+		failed.completeExceptionally(new IllegalStateException("Query failed"));
+		List<Supplier<CompletableFuture<Iterator<Integer>>>> queries = new ArrayList<>();
+		queries.add(() -> failed);
+		
+		new OrderedQueriesIterator<>(queries, 1, "test").hasNext();
+	}
+}
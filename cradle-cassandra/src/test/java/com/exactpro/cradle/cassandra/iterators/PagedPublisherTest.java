@@ -0,0 +1,374 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import static com.exactpro.cradle.cassandra.FakeResults.page;
+import static com.exactpro.cradle.cassandra.FakeResults.pages;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.exactpro.cradle.cassandra.FakeResults;
+import com.exactpro.cradle.cassandra.retries.CannotRetryException;
+import com.exactpro.cradle.cassandra.retries.PagingSupplies;
+import com.exactpro.cradle.cassandra.retries.SelectExecutionPolicy;
+import com.exactpro.cradle.cassandra.retries.SelectExecutionVerdict;
+
+public class PagedPublisherTest
+{
+	@Test
+	public void publishesOnlyRequestedObjects()
+	{
+		AtomicInteger fetches = new AtomicInteger();
+		MappedAsyncPagingIterable<Integer> rows = page(Arrays.asList(1, 2, 3), () -> {
+				fetches.incrementAndGet();
+				return CompletableFuture.completedFuture(pages(Arrays.asList(4, 5)));
+			});
+		TestSubscriber subscriber = new TestSubscriber();
+		new TestPublisher(query(rows)).subscribe(subscriber);
+		
+		subscriber.request(2);
+		Assert.assertEquals(subscriber.items, Arrays.asList(1, 2));
+		Assert.assertEquals(fetches.get(), 0, "Next page is not fetched while current page has requested objects");
+		
+		subscriber.request(2);
+		Assert.assertEquals(subscriber.items, Arrays.asList(1, 2, 3, 4));
+		Assert.assertEquals(fetches.get(), 1, "Next page is fetched on demand");
+		Assert.assertFalse(subscriber.result.isDone(), "Publishing is not finished while there are objects to publish");
+		
+		subscriber.request(10);
+		Assert.assertEquals(subscriber.items, Arrays.asList(1, 2, 3, 4, 5));
+		Assert.assertTrue(subscriber.isCompleted(), "Publishing is finished when all objects are published");
+	}
+	
+	@Test
+	public void doesNotExecuteQueryWithoutDemand()
+	{
+		AtomicInteger executions = new AtomicInteger();
+		TestSubscriber subscriber = new TestSubscriber();
+		new TestPublisher(() -> {
+				executions.incrementAndGet();
+				return CompletableFuture.completedFuture(pages(Arrays.asList(1)));
+			}).subscribe(subscriber);
+		
+		Assert.assertEquals(executions.get(), 0, "Query is executed on first demand");
+		subscriber.request(1);
+		Assert.assertEquals(executions.get(), 1);
+	}
+	
+	@Test
+	public void stopsWhenCancelledWithinPage()
+	{
+		AtomicInteger fetches = new AtomicInteger();
+		MappedAsyncPagingIterable<Integer> rows = page(Arrays.asList(1, 2, 3), () -> {
+				fetches.incrementAndGet();
+				return CompletableFuture.completedFuture(pages(Arrays.asList(4)));
+			});
+		TestSubscriber subscriber = new TestSubscriber();
+		subscriber.onItem = i -> {
+				if (i == 2)
+					subscriber.subscription.cancel();
+			};
+		new TestPublisher(query(rows)).subscribe(subscriber);
+		
+		subscriber.request(10);
+		Assert.assertEquals(subscriber.items, Arrays.asList(1, 2), "No objects are published after cancel");
+		Assert.assertEquals(fetches.get(), 0, "Next page is not fetched after cancel");
+		Assert.assertFalse(subscriber.result.isDone(), "Cancelled subscription is not completed");
+	}
+	
+	@Test
+	public void passesErrorOfPageFetch()
+	{
+		RuntimeException error = new RuntimeException("Page fetch failed");
+		CompletableFuture<MappedAsyncPagingIterable<Integer>> failed = new CompletableFuture<>();
+		failed.completeExceptionally(error);
+		MappedAsyncPagingIterable<Integer> rows = page(Arrays.asList(1, 2), () -> failed);
+		TestSubscriber subscriber = new TestSubscriber();
+		new TestPublisher(query(rows)).subscribe(subscriber);
+		
+		subscriber.request(10);
+		Assert.assertEquals(subscriber.items, Arrays.asList(1, 2), "Objects from fetched page are published before error");
+		Assert.assertSame(subscriber.getError(), error);
+	}
+	
+	@Test
+	public void passesErrorOfConversion()
+	{
+		TestSubscriber subscriber = new TestSubscriber();
+		new TestPublisher(query(pages(Arrays.asList(1, -2, 3)))).subscribe(subscriber);
+		
+		subscriber.request(10);
+		Assert.assertEquals(subscriber.items, Arrays.asList(1));
+		Assert.assertTrue(subscriber.getError() instanceof IllegalArgumentException, "Error of conversion is passed to subscriber");
+	}
+	
+	@Test
+	public void passesErrorOfNonPositiveRequest()
+	{
+		TestSubscriber subscriber = new TestSubscriber();
+		new TestPublisher(query(pages(Arrays.asList(1)))).subscribe(subscriber);
+		
+		subscriber.request(0);
+		Assert.assertTrue(subscriber.getError() instanceof IllegalArgumentException, "Non-positive request is an error by specification");
+	}
+	
+	@Test
+	public void retriesPageFetch() throws Exception
+	{
+		AtomicInteger executions = new AtomicInteger();
+		CqlSession session = FakeResults.fake(CqlSession.class, (method, args) -> {
+				if (!method.getName().equals("executeAsync"))
+					throw new UnsupportedOperationException(method.getName());
+				
+				CompletableFuture<AsyncResultSet> result = new CompletableFuture<>();
+				if (executions.incrementAndGet() == 1)
+					result.completeExceptionally(new RuntimeException("Temporary failure"));
+				else
+					result.complete(FakeResults.resultSet(Arrays.asList(FakeResults.row(3), FakeResults.row(4)), null));
+				return result;
+			});
+		TestPolicy policy = new TestPolicy(1);
+		
+		MappedAsyncPagingIterable<Integer> rows = page(Arrays.asList(1, 2), () -> {
+				throw new AssertionError("Next page is fetched by session");
+			});
+		TestSubscriber subscriber = new TestSubscriber();
+		new TestPublisher(Collections.singletonList(query(rows)), new PagingSupplies(session, policy)).subscribe(subscriber);
+		
+		subscriber.request(10);
+		subscriber.result.get(10, TimeUnit.SECONDS);
+		Assert.assertEquals(subscriber.items, Arrays.asList(1, 2, 3, 4));
+		Assert.assertEquals(executions.get(), 2, "Page request is retried once");
+		Assert.assertEquals(policy.errors.get(), 1);
+		Assert.assertEquals(policy.fetchedRows.get(), 2, "Policy is notified about fetched page");
+	}
+	
+	@Test
+	public void executesQueriesOneAfterAnother()
+	{
+		List<Integer> executed = new ArrayList<>();
+		List<Supplier<CompletableFuture<MappedAsyncPagingIterable<Integer>>>> days = new ArrayList<>();
+		for (int i = 0; i < 3; i++)
+		{
+			int day = i;
+			days.add(() -> {
+					executed.add(day);
+					return CompletableFuture.completedFuture(pages(Arrays.asList(day*10+1, day*10+2)));
+				});
+		}
+		TestSubscriber subscriber = new TestSubscriber();
+		new TestPublisher(days, null).subscribe(subscriber);
+		
+		subscriber.request(2);
+		Assert.assertEquals(executed, Arrays.asList(0), "Next query is not executed while results of previous one satisfy demand");
+		
+		subscriber.request(1);
+		Assert.assertEquals(executed, Arrays.asList(0, 1));
+		
+		subscriber.request(10);
+		Assert.assertEquals(executed, Arrays.asList(0, 1, 2));
+		Assert.assertEquals(subscriber.items, Arrays.asList(1, 2, 11, 12, 21, 22), "Results of queries are published in order of queries");
+		Assert.assertTrue(subscriber.isCompleted());
+	}
+	
+	@Test
+	public void startsQueriesByGivenExecutor()
+	{
+		List<Runnable> submitted = new ArrayList<>();
+		AtomicInteger executions = new AtomicInteger();
+		TestSubscriber subscriber = new TestSubscriber();
+		new TestPublisher(Collections.singletonList(() -> {
+				executions.incrementAndGet();
+				return CompletableFuture.completedFuture(pages(Arrays.asList(1, 2)));
+			}), null, submitted::add).subscribe(subscriber);
+		
+		subscriber.request(10);
+		Assert.assertEquals(executions.get(), 0, "Query is not started by thread that requested objects");
+		Assert.assertEquals(submitted.size(), 1);
+		
+		submitted.get(0).run();
+		Assert.assertEquals(executions.get(), 1);
+		Assert.assertEquals(subscriber.items, Arrays.asList(1, 2));
+		Assert.assertTrue(subscriber.isCompleted());
+	}
+	
+	@Test
+	public void ignoresPageFetchedAfterCancel()
+	{
+		CompletableFuture<MappedAsyncPagingIterable<Integer>> nextPage = new CompletableFuture<>();
+		AtomicInteger conversions = new AtomicInteger();
+		TestSubscriber subscriber = new TestSubscriber();
+		new TestPublisher(query(page(Arrays.asList(1), () -> nextPage)))
+		{
+			@Override
+			protected Iterator<Integer> convertEntity(Integer entity)
+			{
+				conversions.incrementAndGet();
+				return super.convertEntity(entity);
+			}
+		}.subscribe(subscriber);
+		
+		subscriber.request(10);
+		subscriber.subscription.cancel();
+		nextPage.complete(pages(Arrays.asList(2, 3)));
+		Assert.assertEquals(subscriber.items, Arrays.asList(1));
+		Assert.assertEquals(conversions.get(), 1, "Rows fetched after cancel are not processed");
+		Assert.assertFalse(subscriber.result.isDone());
+	}
+	
+	
+	private Supplier<CompletableFuture<MappedAsyncPagingIterable<Integer>>> query(MappedAsyncPagingIterable<Integer> rows)
+	{
+		return () -> CompletableFuture.completedFuture(rows);
+	}
+	
+	
+	private static class TestPublisher extends PagedPublisher<Integer, Integer>
+	{
+		public TestPublisher(Supplier<CompletableFuture<MappedAsyncPagingIterable<Integer>>> query)
+		{
+			this(Collections.singletonList(query), null, Runnable::run);
+		}
+		
+		public TestPublisher(List<Supplier<CompletableFuture<MappedAsyncPagingIterable<Integer>>>> queries, PagingSupplies pagingSupplies)
+		{
+			this(queries, pagingSupplies, Runnable::run);
+		}
+		
+		public TestPublisher(List<Supplier<CompletableFuture<MappedAsyncPagingIterable<Integer>>>> queries, PagingSupplies pagingSupplies, 
+				Executor queryExecutor)
+		{
+			super(queries, pagingSupplies, row -> row.getInt(0), "test", queryExecutor);
+		}
+		
+		@Override
+		protected Iterator<Integer> convertEntity(Integer entity)
+		{
+			if (entity < 0)
+				throw new IllegalArgumentException("Cannot convert "+entity);
+			return Collections.singletonList(entity).iterator();
+		}
+	}
+	
+	private static class TestSubscriber implements Flow.Subscriber<Integer>
+	{
+		private final List<Integer> items = Collections.synchronizedList(new ArrayList<>());
+		private final CompletableFuture<Void> result = new CompletableFuture<>();
+		private volatile Flow.Subscription subscription;
+		private Consumer<Integer> onItem = i -> {};
+		
+		@Override
+		public void onSubscribe(Flow.Subscription subscription)
+		{
+			this.subscription = subscription;
+		}
+		
+		@Override
+		public void onNext(Integer item)
+		{
+			items.add(item);
+			onItem.accept(item);
+		}
+		
+		@Override
+		public void onError(Throwable throwable)
+		{
+			result.completeExceptionally(throwable);
+		}
+		
+		@Override
+		public void onComplete()
+		{
+			result.complete(null);
+		}
+		
+		
+		public void request(long n)
+		{
+			subscription.request(n);
+		}
+		
+		public boolean isCompleted()
+		{
+			return result.isDone() && !result.isCompletedExceptionally();
+		}
+		
+		public Throwable getError()
+		{
+			Assert.assertTrue(result.isCompletedExceptionally(), "Publishing failed");
+			return result.handle((r, e) -> e).join();
+		}
+	}
+	
+	private static class TestPolicy implements SelectExecutionPolicy
+	{
+		private final int maxRetries;
+		private final AtomicInteger errors = new AtomicInteger(),
+				fetchedRows = new AtomicInteger();
+		
+		public TestPolicy(int maxRetries)
+		{
+			this.maxRetries = maxRetries;
+		}
+		
+		@Override
+		public SelectExecutionVerdict onError(Statement<?> statement, String queryInfo, Throwable cause, int retryCount) throws CannotRetryException
+		{
+			errors.incrementAndGet();
+			if (retryCount >= maxRetries)
+				throw new CannotRetryException("No more retries", cause);
+			return null;
+		}
+		
+		@Override
+		public SelectExecutionVerdict onError(Collection<String> ids, String queryInfo, Throwable cause, int retryCount) throws CannotRetryException
+		{
+			return onError((Statement<?>)null, queryInfo, cause, retryCount);
+		}
+		
+		@Override
+		public SelectExecutionVerdict onNextPage(Statement<?> statement, String queryInfo)
+		{
+			return null;
+		}
+		
+		@Override
+		public void onPageFetched(String queryInfo, int rows, long bytes, long latencyNanos)
+		{
+			fetchedRows.addAndGet(rows);
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.iterators;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.testevents.StoredTestEventBatchMetadata;
+import com.exactpro.cradle.testevents.StoredTestEventId;
+import com.exactpro.cradle.testevents.StoredTestEventMetadata;
+import com.exactpro.cradle.testevents.TestEventTreeNode;
+
+public class TestEventTreeLoaderTest
+{
+	private final LocalDate day1 = LocalDate.of(2021, 3, 1),
+			day2 = day1.plusDays(1);
+	private final StoredTestEventId rootId = new StoredTestEventId("root");
+	private final Map<StoredTestEventId, Map<LocalDate, List<StoredTestEventMetadata>>> children = new HashMap<>();
+	
+	@BeforeClass
+	public void prepare()
+	{
+		//root has single event "A" and batch with "b1" and its child "b2" in different days.
+		//"A" has child "A1", "b2" has child "C" stored outside of the batch
+		StoredTestEventMetadata batch = event("batch", rootId);
+		batch.setBatch(true);
+		StoredTestEventBatchMetadata batchMetadata = new StoredTestEventBatchMetadata(batch.getId(), rootId);
+		StoredTestEventBatchMetadata.addTestEventMetadata(event("b1", rootId), batchMetadata);
+		StoredTestEventBatchMetadata.addTestEventMetadata(event("b2", new StoredTestEventId("b1")), batchMetadata);
+		batch.setBatchMetadata(batchMetadata);
+		
+		addChild(rootId, day1, event("A", rootId));
+		addChild(rootId, day2, batch);
+		addChild(new StoredTestEventId("A"), day1, event("A1", new StoredTestEventId("A")));
+		addChild(new StoredTestEventId("b2"), day2, event("C", new StoredTestEventId("b2")));
+	}
+	
+	@Test
+	public void loadsWholeTree()
+	{
+		Map<String, Integer> depths = load(0);
+		Assert.assertEquals(depths.size(), 5, "Number of loaded events");
+		Assert.assertEquals(depths.get("A"), Integer.valueOf(1));
+		Assert.assertEquals(depths.get("b1"), Integer.valueOf(1));
+		Assert.assertEquals(depths.get("b2"), Integer.valueOf(2));
+		Assert.assertEquals(depths.get("A1"), Integer.valueOf(2));
+		Assert.assertEquals(depths.get("C"), Integer.valueOf(3));
+	}
+	
+	@Test
+	public void limitsDepth()
+	{
+		Map<String, Integer> depths = load(2);
+		Assert.assertEquals(depths.keySet(), new HashSet<>(Arrays.asList("A", "b1", "b2", "A1")));
+	}
+	
+	@Test
+	public void returnsParentsBeforeChildren()
+	{
+		TestEventTreeLoader loader = newLoader(0).start(rootId);
+		Collection<StoredTestEventId> returned = new HashSet<>();
+		for (TestEventTreeNode node : loader)
+		{
+			if (!node.getParentId().equals(rootId))
+				Assert.assertTrue(returned.contains(node.getParentId()), "Parent of "+node.getId()+" is returned before it");
+			returned.add(node.getId());
+		}
+	}
+	
+	@Test(expectedExceptions = RuntimeException.class)
+	public void failsOnQueryError()
+	{
+		TestEventTreeLoader loader = new TestEventTreeLoader(parentId -> {
+					CompletableFuture<Collection<LocalDate>> result = new CompletableFuture<>();
+					result.completeExceptionally(new IOException("Query failed"));
+					return result;
+				},
+				(parentId, date) -> CompletableFuture.completedFuture(Collections.emptyIterator()),
+				0, 2, 0, ForkJoinPool.commonPool(), ForkJoinPool.commonPool(), null, "test").start(rootId);
+		loader.iterator().hasNext();
+	}
+	
+	@Test
+	public void doesNotExecuteQueriesInCallingThread()
+	{
+		AtomicInteger queries = new AtomicInteger();
+		List<Runnable> tasks = new ArrayList<>();
+		TestEventTreeLoader loader = newDirectLoader(0, tasks::add, queries).start(rootId);
+		
+		Assert.assertEquals(queries.get(), 0, "Queries executed by start");
+		while (!tasks.isEmpty())
+			tasks.remove(0).run();
+		Assert.assertEquals(toIds(loader).size(), 5, "Number of loaded events");
+	}
+	
+	@Test
+	public void pausesWhileLoadedEventsAreNotTaken()
+	{
+		AtomicInteger queries = new AtomicInteger();
+		TestEventTreeLoader loader = newDirectLoader(1, Runnable::run, queries).start(rootId);
+		
+		//Dates of root and its children of one date are queried, then loading waits for loaded events to be taken
+		Assert.assertEquals(queries.get(), 2, "Queries executed before events are taken");
+		Assert.assertEquals(toIds(loader).size(), 5, "Number of loaded events");
+	}
+	
+	@Test
+	public void stopsLoadingWhenClosed()
+	{
+		AtomicInteger queries = new AtomicInteger();
+		TestEventTreeLoader loader = newDirectLoader(1, Runnable::run, queries).start(rootId);
+		loader.close();
+		
+		Assert.assertFalse(toIds(loader).isEmpty(), "Events loaded before closing are returned");
+		Assert.assertEquals(queries.get(), 2, "Queries executed after closing");
+	}
+	
+	
+	private Map<String, Integer> load(int maxDepth)
+	{
+		Map<String, Integer> result = new HashMap<>();
+		for (TestEventTreeNode node : newLoader(maxDepth).start(rootId))
+			result.put(node.getId().toString(), node.getDepth());
+		return result;
+	}
+	
+	private TestEventTreeLoader newLoader(int maxDepth)
+	{
+		return new TestEventTreeLoader(
+				parentId -> CompletableFuture.completedFuture(children.getOrDefault(parentId, Collections.emptyMap()).keySet()),
+				(parentId, date) -> {
+					Iterator<StoredTestEventMetadata> result = children.get(parentId).get(date).iterator();
+					return CompletableFuture.supplyAsync(() -> result);
+				},
+				maxDepth, 2, 0, ForkJoinPool.commonPool(), ForkJoinPool.commonPool(), null, "test");
+	}
+	
+	private TestEventTreeLoader newDirectLoader(int maxBufferedNodes, Executor queryExecutor, AtomicInteger queries)
+	{
+		return new TestEventTreeLoader(
+				parentId -> {
+					queries.incrementAndGet();
+					return CompletableFuture.completedFuture(children.getOrDefault(parentId, Collections.emptyMap()).keySet());
+				},
+				(parentId, date) -> {
+					queries.incrementAndGet();
+					return CompletableFuture.completedFuture(children.get(parentId).get(date).iterator());
+				},
+				0, 2, maxBufferedNodes, queryExecutor, Runnable::run, null, "test");
+	}
+	
+	private List<String> toIds(TestEventTreeLoader loader)
+	{
+		List<String> result = new ArrayList<>();
+		for (TestEventTreeNode node : loader)
+			result.add(node.getId().toString());
+		return result;
+	}
+	
+	private void addChild(StoredTestEventId parentId, LocalDate date, StoredTestEventMetadata child)
+	{
+		children.computeIfAbsent(parentId, k -> new HashMap<>())
+				.computeIfAbsent(date, k -> new ArrayList<>())
+				.add(child);
+	}
+	
+	private StoredTestEventMetadata event(String id, StoredTestEventId parentId)
+	{
+		StoredTestEventMetadata result = new StoredTestEventMetadata();
+		result.setId(new StoredTestEventId(id));
+		result.setParentId(parentId);
+		return result;
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.linkers;
+
+import static com.exactpro.cradle.cassandra.FakeResults.pages;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.cassandra.CassandraSemaphore;
+import com.exactpro.cradle.cassandra.FakeResults;
+import com.exactpro.cradle.cassandra.dao.messages.MessageTestEventConverter;
+import com.exactpro.cradle.cassandra.dao.messages.MessageTestEventEntity;
+import com.exactpro.cradle.cassandra.dao.messages.MessageTestEventOperator;
+import com.exactpro.cradle.cassandra.dao.testevents.TestEventMessagesEntity;
+import com.exactpro.cradle.cassandra.dao.testevents.TestEventMessagesOperator;
+import com.exactpro.cradle.cassandra.dao.testevents.converters.TestEventMessagesConverter;
+import com.exactpro.cradle.cassandra.retries.SelectExecutionPolicy;
+import com.exactpro.cradle.cassandra.retries.SelectQueryExecutor;
+import com.exactpro.cradle.messages.StoredMessageId;
+import com.exactpro.cradle.testevents.StoredTestEventId;
+
+public class CassandraTestEventsMessagesLinkerTest
+{
+	private static final String LOOKUP_THREAD = "lookup";
+	
+	private final StoredMessageId message1 = new StoredMessageId("stream1", Direction.FIRST, 1),
+			message2 = new StoredMessageId("stream1", Direction.FIRST, 2),
+			message3 = new StoredMessageId("stream1", Direction.FIRST, 3);
+	private final StoredTestEventId event1 = new StoredTestEventId("event1"),
+			event2 = new StoredTestEventId("event2"),
+			event3 = new StoredTestEventId("event3");
+	
+	private ExecutorService executor;
+	private Map<String, CompletableFuture<MappedAsyncPagingIterable<MessageTestEventEntity>>> pendingQueries;
+	private List<String> queries;
+	
+	@BeforeMethod
+	public void prepare()
+	{
+		executor = Executors.newCachedThreadPool(r -> new Thread(r, LOOKUP_THREAD));
+		pendingQueries = new HashMap<>();
+		queries = Collections.synchronizedList(new ArrayList<>());
+	}
+	
+	@AfterMethod
+	public void dispose()
+	{
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void getsTestEventIdsByMessageIds() throws IOException
+	{
+		Map<StoredMessageId, Collection<StoredTestEventId>> result = linker(10)
+				.getTestEventIdsByMessageIds(Arrays.asList(message1, message2, message3, message1));
+		
+		Map<StoredMessageId, Collection<StoredTestEventId>> expected = new HashMap<>();
+		expected.put(message1, new HashSet<>(Arrays.asList(event1, event2)));
+		expected.put(message3, Collections.singleton(event3));
+		Assert.assertEquals(result, expected, "Messages without linked test events are not in result");
+		Assert.assertEquals(queries.size(), 3, "Duplicate IDs are looked up once");
+	}
+	
+	@Test
+	public void getsMessageIdsByTestEventIds() throws IOException
+	{
+		Map<StoredTestEventId, Collection<StoredMessageId>> result = linker(10)
+				.getMessageIdsByTestEventIds(Arrays.asList(event1, event2, event3));
+		
+		Map<StoredTestEventId, Collection<StoredMessageId>> expected = new HashMap<>();
+		expected.put(event1, Collections.singleton(message1));
+		expected.put(event2, Collections.singleton(message1));
+		expected.put(event3, Collections.singleton(message3));
+		Assert.assertEquals(result, expected);
+	}
+	
+	@Test
+	public void filtersLinkedIdsInOrderOfRequest() throws IOException
+	{
+		CassandraTestEventsMessagesLinker linker = linker(10);
+		Set<StoredMessageId> messages = linker.filterMessagesLinkedToTestEvents(Arrays.asList(message3, message2, message1));
+		Set<StoredTestEventId> events = linker.filterTestEventsLinkedToMessages(Arrays.asList(event3, new StoredTestEventId("none"), event1));
+		
+		Assert.assertEquals(new ArrayList<>(messages), Arrays.asList(message3, message1), "Linked messages");
+		Assert.assertEquals(new ArrayList<>(events), Arrays.asList(event3, event1), "Linked test events");
+	}
+	
+	@Test(expectedExceptions = IOException.class)
+	public void failsIfLookupFailed() throws IOException
+	{
+		CompletableFuture<MappedAsyncPagingIterable<MessageTestEventEntity>> failed = new CompletableFuture<>();
+		failed.completeExceptionally(new RuntimeException("Query failed"));
+		pendingQueries.put(message2.toString(), failed);
+		
+		linker(10).getTestEventIdsByMessageIds(Arrays.asList(message1, message2));
+	}
+	
+	@Test(timeOut = 10000)
+	public void doesNotBlockCallerWhileWaitingForQuerySlot() throws Exception
+	{
+		CompletableFuture<MappedAsyncPagingIterable<MessageTestEventEntity>> slow = new CompletableFuture<>();
+		pendingQueries.put(message1.toString(), slow);
+		
+		//The only query slot is taken by the first lookup, so the second one waits in lookup executor
+		CompletableFuture<Map<StoredMessageId, Collection<StoredTestEventId>>> result = linker(1)
+				.getTestEventIdsByMessageIdsAsync(new LinkedHashSet<>(Arrays.asList(message1, message3)));
+		Assert.assertFalse(result.isDone(), "Lookups are in progress");
+		
+		slow.complete(pages(Collections.singletonList(messageEntity(message1, event1))));
+		Assert.assertEquals(result.get(5, TimeUnit.SECONDS).keySet(), new HashSet<>(Arrays.asList(message1, message3)));
+		for (String query : queries)
+			Assert.assertEquals(query, LOOKUP_THREAD, "Thread that started query");
+	}
+	
+	
+	private CassandraTestEventsMessagesLinker linker(int maxParallelQueries)
+	{
+		Map<String, List<MessageTestEventEntity>> eventsOfMessages = new HashMap<>();
+		eventsOfMessages.put(message1.toString(), Arrays.asList(messageEntity(message1, event1), messageEntity(message1, event2)));
+		eventsOfMessages.put(message3.toString(), Collections.singletonList(messageEntity(message3, event3)));
+		
+		Map<String, Set<String>> messagesOfEvents = new HashMap<>();
+		messagesOfEvents.put(event1.toString(), Collections.singleton(message1.toString()));
+		messagesOfEvents.put(event2.toString(), Collections.singleton(message1.toString()));
+		messagesOfEvents.put(event3.toString(), Collections.singleton(message3.toString()));
+		
+		MessageTestEventOperator messagesOperator = FakeResults.fake(MessageTestEventOperator.class, (method, args) -> {
+				String messageId = (String)args[1];
+				queries.add(Thread.currentThread().getName());
+				CompletableFuture<MappedAsyncPagingIterable<MessageTestEventEntity>> pending = pendingQueries.get(messageId);
+				if (pending != null)
+					return pending;
+				return CompletableFuture.completedFuture(pages(eventsOfMessages.getOrDefault(messageId, Collections.emptyList())));
+			});
+		TestEventMessagesOperator eventsOperator = FakeResults.fake(TestEventMessagesOperator.class, (method, args) -> {
+				String eventId = (String)args[1];
+				queries.add(Thread.currentThread().getName());
+				Set<String> messageIds = messagesOfEvents.get(eventId);
+				if (messageIds == null)
+					return CompletableFuture.completedFuture(pages(Collections.emptyList()));
+				
+				TestEventMessagesEntity entity = new TestEventMessagesEntity();
+				entity.setEventId(eventId);
+				entity.setMessageIds(messageIds);
+				return CompletableFuture.completedFuture(pages(Collections.singletonList(entity)));
+			});
+		
+		//Results consist of single pages, so converters are not called
+		TestEventMessagesConverter eventsConverter = FakeResults.fake(TestEventMessagesConverter.class, (method, args) -> null);
+		MessageTestEventConverter messagesConverter = FakeResults.fake(MessageTestEventConverter.class, (method, args) -> null);
+		SelectExecutionPolicy policy = FakeResults.fake(SelectExecutionPolicy.class, (method, args) -> null);
+		SelectQueryExecutor selectExec = new SelectQueryExecutor(null, new CassandraSemaphore(maxParallelQueries), policy, policy);
+		return new CassandraTestEventsMessagesLinker(new LinkerSupplies(eventsOperator, messagesOperator, eventsConverter, messagesConverter), 
+				UUID.randomUUID(), null, selectExec, null, null, executor);
+	}
+	
+	private MessageTestEventEntity messageEntity(StoredMessageId messageId, StoredTestEventId eventId)
+	{
+		MessageTestEventEntity result = new MessageTestEventEntity();
+		result.setMessageId(messageId.toString());
+		result.setEventId(eventId.toString());
+		return result;
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.retries;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class AdaptivePageSizePolicyTest
+{
+	private static final String BATCHES_QUERY = "getting message batches filtered by StoredMessageFilter{streamName=stream1}",
+			INDEX_QUERY = "loading time index for stream 'stream1', direction 'first' and date 2021-05-10";
+	
+	@Test
+	public void categoryIsFirstWords()
+	{
+		Assert.assertEquals(AdaptivePageSizePolicy.getDefaultCategory(BATCHES_QUERY), "getting message batches filtered by", "Filter is not in category");
+		Assert.assertEquals(AdaptivePageSizePolicy.getDefaultCategory(INDEX_QUERY), "loading time index for stream", "Stream name is not in category");
+		Assert.assertEquals(AdaptivePageSizePolicy.getDefaultCategory("getting streams"), "getting streams", "Whole description");
+		Assert.assertEquals(AdaptivePageSizePolicy.getDefaultCategory("get intervals from: 1"), "get intervals", "Word with punctuation is not in category");
+	}
+	
+	@Test
+	public void pageSizeIsUnknownWithoutStatistics()
+	{
+		AdaptivePageSizePolicy policy = new AdaptivePageSizePolicy(1, 10000, 10_000_000, 1000);
+		Assert.assertEquals(policy.getPageSize(BATCHES_QUERY), -1, "No pages fetched");
+		
+		policy.onPageFetched(BATCHES_QUERY, 0, 100, 1000);
+		Assert.assertEquals(policy.getPageSize(BATCHES_QUERY), -1, "Empty page is ignored");
+	}
+	
+	@Test
+	public void pageSizeFitsByteBudget()
+	{
+		AdaptivePageSizePolicy policy = new AdaptivePageSizePolicy(1, 10000, 10_000_000, 1000);
+		policy.onPageFetched(BATCHES_QUERY, 10, 10_000_000, TimeUnit.MILLISECONDS.toNanos(100));
+		policy.onPageFetched(INDEX_QUERY, 1000, 20_000, TimeUnit.MILLISECONDS.toNanos(10));
+		
+		Assert.assertEquals(policy.getPageSize(BATCHES_QUERY), 10, "Large rows");
+		Assert.assertEquals(policy.getPageSize(INDEX_QUERY.replace("stream1", "stream2")), 10000, "Small rows, limited by max page size");
+	}
+	
+	@Test
+	public void pageSizeFitsLatency()
+	{
+		AdaptivePageSizePolicy policy = new AdaptivePageSizePolicy(1, 10000, 10_000_000, 1000);
+		policy.onPageFetched(BATCHES_QUERY, 100, 1000, TimeUnit.MILLISECONDS.toNanos(500));
+		
+		Assert.assertEquals(policy.getPageSize(BATCHES_QUERY), 200, "Slow rows");
+	}
+	
+	@Test
+	public void pageSizeIsSmoothed()
+	{
+		AdaptivePageSizePolicy policy = new AdaptivePageSizePolicy(1, 10000, 1_000_000, 1000);
+		policy.onPageFetched(BATCHES_QUERY, 10, 10_000, 1000);
+		policy.onPageFetched(BATCHES_QUERY, 10, 100_000, 1000);
+		
+		int pageSize = policy.getPageSize(BATCHES_QUERY);
+		Assert.assertTrue(pageSize > 100 && pageSize < 1000, "Page size between estimates by 1st and 2nd page: "+pageSize);
+	}
+	
+	@Test
+	public void pageSizeIsNotLessThanMinimum()
+	{
+		AdaptivePageSizePolicy policy = new AdaptivePageSizePolicy(5, 10000, 1000, 1000);
+		policy.onPageFetched(BATCHES_QUERY, 1, 1_000_000, 1000);
+		
+		Assert.assertEquals(policy.getPageSize(BATCHES_QUERY), 5, "Minimum page size");
+	}
+}
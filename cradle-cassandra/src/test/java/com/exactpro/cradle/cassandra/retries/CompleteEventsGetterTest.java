@@ -0,0 +1,189 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.retries;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.testevents.StoredTestEventId;
+import com.exactpro.cradle.testevents.StoredTestEventSingle;
+import com.exactpro.cradle.testevents.StoredTestEventWrapper;
+import com.exactpro.cradle.testevents.TestEventToStoreBuilder;
+import com.exactpro.cradle.utils.CradleStorageException;
+
+public class CompleteEventsGetterTest
+{
+	private static final String READER_THREAD = "reader";
+	
+	private ExecutorService executor;
+	private BlockingQueue<Read> reads;
+	
+	@BeforeMethod
+	public void prepare()
+	{
+		executor = Executors.newSingleThreadExecutor(r -> new Thread(r, READER_THREAD));
+		reads = new LinkedBlockingQueue<>();
+	}
+	
+	@AfterMethod
+	public void dispose()
+	{
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void readsInExecutor() throws Exception
+	{
+		List<StoredTestEventId> ids = Arrays.asList(new StoredTestEventId("1"), new StoredTestEventId("2"), new StoredTestEventId("3"));
+		CompletableFuture<Iterable<StoredTestEventWrapper>> events = getter(this::read, 1, executor).get(ids, "test");
+		
+		List<String> readIds = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i++)
+		{
+			Read read = nextRead();
+			Assert.assertEquals(read.thread, READER_THREAD, "Thread of read "+read.id);
+			readIds.add(read.id.toString());
+			//Next read is submitted by the thread that completes this one, it must not wait for the read to be started
+			read.result.complete(event(read.id.toString()));
+		}
+		Assert.assertEquals(readIds, Arrays.asList("1", "2", "3"), "Read IDs");
+		
+		List<String> resultIds = new ArrayList<>();
+		events.get(5, TimeUnit.SECONDS).forEach(e -> resultIds.add(e.getId().toString()));
+		Assert.assertEquals(resultIds, Arrays.asList("1", "2", "3"), "Result IDs");
+	}
+	
+	@Test
+	public void returnsEventsInOrderOfIds() throws Exception
+	{
+		List<StoredTestEventId> ids = Arrays.asList(new StoredTestEventId("1"), new StoredTestEventId("2"), new StoredTestEventId("3"));
+		CompletableFuture<Iterable<StoredTestEventWrapper>> events = getter(this::read, 3, executor).get(ids, "test");
+		
+		List<Read> started = Arrays.asList(nextRead(), nextRead(), nextRead());
+		started.get(2).result.complete(event("3"));
+		started.get(0).result.complete(null);  //Test event is not found
+		Assert.assertFalse(events.isDone(), "Result is returned when all test events are read");
+		started.get(1).result.complete(event("2"));
+		
+		List<String> resultIds = new ArrayList<>();
+		Iterable<StoredTestEventWrapper> result = events.get(5, TimeUnit.SECONDS);
+		result.forEach(e -> resultIds.add(e.getId().toString()));
+		Assert.assertEquals(resultIds, Arrays.asList("2", "3"), "Result IDs");
+		
+		resultIds.clear();
+		result.forEach(e -> resultIds.add(e.getId().toString()));
+		Assert.assertEquals(resultIds, Arrays.asList("2", "3"), "Result can be iterated again");
+	}
+	
+	@Test
+	public void passesReadError() throws Exception
+	{
+		RuntimeException error = new RuntimeException("Read failed");
+		CompletableFuture<Iterable<StoredTestEventWrapper>> events = getter(this::read, 1, executor)
+				.get(Arrays.asList(new StoredTestEventId("1"), new StoredTestEventId("2")), "test");
+		
+		nextRead().result.completeExceptionally(error);
+		Assert.assertSame(getError(events), error);
+		Assert.assertNull(reads.poll(100, TimeUnit.MILLISECONDS), "No reads are started after error");
+	}
+	
+	@Test
+	public void passesSubmissionError() throws Exception
+	{
+		CompletableFuture<Iterable<StoredTestEventWrapper>> events = 
+				getter(this::read, 1, r -> {throw new RejectedExecutionException("Executor is shut down");})
+				.get(Collections.singletonList(new StoredTestEventId("1")), "test");
+		Assert.assertTrue(getError(events) instanceof RejectedExecutionException);
+	}
+	
+	
+	private Throwable getError(CompletableFuture<?> future) throws Exception
+	{
+		try
+		{
+			future.get(5, TimeUnit.SECONDS);
+		}
+		catch (ExecutionException e)
+		{
+			return e.getCause();
+		}
+		Assert.fail("Result is not failed");
+		return null;
+	}
+	
+	private CompleteEventsGetter getter(Function<StoredTestEventId, CompletableFuture<StoredTestEventWrapper>> pointReader, 
+			int parallelism, Executor executor)
+	{
+		return new CompleteEventsGetter(null, null, null, null, null, null, null, pointReader, parallelism, executor);
+	}
+	
+	private CompletableFuture<StoredTestEventWrapper> read(StoredTestEventId id)
+	{
+		Read read = new Read(id, Thread.currentThread().getName());
+		reads.add(read);
+		return read.result;
+	}
+	
+	private Read nextRead() throws InterruptedException
+	{
+		Read result = reads.poll(5, TimeUnit.SECONDS);
+		Assert.assertNotNull(result, "Read is started");
+		return result;
+	}
+	
+	private StoredTestEventWrapper event(String id) throws CradleStorageException
+	{
+		return new StoredTestEventWrapper(new StoredTestEventSingle(new TestEventToStoreBuilder()
+				.id(new StoredTestEventId(id))
+				.name("Event "+id)
+				.startTimestamp(Instant.now())
+				.success(true)
+				.build()));
+	}
+	
+	
+	private static class Read
+	{
+		private final StoredTestEventId id;
+		private final String thread;
+		private final CompletableFuture<StoredTestEventWrapper> result = new CompletableFuture<>();
+		
+		Read(StoredTestEventId id, String thread)
+		{
+			this.id = id;
+			this.thread = thread;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.retries;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class HedgedReadPolicyTest
+{
+	@Test
+	public void noHedgingUntilEnoughLatencies()
+	{
+		HedgedReadPolicy policy = new HedgedReadPolicy(new NoRetryPolicy(), 90, 0, 1000, 100, 10);
+		for (int i = 0; i < 9; i++)
+			policy.onQueryCompleted("query", TimeUnit.MILLISECONDS.toNanos(5));
+		Assert.assertTrue(policy.getHedgeDelay("query") < 0, "Not enough latencies");
+		
+		policy.onQueryCompleted("query", TimeUnit.MILLISECONDS.toNanos(5));
+		Assert.assertEquals(policy.getHedgeDelay("query"), 5, "Delay after enough latencies");
+	}
+	
+	@Test
+	public void delayIsPercentileOfLatencies()
+	{
+		HedgedReadPolicy policy = new HedgedReadPolicy(new NoRetryPolicy(), 90, 0, 1000, 100, 100);
+		for (int i = 1; i <= 100; i++)
+			policy.onQueryCompleted("query", TimeUnit.MILLISECONDS.toNanos(i));
+		Assert.assertEquals(policy.getHedgeDelay("query"), 90, "90th percentile");
+	}
+	
+	@Test
+	public void delayIsLimited()
+	{
+		HedgedReadPolicy policy = new HedgedReadPolicy(new NoRetryPolicy(), 50, 10, 20, 10, 10);
+		for (int i = 0; i < 10; i++)
+			policy.onQueryCompleted("query", TimeUnit.MILLISECONDS.toNanos(1));
+		Assert.assertEquals(policy.getHedgeDelay("query"), 10, "Minimum delay");
+		
+		for (int i = 0; i < 10; i++)
+			policy.onQueryCompleted("query", TimeUnit.MILLISECONDS.toNanos(100));
+		Assert.assertEquals(policy.getHedgeDelay("query"), 20, "Maximum delay, old latencies are out of window");
+	}
+	
+	@Test
+	public void passesFetchedPagesToDelegate()
+	{
+		AtomicInteger fetchedRows = new AtomicInteger();
+		HedgedReadPolicy policy = new HedgedReadPolicy(new NoRetryPolicy()
+				{
+					@Override
+					public void onPageFetched(String queryInfo, int rows, long bytes, long latencyNanos)
+					{
+						fetchedRows.addAndGet(rows);
+					}
+				}, 95, 0, 1000);
+		policy.onPageFetched("query", 100, 1000, TimeUnit.MILLISECONDS.toNanos(5));
+		
+		Assert.assertEquals(fetchedRows.get(), 100, "Rows of page passed to delegate, e.g. to adjust page size");
+	}
+	
+	@Test
+	public void countsHedgeWins()
+	{
+		HedgedReadPolicy policy = new HedgedReadPolicy(new NoRetryPolicy(), 95, 0, 1000);
+		policy.onHedgeCompleted("query", true);
+		policy.onHedgeCompleted("query", false);
+		policy.onHedgeCompleted("query", false);
+		
+		Assert.assertEquals(policy.getHedgeCount(), 3, "Hedges");
+		Assert.assertEquals(policy.getHedgeWinCount(), 1, "Wins");
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.retries;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.MappedAsyncPagingIterable;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.exactpro.cradle.cassandra.CassandraSemaphore;
+import com.exactpro.cradle.cassandra.FakeResults;
+
+public class SelectQueryExecutorTest
+{
+	private static final long HEDGE_DELAY = 50;
+	
+	private BlockingQueue<CompletableFuture<String>> queries;
+	private TestPolicy policy;
+	
+	@BeforeMethod
+	public void prepare()
+	{
+		queries = new LinkedBlockingQueue<>();
+		policy = new TestPolicy(HEDGE_DELAY, 0);
+	}
+	
+	@Test
+	public void sendsDuplicateAfterDelay() throws Exception
+	{
+		long start = System.nanoTime();
+		CompletableFuture<String> result = execute(new CassandraSemaphore(2));
+		CompletableFuture<String> original = nextQuery();
+		
+		nextQuery();
+		Assert.assertTrue(System.nanoTime()-start >= TimeUnit.MILLISECONDS.toNanos(HEDGE_DELAY), "Duplicate is sent after delay");
+		Assert.assertFalse(result.isDone(), "Result is not ready before any query completes");
+		
+		original.complete("original");
+		Assert.assertEquals(result.get(5, TimeUnit.SECONDS), "original");
+	}
+	
+	@Test
+	public void noDuplicateWithoutDelay() throws Exception
+	{
+		policy = new TestPolicy(-1, 0);
+		CompletableFuture<String> result = execute(new CassandraSemaphore(2));
+		CompletableFuture<String> original = nextQuery();
+		
+		Assert.assertNull(queries.poll(HEDGE_DELAY*4, TimeUnit.MILLISECONDS), "Policy doesn't define hedge delay");
+		original.complete("original");
+		Assert.assertEquals(result.get(5, TimeUnit.SECONDS), "original");
+	}
+	
+	@Test
+	public void takesResultOfDuplicate() throws Exception
+	{
+		CassandraSemaphore semaphore = new CassandraSemaphore(2);
+		CompletableFuture<String> result = execute(semaphore);
+		CompletableFuture<String> original = nextQuery(),
+				hedge = nextQuery();
+		
+		hedge.complete("hedge");
+		Assert.assertEquals(result.get(5, TimeUnit.SECONDS), "hedge", "Result of duplicate that came first");
+		Assert.assertEquals(policy.nextHedge(), Boolean.TRUE, "Duplicate won");
+		
+		original.complete("original");
+		waitForAcquired(semaphore, 0);
+		Assert.assertEquals(result.get(), "hedge", "Result of original query doesn't replace taken one");
+		Assert.assertNotNull(policy.queryLatencies.poll(5, TimeUnit.SECONDS), "Latency of original query is reported");
+	}
+	
+	@Test
+	public void takesResultOfOriginal() throws Exception
+	{
+		CassandraSemaphore semaphore = new CassandraSemaphore(2);
+		CompletableFuture<String> result = execute(semaphore);
+		CompletableFuture<String> original = nextQuery(),
+				hedge = nextQuery();
+		
+		original.complete("original");
+		Assert.assertEquals(result.get(5, TimeUnit.SECONDS), "original", "Result of original query that came first");
+		
+		hedge.complete("hedge");
+		Assert.assertEquals(policy.nextHedge(), Boolean.FALSE, "Duplicate lost");
+		waitForAcquired(semaphore, 0);
+		Assert.assertEquals(result.get(), "original", "Result of duplicate doesn't replace taken one");
+	}
+	
+	@Test
+	public void noDuplicateWithoutFreePermit() throws Exception
+	{
+		CassandraSemaphore semaphore = new CassandraSemaphore(1);
+		CompletableFuture<String> result = execute(semaphore);
+		CompletableFuture<String> original = nextQuery();
+		
+		Assert.assertNull(queries.poll(HEDGE_DELAY*4, TimeUnit.MILLISECONDS), "Duplicate needs free permit");
+		Assert.assertEquals(semaphore.getAquiredQueriesNumber(), 1, "Permits");
+		
+		original.complete("original");
+		Assert.assertEquals(result.get(5, TimeUnit.SECONDS), "original");
+		waitForAcquired(semaphore, 0);
+		Assert.assertNull(policy.hedges.poll(), "No duplicate is completed");
+	}
+	
+	@Test
+	public void releasesPermitOfSuccessfulDuplicate() throws Exception
+	{
+		CassandraSemaphore semaphore = new CassandraSemaphore(2);
+		CompletableFuture<String> result = execute(semaphore);
+		CompletableFuture<String> original = nextQuery(),
+				hedge = nextQuery();
+		Assert.assertEquals(semaphore.getAquiredQueriesNumber(), 2, "Permits of original query and its duplicate");
+		
+		hedge.complete("hedge");
+		result.get(5, TimeUnit.SECONDS);
+		waitForAcquired(semaphore, 1);
+		
+		original.complete("original");
+		waitForAcquired(semaphore, 0);
+	}
+	
+	@Test
+	public void releasesPermitOfFailedDuplicate() throws Exception
+	{
+		CassandraSemaphore semaphore = new CassandraSemaphore(2);
+		CompletableFuture<String> result = execute(semaphore);
+		CompletableFuture<String> original = nextQuery(),
+				hedge = nextQuery();
+		
+		hedge.completeExceptionally(new RuntimeException("Duplicate failed"));
+		Assert.assertEquals(policy.nextHedge(), Boolean.FALSE, "Failed duplicate");
+		waitForAcquired(semaphore, 1);
+		Assert.assertFalse(result.isDone(), "Error of duplicate is ignored");
+		
+		original.complete("original");
+		Assert.assertEquals(result.get(5, TimeUnit.SECONDS), "original");
+		waitForAcquired(semaphore, 0);
+	}
+	
+	@Test
+	public void pageLatencyExcludesRetryDelay() throws Exception
+	{
+		policy = new TestPolicy(-1, 1);
+		CqlSession session = FakeResults.fake(CqlSession.class, (method, args) -> {
+				if (!method.getName().equals("executeAsync"))
+					throw new UnsupportedOperationException(method.getName());
+				return CompletableFuture.completedFuture(FakeResults.resultSet(Arrays.asList(FakeResults.row(1)), null));
+			});
+		DriverTimeoutException error = new DriverTimeoutException("Query timed out");
+		error.setExecutionInfo(FakeResults.executionInfo());
+		
+		long start = System.nanoTime();
+		MappedAsyncPagingIterable<Integer> rows = new SelectQueryExecutor(session, new CassandraSemaphore(1), policy, policy)
+				.executeMultiRowResultQuery(() -> {
+						CompletableFuture<MappedAsyncPagingIterable<Integer>> result = new CompletableFuture<>();
+						result.completeExceptionally(error);
+						return result;
+					}, row -> row.getInt(0), "test")
+				.get(10, TimeUnit.SECONDS);
+		long total = System.nanoTime()-start;
+		
+		Assert.assertEquals(rows.one(), Integer.valueOf(1), "Result of retry");
+		Long latency = policy.pageLatencies.poll(5, TimeUnit.SECONDS);
+		Assert.assertNotNull(latency, "Fetched page is reported");
+		Assert.assertTrue(latency < total/2, "Latency of successful attempt "+latency+"ns, total time "+total+"ns");
+	}
+	
+	
+	private CompletableFuture<String> execute(CassandraSemaphore semaphore)
+	{
+		SelectQueryExecutor executor = new SelectQueryExecutor(null, semaphore, policy, policy);
+		return executor.executeSingleRowResultQuery(() -> {
+				CompletableFuture<String> query = new CompletableFuture<>();
+				queries.add(query);
+				return query;
+			}, row -> null, "test");
+	}
+	
+	private CompletableFuture<String> nextQuery() throws InterruptedException
+	{
+		CompletableFuture<String> result = queries.poll(5, TimeUnit.SECONDS);
+		Assert.assertNotNull(result, "Query is sent");
+		return result;
+	}
+	
+	private void waitForAcquired(CassandraSemaphore semaphore, int expected) throws InterruptedException
+	{
+		long deadline = System.nanoTime()+TimeUnit.SECONDS.toNanos(5);
+		while (semaphore.getAquiredQueriesNumber() != expected && System.nanoTime() < deadline)
+			Thread.sleep(5);
+		Assert.assertEquals(semaphore.getAquiredQueriesNumber(), expected, "Acquired permits");
+	}
+	
+	
+	private static class TestPolicy implements SelectExecutionPolicy
+	{
+		private final long hedgeDelay;
+		private final int maxRetries;
+		private final BlockingQueue<Boolean> hedges = new LinkedBlockingQueue<>();
+		private final BlockingQueue<Long> queryLatencies = new LinkedBlockingQueue<>(),
+				pageLatencies = new LinkedBlockingQueue<>();
+		
+		public TestPolicy(long hedgeDelay, int maxRetries)
+		{
+			this.hedgeDelay = hedgeDelay;
+			this.maxRetries = maxRetries;
+		}
+		
+		@Override
+		public SelectExecutionVerdict onError(Statement<?> statement, String queryInfo, Throwable cause, int retryCount) throws CannotRetryException
+		{
+			if (retryCount >= maxRetries)
+				throw new CannotRetryException("No more retries", cause);
+			return null;
+		}
+		
+		@Override
+		public SelectExecutionVerdict onError(Collection<String> ids, String queryInfo, Throwable cause, int retryCount) throws CannotRetryException
+		{
+			return onError((Statement<?>)null, queryInfo, cause, retryCount);
+		}
+		
+		@Override
+		public SelectExecutionVerdict onNextPage(Statement<?> statement, String queryInfo)
+		{
+			return null;
+		}
+		
+		@Override
+		public void onPageFetched(String queryInfo, int rows, long bytes, long latencyNanos)
+		{
+			pageLatencies.add(latencyNanos);
+		}
+		
+		@Override
+		public long getHedgeDelay(String queryInfo)
+		{
+			return hedgeDelay;
+		}
+		
+		@Override
+		public void onQueryCompleted(String queryInfo, long latencyNanos)
+		{
+			queryLatencies.add(latencyNanos);
+		}
+		
+		@Override
+		public void onHedgeCompleted(String queryInfo, boolean won)
+		{
+			hedges.add(won);
+		}
+		
+		
+		public Boolean nextHedge() throws InterruptedException
+		{
+			return hedges.poll(5, TimeUnit.SECONDS);
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BackfilledRegistryTest
+{
+	private List<String> registry,
+			data,
+			failingValues;
+	private AtomicInteger scans;
+	private AtomicBoolean marked;
+	private BackfilledRegistry<String> backfilled;
+	
+	@BeforeMethod
+	public void prepare()
+	{
+		registry = new ArrayList<>();
+		data = new ArrayList<>();
+		failingValues = new ArrayList<>();
+		scans = new AtomicInteger();
+		marked = new AtomicBoolean();
+		backfilled = new BackfilledRegistry<>("test", 
+				() -> new ArrayList<>(registry), 
+				() -> {
+					scans.incrementAndGet();
+					return new ArrayList<>(data);
+				}, 
+				this::register, 
+				marked::get, 
+				() -> {
+					marked.set(true);
+					return CompletableFuture.completedFuture(null);
+				});
+	}
+	
+	@Test
+	public void mergesDataWithRegistryUntilBackfilled() throws IOException
+	{
+		registry.add("stream2");
+		data.addAll(Arrays.asList("stream3", "stream1", "stream2"));
+		
+		Assert.assertEquals(backfilled.getValues(), Arrays.asList("stream1", "stream2", "stream3"), "Values before backfill");
+		Assert.assertEquals(registry, Arrays.asList("stream2", "stream3", "stream1"), "Registry after backfill");
+		Assert.assertTrue(marked.get(), "Backfill mark is written");
+		Assert.assertTrue(backfilled.isBackfilled(), "Backfilled");
+		
+		registry.add("stream4");
+		Assert.assertEquals(backfilled.getValues(), Arrays.asList("stream1", "stream2", "stream3", "stream4"), "Values after backfill");
+		Assert.assertEquals(scans.get(), 1, "Data scans");
+	}
+	
+	@Test
+	public void keepsMergingIfBackfillFailed() throws IOException
+	{
+		registry.add("stream2");
+		data.addAll(Arrays.asList("stream1", "stream2"));
+		failingValues.add("stream1");
+		
+		Assert.assertEquals(backfilled.getValues(), Arrays.asList("stream1", "stream2"), "Values with failed backfill");
+		Assert.assertFalse(marked.get(), "Backfill mark is written");
+		Assert.assertFalse(backfilled.isBackfilled(), "Backfilled");
+		
+		failingValues.clear();
+		Assert.assertEquals(backfilled.getValues(), Arrays.asList("stream1", "stream2"), "Values with retried backfill");
+		Assert.assertTrue(marked.get(), "Backfill mark is written after retry");
+		Assert.assertEquals(scans.get(), 2, "Data scans");
+	}
+	
+	@Test
+	public void readsOnlyRegistryIfMarked() throws IOException
+	{
+		registry.add("stream1");
+		data.add("stream2");
+		marked.set(true);
+		
+		Assert.assertEquals(backfilled.getValues(), Arrays.asList("stream1"), "Values");
+		Assert.assertEquals(scans.get(), 0, "Data scans");
+	}
+	
+	@Test
+	public void marksEmptyDataAsBackfilled() throws IOException
+	{
+		Assert.assertEquals(backfilled.getValues(), new ArrayList<>(), "Values");
+		Assert.assertTrue(marked.get(), "Backfill mark is written");
+	}
+	
+	
+	private CompletableFuture<Void> register(String value)
+	{
+		CompletableFuture<Void> result = new CompletableFuture<>();
+		if (failingValues.contains(value))
+			result.completeExceptionally(new IOException("Could not register "+value));
+		else
+		{
+			registry.add(value);
+			result.complete(null);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BloomFilterTest
+{
+	@Test
+	public void containsAddedKeys()
+	{
+		BloomFilter filter = new BloomFilter(1000, 3);
+		Assert.assertEquals(filter.getNumBits(), 1024, "Number of bits rounded up");
+		Assert.assertTrue(filter.isEmpty(), "New filter is empty");
+		
+		for (long key = 0; key < 100; key += 2)
+			filter.add(key);
+		
+		int falsePositives = 0;
+		for (long key = 0; key < 100; key++)
+		{
+			if (key % 2 == 0)
+				Assert.assertTrue(filter.mightContain(key), "Added key "+key);
+			else if (filter.mightContain(key))
+				falsePositives++;
+		}
+		Assert.assertTrue(falsePositives < 10, "False positives: "+falsePositives);
+	}
+	
+	@Test
+	public void mergesFilters()
+	{
+		BloomFilter filter1 = new BloomFilter(1024, 3),
+				filter2 = new BloomFilter(1024, 3);
+		filter1.add(10);
+		filter2.add(20);
+		filter1.merge(filter2);
+		
+		Assert.assertTrue(filter1.mightContain(10), "Own key");
+		Assert.assertTrue(filter1.mightContain(20), "Merged key");
+		Assert.assertFalse(filter2.mightContain(10), "Merged filter is not changed");
+	}
+	
+	@Test
+	public void setsBitsOfKey()
+	{
+		BloomFilter filter = new BloomFilter(1024, 3),
+				copy = new BloomFilter(1024, 3);
+		filter.add(12345);
+		for (int bit : filter.getBits(12345))
+		{
+			Assert.assertTrue(filter.isBitSet(bit), "Bit "+bit+" of added key");
+			copy.setBit(bit);
+		}
+		
+		Assert.assertTrue(copy.mightContain(12345), "Key restored from bits");
+		Assert.assertEquals(copy.toBytes(), filter.toBytes(), "Bits of filters");
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void rejectsIncompatibleFilter()
+	{
+		new BloomFilter(1024, 3).merge(new BloomFilter(2048, 3));
+	}
+	
+	@Test
+	public void restoresFromBytes() throws IOException
+	{
+		BloomFilter filter = new BloomFilter(512, 4);
+		filter.add(12345);
+		
+		BloomFilter restored = BloomFilter.fromBytes(filter.toBytes());
+		Assert.assertTrue(restored.isCompatible(filter), "Same number of bits and hash functions");
+		Assert.assertTrue(restored.mightContain(12345), "Restored key");
+		Assert.assertEquals(restored.toBytes(), filter.toBytes(), "Restored bytes");
+	}
+	
+	@Test(expectedExceptions = IOException.class)
+	public void rejectsMalformedBytes() throws IOException
+	{
+		byte[] bytes = new BloomFilter(512, 4).toBytes();
+		BloomFilter.fromBytes(Arrays.copyOf(bytes, bytes.length-1));
+	}
+}
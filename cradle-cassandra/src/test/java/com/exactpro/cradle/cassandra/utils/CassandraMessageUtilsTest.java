@@ -0,0 +1,193 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.utils;
+
+import static com.exactpro.cradle.cassandra.StorageConstants.LAST_MESSAGE_INDEX;
+import static com.exactpro.cradle.cassandra.StorageConstants.MESSAGE_COUNT;
+import static com.exactpro.cradle.cassandra.StorageConstants.MESSAGE_INDEX;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.cassandra.FakeResults;
+import com.exactpro.cradle.cassandra.dao.messages.DetailedMessageBatchEntity;
+import com.exactpro.cradle.cassandra.dao.messages.MessageBatchEntityFactory;
+import com.exactpro.cradle.cassandra.dao.messages.MessageBatchOperator;
+import com.exactpro.cradle.filters.ComparisonOperation;
+import com.exactpro.cradle.filters.FilterForAny;
+import com.exactpro.cradle.filters.FilterForEquals;
+import com.exactpro.cradle.messages.StoredMessageFilter;
+import com.exactpro.cradle.utils.CradleStorageException;
+
+public class CassandraMessageUtilsTest
+{
+	private final MessageBatchEntityFactory entities = new MessageBatchEntityFactory();
+	
+	@Test
+	public void findsLeftBoundInSequencedBatchWithoutDecoding() throws Exception
+	{
+		entities.clearDecoded();
+		StoredMessageFilter filter = filter(15, ComparisonOperation.LESS_OR_EQUALS, 3);
+		long batchIndex = CassandraMessageUtils.findLeftMessageIndexAsync(entity(10, 11, 12, 13, 14, 15, 16), filter, 
+				UUID.randomUUID(), null, null).get();
+		
+		Assert.assertEquals(batchIndex, 10, "Batch index");
+		Assert.assertEquals(filter.getLeftBoundIndex(), 13, "Left bound");
+		Assert.assertFalse(entities.isDecoded(), "Sequenced batch is not decoded");
+	}
+	
+	@Test
+	public void findsLeftBoundInBatchWithGaps() throws Exception
+	{
+		StoredMessageFilter filter = filter(16, ComparisonOperation.LESS, 2);
+		long batchIndex = CassandraMessageUtils.findLeftMessageIndexAsync(entity(10, 12, 14, 16), filter, 
+				UUID.randomUUID(), null, null).get();
+		
+		Assert.assertEquals(batchIndex, 10, "Batch index");
+		Assert.assertEquals(filter.getLeftBoundIndex(), 12, "Left bound");
+	}
+	
+	
+	@Test
+	public void countsMessagesOfBatchesOnNextPages() throws Exception
+	{
+		FakeBatches batches = new FakeBatches(Arrays.asList(metadata(15, 17, 3)), Arrays.asList(metadata(10, 14, 5)));
+		StoredMessageFilter filter = filter(20, ComparisonOperation.LESS_OR_EQUALS, 8);
+		long batchIndex = CassandraMessageUtils.findLeftMessageIndexAsync(entity(18, 19, 20, 21), filter, 
+				UUID.randomUUID(), batches.operator(), null).get();
+		
+		Assert.assertEquals(batchIndex, 10, "Batch index");
+		Assert.assertEquals(filter.getLeftBoundIndex(), 13, "Left bound");
+		Assert.assertEquals(batches.metadataQueries, Arrays.asList(17L), "Batches are queried before the given one");
+		Assert.assertEquals(batches.pageFetches, 1, "Page fetches");
+		Assert.assertEquals(batches.batchQueries, 0, "Sequenced batch is not read");
+	}
+	
+	@Test
+	public void readsBatchWithGapsOnNextPage() throws Exception
+	{
+		FakeBatches batches = new FakeBatches(Arrays.asList(metadata(15, 17, 3)), Arrays.asList(metadata(10, 14, 3)));
+		batches.batch = entity(10, 12, 14);
+		StoredMessageFilter filter = filter(18, ComparisonOperation.LESS, 5);
+		long batchIndex = CassandraMessageUtils.findLeftMessageIndexAsync(null, filter, 
+				UUID.randomUUID(), batches.operator(), null).get();
+		
+		Assert.assertEquals(batchIndex, 10, "Batch index");
+		Assert.assertEquals(filter.getLeftBoundIndex(), 12, "Left bound");
+		Assert.assertEquals(batches.metadataQueries, Arrays.asList(18L), "Batches are queried from the given index");
+		Assert.assertEquals(batches.batchQueries, 1, "Batch with gaps is read");
+	}
+	
+	@Test
+	public void returnsNoBatchIfNotEnoughMessages() throws Exception
+	{
+		FakeBatches batches = new FakeBatches(Arrays.asList(metadata(15, 17, 3)), Arrays.asList(metadata(10, 14, 5)));
+		StoredMessageFilter filter = filter(17, ComparisonOperation.LESS_OR_EQUALS, 10);
+		long batchIndex = CassandraMessageUtils.findLeftMessageIndexAsync(null, filter, 
+				UUID.randomUUID(), batches.operator(), null).get();
+		
+		Assert.assertEquals(batchIndex, -1, "Batch index");
+		Assert.assertEquals(batches.pageFetches, 1, "Page fetches");
+	}
+	
+	
+	private StoredMessageFilter filter(long index, ComparisonOperation operation, int limit)
+	{
+		StoredMessageFilter result = new StoredMessageFilter();
+		result.setStreamName(new FilterForEquals<>("stream1"));
+		result.setDirection(new FilterForEquals<>(Direction.FIRST));
+		result.setIndex(new FilterForAny<>(index, operation));
+		result.setLimit(limit);
+		return result;
+	}
+	
+	private DetailedMessageBatchEntity entity(long... indices) throws IOException, CradleStorageException
+	{
+		return entities.entityWithIndices("stream1", indices);
+	}
+	
+	private Row metadata(long firstIndex, long lastIndex, int messageCount)
+	{
+		Map<String, Object> values = new HashMap<>();
+		values.put(MESSAGE_INDEX, firstIndex);
+		values.put(LAST_MESSAGE_INDEX, lastIndex);
+		values.put(MESSAGE_COUNT, messageCount);
+		return FakeResults.row(values);
+	}
+	
+	
+	/**
+	 * Answers queries of batch metadata with given pages of rows, in reversed order of batches
+	 */
+	private static class FakeBatches
+	{
+		private final List<List<Row>> pages;
+		private final List<Long> metadataQueries = new ArrayList<>();
+		private int pageFetches,
+				batchQueries;
+		private DetailedMessageBatchEntity batch;
+		
+		@SafeVarargs
+		FakeBatches(List<Row>... pages)
+		{
+			this.pages = Arrays.asList(pages);
+		}
+		
+		
+		MessageBatchOperator operator()
+		{
+			return FakeResults.fake(MessageBatchOperator.class, (method, args) -> {
+					switch (method.getName())
+					{
+						case "getMessageBatchesMetadataReversed" :
+							metadataQueries.add((Long)args[3]);
+							return CompletableFuture.completedFuture(page(0));
+						case "getMessageBatch" :
+							batchQueries++;
+							Assert.assertEquals(args[3], batch.getMessageIndex(), "Index of read batch");
+							return CompletableFuture.completedFuture(batch);
+						default : throw new UnsupportedOperationException(method.getName());
+					}
+				});
+		}
+		
+		private AsyncResultSet page(int number)
+		{
+			Supplier<CompletionStage<AsyncResultSet>> next = number+1 < pages.size() 
+					? () -> {
+							pageFetches++;
+							return CompletableFuture.completedFuture(page(number+1));
+						}
+					: null;
+			return FakeResults.resultSet(pages.get(number), next);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.messages.StoredMessageId;
+
+public class MessageIdsRangeTest
+{
+	@Test
+	public void groupsByStreamAndDirection()
+	{
+		List<MessageIdsRange> ranges = MessageIdsRange.split(Arrays.asList(
+				new StoredMessageId("stream1", Direction.FIRST, 5),
+				new StoredMessageId("stream2", Direction.FIRST, 3),
+				new StoredMessageId("stream1", Direction.SECOND, 7),
+				new StoredMessageId("stream1", Direction.FIRST, 1)), 100);
+		
+		Assert.assertEquals(ranges.size(), 3);
+		MessageIdsRange first = ranges.get(0);
+		Assert.assertEquals(first.getStreamName(), "stream1");
+		Assert.assertEquals(first.getDirection(), Direction.FIRST);
+		Assert.assertEquals(first.getFromIndex(), 1);
+		Assert.assertEquals(first.getToIndex(), 5);
+		Assert.assertEquals(first.size(), 2);
+	}
+	
+	@Test
+	public void splitsByGap()
+	{
+		List<MessageIdsRange> ranges = MessageIdsRange.split(Arrays.asList(
+				new StoredMessageId("stream1", Direction.FIRST, 1),
+				new StoredMessageId("stream1", Direction.FIRST, 1000),
+				new StoredMessageId("stream1", Direction.FIRST, 10),
+				new StoredMessageId("stream1", Direction.FIRST, 10)), 100);
+		
+		Assert.assertEquals(ranges.size(), 2);
+		Assert.assertEquals(ranges.get(0).getFromIndex(), 1);
+		Assert.assertEquals(ranges.get(0).getToIndex(), 10);
+		Assert.assertEquals(ranges.get(1).getFromIndex(), 1000);
+		Assert.assertEquals(ranges.get(1).getToIndex(), 1000);
+	}
+	
+	@Test
+	public void checksIndices()
+	{
+		MessageIdsRange range = new MessageIdsRange("stream1", Direction.FIRST, new long[] {5, 10, 20});
+		Assert.assertTrue(range.hasIndices(5, 5), "exact index");
+		Assert.assertTrue(range.hasIndices(6, 12), "index within bounds");
+		Assert.assertFalse(range.hasIndices(11, 19), "no indices within bounds");
+		Assert.assertFalse(range.hasIndices(21, 30), "bounds after last index");
+		Assert.assertFalse(range.hasIndices(0, 4), "bounds before first index");
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.utils;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.messages.StoredMessageBatchId;
+import com.exactpro.cradle.messages.StoredMessageBatchInfo;
+import com.exactpro.cradle.messages.StoredMessageFilter;
+import com.exactpro.cradle.messages.StoredMessageFilterBuilder;
+import com.exactpro.cradle.messages.StoredMessageId;
+import com.exactpro.cradle.messages.StoredMessagePosition;
+import com.exactpro.cradle.messages.StreamStatistics;
+
+public class MessageStatisticsCollectorTest
+{
+	private static final String STREAM = "stream1";
+	private static final Direction DIRECTION = Direction.FIRST;
+	
+	private final Instant start = Instant.parse("2021-03-01T10:00:00Z");
+	
+	@Test
+	public void accountsWholeBatches()
+	{
+		MessageStatisticsCollector collector = new MessageStatisticsCollector(null);
+		collector.addBatch(batch(10, 19, 0));
+		collector.addBatch(batch(0, 9, 100));
+		
+		StreamStatistics stats = collector.toStreamStatistics(STREAM, DIRECTION);
+		Assert.assertEquals(stats.getMessageCount(), 20);
+		Assert.assertEquals(stats.getBatchCount(), 2);
+		Assert.assertEquals(stats.getFirstIndex(), 0);
+		Assert.assertEquals(stats.getLastIndex(), 19);
+		Assert.assertEquals(stats.getFirstTimestamp(), start);
+		Assert.assertEquals(stats.getLastTimestamp(), start.plusSeconds(109));
+	}
+	
+	@Test
+	public void checksBoundaryPositions()
+	{
+		StoredMessageFilter filter = new StoredMessageFilterBuilder()
+				.streamName().isEqualTo(STREAM)
+				.timestampFrom().isGreaterThanOrEqualTo(start.plusSeconds(5))
+				.build();
+		MessageStatisticsCollector collector = new MessageStatisticsCollector(filter);
+		collector.addPositions(batch(0, 9, 0).getMessagePositions());
+		
+		StreamStatistics stats = collector.toStreamStatistics(STREAM, DIRECTION);
+		Assert.assertEquals(stats.getMessageCount(), 5);
+		Assert.assertEquals(stats.getBatchCount(), 1);
+		Assert.assertEquals(stats.getFirstIndex(), 5);
+		Assert.assertEquals(stats.getLastIndex(), 9);
+		Assert.assertEquals(stats.getFirstTimestamp(), start.plusSeconds(5));
+	}
+	
+	@Test
+	public void noMatchingMessages()
+	{
+		StoredMessageFilter filter = new StoredMessageFilterBuilder()
+				.streamName().isEqualTo(STREAM)
+				.timestampFrom().isGreaterThan(start.plusSeconds(100))
+				.build();
+		MessageStatisticsCollector collector = new MessageStatisticsCollector(filter);
+		collector.addPositions(batch(0, 9, 0).getMessagePositions());
+		collector.addPositions(Collections.emptyList());
+		
+		StreamStatistics stats = collector.toStreamStatistics(STREAM, DIRECTION);
+		Assert.assertEquals(stats.getMessageCount(), 0);
+		Assert.assertEquals(stats.getBatchCount(), 0);
+		Assert.assertEquals(stats.getFirstIndex(), -1);
+		Assert.assertEquals(stats.getLastIndex(), -1);
+		Assert.assertNull(stats.getFirstTimestamp());
+	}
+	
+	
+	/**
+	 * Creates info of batch with sequential messages, written one per second starting from given offset
+	 */
+	private StoredMessageBatchInfo batch(long firstIndex, long lastIndex, long secondsOffset)
+	{
+		StoredMessagePosition[] positions = new StoredMessagePosition[(int)(lastIndex-firstIndex+1)];
+		for (int i = 0; i < positions.length; i++)
+			positions[i] = new StoredMessagePosition(new StoredMessageId(STREAM, DIRECTION, firstIndex+i), 
+					start.plusSeconds(secondsOffset+i));
+		return new StoredMessageBatchInfo(new StoredMessageBatchId(STREAM, DIRECTION, firstIndex), lastIndex, positions.length, 
+				positions[0].getTimestamp(), positions[positions.length-1].getTimestamp(), start, Arrays.asList(positions));
+	}
+}
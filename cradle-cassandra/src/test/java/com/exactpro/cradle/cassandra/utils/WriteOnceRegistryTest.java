@@ -0,0 +1,66 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.cassandra.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class WriteOnceRegistryTest
+{
+	@Test
+	public void writesKeyOnce()
+	{
+		WriteOnceRegistry<String> registry = new WriteOnceRegistry<>();
+		AtomicInteger writes = new AtomicInteger();
+		CompletableFuture<Void> write = new CompletableFuture<>();
+		
+		CompletableFuture<Void> registration1 = registry.register("key", () -> {
+					writes.incrementAndGet();
+					return write;
+				}),
+				registration2 = registry.register("key", () -> {
+					writes.incrementAndGet();
+					return write;
+				});
+		
+		Assert.assertFalse(registry.isRegistered("key"), "Registered before write is done");
+		write.complete(null);
+		
+		Assert.assertTrue(registration1.isDone() && registration2.isDone(), "Registrations are done");
+		Assert.assertTrue(registry.isRegistered("key"), "Registered after write is done");
+		Assert.assertEquals(writes.get(), 1, "Writes");
+	}
+	
+	@Test
+	public void retriesFailedWrite()
+	{
+		WriteOnceRegistry<String> registry = new WriteOnceRegistry<>();
+		CompletableFuture<Void> failedWrite = new CompletableFuture<>();
+		failedWrite.completeExceptionally(new RuntimeException("Write failed"));
+		
+		CompletableFuture<Void> failed = registry.register("key", () -> failedWrite);
+		Assert.assertTrue(failed.isCompletedExceptionally(), "Failed registration");
+		Assert.assertFalse(registry.isRegistered("key"), "Registered after failure");
+		
+		CompletableFuture<Void> retried = registry.register("key", () -> CompletableFuture.completedFuture(null));
+		Assert.assertTrue(retried.isDone() && !retried.isCompletedExceptionally(), "Retried registration");
+		Assert.assertTrue(registry.isRegistered("key"), "Registered after retry");
+	}
+}
@@ -20,20 +20,25 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 
 import com.exactpro.cradle.intervals.IntervalsWorker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.exactpro.cradle.messages.MultiStreamMessageFilter;
 import com.exactpro.cradle.messages.StoredMessage;
 import com.exactpro.cradle.messages.StoredMessageBatch;
+import com.exactpro.cradle.messages.StoredMessageBatchInfo;
 import com.exactpro.cradle.messages.StoredMessageFilter;
 import com.exactpro.cradle.messages.StoredMessageId;
+import com.exactpro.cradle.messages.StreamStatistics;
 import com.exactpro.cradle.testevents.StoredTestEventWrapper;
 import com.exactpro.cradle.testevents.StoredTestEvent;
 import com.exactpro.cradle.testevents.StoredTestEventBatch;
 import com.exactpro.cradle.testevents.StoredTestEventId;
 import com.exactpro.cradle.testevents.StoredTestEventMetadata;
+import com.exactpro.cradle.testevents.TestEventTreeNode;
 import com.exactpro.cradle.testevents.TestEventsMessagesLinker;
 import com.exactpro.cradle.utils.CradleStorageException;
 import com.exactpro.cradle.utils.TestEventUtils;
@@ -79,6 +84,8 @@ public abstract class CradleStorage
 	protected abstract CompletableFuture<StoredMessage> doGetMessageAsync(StoredMessageId id);
 	protected abstract Collection<StoredMessage> doGetMessageBatch(StoredMessageId id) throws IOException;
 	protected abstract CompletableFuture<Collection<StoredMessage>> doGetMessageBatchAsync(StoredMessageId id);
+	protected abstract List<StoredMessage> doGetMessages(Collection<StoredMessageId> ids) throws IOException;
+	protected abstract CompletableFuture<List<StoredMessage>> doGetMessagesAsync(Collection<StoredMessageId> ids);
 	protected abstract StoredMessage doGetProcessedMessage(StoredMessageId id) throws IOException;
 	protected abstract CompletableFuture<StoredMessage> doGetProcessedMessageAsync(StoredMessageId id);
 	protected abstract long doGetFirstMessageIndex(String streamName, Direction direction) throws IOException;
@@ -114,8 +121,17 @@ public abstract class CradleStorage
 	
 	protected abstract Iterable<StoredMessage> doGetMessages(StoredMessageFilter filter) throws IOException;
 	protected abstract CompletableFuture<Iterable<StoredMessage>> doGetMessagesAsync(StoredMessageFilter filter);
+	protected abstract Iterable<StoredMessage> doGetMessages(MultiStreamMessageFilter filter) throws IOException;
+	protected abstract CompletableFuture<Iterable<StoredMessage>> doGetMessagesAsync(MultiStreamMessageFilter filter);
 	protected abstract Iterable<StoredMessageBatch> doGetMessagesBatches(StoredMessageFilter filter) throws IOException;
 	protected abstract CompletableFuture<Iterable<StoredMessageBatch>> doGetMessagesBatchesAsync(StoredMessageFilter filter);
+	protected abstract Iterable<StoredMessageBatchInfo> doGetMessagesBatchesInfo(StoredMessageFilter filter) throws IOException;
+	protected abstract CompletableFuture<Iterable<StoredMessageBatchInfo>> doGetMessagesBatchesInfoAsync(StoredMessageFilter filter);
+	protected abstract long doCountMessages(StoredMessageFilter filter) throws IOException;
+	protected abstract CompletableFuture<Long> doCountMessagesAsync(StoredMessageFilter filter);
+	protected abstract StreamStatistics doGetStreamStatistics(String streamName, Direction direction, Instant from, Instant to) throws IOException;
+	protected abstract CompletableFuture<StreamStatistics> doGetStreamStatisticsAsync(String streamName, Direction direction, 
+			Instant from, Instant to);
 	protected abstract Iterable<StoredTestEventMetadata> doGetRootTestEvents(Instant from, Instant to, Order order) 
 			throws CradleStorageException, IOException;
 	protected abstract CompletableFuture<Iterable<StoredTestEventMetadata>> doGetRootTestEventsAsync(Instant from, Instant to, Order order) 
@@ -128,6 +144,16 @@ public abstract class CradleStorage
 			throws CradleStorageException, IOException;
 	protected abstract CompletableFuture<Iterable<StoredTestEventMetadata>> doGetTestEventsAsync(Instant from, Instant to, Order order)
 			throws CradleStorageException;
+	protected abstract Iterable<TestEventTreeNode> doGetTestEventTree(StoredTestEventId rootId, int maxDepth) throws IOException;
+	protected abstract CompletableFuture<Iterable<TestEventTreeNode>> doGetTestEventTreeAsync(StoredTestEventId rootId, int maxDepth);
+	protected abstract Flow.Publisher<StoredMessage> doGetMessagesPublisher(StoredMessageFilter filter);
+	protected abstract Flow.Publisher<StoredMessageBatch> doGetMessagesBatchesPublisher(StoredMessageFilter filter);
+	protected abstract Flow.Publisher<StoredTestEventMetadata> doGetRootTestEventsPublisher(Instant from, Instant to, Order order) 
+			throws CradleStorageException;
+	protected abstract Flow.Publisher<StoredTestEventMetadata> doGetTestEventsPublisher(StoredTestEventId parentId, Instant from, Instant to, Order order) 
+			throws CradleStorageException;
+	protected abstract Flow.Publisher<StoredTestEventMetadata> doGetTestEventsPublisher(Instant from, Instant to, Order order) 
+			throws CradleStorageException;
 	
 	
 	/**
@@ -402,6 +428,40 @@ public abstract class CradleStorage
 				});
 	}
 	
+	/**
+	 * Retrieves data of messages stored under given IDs. 
+	 * Messages stored in the same batch are read and decoded once
+	 * @param ids of stored messages to retrieve
+	 * @return list with data of stored messages in order of given IDs. For IDs of messages that are not found the list contains null
+	 * @throws IOException if messages data retrieval failed
+	 */
+	public final List<StoredMessage> getMessages(Collection<StoredMessageId> ids) throws IOException
+	{
+		logger.debug("Getting {} message(s) by IDs", ids.size());
+		List<StoredMessage> result = doGetMessages(ids);
+		logger.debug("{} message(s) got by IDs", ids.size());
+		return result;
+	}
+	
+	/**
+	 * Asynchronously retrieves data of messages stored under given IDs. 
+	 * Messages stored in the same batch are read and decoded once
+	 * @param ids of stored messages to retrieve
+	 * @return future to obtain list with data of stored messages in order of given IDs. 
+	 * For IDs of messages that are not found the list contains null
+	 */
+	public final CompletableFuture<List<StoredMessage>> getMessagesAsync(Collection<StoredMessageId> ids)
+	{
+		logger.debug("Getting {} message(s) by IDs asynchronously", ids.size());
+		return doGetMessagesAsync(ids)
+				.whenComplete((r, error) -> {
+					if (error != null)
+						logger.error("Error while getting "+ids.size()+" message(s) by IDs asynchronously", error);
+					else
+						logger.debug("{} message(s) got by IDs asynchronously", ids.size());
+				});
+	}
+	
 	/**
 	 * Retrieves processed message data stored under given ID
 	 * @param id of stored processed message to retrieve
@@ -629,6 +689,47 @@ public abstract class CradleStorage
 	}
 
 
+	/**
+	 * Allows to enumerate stored messages of several streams and directions ordered by timestamp, filtering them by given conditions
+	 * @param filter defines streams and directions to get messages from and other conditions to filter messages by
+	 * @return iterable object to enumerate messages
+	 * @throws CradleStorageException if given filter is invalid
+	 * @throws IOException if data retrieval failed
+	 */
+	public final Iterable<StoredMessage> getMessages(MultiStreamMessageFilter filter) throws CradleStorageException, IOException
+	{
+		checkMultiStreamFilter(filter);
+		
+		logger.debug("Filtering messages of several streams by {}", filter);
+		Iterable<StoredMessage> result = doGetMessages(filter);
+		logger.debug("Prepared iterator for messages of several streams filtered by {}", filter);
+		return result;
+	}
+	
+	/**
+	 * Allows to asynchronously obtain iterable object to enumerate stored messages of several streams and directions 
+	 * ordered by timestamp, filtering them by given conditions. 
+	 * Queries for all streams and directions are executed in parallel
+	 * @param filter defines streams and directions to get messages from and other conditions to filter messages by
+	 * @return future to obtain iterable object to enumerate messages
+	 * @throws CradleStorageException if given filter is invalid
+	 */
+	public final CompletableFuture<Iterable<StoredMessage>> getMessagesAsync(MultiStreamMessageFilter filter) throws CradleStorageException
+	{
+		checkMultiStreamFilter(filter);
+		
+		logger.debug("Asynchronously getting messages of several streams filtered by {}", filter);
+		CompletableFuture<Iterable<StoredMessage>> result = doGetMessagesAsync(filter)
+				.whenComplete((r, error) -> {
+					if (error != null)
+						logger.error("Error while getting messages of several streams filtered by "+filter+" asynchronously", error);
+					else
+						logger.debug("Iterator for messages of several streams filtered by {} got asynchronously", filter);
+				});
+		return result;
+	}
+
+
 	/**
 	 * Allows to enumerate stored message batches, optionally filtering them by given conditions
 	 * @param filter defines conditions to filter message batches by. Use null if no filtering is needed
@@ -699,6 +800,125 @@ public abstract class CradleStorage
 		return getMessagesBatchesAsync(copyFilter);
 	}
 	
+	
+	/**
+	 * Allows to enumerate information about stored message batches without retrieving content of messages, 
+	 * optionally filtering batches by given conditions. 
+	 * Suitable to find out which messages exist in given range, not reading the messages themselves
+	 * @param filter defines conditions to filter message batches by. Use null if no filtering is needed
+	 * @return iterable object to enumerate information about message batches
+	 * @throws IOException if data retrieval failed
+	 */
+	public final Iterable<StoredMessageBatchInfo> getMessagesBatchesInfo(StoredMessageFilter filter) throws IOException
+	{
+		logger.debug("Filtering message batches info by {}", filter);
+		Iterable<StoredMessageBatchInfo> result = doGetMessagesBatchesInfo(filter);
+		logger.debug("Prepared iterator for message batches info filtered by {}", filter);
+		return result;
+	}
+	
+	/**
+	 * Allows to asynchronously obtain iterable object to enumerate information about stored message batches 
+	 * without retrieving content of messages, optionally filtering batches by given conditions
+	 * @param filter defines conditions to filter message batches by. Use null if no filtering is needed
+	 * @return future to obtain iterable object to enumerate information about message batches
+	 */
+	public final CompletableFuture<Iterable<StoredMessageBatchInfo>> getMessagesBatchesInfoAsync(StoredMessageFilter filter)
+	{
+		logger.debug("Asynchronously getting message batches info filtered by {}", filter);
+		CompletableFuture<Iterable<StoredMessageBatchInfo>> result = doGetMessagesBatchesInfoAsync(filter)
+				.whenComplete((r, error) -> {
+					if (error != null)
+						logger.error("Error while getting message batches info filtered by "+filter+" asynchronously", error);
+					else
+						logger.debug("Iterator for message batches info filtered by {} got asynchronously", filter);
+				});
+		return result;
+	}
+	
+	
+	/**
+	 * Counts stored messages that match given filter. 
+	 * Number of messages is taken from metadata of message batches, only batches on range boundaries are decoded, if needed. 
+	 * Limit and order of filter are ignored
+	 * @param filter defines conditions to filter messages by
+	 * @return number of messages matching the filter
+	 * @throws IOException if data retrieval failed
+	 */
+	public final long countMessages(StoredMessageFilter filter) throws IOException
+	{
+		logger.debug("Counting messages filtered by {}", filter);
+		long result = doCountMessages(filter);
+		logger.debug("{} message(s) filtered by {} counted", result, filter);
+		return result;
+	}
+	
+	/**
+	 * Asynchronously counts stored messages that match given filter. 
+	 * Number of messages is taken from metadata of message batches, only batches on range boundaries are decoded, if needed. 
+	 * Limit and order of filter are ignored
+	 * @param filter defines conditions to filter messages by
+	 * @return future to obtain number of messages matching the filter
+	 */
+	public final CompletableFuture<Long> countMessagesAsync(StoredMessageFilter filter)
+	{
+		logger.debug("Asynchronously counting messages filtered by {}", filter);
+		CompletableFuture<Long> result = doCountMessagesAsync(filter)
+				.whenComplete((r, error) -> {
+					if (error != null)
+						logger.error("Error while counting messages filtered by "+filter+" asynchronously", error);
+					else
+						logger.debug("{} message(s) filtered by {} counted asynchronously", r, filter);
+				});
+		return result;
+	}
+	
+	/**
+	 * Obtains statistics of messages stored for given stream and direction within range of timestamps, 
+	 * i.e. number of messages and batches, first and last message indices and timestamps. 
+	 * Statistics is collected from metadata of message batches, only batches on range boundaries are decoded, if needed
+	 * @param streamName name of stream to get statistics for
+	 * @param direction direction of messages to get statistics for
+	 * @param from left boundary of timestamps range, inclusive
+	 * @param to right boundary of timestamps range, inclusive
+	 * @return statistics of messages in given range
+	 * @throws IOException if data retrieval failed
+	 */
+	public final StreamStatistics getStreamStatistics(String streamName, Direction direction, Instant from, Instant to) throws IOException
+	{
+		logger.debug("Getting statistics of stream '{}', direction '{}' for range {}..{}", streamName, direction, from, to);
+		StreamStatistics result = doGetStreamStatistics(streamName, direction, from, to);
+		logger.debug("Statistics of stream '{}', direction '{}' for range {}..{} got", streamName, direction, from, to);
+		return result;
+	}
+	
+	/**
+	 * Asynchronously obtains statistics of messages stored for given stream and direction within range of timestamps, 
+	 * i.e. number of messages and batches, first and last message indices and timestamps. 
+	 * Statistics is collected from metadata of message batches, only batches on range boundaries are decoded, if needed
+	 * @param streamName name of stream to get statistics for
+	 * @param direction direction of messages to get statistics for
+	 * @param from left boundary of timestamps range, inclusive
+	 * @param to right boundary of timestamps range, inclusive
+	 * @return future to obtain statistics of messages in given range
+	 */
+	public final CompletableFuture<StreamStatistics> getStreamStatisticsAsync(String streamName, Direction direction, 
+			Instant from, Instant to)
+	{
+		logger.debug("Asynchronously getting statistics of stream '{}', direction '{}' for range {}..{}", 
+				streamName, direction, from, to);
+		CompletableFuture<StreamStatistics> result = doGetStreamStatisticsAsync(streamName, direction, from, to)
+				.whenComplete((r, error) -> {
+					if (error != null)
+						logger.error("Error while getting statistics of stream '"+streamName+"', direction '"+direction
+								+"' for range "+from+".."+to+" asynchronously", error);
+					else
+						logger.debug("Statistics of stream '{}', direction '{}' for range {}..{} got asynchronously", 
+								streamName, direction, from, to);
+				});
+		return result;
+	}
+	
 	/**
 	 * Allows to enumerate root test events started in given range of timestamps in direct order. 
 	 * Both boundaries (from and to) should be specified
@@ -865,6 +1085,49 @@ public abstract class CradleStorage
 	}
 	
 	
+	/**
+	 * Allows to enumerate all descendants of test event with given ID, i.e. its children, their children and so on. 
+	 * Children of several test events and of several dates are requested in parallel, 
+	 * test events are returned as they are loaded, each test event is returned after its parent
+	 * @param rootId ID of test event to get descendants of. The event itself is not returned
+	 * @param maxDepth max depth of test events to return, direct children of the root have depth 1. 
+	 * 0 means that the whole tree is returned
+	 * @return iterable object to enumerate test events of the tree. 
+	 * If it implements {@link AutoCloseable}, closing it stops loading of test events when the rest of the tree is not needed
+	 * @throws IOException if data retrieval failed
+	 */
+	public final Iterable<TestEventTreeNode> getTestEventTree(StoredTestEventId rootId, int maxDepth) throws IOException
+	{
+		logger.debug("Getting tree of test event {} with max depth {}", rootId, maxDepth);
+		Iterable<TestEventTreeNode> result = doGetTestEventTree(rootId, maxDepth);
+		logger.debug("Prepared iterator for tree of test event {} with max depth {}", rootId, maxDepth);
+		return result;
+	}
+	
+	/**
+	 * Allows to asynchronously obtain iterable object to enumerate all descendants of test event with given ID. 
+	 * Children of several test events and of several dates are requested in parallel, 
+	 * test events are returned as they are loaded, each test event is returned after its parent
+	 * @param rootId ID of test event to get descendants of. The event itself is not returned
+	 * @param maxDepth max depth of test events to return, direct children of the root have depth 1. 
+	 * 0 means that the whole tree is returned
+	 * @return future to obtain iterable object to enumerate test events of the tree. 
+	 * If it implements {@link AutoCloseable}, closing it stops loading of test events when the rest of the tree is not needed
+	 */
+	public final CompletableFuture<Iterable<TestEventTreeNode>> getTestEventTreeAsync(StoredTestEventId rootId, int maxDepth)
+	{
+		logger.debug("Getting tree of test event {} with max depth {} asynchronously", rootId, maxDepth);
+		CompletableFuture<Iterable<TestEventTreeNode>> result = doGetTestEventTreeAsync(rootId, maxDepth)
+				.whenComplete((r, error) -> {
+					if (error != null)
+						logger.error("Error while getting tree of test event "+rootId+" asynchronously", error);
+					else
+						logger.debug("Iterator for tree of test event {} with max depth {} got asynchronously", rootId, maxDepth);
+				});
+		return result;
+	}
+	
+	
 	/**
 	 * Allows to enumerate test events started in given range of timestamps in ascending order. 
 	 * Both boundaries (from and to) should be specified
@@ -941,6 +1204,94 @@ public abstract class CradleStorage
 	}
 	
 	
+	/**
+	 * Allows to obtain publisher of stored messages, optionally filtering them by given conditions. 
+	 * Data is retrieved according to demand of subscriber, without blocking a thread while waiting for it. 
+	 * Query is executed for each subscriber separately
+	 * @param filter defines conditions to filter messages by. Use null if no filtering is needed
+	 * @return publisher of messages
+	 */
+	public final Flow.Publisher<StoredMessage> getMessagesPublisher(StoredMessageFilter filter)
+	{
+		logger.debug("Creating publisher for messages filtered by {}", filter);
+		return doGetMessagesPublisher(filter);
+	}
+	
+	/**
+	 * Allows to obtain publisher of stored message batches, optionally filtering them by given conditions. 
+	 * Data is retrieved according to demand of subscriber, without blocking a thread while waiting for it. 
+	 * Query is executed for each subscriber separately
+	 * @param filter defines conditions to filter message batches by. Use null if no filtering is needed
+	 * @return publisher of message batches
+	 */
+	public final Flow.Publisher<StoredMessageBatch> getMessagesBatchesPublisher(StoredMessageFilter filter)
+	{
+		logger.debug("Creating publisher for message batches filtered by {}", filter);
+		return doGetMessagesBatchesPublisher(filter);
+	}
+	
+	/**
+	 * Allows to obtain publisher of root test events started in given range of timestamps in specified order. 
+	 * Both boundaries (from and to) should be specified. 
+	 * Data is retrieved according to demand of subscriber, without blocking a thread while waiting for it
+	 * @param from left boundary of timestamps range
+	 * @param to right boundary of timestamps range
+	 * @param order defines sorting order
+	 * @return publisher of root test events
+	 * @throws CradleStorageException if given parameters are invalid
+	 */
+	public final Flow.Publisher<StoredTestEventMetadata> getRootTestEventsPublisher(Instant from, Instant to, Order order) 
+			throws CradleStorageException
+	{
+		if (from == null || to == null)
+			throw new CradleStorageException("Both boundaries (from and to) should be specified");
+		
+		logger.debug("Creating publisher for root test events from range {}..{} in {} order", from, to, order);
+		return doGetRootTestEventsPublisher(from, to, order);
+	}
+	
+	/**
+	 * Allows to obtain publisher of children of test event with given ID that started in given range of timestamps in specified order. 
+	 * Both boundaries (from and to) should be specified. 
+	 * Data is retrieved according to demand of subscriber, without blocking a thread while waiting for it
+	 * @param parentId ID of parent test event
+	 * @param from left boundary of timestamps range
+	 * @param to right boundary of timestamps range
+	 * @param order defines sorting order
+	 * @return publisher of test events
+	 * @throws CradleStorageException if given parameters are invalid
+	 */
+	public final Flow.Publisher<StoredTestEventMetadata> getTestEventsPublisher(StoredTestEventId parentId, 
+			Instant from, Instant to, Order order) throws CradleStorageException
+	{
+		if (from == null || to == null)
+			throw new CradleStorageException("Both boundaries (from and to) should be specified");
+		
+		logger.debug("Creating publisher for child test events of {} from range {}..{} in {} order", parentId, from, to, order);
+		return doGetTestEventsPublisher(parentId, from, to, order);
+	}
+	
+	/**
+	 * Allows to obtain publisher of test events started in given range of timestamps in specified order. 
+	 * Both boundaries (from and to) should be specified. 
+	 * Data is retrieved according to demand of subscriber, without blocking a thread while waiting for it
+	 * @param from left boundary of timestamps range
+	 * @param to right boundary of timestamps range
+	 * @param order defines sorting order
+	 * @return publisher of test events
+	 * @throws CradleStorageException if given parameters are invalid
+	 */
+	public final Flow.Publisher<StoredTestEventMetadata> getTestEventsPublisher(Instant from, Instant to, Order order) 
+			throws CradleStorageException
+	{
+		if (from == null || to == null)
+			throw new CradleStorageException("Both boundaries (from and to) should be specified");
+		
+		logger.debug("Creating publisher for test events from range {}..{} in {} order", from, to, order);
+		return doGetTestEventsPublisher(from, to, order);
+	}
+	
+	
 	/**
 	 * Obtains collection of streams whose messages are currently saved in storage
 	 * @return collection of stream names
@@ -1012,6 +1363,12 @@ public abstract class CradleStorage
 		}
 		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
 	}
+	
+	protected void checkMultiStreamFilter(MultiStreamMessageFilter filter) throws CradleStorageException
+	{
+		if (filter == null || filter.getStreamNames().isEmpty())
+			throw new CradleStorageException("At least one stream name should be specified");
+	}
 
 	public final void updateEventStatus(StoredTestEventWrapper event, boolean success) throws IOException
 	{
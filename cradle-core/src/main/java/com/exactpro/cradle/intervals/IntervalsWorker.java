@@ -73,6 +73,18 @@ public interface IntervalsWorker
      */
     Iterable<Interval> getIntervals(Instant from, Instant to, String crawlerName, String crawlerVersion, String crawlerType) throws IOException;
 
+    /**
+     * Asynchronously obtains iterable of intervals with startTime greater than or equal to "from" and less than or equal to "to". 
+     * Intervals of all days in the range are requested in parallel and are returned in order of days
+     * @param from time from which intervals are searched
+     * @param to time to which intervals are searched
+     * @param crawlerName name of Crawler
+     * @param crawlerVersion version of Crawler
+     * @param crawlerType type of Crawler
+     * @return future to obtain iterable of intervals
+     */
+    CompletableFuture<Iterable<Interval>> getIntervalsAsync(Instant from, Instant to, String crawlerName, String crawlerVersion, String crawlerType);
+
     /**
      * Sets last update time and last update date of interval.
      * @param interval interval in which last update time and date will be set
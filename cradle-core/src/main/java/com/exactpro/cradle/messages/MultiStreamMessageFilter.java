@@ -0,0 +1,190 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.messages;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.exactpro.cradle.Direction;
+import com.exactpro.cradle.Order;
+import com.exactpro.cradle.filters.FilterForEquals;
+import com.exactpro.cradle.filters.FilterForGreater;
+import com.exactpro.cradle.filters.FilterForLess;
+
+/**
+ * Filter for messages of several streams and directions. 
+ * Messages matching the filter are returned ordered by timestamp across all given streams and directions
+ */
+public class MultiStreamMessageFilter
+{
+	private final Set<String> streamNames = new LinkedHashSet<>();
+	private final Set<Direction> directions = new LinkedHashSet<>(Arrays.asList(Direction.values()));
+	private FilterForGreater<Instant> timestampFrom;
+	private FilterForLess<Instant> timestampTo;
+	private int limit;
+	private Order order = Order.DIRECT;
+	
+	public MultiStreamMessageFilter()
+	{
+	}
+	
+	public MultiStreamMessageFilter(Collection<String> streamNames)
+	{
+		setStreamNames(streamNames);
+	}
+	
+	
+	public Set<String> getStreamNames()
+	{
+		return streamNames;
+	}
+	
+	public void setStreamNames(Collection<String> streamNames)
+	{
+		this.streamNames.clear();
+		if (streamNames != null)
+			this.streamNames.addAll(streamNames);
+	}
+	
+	public void addStreamName(String streamName)
+	{
+		this.streamNames.add(streamName);
+	}
+	
+	
+	public Set<Direction> getDirections()
+	{
+		return directions;
+	}
+	
+	/**
+	 * Sets directions of messages to get. Null or empty collection means that messages of both directions will be returned
+	 * @param directions of messages to get
+	 */
+	public void setDirections(Collection<Direction> directions)
+	{
+		this.directions.clear();
+		if (directions == null || directions.isEmpty())
+			this.directions.addAll(Arrays.asList(Direction.values()));
+		else
+			this.directions.addAll(directions);
+	}
+	
+	
+	public FilterForGreater<Instant> getTimestampFrom()
+	{
+		return timestampFrom;
+	}
+	
+	public void setTimestampFrom(FilterForGreater<Instant> timestampFrom)
+	{
+		this.timestampFrom = timestampFrom;
+	}
+	
+	
+	public FilterForLess<Instant> getTimestampTo()
+	{
+		return timestampTo;
+	}
+	
+	public void setTimestampTo(FilterForLess<Instant> timestampTo)
+	{
+		this.timestampTo = timestampTo;
+	}
+	
+	
+	public int getLimit()
+	{
+		return limit;
+	}
+	
+	/**
+	 * Sets maximum number of messages to get in total from all streams and directions
+	 * @param limit max number of messages to return
+	 */
+	public void setLimit(int limit)
+	{
+		this.limit = limit;
+	}
+	
+	
+	public Order getOrder()
+	{
+		return order;
+	}
+	
+	public void setOrder(Order order)
+	{
+		this.order = order == null ? Order.DIRECT : order;
+	}
+	
+	
+	/**
+	 * Creates filter to get messages of one stream and direction covered by this filter. 
+	 * Limit of created filter equals to total limit because no more messages will be needed from one stream
+	 * @param streamName name of stream to get messages from
+	 * @param direction of messages to get
+	 * @return filter for messages of given stream and direction
+	 */
+	public StoredMessageFilter toStreamFilter(String streamName, Direction direction)
+	{
+		StoredMessageFilter result = new StoredMessageFilter();
+		result.setStreamName(new FilterForEquals<>(streamName));
+		result.setDirection(new FilterForEquals<>(direction));
+		result.setTimestampFrom(timestampFrom);
+		result.setTimestampTo(timestampTo);
+		result.setLimit(limit);
+		result.setOrder(order);
+		return result;
+	}
+	
+	/**
+	 * @return filters for each combination of stream and direction covered by this filter
+	 */
+	public List<StoredMessageFilter> toStreamFilters()
+	{
+		List<StoredMessageFilter> result = new ArrayList<>();
+		for (String streamName : streamNames)
+		{
+			for (Direction direction : directions)
+				result.add(toStreamFilter(streamName, direction));
+		}
+		return result;
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		List<String> result = new ArrayList<>();
+		result.add("order=" + order);
+		result.add("stream names=" + streamNames);
+		result.add("directions=" + directions);
+		if (timestampFrom != null)
+			result.add("timestamp" + timestampFrom);
+		if (timestampTo != null)
+			result.add("timestamp" + timestampTo);
+		if (limit > 0)
+			result.add("limit=" + limit);
+		return String.join(", ", result);
+	}
+}
@@ -115,14 +115,27 @@ public class StoredMessageBatch
 	}
 
 	/**
-	 * @return collection of messages stored in the batch in reverse order
+	 * @return collection of messages stored in the batch in reverse order. 
+	 * Messages are not copied, the collection is a read-only view of messages stored in the batch at the moment of the call
 	 */
 	public Collection<StoredMessage> getMessagesReverse()
 	{
-		List<StoredMessage> list = new ArrayList<>(messages);
-		Collections.reverse(list);
-		
-		return list;
+		int size = messages.size();
+		return new AbstractList<StoredMessage>()
+		{
+			@Override
+			public StoredMessage get(int index)
+			{
+				Objects.checkIndex(index, size);
+				return messages.get(size-1-index);
+			}
+			
+			@Override
+			public int size()
+			{
+				return size;
+			}
+		};
 	}
 
 	/**
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.messages;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds information about batch of messages stored in Cradle without content of the messages.
+ * Positions of messages in the batch are available only if they were written when the batch was stored
+ */
+public class StoredMessageBatchInfo implements Serializable
+{
+	private static final long serialVersionUID = 1638742937511602379L;
+	
+	private final StoredMessageBatchId id;
+	private final long lastIndex;
+	private final int messageCount;
+	private final Instant firstTimestamp,
+			lastTimestamp,
+			storedTimestamp;
+	private final List<StoredMessagePosition> messagePositions;
+	
+	public StoredMessageBatchInfo(StoredMessageBatchId id, long lastIndex, int messageCount, 
+			Instant firstTimestamp, Instant lastTimestamp, Instant storedTimestamp, List<StoredMessagePosition> messagePositions)
+	{
+		this.id = id;
+		this.lastIndex = lastIndex;
+		this.messageCount = messageCount;
+		this.firstTimestamp = firstTimestamp;
+		this.lastTimestamp = lastTimestamp;
+		this.storedTimestamp = storedTimestamp;
+		this.messagePositions = messagePositions != null ? Collections.unmodifiableList(messagePositions) : null;
+	}
+	
+	
+	public StoredMessageBatchId getId()
+	{
+		return id;
+	}
+	
+	/**
+	 * @return index of first message in the batch
+	 */
+	public long getFirstIndex()
+	{
+		return id.getIndex();
+	}
+	
+	/**
+	 * @return index of last message in the batch
+	 */
+	public long getLastIndex()
+	{
+		return lastIndex;
+	}
+	
+	public int getMessageCount()
+	{
+		return messageCount;
+	}
+	
+	public Instant getFirstTimestamp()
+	{
+		return firstTimestamp;
+	}
+	
+	public Instant getLastTimestamp()
+	{
+		return lastTimestamp;
+	}
+	
+	public Instant getStoredTimestamp()
+	{
+		return storedTimestamp;
+	}
+	
+	/**
+	 * @return IDs and timestamps of messages in the batch or null if they were not written when the batch was stored
+	 */
+	public List<StoredMessagePosition> getMessagePositions()
+	{
+		return messagePositions;
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "StoredMessageBatchInfo{id="+id
+				+", lastIndex="+lastIndex
+				+", messageCount="+messageCount
+				+", firstTimestamp="+firstTimestamp
+				+", lastTimestamp="+lastTimestamp
+				+", storedTimestamp="+storedTimestamp+"}";
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.messages;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Holds ID and timestamp of a message stored in Cradle, i.e. position of the message in timeline, without its content
+ */
+public class StoredMessagePosition implements Serializable
+{
+	private static final long serialVersionUID = -2314518947025613285L;
+	
+	private final StoredMessageId id;
+	private final Instant timestamp;
+	
+	public StoredMessagePosition(StoredMessageId id, Instant timestamp)
+	{
+		this.id = id;
+		this.timestamp = timestamp;
+	}
+	
+	
+	public StoredMessageId getId()
+	{
+		return id;
+	}
+	
+	public Instant getTimestamp()
+	{
+		return timestamp;
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return id+" at "+timestamp;
+	}
+}
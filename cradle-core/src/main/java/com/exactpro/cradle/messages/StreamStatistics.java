@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.messages;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.exactpro.cradle.Direction;
+
+/**
+ * Summary of messages stored for stream and direction within given time range.
+ * Index and timestamp bounds are absent (-1 and null) if there are no messages in the range
+ */
+public class StreamStatistics implements Serializable
+{
+	private static final long serialVersionUID = -2617318054621430176L;
+	
+	private final String streamName;
+	private final Direction direction;
+	private final long messageCount;
+	private final int batchCount;
+	private final long firstIndex,
+			lastIndex;
+	private final Instant firstTimestamp,
+			lastTimestamp;
+	
+	public StreamStatistics(String streamName, Direction direction, long messageCount, int batchCount, 
+			long firstIndex, long lastIndex, Instant firstTimestamp, Instant lastTimestamp)
+	{
+		this.streamName = streamName;
+		this.direction = direction;
+		this.messageCount = messageCount;
+		this.batchCount = batchCount;
+		this.firstIndex = firstIndex;
+		this.lastIndex = lastIndex;
+		this.firstTimestamp = firstTimestamp;
+		this.lastTimestamp = lastTimestamp;
+	}
+	
+	
+	public String getStreamName()
+	{
+		return streamName;
+	}
+	
+	public Direction getDirection()
+	{
+		return direction;
+	}
+	
+	/**
+	 * @return number of messages in the range
+	 */
+	public long getMessageCount()
+	{
+		return messageCount;
+	}
+	
+	/**
+	 * @return number of message batches that have at least one message in the range
+	 */
+	public int getBatchCount()
+	{
+		return batchCount;
+	}
+	
+	/**
+	 * @return index of first message in the range or -1 if there are no messages
+	 */
+	public long getFirstIndex()
+	{
+		return firstIndex;
+	}
+	
+	/**
+	 * @return index of last message in the range or -1 if there are no messages
+	 */
+	public long getLastIndex()
+	{
+		return lastIndex;
+	}
+	
+	/**
+	 * @return timestamp of first message in the range or null if there are no messages
+	 */
+	public Instant getFirstTimestamp()
+	{
+		return firstTimestamp;
+	}
+	
+	/**
+	 * @return timestamp of last message in the range or null if there are no messages
+	 */
+	public Instant getLastTimestamp()
+	{
+		return lastTimestamp;
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "StreamStatistics{streamName="+streamName
+				+", direction="+direction
+				+", messageCount="+messageCount
+				+", batchCount="+batchCount
+				+", firstIndex="+firstIndex
+				+", lastIndex="+lastIndex
+				+", firstTimestamp="+firstTimestamp
+				+", lastTimestamp="+lastTimestamp+"}";
+	}
+}
@@ -32,8 +32,8 @@ public class StoredTestEventMetadata implements StoredTestEvent
 	private boolean success,
 			batch;
 	private int eventCount;
-	private byte[] batchMetadataBytes;
-	private StoredTestEventBatchMetadata batchMetadata;
+	private volatile byte[] batchMetadataBytes;
+	private volatile StoredTestEventBatchMetadata batchMetadata;
 	
 	public StoredTestEventMetadata()
 	{
@@ -164,18 +164,33 @@ public class StoredTestEventMetadata implements StoredTestEvent
 	}
 	
 	
+	/**
+	 * Returns metadata of test events stored in the batch, decoding it on first call. 
+	 * Decoded metadata is kept, so that subsequent calls return the same object
+	 * @return metadata of test events in the batch or null if this is not a batch
+	 * @throws IOException if batch metadata is malformed
+	 */
 	public StoredTestEventBatchMetadata getBatchMetadata() throws IOException
 	{
-		if (batchMetadata != null || batchMetadataBytes == null)
+		//Bytes are cleared only after decoded metadata is set, so metadata is read after bytes to not miss it
+		if (batchMetadataBytes == null)
 			return batchMetadata;
 		
+		StoredTestEventBatchMetadata result = batchMetadata;
+		if (result != null)
+			return result;
+		
 		synchronized (this)
 		{
+			if (batchMetadata != null || batchMetadataBytes == null)  //Metadata could be decoded while waiting for lock
+				return batchMetadata;
+			
 			try
 			{
-				StoredTestEventBatchMetadata metadata = new StoredTestEventBatchMetadata(getId(), getParentId());
-				batchMetadata = metadata;
-				TestEventUtils.deserializeTestEventsMetadata(batchMetadataBytes, metadata);
+				//Metadata becomes visible to other threads only when completely decoded
+				result = new StoredTestEventBatchMetadata(getId(), getParentId());
+				TestEventUtils.deserializeTestEventsMetadata(batchMetadataBytes, result);
+				batchMetadata = result;
 				batchMetadataBytes = null;
 			}
 			catch (IOException e)
@@ -183,12 +198,13 @@ public class StoredTestEventMetadata implements StoredTestEvent
 				throw new IOException("Error while deserializing test events metadata", e);
 			}
 		}
-		return batchMetadata;
+		return result;
 	}
 	
-	public void setBatchMetadata(StoredTestEventBatchMetadata m)
+	public synchronized void setBatchMetadata(StoredTestEventBatchMetadata m)
 	{
 		this.batchMetadata = m;
+		this.batchMetadataBytes = null;
 	}
 	
 	public void setBatchMetadataBytes(byte[] batchMetadataBytes)
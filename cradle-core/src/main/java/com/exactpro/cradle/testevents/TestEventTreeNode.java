@@ -0,0 +1,66 @@
+/*
+ * Copyright 2021-2021 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.cradle.testevents;
+
+/**
+ * Test event loaded as part of test events tree with its depth relative to the tree root. 
+ * Event is either {@link StoredTestEventMetadata} of single event or {@link BatchedStoredTestEventMetadata} of event stored in batch
+ */
+public class TestEventTreeNode
+{
+	private final StoredTestEvent event;
+	private final int depth;
+	
+	public TestEventTreeNode(StoredTestEvent event, int depth)
+	{
+		this.event = event;
+		this.depth = depth;
+	}
+	
+	
+	public StoredTestEvent getEvent()
+	{
+		return event;
+	}
+	
+	/**
+	 * @return depth of the event in the tree. Direct children of the tree root have depth 1
+	 */
+	public int getDepth()
+	{
+		return depth;
+	}
+	
+	public StoredTestEventId getId()
+	{
+		return event.getId();
+	}
+	
+	public StoredTestEventId getParentId()
+	{
+		return event.getParentId();
+	}
+	
+	
+	@Override
+	public String toString()
+	{
+		return "TestEventTreeNode{id="+event.getId()
+				+", parentId="+event.getParentId()
+				+", depth="+depth+"}";
+	}
+}
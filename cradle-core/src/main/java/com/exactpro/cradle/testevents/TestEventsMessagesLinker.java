@@ -18,6 +18,8 @@ package com.exactpro.cradle.testevents;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import com.exactpro.cradle.messages.StoredMessageId;
@@ -38,6 +40,23 @@ public interface TestEventsMessagesLinker
 	 * @return future to obtain collection of stored test event IDs
 	 */
 	CompletableFuture<Collection<StoredTestEventId>> getTestEventIdsByMessageIdAsync(StoredMessageId messageId);
+	
+	/**
+	 * Retrieves IDs of stored test events linked to each of given messages. Lookups for all messages are done concurrently
+	 * @param messageIds IDs of stored messages
+	 * @return map of message ID to collection of linked test event IDs. Messages without linked test events are not present in the map
+	 * @throws IOException if test event data retrieval failed
+	 */
+	Map<StoredMessageId, Collection<StoredTestEventId>> getTestEventIdsByMessageIds(Collection<StoredMessageId> messageIds) 
+			throws IOException;
+	
+	/**
+	 * Asynchronously retrieves IDs of stored test events linked to each of given messages. Lookups for all messages are done concurrently
+	 * @param messageIds IDs of stored messages
+	 * @return future to obtain map of message ID to collection of linked test event IDs
+	 */
+	CompletableFuture<Map<StoredMessageId, Collection<StoredTestEventId>>> getTestEventIdsByMessageIdsAsync(
+			Collection<StoredMessageId> messageIds);
 
 	/**
 	 * Retrieves IDs of stored messages by linked test event ID
@@ -53,6 +72,23 @@ public interface TestEventsMessagesLinker
 	 * @return future to obtain collection of stored message IDs
 	 */
 	CompletableFuture<Collection<StoredMessageId>> getMessageIdsByTestEventIdAsync(StoredTestEventId eventId);
+	
+	/**
+	 * Retrieves IDs of stored messages linked to each of given test events. Lookups for all test events are done concurrently
+	 * @param eventIds IDs of stored test events
+	 * @return map of test event ID to collection of linked message IDs. Test events without linked messages are not present in the map
+	 * @throws IOException if messages data retrieval failed
+	 */
+	Map<StoredTestEventId, Collection<StoredMessageId>> getMessageIdsByTestEventIds(Collection<StoredTestEventId> eventIds) 
+			throws IOException;
+	
+	/**
+	 * Asynchronously retrieves IDs of stored messages linked to each of given test events. Lookups for all test events are done concurrently
+	 * @param eventIds IDs of stored test events
+	 * @return future to obtain map of test event ID to collection of linked message IDs
+	 */
+	CompletableFuture<Map<StoredTestEventId, Collection<StoredMessageId>>> getMessageIdsByTestEventIdsAsync(
+			Collection<StoredTestEventId> eventIds);
 
 	/**
 	 * Checks if test event has messages linked to it
@@ -69,6 +105,21 @@ public interface TestEventsMessagesLinker
 	 */
 	CompletableFuture<Boolean> isTestEventLinkedToMessagesAsync(StoredTestEventId eventId);
 	
+	/**
+	 * Checks which of given test events have messages linked to them. Checks for all test events are done concurrently
+	 * @param eventIds IDs of stored test events
+	 * @return IDs of test events that have linked messages, in order of given IDs
+	 * @throws IOException if messages data retrieval failed
+	 */
+	Set<StoredTestEventId> filterTestEventsLinkedToMessages(Collection<StoredTestEventId> eventIds) throws IOException;
+	
+	/**
+	 * Asynchronously checks which of given test events have messages linked to them. Checks for all test events are done concurrently
+	 * @param eventIds IDs of stored test events
+	 * @return future to get IDs of test events that have linked messages
+	 */
+	CompletableFuture<Set<StoredTestEventId>> filterTestEventsLinkedToMessagesAsync(Collection<StoredTestEventId> eventIds);
+	
 	/**
 	 * Checks if message has test events linked to it
 	 * @param messageId ID of stored message
@@ -83,4 +134,19 @@ public interface TestEventsMessagesLinker
 	 * @return future to get if message has linked test events
 	 */
 	CompletableFuture<Boolean> isMessageLinkedToTestEventsAsync(StoredMessageId messageId);
+	
+	/**
+	 * Checks which of given messages have test events linked to them. Checks for all messages are done concurrently
+	 * @param messageIds IDs of stored messages
+	 * @return IDs of messages that have linked test events, in order of given IDs
+	 * @throws IOException if test events data retrieval failed
+	 */
+	Set<StoredMessageId> filterMessagesLinkedToTestEvents(Collection<StoredMessageId> messageIds) throws IOException;
+	
+	/**
+	 * Asynchronously checks which of given messages have test events linked to them. Checks for all messages are done concurrently
+	 * @param messageIds IDs of stored messages
+	 * @return future to get IDs of messages that have linked test events
+	 */
+	CompletableFuture<Set<StoredMessageId>> filterMessagesLinkedToTestEventsAsync(Collection<StoredMessageId> messageIds);
 }
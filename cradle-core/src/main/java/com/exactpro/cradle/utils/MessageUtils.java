@@ -22,9 +22,14 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.zip.DataFormatException;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -32,7 +37,9 @@ import org.apache.commons.lang3.SerializationUtils;
 
 import com.exactpro.cradle.messages.MessageToStore;
 import com.exactpro.cradle.messages.StoredMessage;
+import com.exactpro.cradle.messages.StoredMessageBatchId;
 import com.exactpro.cradle.messages.StoredMessageId;
+import com.exactpro.cradle.messages.StoredMessagePosition;
 
 public class MessageUtils
 {
@@ -80,6 +87,54 @@ public class MessageUtils
 		return batchContent;
 	}
 	
+	/**
+	 * Serializes indices and timestamps of messages, skipping all other data
+	 * @param messages to serialize positions of
+	 * @return array of bytes, containing serialized positions of messages
+	 * @throws IOException if serialization failed
+	 */
+	public static byte[] serializeMessagePositions(Collection<StoredMessage> messages) throws IOException
+	{
+		try (ByteArrayOutputStream out = new ByteArrayOutputStream();
+				DataOutputStream dos = new DataOutputStream(out))
+		{
+			for (StoredMessage msg : messages)
+			{
+				if (msg == null)  //For case of not full batch
+					break;
+				
+				Instant timestamp = msg.getTimestamp();
+				dos.writeLong(msg.getIndex());
+				dos.writeLong(timestamp.getEpochSecond());
+				dos.writeInt(timestamp.getNano());
+			}
+			dos.flush();
+			return out.toByteArray();
+		}
+	}
+	
+	/**
+	 * Deserializes positions of messages written by {@link #serializeMessagePositions(Collection)}
+	 * @param positionsBytes to deserialize positions from
+	 * @param batchId ID of batch the messages belong to
+	 * @return list of message positions in order they were serialized
+	 * @throws IOException if deserialization failed
+	 */
+	public static List<StoredMessagePosition> deserializeMessagePositions(byte[] positionsBytes, StoredMessageBatchId batchId) throws IOException
+	{
+		List<StoredMessagePosition> result = new ArrayList<>();
+		try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(positionsBytes)))
+		{
+			while (dis.available() != 0)
+			{
+				long index = dis.readLong();
+				Instant timestamp = Instant.ofEpochSecond(dis.readLong(), dis.readInt());
+				result.add(new StoredMessagePosition(new StoredMessageId(batchId.getStreamName(), batchId.getDirection(), index), timestamp));
+			}
+		}
+		return result;
+	}
+	
 	/**
 	 * Deserializes messages from given array of bytes till message with needed ID is found
 	 * @param contentBytes to deserialize needed message from
@@ -123,6 +178,33 @@ public class MessageUtils
 		return storedMessages;
 	}
 	
+	/**
+	 * Prepares messages to be deserialized in reverse order. 
+	 * Only sizes of messages are read at once, each message is deserialized when iteration reaches it, 
+	 * so iteration that is stopped early doesn't deserialize messages from the beginning of content
+	 * @param contentBytes to deserialize messages from
+	 * @return collection of messages in reverse order. Messages are deserialized each time the collection is iterated
+	 * @throws IOException if content is malformed
+	 */
+	public static Collection<StoredMessage> deserializeMessagesReverse(byte[] contentBytes) throws IOException
+	{
+		return new ReverseMessages(contentBytes, getMessageOffsets(contentBytes));
+	}
+	
+	/**
+	 * Decompresses given ByteBuffer and prepares messages to be deserialized in reverse order, 
+	 * see {@link #deserializeMessagesReverse(byte[])}
+	 * @param content to deserialize messages from
+	 * @param compressed flag that indicates if content needs to be decompressed first
+	 * @return collection of messages in reverse order
+	 * @throws IOException if decompression failed or content is malformed
+	 */
+	public static Collection<StoredMessage> bytesToMessagesReverse(ByteBuffer content, boolean compressed) throws IOException
+	{
+		byte[] contentBytes = getMessageContentBytes(content, compressed, null);
+		return deserializeMessagesReverse(contentBytes);
+	}
+	
 	/**
 	 * Decompresses given ByteBuffer and deserializes messages till message with needed ID is found
 	 * @param content to deserialize needed message from
@@ -164,6 +246,78 @@ public class MessageUtils
 		return (StoredMessage)SerializationUtils.deserialize(bytes);
 	}
 	
+	/**
+	 * Reads sizes of serialized messages to find where each message starts
+	 */
+	private static int[] getMessageOffsets(byte[] contentBytes) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.wrap(contentBytes);
+		int[] result = new int[16];
+		int count = 0,
+				pos = 0;
+		while (pos < contentBytes.length)
+		{
+			if (pos+Integer.BYTES > contentBytes.length)
+				throw new IOException("Message size at position "+pos+" is truncated");
+			
+			int size = buffer.getInt(pos);
+			if (size < 0 || size > contentBytes.length-pos-Integer.BYTES)
+				throw new IOException("Invalid size of message at position "+pos+": "+size);
+			
+			if (count == result.length)
+				result = Arrays.copyOf(result, count*2);
+			result[count++] = pos;
+			pos += Integer.BYTES+size;
+		}
+		return Arrays.copyOf(result, count);
+	}
+	
+	
+	private static class ReverseMessages extends AbstractCollection<StoredMessage>
+	{
+		private final byte[] contentBytes;
+		private final int[] offsets;
+		
+		ReverseMessages(byte[] contentBytes, int[] offsets)
+		{
+			this.contentBytes = contentBytes;
+			this.offsets = offsets;
+		}
+		
+		@Override
+		public Iterator<StoredMessage> iterator()
+		{
+			return new Iterator<StoredMessage>()
+			{
+				private int next = offsets.length-1;
+				
+				@Override
+				public boolean hasNext()
+				{
+					return next >= 0;
+				}
+				
+				@Override
+				public StoredMessage next()
+				{
+					if (next < 0)
+						throw new NoSuchElementException();
+					
+					int offset = offsets[next--],
+							size = ByteBuffer.wrap(contentBytes).getInt(offset);
+					return (StoredMessage)SerializationUtils.deserialize(
+							new ByteArrayInputStream(contentBytes, offset+Integer.BYTES, size));
+				}
+			};
+		}
+		
+		@Override
+		public int size()
+		{
+			return offsets.length;
+		}
+	}
+	
 	private static byte[] getMessageContentBytes(ByteBuffer content, boolean compressed, StoredMessageId id) throws IOException
 	{
 		byte[] contentBytes = content.array();
@@ -17,7 +17,13 @@
 package com.exactpro.cradle.testevents;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
@@ -27,6 +33,7 @@ import org.testng.annotations.Test;
 
 import com.exactpro.cradle.utils.CradleIdException;
 import com.exactpro.cradle.utils.CradleStorageException;
+import com.exactpro.cradle.utils.TestEventUtils;
 
 public class StoredTestEventTest
 {
@@ -158,6 +165,44 @@ public class StoredTestEventTest
 		Assert.assertEquals(batch.hasSpace(event), false, "Batch shows if it has space to hold given test event");
 	}
 	
+	@Test
+	public void batchMetadataIsDecodedForConcurrentReaders() throws Exception
+	{
+		batch.addTestEvent(eventBuilder.id(DUMMY_ID).name(DUMMY_NAME).startTimestamp(DUMMY_START_TIMESTAMP).parentId(batch.getParentId()).build());
+		byte[] bytes = TestEventUtils.serializeTestEventsMetadata(batch.getTestEventsMetadata().getTestEvents());
+		
+		int readers = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(readers);
+		try
+		{
+			for (int i = 0; i < 1000; i++)
+			{
+				StoredTestEventMetadata metadata = new StoredTestEventMetadata();
+				metadata.setId(batchId);
+				metadata.setParentId(batch.getParentId());
+				metadata.setBatch(true);
+				metadata.setBatchMetadataBytes(bytes);
+				
+				CyclicBarrier barrier = new CyclicBarrier(readers);
+				List<Future<StoredTestEventBatchMetadata>> results = new ArrayList<>();
+				for (int r = 0; r < readers; r++)
+					results.add(executor.submit(() -> {
+						barrier.await();
+						return metadata.getBatchMetadata();
+					}));
+				
+				StoredTestEventBatchMetadata decoded = metadata.getBatchMetadata();
+				Assert.assertNotNull(decoded, "Decoded metadata");
+				for (Future<StoredTestEventBatchMetadata> result : results)
+					Assert.assertSame(result.get(), decoded, "Metadata got by concurrent reader");
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
 	@Test(expectedExceptions = {CradleStorageException.class}, expectedExceptionsMessageRegExp = "Test event with ID .* is already present in batch")
 	public void duplicateIds() throws CradleIdException, CradleStorageException
 	{
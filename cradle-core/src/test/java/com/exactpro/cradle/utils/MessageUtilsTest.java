@@ -18,8 +18,10 @@ package com.exactpro.cradle.utils;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
@@ -29,6 +31,7 @@ import com.exactpro.cradle.Direction;
 import com.exactpro.cradle.messages.MessageToStoreBuilder;
 import com.exactpro.cradle.messages.StoredMessage;
 import com.exactpro.cradle.messages.StoredMessageBatch;
+import com.exactpro.cradle.messages.StoredMessagePosition;
 import com.exactpro.cradle.utils.CradleStorageException;
 import com.exactpro.cradle.utils.MessageUtils;
 
@@ -85,4 +88,36 @@ public class MessageUtilsTest
 		StoredMessage restored = MessageUtils.deserializeOneMessage(bytes, msg2.getId());
 		Assert.assertEquals(restored.getId(), msg2.getId(), "ID of requested message");
 	}
+	
+	@Test
+	public void messagePositions() throws IOException
+	{
+		byte[] bytes = MessageUtils.serializeMessagePositions(batch.getMessages());
+		List<StoredMessagePosition> restored = MessageUtils.deserializeMessagePositions(bytes, batch.getId());
+		
+		Assert.assertEquals(restored.size(), 2, "Number of positions");
+		Assert.assertEquals(restored.get(0).getId(), msg1.getId(), "1st message ID");
+		Assert.assertEquals(restored.get(1).getId(), msg2.getId(), "2nd message ID");
+		Assert.assertEquals(restored.get(1).getTimestamp(), msg2.getTimestamp(), "2nd message timestamp");
+	}
+	
+	@Test
+	public void messagesInReverseOrder() throws IOException
+	{
+		byte[] bytes = MessageUtils.serializeMessages(batch.getMessages());
+		Collection<StoredMessage> restored = MessageUtils.deserializeMessagesReverse(bytes);
+		
+		Assert.assertEquals(restored.size(), 2, "Number of messages");
+		Iterator<StoredMessage> it = restored.iterator();
+		Assert.assertEquals(it.next().getId(), msg2.getId(), "1st message ID");
+		Assert.assertEquals(it.next().getId(), msg1.getId(), "2nd message ID");
+		Assert.assertFalse(it.hasNext(), "No more messages");
+	}
+	
+	@Test(expectedExceptions = IOException.class)
+	public void malformedContentInReverseOrder() throws IOException
+	{
+		byte[] bytes = MessageUtils.serializeMessages(batch.getMessages());
+		MessageUtils.deserializeMessagesReverse(Arrays.copyOf(bytes, bytes.length-1));
+	}
 }